@@ -4,6 +4,10 @@
 
 package com.huawei.demo.health;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import android.app.AlarmManager;
 import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
@@ -11,18 +15,18 @@ import android.app.PendingIntent;
 import android.app.Service;
 import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.graphics.BitmapFactory;
 import android.os.Build;
-import android.os.Handler;
-import android.os.HandlerThread;
 import android.os.IBinder;
-import android.os.Message;
+import android.os.SystemClock;
 import android.util.Log;
 
-import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
 
+import com.huawei.demo.health.metrics.TaskMetrics;
+import com.huawei.demo.health.task.KeepAliveScheduler;
 import com.huawei.health.demo.R;
 import com.huawei.hmf.tasks.OnFailureListener;
 import com.huawei.hmf.tasks.OnSuccessListener;
@@ -32,34 +36,93 @@ import com.huawei.hms.hihealth.HuaweiHiHealth;
 
 /**
  * Defining a Frontend ActivityRecordForegroundService
+ * Keeps the background activity records alive: each record is continued before the platform workout timeout.
+ * The wake-ups are AlarmManager windows shared by all records, planned by a KeepAliveScheduler whose interval
+ * adapts to the timeouts reported by the platform. The service stops itself when no record is left.
  *
  * @since 2020-09-05
  */
 public class ActivityRecordForegroundService extends Service {
+    /**
+     * Start following the record of EXTRA_ACTIVITY_RECORD_ID, after its begin call succeeded
+     */
+    public static final String ACTION_START = "com.huawei.demo.health.action.KEEP_ALIVE_START";
+
+    /**
+     * Stop following the record of EXTRA_ACTIVITY_RECORD_ID, after it ended
+     */
+    public static final String ACTION_STOP = "com.huawei.demo.health.action.KEEP_ALIVE_STOP";
+
+    /**
+     * The platform ended the record of EXTRA_ACTIVITY_RECORD_ID on timeout
+     */
+    public static final String ACTION_TIMEOUT = "com.huawei.demo.health.action.KEEP_ALIVE_TIMEOUT";
+
+    /**
+     * String extra: id of the activity record of the action
+     */
+    public static final String EXTRA_ACTIVITY_RECORD_ID = "activityRecordId";
+
     private static final String TAG = "ForegroundService";
 
-    // Internal context object
-    private Context context;
+    // Action of the alarm
+    private static final String ACTION_WAKE_UP = "com.huawei.demo.health.action.KEEP_ALIVE_WAKE_UP";
+
+    // Record of a start intent without id
+    private static final String DEFAULT_ACTIVITY_RECORD_ID = "MyBackgroundActivityRecordId";
+
+    // Keeps the observed timeout for the next workouts
+    private static final String PREFERENCES = "activity_record_keep_alive";
+
+    private static final String KEY_OBSERVED_TIMEOUT = "observedTimeoutMillis";
 
-    // Handler to send continue workout msg
-    private Handler mHandler;
+    // Wall clock time of the timeout, an older observation is not restored
+    private static final String KEY_OBSERVED_TIMEOUT_TIME = "observedTimeoutTime";
 
-    // Handler thread
-    private HandlerThread mHandlerThread;
+    private static final long OBSERVED_TIMEOUT_LIFETIME_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    // Internal context object
+    private Context context;
 
     // HMS Health ActivityRecordsController
     private ActivityRecordsController activityRecordsController;
 
-    // Continue ActivityRecord Msg what
-    private static final int MSG_WORKOUT_TIMEOUT = 1005;
+    private AlarmManager alarmManager;
 
-    // delayed time
-    private static final int WORKOUT_TIMEOUT = 540000;
+    // Deadlines and interval of the followed records
+    private KeepAliveScheduler scheduler;
+
+    // Number of alarms received and of continue calls sent, logged when the service ends
+    private int wakeUps;
+
+    private int continueCalls;
+
+    /**
+     * Create an intent for this service.
+     *
+     * @param context context
+     * @param action ACTION_START, ACTION_STOP or ACTION_TIMEOUT
+     * @param activityRecordId id of the activity record
+     * @return the intent, for startService
+     */
+    public static Intent newIntent(Context context, String action, String activityRecordId) {
+        return new Intent(context, ActivityRecordForegroundService.class).setAction(action)
+            .putExtra(EXTRA_ACTIVITY_RECORD_ID, activityRecordId);
+    }
 
     @Override
     public void onCreate() {
         super.onCreate();
         context = this;
+        activityRecordsController = HuaweiHiHealth.getActivityRecordsController(context);
+        alarmManager = (AlarmManager) getSystemService(Context.ALARM_SERVICE);
+        scheduler = new KeepAliveScheduler(KeepAliveScheduler.DEFAULT_INTERVAL_MILLIS,
+            KeepAliveScheduler.DEFAULT_MIN_INTERVAL_MILLIS);
+        SharedPreferences preferences = getPreferences();
+        long observedTime = preferences.getLong(KEY_OBSERVED_TIMEOUT_TIME, 0L);
+        if (System.currentTimeMillis() - observedTime < OBSERVED_TIMEOUT_LIFETIME_MILLIS) {
+            scheduler.restoreObservedTimeout(preferences.getLong(KEY_OBSERVED_TIMEOUT, 0L));
+        }
         Log.i(TAG, "ActivityRecordForegroundService is create.");
     }
 
@@ -71,68 +134,101 @@ public class ActivityRecordForegroundService extends Service {
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
-        // Binding a notification bar
-        getNotification();
-        initActivityRecordController();
-        initHandler();
-        // send continue ActivityRecord delayed message
-        mHandler.sendEmptyMessageDelayed(MSG_WORKOUT_TIMEOUT, WORKOUT_TIMEOUT);
-        return super.onStartCommand(intent, flags, startId);
-    }
-
-
-    /**
-     * init ActivityRecordsController
-     */
-    private void initActivityRecordController() {
-        activityRecordsController = HuaweiHiHealth.getActivityRecordsController(context);
+        String action = intent == null ? null : intent.getAction();
+        String activityRecordId = intent == null ? null : intent.getStringExtra(EXTRA_ACTIVITY_RECORD_ID);
+        if (activityRecordId == null) {
+            activityRecordId = DEFAULT_ACTIVITY_RECORD_ID;
+        }
+        long now = SystemClock.elapsedRealtime();
+        if (ACTION_WAKE_UP.equals(action)) {
+            wakeUps++;
+            continueDueActivityRecords(now);
+        } else if (ACTION_STOP.equals(action)) {
+            scheduler.remove(activityRecordId);
+        } else if (ACTION_TIMEOUT.equals(action)) {
+            long interval = scheduler.onTimeout(activityRecordId, now);
+            getPreferences().edit()
+                .putLong(KEY_OBSERVED_TIMEOUT, scheduler.getObservedTimeoutMillis())
+                .putLong(KEY_OBSERVED_TIMEOUT_TIME, System.currentTimeMillis())
+                .apply();
+            Log.i(TAG, activityRecordId + " timed out, keep-alive interval is now " + interval + " ms");
+        } else {
+            // ACTION_START, or a plain start intent of an older caller
+            // Binding a notification bar
+            getNotification();
+            scheduler.add(activityRecordId, now);
+        }
+        scheduleWakeUp();
+        return START_NOT_STICKY;
     }
 
-
     /**
-     * init handler to handle continue ActivityRecord msg
+     * Continue the records that are due, with one call per record in the same wake-up.
+     *
+     * @param now current elapsed realtime
      */
-    private void initHandler() {
-        if (mHandlerThread == null) {
-            Log.i(TAG, "mHandlerThread is null, begin to create");
-            mHandlerThread = new HandlerThread("healthkit_workout_thread_handler");
-            mHandlerThread.start();
-            mHandler = new Handler(mHandlerThread.getLooper()) {
-                @Override
-                public void handleMessage(@NonNull Message msg) {
-                    Log.d(TAG, "meed handle js unbind msg: " + msg.what);
-                    super.handleMessage(msg);
-                    if (msg.what == MSG_WORKOUT_TIMEOUT) {
-                        continueBackgroundActivityRecord();
-                    }
-                }
-            };
+    private void continueDueActivityRecords(long now) {
+        List<String> due = scheduler.takeDue(now);
+        for (String activityRecordId : due) {
+            continueBackgroundActivityRecord(activityRecordId);
         }
     }
 
     /**
      * Continue activity records run in background
+     *
+     * @param activityRecordId id of the activity record
      */
-    public void continueBackgroundActivityRecord() {
-        Log.i(TAG, "this is continue backgroundActivityRecord");
+    public void continueBackgroundActivityRecord(String activityRecordId) {
+        Log.i(TAG, "this is continue backgroundActivityRecord " + activityRecordId);
+        continueCalls++;
 
         // Call the related method of ActivityRecordsController to continue activity records run in background.
         // The input parameter can be the ID string of ActivityRecord
-        Task<Void> endTask = activityRecordsController.continueActivityRecord("MyBackgroundActivityRecordId");
-        endTask.addOnSuccessListener(new OnSuccessListener<Void>() {
+        Task<Void> continueTask = TaskMetrics.track(activityRecordsController.continueActivityRecord(activityRecordId),
+            "continueActivityRecord", null);
+        continueTask.addOnSuccessListener(new OnSuccessListener<Void>() {
             @Override
             public void onSuccess(Void aVoid) {
                 Log.i(TAG, "continue backgroundActivityRecord was successful!");
-                mHandler.sendEmptyMessageDelayed(MSG_WORKOUT_TIMEOUT, WORKOUT_TIMEOUT);
+                scheduler.onContinued(activityRecordId, SystemClock.elapsedRealtime());
             }
         }).addOnFailureListener(new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 Log.i(TAG, "continue backgroundActivityRecord error " + e.getMessage());
+                scheduler.onContinueFailed(activityRecordId, SystemClock.elapsedRealtime());
+                scheduleWakeUp();
             }
         });
     }
 
+    /**
+     * Set the alarm to the flex window that ends at the earliest deadline, or stop the service if no record is
+     * left. A window rather than an exact alarm lets the system deliver it with other wake-ups.
+     */
+    private void scheduleWakeUp() {
+        PendingIntent wakeUp = getWakeUpIntent();
+        if (scheduler.isEmpty()) {
+            alarmManager.cancel(wakeUp);
+            stopSelf();
+            return;
+        }
+        long flex = scheduler.getFlexMillis();
+        long windowStart = Math.max(SystemClock.elapsedRealtime(), scheduler.nextDeadline() - flex);
+        alarmManager.setWindow(AlarmManager.ELAPSED_REALTIME_WAKEUP, windowStart, flex, wakeUp);
+    }
+
+    private PendingIntent getWakeUpIntent() {
+        return PendingIntent.getService(context, 0,
+            new Intent(context, ActivityRecordForegroundService.class).setAction(ACTION_WAKE_UP),
+            PendingIntent.FLAG_UPDATE_CURRENT);
+    }
+
+    private SharedPreferences getPreferences() {
+        return getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+    }
+
     /**
      * Bind the service to the notification bar so that the service can be changed to a foreground service.
      */
@@ -159,7 +255,10 @@ public class ActivityRecordForegroundService extends Service {
     @Override
     public void onDestroy() {
         super.onDestroy();
-        mHandler.removeCallbacksAndMessages(null);
-        Log.i(TAG, "ActivityRecordForegroundService is destroy.");
+        alarmManager.cancel(getWakeUpIntent());
+        // Keep the timeout as relaxed by the successful calls, without renewing the time it was observed.
+        getPreferences().edit().putLong(KEY_OBSERVED_TIMEOUT, scheduler.getObservedTimeoutMillis()).apply();
+        Log.i(TAG, "ActivityRecordForegroundService is destroy, " + wakeUps + " wake-ups, " + continueCalls
+            + " continue calls, keep-alive interval " + scheduler.getIntervalMillis() + " ms");
     }
 }
@@ -16,7 +16,9 @@
 
 package com.huawei.demo.health;
 
+import java.io.File;
 import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
@@ -24,18 +26,32 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
-import android.text.method.ScrollingMovementMethod;
 import android.view.View;
-import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.huawei.demo.health.importer.ActivityRecordImporter;
+import com.huawei.demo.health.importer.WorkoutMapper;
+import com.huawei.demo.health.log.LogConsole;
+import com.huawei.demo.health.metrics.TaskMetrics;
+import com.huawei.demo.health.recorder.LiveActivitySummary;
+import com.huawei.demo.health.recorder.RecorderRegistry;
+import com.huawei.demo.health.sync.RecordStore;
+import com.huawei.demo.health.sync.RecordSyncEngine;
+import com.huawei.demo.health.task.ResultExecutor;
+import com.huawei.demo.health.task.RetryScheduler;
+import com.huawei.demo.health.util.TimeFormatUtil;
 import com.huawei.health.demo.R;
 import com.huawei.hmf.tasks.OnFailureListener;
 import com.huawei.hmf.tasks.OnSuccessListener;
@@ -55,11 +71,7 @@ import com.huawei.hms.hihealth.data.SamplePoint;
 import com.huawei.hms.hihealth.data.SampleSet;
 import com.huawei.hms.hihealth.options.ActivityRecordDeleteOptions;
 import com.huawei.hms.hihealth.options.ActivityRecordInsertOptions;
-import com.huawei.hms.hihealth.options.ActivityRecordReadOptions;
 import com.huawei.hms.hihealth.options.OnActivityRecordListener;
-import com.huawei.hms.hihealth.result.ActivityRecordReply;
-
-import static java.text.DateFormat.getTimeInstance;
 
 /**
  * ActivityRecord Sample Code
@@ -69,6 +81,9 @@ import static java.text.DateFormat.getTimeInstance;
 public class HealthKitActivityRecordControllerActivity extends AppCompatActivity {
     private static final String TAG = "ActivityRecordSample";
 
+    // Folder of the app files directory holding the GPX, TCX and FIT files to import
+    private static final String IMPORT_DIRECTORY = "import";
+
     // Line separators for the display on the UI
     private static final String SPLIT = "*******************************" + System.lineSeparator();
 
@@ -82,7 +97,22 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
     private DataController dataController;
 
     // Text view for displaying operation information on the UI
-    private TextView logInfoView;
+    private LogConsole logInfoView;
+
+    // Processes the results of the controller calls off the main thread
+    private ResultExecutor resultExecutor;
+
+    // Delta sync of the activity records into the local mirror
+    private RecordSyncEngine recordSyncEngine;
+
+    // Background thread for the blocking record sync and import
+    private final ExecutorService readExecutor = Executors.newSingleThreadExecutor();
+
+    // Running totals of the records begun on this screen, by activity record id
+    private final Map<String, LiveActivitySummary> liveSummaries = new ConcurrentHashMap<>();
+
+    // Recordings of LiveActivitySummary.DATA_TYPES taken for the records begun on this screen, by activity record id
+    private final Map<String, List<RecorderRegistry.Subscription>> liveRecordings = new ConcurrentHashMap<>();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -91,6 +121,17 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
         init();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        readExecutor.shutdownNow();
+        resultExecutor.shutdown();
+        for (String activityRecordId : liveRecordings.keySet()) {
+            releaseLiveRecordings(activityRecordId);
+        }
+        liveSummaries.clear();
+    }
+
     /**
      * Initialization
      */
@@ -98,8 +139,9 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
         context = this;
         dataController = HuaweiHiHealth.getDataController(context);
         activityRecordsController = HuaweiHiHealth.getActivityRecordsController(context);
-        logInfoView = (TextView) findViewById(R.id.activity_records_controller_log_info);
-        logInfoView.setMovementMethod(ScrollingMovementMethod.getInstance());
+        logInfoView = new LogConsole(findViewById(R.id.activity_records_controller_log_info));
+        resultExecutor = new ResultExecutor(TAG, logInfoView);
+        recordSyncEngine = new RecordSyncEngine(activityRecordsController, null, RecordStore.getInstance(context));
     }
 
     /**
@@ -126,17 +168,20 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
         checkConnect();
 
         // begin ActivityRecord
-        Task<Void> beginTask = activityRecordsController.beginActivityRecord(activityRecord);
+        Task<Void> beginTask = TaskMetrics.track(activityRecordsController.beginActivityRecord(activityRecord),
+            "beginActivityRecord", null);
 
         // Add a listener for the ActivityRecord start success
-        beginTask.addOnSuccessListener(new OnSuccessListener<Void>() {
+        ResultExecutor.Operation operation = resultExecutor.begin("beginActivityRecord");
+        beginTask.addOnSuccessListener(operation, new OnSuccessListener<Void>() {
             @Override
             public void onSuccess(Void voidValue) {
+                startLiveSummary("MyBeginActivityRecordId", startTime);
                 logger("Begin MyActivityRecord was successful!");
             }
 
             // Add a listener for the ActivityRecord start failure
-        }).addOnFailureListener(new OnFailureListener() {
+        }).addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "beginActivityRecord");
@@ -175,27 +220,32 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
             @Override
             public void onStatusChange(int statusCode) {
                 logger("onStatusChange statusCode:" + statusCode);
-                if (HiHealthStatusCodes.WORK_OUT_TIME_OUT == statusCode
-                    || HiHealthStatusCodes.WORK_OUT_BE_OCCUPIED == statusCode) {
-                    stopService(getForegroundServiceIntent());
+                // A timeout also adapts the keep-alive interval of the service
+                if (HiHealthStatusCodes.WORK_OUT_TIME_OUT == statusCode) {
+                    startService(getForegroundServiceIntent(ActivityRecordForegroundService.ACTION_TIMEOUT));
+                } else if (HiHealthStatusCodes.WORK_OUT_BE_OCCUPIED == statusCode) {
+                    startService(getForegroundServiceIntent(ActivityRecordForegroundService.ACTION_STOP));
                 }
             }
         };
 
         // begin ActivityRecord
-        Task<Void> beginTask =
-            activityRecordsController.beginActivityRecord(activityRecord, componentName, activityRecordListener);
+        Task<Void> beginTask = TaskMetrics.track(
+            activityRecordsController.beginActivityRecord(activityRecord, componentName, activityRecordListener),
+            "beginActivityRecord", null);
 
         // Add a listener for the ActivityRecord start success
-        beginTask.addOnSuccessListener(new OnSuccessListener<Void>() {
+        ResultExecutor.Operation operation = resultExecutor.begin("beginActivityRecord");
+        beginTask.addOnSuccessListener(operation, new OnSuccessListener<Void>() {
             @Override
             public void onSuccess(Void voidValue) {
-                startService(getForegroundServiceIntent());
+                startService(getForegroundServiceIntent(ActivityRecordForegroundService.ACTION_START));
+                startLiveSummary("MyBackgroundActivityRecordId", startTime);
                 logger("Begin MyActivityRecord was successful!");
             }
 
             // Add a listener for the ActivityRecord start failure
-        }).addOnFailureListener(new OnFailureListener() {
+        }).addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "beginActivityRecord");
@@ -215,9 +265,10 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
         // The input parameter can be the ID string of ActivityRecord or null
         // Stop an activity record of the current app by specifying the ID string as the input parameter
         // Stop activity records of the current app by specifying null as the input parameter
-        Task<List<ActivityRecord>> endTask =
-            activityRecordsController.endActivityRecord("MyBackgroundActivityRecordId");
-        endTask.addOnSuccessListener(new OnSuccessListener<List<ActivityRecord>>() {
+        Task<List<ActivityRecord>> endTask = TaskMetrics.track(
+            activityRecordsController.endActivityRecord("MyBackgroundActivityRecordId"), "endActivityRecord", null);
+        ResultExecutor.Operation operation = resultExecutor.begin("endBackgroundActivityRecord");
+        endTask.addOnSuccessListener(operation, new OnSuccessListener<List<ActivityRecord>>() {
             @Override
             public void onSuccess(List<ActivityRecord> activityRecords) {
                 logger("End MyBackgroundActivity was successful!");
@@ -230,11 +281,12 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
                     // Null will be returnded if none of the activity records has stopped
                     logger("MyBackgroundActivity End response is null");
                 }
+                endLiveSummary("MyBackgroundActivityRecordId");
 
-                // stop service if has started
-                stopService(getForegroundServiceIntent());
+                // stop keeping the record alive, the service stops when no record is left
+                startService(getForegroundServiceIntent(ActivityRecordForegroundService.ACTION_STOP));
             }
-        }).addOnFailureListener(new OnFailureListener() {
+        }).addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "endBackgroundActivityRecord");
@@ -242,6 +294,58 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
         });
     }
 
+    /**
+     * Follow the real-time points of a record that has begun, so that its summary is ready when it ends.
+     *
+     * @param activityRecordId id of the activity record
+     * @param startTime start time of the activity record in milliseconds
+     */
+    private void startLiveSummary(String activityRecordId, long startTime) {
+        releaseLiveRecordings(activityRecordId);
+        LiveActivitySummary liveSummary = new LiveActivitySummary(startTime);
+        liveSummaries.put(activityRecordId, liveSummary);
+        // The registry starts the recordings the totals need, or shares the ones PersistService already runs.
+        RecorderRegistry recorderRegistry = RecorderRegistry.getInstance(context);
+        List<RecorderRegistry.Subscription> subscriptions = new ArrayList<>();
+        for (DataType dataType : LiveActivitySummary.DATA_TYPES) {
+            subscriptions.add(recorderRegistry.acquire(dataType, this, liveSummary));
+        }
+        liveRecordings.put(activityRecordId, subscriptions);
+    }
+
+    /**
+     * Release the recordings taken for a record, each stops unless another owner still records its type.
+     *
+     * @param activityRecordId id of the activity record
+     */
+    private void releaseLiveRecordings(String activityRecordId) {
+        List<RecorderRegistry.Subscription> subscriptions = liveRecordings.remove(activityRecordId);
+        if (subscriptions == null) {
+            return;
+        }
+        for (RecorderRegistry.Subscription subscription : subscriptions) {
+            String dataTypeName = subscription.getDataType().getName();
+            subscription.release()
+                .addOnFailureListener(e -> logger("stop " + dataTypeName + " failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Stop following the points of a record that has ended, and print the summary of its running totals.
+     *
+     * @param activityRecordId id of the activity record
+     */
+    private void endLiveSummary(String activityRecordId) {
+        LiveActivitySummary liveSummary = liveSummaries.remove(activityRecordId);
+        if (liveSummary == null) {
+            return;
+        }
+        releaseLiveRecordings(activityRecordId);
+        logger("Live summary of " + activityRecordId + ": " + liveSummary.getSteps() + " steps, "
+            + liveSummary.getDistance() + " m, " + liveSummary.getIgnoredPoints() + " points ignored");
+        printActivitySummary(liveSummary.toActivitySummary(context.getPackageName()));
+    }
+
     private ActivitySummary getActivitySummary() {
         ActivitySummary activitySummary = new ActivitySummary();
         PaceSummary paceSummary = new PaceSummary();
@@ -278,8 +382,10 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
         // The input parameter can be the ID string of ActivityRecord or null
         // Stop an activity record of the current app by specifying the ID string as the input parameter
         // Stop activity records of the current app by specifying null as the input parameter
-        Task<List<ActivityRecord>> endTask = activityRecordsController.endActivityRecord("MyBeginActivityRecordId");
-        endTask.addOnSuccessListener(new OnSuccessListener<List<ActivityRecord>>() {
+        Task<List<ActivityRecord>> endTask = TaskMetrics.track(
+            activityRecordsController.endActivityRecord("MyBeginActivityRecordId"), "endActivityRecord", null);
+        ResultExecutor.Operation operation = resultExecutor.begin("endActivityRecord");
+        endTask.addOnSuccessListener(operation, new OnSuccessListener<List<ActivityRecord>>() {
             @Override
             public void onSuccess(List<ActivityRecord> activityRecords) {
                 logger("End MyActivityRecord was successful!");
@@ -292,8 +398,9 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
                     // Null will be returnded if none of the activity records has stopped
                     logger("MyActivityRecord End response is null");
                 }
+                endLiveSummary("MyBeginActivityRecordId");
             }
-        }).addOnFailureListener(new OnFailureListener() {
+        }).addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "endActivityRecord");
@@ -389,13 +496,20 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
         checkConnect();
 
         // Call the related method in the ActivityRecordsController to add activity records
-        Task<Void> addTask = activityRecordsController.addActivityRecord(insertRequest);
-        addTask.addOnSuccessListener(new OnSuccessListener<Void>() {
+        // The record is sent again if the request fails with a transient status code.
+        Task<Void> addTask = RetryScheduler.getInstance()
+            .execute("ActivityRecordsController", "addActivityRecord",
+                () -> activityRecordsController.addActivityRecord(insertRequest));
+        TaskMetrics.track(addTask, "addActivityRecord", null, 1);
+        ResultExecutor.Operation operation = resultExecutor.begin("addActivityRecord");
+        addTask.addOnSuccessListener(operation, new OnSuccessListener<Void>() {
             @Override
             public void onSuccess(Void voidValue) {
                 logger("Add MyActivityRecord was successful!");
+                // The record is read by the next sync of the mirror, even if it was added with past dates.
+                recordSyncEngine.markActivityRecordWritten("MyAddActivityRecordId", startTime);
             }
-        }).addOnFailureListener(new OnFailureListener() {
+        }).addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "addActivityRecord");
@@ -404,56 +518,15 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
     }
 
     /**
-     * Read historical activity records
+     * Read historical activity records of the last day. The local mirror is brought up to date by a sync, which is
+     * a delta read unless a read of the whole window is due, and the records are printed from the mirror.
      *
      * @param view indicating a UI object
      */
     public void getActivityRecord(View view) {
         logger(SPLIT + "this is MyActivityRecord Get");
-
-        // Build the time range of the request object: start time and end time
-        Calendar cal = Calendar.getInstance();
-        Date now = new Date();
-        cal.setTime(now);
-        long endTime = cal.getTimeInMillis();
-        cal.add(Calendar.DAY_OF_YEAR, -1);
-        long startTime = cal.getTimeInMillis();
-
-        // Build the request body for reading activity records
-        ActivityRecordReadOptions readRequest =
-            new ActivityRecordReadOptions.Builder().setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS)
-                .readActivityRecordsFromAllApps()
-                .read(DataType.DT_INSTANTANEOUS_STEPS_RATE)
-                .build();
-
         checkConnect();
-
-        // Call the read method of the ActivityRecordsController to obtain activity records
-        // from the Health platform based on the conditions in the request body
-        Task<ActivityRecordReply> getTask = activityRecordsController.getActivityRecord(readRequest);
-        getTask.addOnSuccessListener(new OnSuccessListener<ActivityRecordReply>() {
-            @Override
-            public void onSuccess(ActivityRecordReply activityRecordReply) {
-                logger("Get MyActivityRecord was successful!");
-
-                // Print ActivityRecord and corresponding activity data in the result
-                List<ActivityRecord> activityRecordList = activityRecordReply.getActivityRecords();
-                for (ActivityRecord activityRecord : activityRecordList) {
-                    if (activityRecord == null) {
-                        continue;
-                    }
-                    dumpActivityRecord(activityRecord);
-                    for (SampleSet sampleSet : activityRecordReply.getSampleSet(activityRecord)) {
-                        dumpSampleSet(sampleSet);
-                    }
-                }
-            }
-        }).addOnFailureListener(new OnFailureListener() {
-            @Override
-            public void onFailure(Exception e) {
-                printFailureMessage(e, "getActivityRecord");
-            }
-        });
+        readExecutor.execute(() -> syncAndPrint("getActivityRecord", TimeUnit.DAYS.toMillis(1)));
     }
 
     /**
@@ -487,13 +560,16 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
 
         // Call the delete method of the ActivityRecordsController
         // from the Health platform based on the conditions in the request body
-        Task<Void> deleteTask = activityRecordsController.deleteActivityRecord(deleteRequest);
-        deleteTask.addOnSuccessListener(new OnSuccessListener<Void>() {
+        Task<Void> deleteTask = TaskMetrics.track(activityRecordsController.deleteActivityRecord(deleteRequest),
+            "deleteActivityRecord", null);
+        ResultExecutor.Operation operation = resultExecutor.begin("deleteActivityRecord");
+        deleteTask.addOnSuccessListener(operation, new OnSuccessListener<Void>() {
             @Override
             public void onSuccess(Void aVoid) {
                 logger("Delete MyActivityRecord was successful!");
+                recordSyncEngine.markDeleted(RecordStore.KIND_ACTIVITY_RECORD, activityRecordIds);
             }
-        }).addOnFailureListener(new OnFailureListener() {
+        }).addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "deleteActivityRecord");
@@ -502,23 +578,86 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
     }
 
     /**
-     * Print the SamplePoint in the SampleSet object as an output.
+     * Read the activity records written since the last sync into the local mirror, and print the mirror.
+     *
+     * @param view indicating a UI object
+     */
+    public void syncActivityRecord(View view) {
+        logger(SPLIT + "this is MyActivityRecord Sync");
+        checkConnect();
+        readExecutor.execute(() -> syncAndPrint("syncActivityRecord", RecordSyncEngine.INITIAL_SYNC_MILLIS));
+    }
+
+    /**
+     * Sync the mirror and print its activity records of a range ending now. Runs on the read executor.
      *
-     * @param sampleSet indicating the sampling dataset)
+     * @param api name of the calling operation, for the logs
+     * @param rangeMillis length of the printed range
      */
-    private void dumpSampleSet(SampleSet sampleSet) {
-        logger("Returned for SamplePoint and Data type: " + sampleSet.getDataType().getName());
-        for (SamplePoint dp : sampleSet.getSamplePoints()) {
-            DateFormat dateFormat = getTimeInstance();
-            logger("SamplePoint:");
-            logger("DataCollector:" + dp.getDataCollector().toString());
-            logger("\tType: " + dp.getDataType().getName());
-            logger("\tStart: " + dateFormat.format(dp.getStartTime(TimeUnit.MILLISECONDS)));
-            logger("\tEnd: " + dateFormat.format(dp.getEndTime(TimeUnit.MILLISECONDS)));
-            for (Field field : dp.getDataType().getFields()) {
-                logger("\tField: " + field.toString() + " Value: " + dp.getFieldValue(field));
+    private void syncAndPrint(String api, long rangeMillis) {
+        try {
+            long now = System.currentTimeMillis();
+            long previousMark = recordSyncEngine.getActivityRecordHighWaterMark();
+            int stored = recordSyncEngine.syncActivityRecords(now);
+            logger(api + " was successful! " + stored + " records read since "
+                + (previousMark == 0 ? "the first sync" : TimeFormatUtil.format(previousMark)));
+            List<RecordStore.Row> rows =
+                RecordStore.getInstance(context).query(RecordStore.KIND_ACTIVITY_RECORD, now - rangeMillis, now + 1);
+            for (RecordStore.Row row : rows) {
+                logger(row.toString());
             }
+        } catch (ExecutionException e) {
+            printFailureMessage(e.getCause() instanceof Exception ? (Exception) e.getCause() : e, api);
+        } catch (InterruptedException | TimeoutException e) {
+            printFailureMessage(e, api);
+        }
+    }
+
+    /**
+     * Import the GPX, TCX and FIT files of the import folder of the app files directory as activity records.
+     * Each file is parsed once and its record checked with WorkoutMapper.check before it is sent: a malformed file
+     * is reported and skipped, the others are inserted with at most ActivityRecordImporter.DEFAULT_MAX_IN_FLIGHT
+     * calls in flight.
+     *
+     * @param view indicating a UI object
+     */
+    public void importActivityRecords(View view) {
+        logger(SPLIT + "this is MyActivityRecord Import");
+        File[] listed = new File(getFilesDir(), IMPORT_DIRECTORY).listFiles(File::isFile);
+        if (listed == null || listed.length == 0) {
+            logger("No file to import in " + new File(getFilesDir(), IMPORT_DIRECTORY).getPath());
+            return;
         }
+        List<File> files = new ArrayList<>(Arrays.asList(listed));
+        checkConnect();
+        readExecutor.execute(() -> {
+            WorkoutMapper mapper = new WorkoutMapper(context.getPackageName());
+            ActivityRecordImporter.Listener listener = new ActivityRecordImporter.Listener() {
+                @Override
+                public void onFileImported(File file, ActivityRecordImporter.Stats stats) {
+                }
+
+                @Override
+                public void onFileFailed(File file, Exception e) {
+                    logger("Import of " + file.getName() + " failed: " + e.getMessage());
+                }
+            };
+            ActivityRecordImporter importer =
+                new ActivityRecordImporter(activityRecordsController::addActivityRecord, mapper);
+            importer.setListener(listener);
+            try {
+                ActivityRecordImporter.Stats stats = importer.importFiles(files);
+                logger("Import MyActivityRecord was successful! " + stats);
+                if (stats.getRecordsInserted() > 0) {
+                    // The imported workouts keep their own dates, the next sync reads the whole window.
+                    recordSyncEngine.requestActivityRecordFullSync();
+                }
+            } catch (InterruptedException e) {
+                printFailureMessage(e, "importActivityRecords");
+            } finally {
+                importer.shutdown();
+            }
+        });
     }
 
     /**
@@ -583,7 +722,7 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
     }
 
     /**
-     * Send the operation result logs to the logcat and TextView control on the UI
+     * Send the operation result logs to the logcat and the log console on the UI
      *
      * @param string indicating the log string
      */
@@ -602,13 +741,12 @@ public class HealthKitActivityRecordControllerActivity extends AppCompatActivity
     }
 
     /**
-     * get Intent to start/stop ForegroundService
+     * get Intent to start/stop keeping the background activity record alive in the ForegroundService
      *
+     * @param action action of ActivityRecordForegroundService
      * @return Intent Foreground Service Intent
      */
-    private Intent getForegroundServiceIntent() {
-        Intent intent = new Intent();
-        intent.setClassName(getPackageName(), "com.huawei.demo.health.ActivityRecordForegroundService");
-        return intent;
+    private Intent getForegroundServiceIntent(String action) {
+        return ActivityRecordForegroundService.newIntent(this, action, "MyBackgroundActivityRecordId");
     }
 }
@@ -16,39 +16,37 @@
 
 package com.huawei.demo.health;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
-import android.annotation.SuppressLint;
-import android.app.Activity;
-import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
-import android.net.Uri;
-import android.os.Build;
 import android.os.Bundle;
-import android.os.PowerManager;
-import android.provider.Settings;
-import android.text.method.ScrollingMovementMethod;
 import android.util.Log;
 import android.view.View;
-import android.widget.TextView;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.huawei.demo.health.data.BulkInsertPipeline;
+import com.huawei.demo.health.data.SampleStore;
+import com.huawei.demo.health.log.LogConsole;
+import com.huawei.demo.health.recorder.RecorderRegistry;
+import com.huawei.demo.health.recorder.SamplePointBus;
+import com.huawei.demo.health.recorder.SamplePointJournal;
+import com.huawei.demo.health.recorder.SamplingPolicy;
+import com.huawei.demo.health.util.TimeFormatUtil;
 import com.huawei.health.demo.R;
-import com.huawei.hmf.tasks.OnCompleteListener;
-import com.huawei.hmf.tasks.OnFailureListener;
-import com.huawei.hmf.tasks.OnSuccessListener;
-import com.huawei.hmf.tasks.Task;
-import com.huawei.hms.hihealth.AutoRecorderController;
+import com.huawei.hms.hihealth.DataController;
 import com.huawei.hms.hihealth.HuaweiHiHealth;
-import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.DataCollector;
 import com.huawei.hms.hihealth.data.Field;
 import com.huawei.hms.hihealth.data.SamplePoint;
-import com.huawei.hms.hihealth.options.OnSamplePointListener;
+import com.huawei.hms.hihealth.data.SampleSet;
 
 /**
  * AutoRecorderController Sample code
@@ -61,77 +59,42 @@ public class HealthKitAutoRecorderControllerActivity extends AppCompatActivity {
     // Line separators for the display on the UI
     private static final String SPLIT = "*******************************" + System.lineSeparator();
 
-    // HMS Health AutoRecorderController
-    private AutoRecorderController autoRecorderController;
-
     private Context mContext;
 
     // Text control that displays action information on the page
-    private TextView logInfoView;
+    private LogConsole logInfoView;
 
     private Intent intent;
 
-    // Defining a Dynamic Broadcast Receiver
-    private MyReceiver receiver = null;
-
-    // Record Start Times
-    int count = 0;
+    // Subscription to the real-time points published by PersistService
+    private SamplePointBus.Subscription subscription;
 
-    // WakeLock
-    private PowerManager.WakeLock wl;
-
-    /**
-     * add app to the battery optimization trust list, to avoid the app be killed
-     *
-     * @param activity activity
-     */
-    public void ignoreBatteryOptimization(Activity activity) {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-            try {
-                /**
-                 * Check whether the current app is added to the battery optimization trust list,
-                 * If not, a dialog box is displayed for you to add a battery optimization trust list.
-                 */
-                PowerManager powerManager = (PowerManager) getSystemService(POWER_SERVICE);
-                boolean hasIgnored = powerManager.isIgnoringBatteryOptimizations(activity.getPackageName());
-                if (!hasIgnored) {
-                    Intent newIntent = new Intent(Settings.ACTION_REQUEST_IGNORE_BATTERY_OPTIMIZATIONS);
-                    newIntent.setData(Uri.parse("package:" + activity.getPackageName()));
-                    startActivity(newIntent);
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
-    }
+    // Background thread for the blocking journal replay
+    private final ExecutorService journalExecutor = Executors.newSingleThreadExecutor();
 
-    @SuppressLint("InvalidWakeLockTag")
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_health_autorecorder);
         mContext = this;
-        logInfoView = (TextView) findViewById(R.id.auto_recorder_log_info);
-        logInfoView.setMovementMethod(ScrollingMovementMethod.getInstance());
+        logInfoView = new LogConsole(findViewById(R.id.auto_recorder_log_info));
+        // No wake lock is held by the screen: PersistService holds a short one only while journaled points
+        // are forced to storage, and the AutoRecorderController wakes the app for its sensor batches.
         initData();
-        PowerManager pm = (PowerManager) mContext.getSystemService(Context.POWER_SERVICE);
-        wl = pm.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, TAG);
-        wl.acquire();
-        Log.i(TAG, " wakelock wl.acquire(); ");
-    }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
-        ignoreBatteryOptimization(this);
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        wl.release();
-        wl = null;
-        Log.i(TAG, " wakelock wl.release(); ");
+        if (subscription != null) {
+            subscription.cancel();
+            subscription = null;
+        }
+        journalExecutor.shutdownNow();
+        // Reports the recordings whose owner went away without stopping them
+        for (String leak : RecorderRegistry.getInstance(this).detectLeaks()) {
+            Log.w(TAG, leak);
+        }
     }
 
     private void initData() {
@@ -144,8 +107,6 @@ public class HealthKitAutoRecorderControllerActivity extends AppCompatActivity {
     protected void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
         Log.i(TAG, "signIn onActivityResult");
         super.onActivityResult(requestCode, resultCode, data);
-
-        autoRecorderController = HuaweiHiHealth.getAutoRecorderController(HealthKitAutoRecorderControllerActivity.this);
     }
 
     /**
@@ -158,7 +119,7 @@ public class HealthKitAutoRecorderControllerActivity extends AppCompatActivity {
             logger("Sample point type: " + samplePoint.getDataType().getName());
             for (Field field : samplePoint.getDataType().getFields()) {
                 logger("Field: " + field.getName() + " Value: " + samplePoint.getFieldValue(field));
-                logger(stampToData(String.valueOf(System.currentTimeMillis())));
+                logger(TimeFormatUtil.format(System.currentTimeMillis()));
             }
         } else {
             logger("samplePoint is null!! ");
@@ -167,18 +128,18 @@ public class HealthKitAutoRecorderControllerActivity extends AppCompatActivity {
     }
 
     /**
-     * Timestamp conversion function
-     *
-     * @param timeStr Timestamp
-     * @return Time in date format
+     * Show the latest point of each recorded type kept in memory by PersistService.
      */
-    private String stampToData(String timeStr) {
-        String res;
-        SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        long it = Long.parseLong(timeStr);
-        Date date = new Date(it);
-        res = simpleDateFormat.format(date);
-        return res;
+    private void showStoredSamplePoints() {
+        SampleStore sampleStore = SampleStore.getInstance();
+        for (SamplingPolicy policy : SamplingPolicy.DEFAULTS) {
+            SamplePoint samplePoint = sampleStore.latest(policy.getDataType());
+            if (samplePoint != null) {
+                long startTime = samplePoint.getStartTime(TimeUnit.MILLISECONDS);
+                logger("Latest stored point, recorded at " + TimeFormatUtil.format(startTime));
+                showSamplePoint(samplePoint);
+            }
+        }
     }
 
     /**
@@ -187,36 +148,13 @@ public class HealthKitAutoRecorderControllerActivity extends AppCompatActivity {
      * @param view the button view
      */
     public void startRecordByType(View view) {
-        if (count < 1) {
-            startService(intent);
-            // Registering a Broadcast Receiver
-            receiver = new MyReceiver();
-            IntentFilter filter = new IntentFilter();
-            filter.addAction("HealthKitService");
-            this.registerReceiver(receiver, filter);
-            count++;
-        } else {
-            this.unregisterReceiver(receiver);
-            count--;
-            startService(intent);
-            // Registering a Broadcast Receiver
-            receiver = new MyReceiver();
-            IntentFilter filter = new IntentFilter();
-            filter.addAction("HealthKitService");
-            this.registerReceiver(receiver, filter);
-            count++;
-        }
-    }
-
-    /**
-     * dynamic broadcast receiver
-     */
-    public class MyReceiver extends BroadcastReceiver {
-        @Override
-        public void onReceive(Context context, Intent intent) {
-            Bundle bundle = intent.getExtras();
-            SamplePoint samplePoint = (SamplePoint) bundle.get("SamplePoint");
-            showSamplePoint(samplePoint);
+        startService(intent);
+        // A service that was already running kept its points in the SampleStore, the latest of each type is shown
+        // until the bus delivers new ones.
+        showStoredSamplePoints();
+        // The service publishes the real-time points to the bus, only the latest point is shown on each frame.
+        if (subscription == null) {
+            subscription = SamplePointBus.getInstance().subscribe(this::showSamplePoint);
         }
     }
 
@@ -227,60 +165,120 @@ public class HealthKitAutoRecorderControllerActivity extends AppCompatActivity {
      */
     public void stopRecordByType(View view) {
         logger("stopRecordByType");
-        if (autoRecorderController == null) {
-            autoRecorderController = HuaweiHiHealth.getAutoRecorderController(this);
+        // The recordings are owned by PersistService through the RecorderRegistry, which stops each type with the
+        // listener it was started with once no other owner records it.
+        stopService(intent);
+        if (subscription != null) {
+            subscription.cancel();
+            subscription = null;
         }
+        logger(SPLIT);
+    }
 
-        autoRecorderController.stopRecord(DataType.DT_CONTINUOUS_STEPS_TOTAL, onSamplePointListener)
-            .addOnCompleteListener(new OnCompleteListener<Void>() {
-                @Override
-                public void onComplete(Task<Void> taskResult) {
-                    // the interface won't always success, if u use the onComplete interface, u should add the judgement
-                    // of result is successful or not. the fail reason include:
-                    // 1.the app hasn't been granted the scropes
-                    // 2.this type is not supported so far
-                    if (taskResult.isSuccessful()) {
-                        logger("onComplete stopRecordByType Successful");
-                    } else {
-                        logger("onComplete stopRecordByType Failed");
-                    }
-                }
-            })
-            .addOnSuccessListener(new OnSuccessListener<Void>() {
+    /**
+     * Insert the real-time points kept in the local journal by PersistService, in bulk through the data controller.
+     * Replayed segments are deleted once all their points are inserted.
+     *
+     * @param view the button view
+     */
+    public void replayJournal(View view) {
+        final DataController dataController = HuaweiHiHealth.getDataController(this);
+        final File directory = new File(getFilesDir(), PersistService.JOURNAL_DIRECTORY);
+
+        // Each journaled data type is inserted with a DataCollector of this app. Cumulative types are journaled as
+        // their delta types, the points of a cumulative type left by an older journal are skipped.
+        final SamplePointJournal.DataCollectorProvider provider = dataTypeName -> {
+            SamplingPolicy policy = journaledPolicy(dataTypeName);
+            if (policy == null) {
+                return null;
+            }
+            return new DataCollector.Builder().setPackageName(mContext)
+                .setDataType(policy.getJournalDataType())
+                .setDataStreamName(journalStreamName(dataTypeName))
+                .setDataGenerateType(DataCollector.DATA_TYPE_RAW)
+                .build();
+        };
+
+        logger("Begin journal replay into HMS core");
+        journalExecutor.execute(() -> {
+            BulkInsertPipeline pipeline = new BulkInsertPipeline(dataController);
+            pipeline.setListener(new BulkInsertPipeline.Listener() {
                 @Override
-                public void onSuccess(Void result) {
-                    // u could call addOnSuccessListener to print something
-                    logger("onSuccess stopRecordByType Successful");
-                    logger(SPLIT);
+                public void onChunkInserted(SampleSet sampleSet, BulkInsertPipeline.Stats stats) {
                 }
-            })
-            .addOnFailureListener(new OnFailureListener() {
+
                 @Override
-                public void onFailure(Exception e) {
-                    // otherwise u could call addOnFailureListener to catch the fail result
-                    logger("onFailure stopRecordByType Failed: " + e.getMessage());
-                    logger(SPLIT);
+                public void onChunkFailed(SampleSet sampleSet, Exception e) {
+                    runOnUiThread(() -> logger("journal replay chunk failed: " + e.getMessage()));
                 }
             });
-        if (count > 0) {
-            stopService(intent);
-            this.unregisterReceiver(receiver);
-            count--;
+            SamplePointJournal journal = null;
+            try {
+                journal = SamplePointJournal.open(directory);
+                long droppedBefore = journal.getDroppedPoints();
+                BulkInsertPipeline.Stats stats = journal.replay(provider, pipeline);
+                long dropped = journal.getDroppedPoints() - droppedBefore;
+                for (SamplingPolicy policy : SamplingPolicy.DEFAULTS) {
+                    HealthKitDataControllerActivity.SUMMATION_CACHE.invalidate(policy.getJournalDataType().getName());
+                }
+                runOnUiThread(() -> {
+                    logger("Success journal replay into HMS core: " + stats + ", " + dropped + " points dropped");
+                    logger(SPLIT);
+                });
+            } catch (IOException e) {
+                runOnUiThread(() -> logger("journal replay failed: " + e.getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                closeJournal(journal);
+                pipeline.shutdown();
+            }
+        });
+    }
+
+    private static SamplingPolicy journaledPolicy(String dataTypeName) {
+        for (SamplingPolicy policy : SamplingPolicy.DEFAULTS) {
+            if (policy.getPersistence() == SamplingPolicy.Persistence.JOURNAL
+                && policy.getJournalDataType().getName().equals(dataTypeName)) {
+                return policy;
+            }
         }
+        return null;
     }
 
-    private void logger(String string) {
-        Log.i(TAG, string);
-        logInfoView.append(string + System.lineSeparator());
-        int offset = logInfoView.getLineCount() * logInfoView.getLineHeight();
-        if (offset > logInfoView.getHeight()) {
-            logInfoView.scrollTo(0, offset - logInfoView.getHeight());
+    /**
+     * Get the stream name of the journaled points of a type, such as STEPS_DELTA_JOURNAL for
+     * com.huawei.continuous.steps.delta.
+     *
+     * @param dataTypeName DataType name
+     * @return the stream name
+     */
+    private static String journalStreamName(String dataTypeName) {
+        String[] parts = dataTypeName.split("\\.");
+        StringBuilder builder = new StringBuilder();
+        for (int i = Math.min(3, parts.length - 1); i < parts.length; i++) {
+            builder.append(parts[i].toUpperCase(Locale.ROOT)).append('_');
+        }
+        return builder.append("JOURNAL").toString();
+    }
+
+    private void closeJournal(SamplePointJournal journal) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            Log.e(TAG, "close journal failed: " + e.getMessage());
         }
     }
 
     /**
-     * construct OnSamplePointListener
+     * Send the operation result logs to the logcat and the log console on the UI
+     *
+     * @param string indicating the log string
      */
-    private OnSamplePointListener onSamplePointListener = samplePoint -> {
-    };
+    private void logger(String string) {
+        CommonUtil.logger(string, TAG, logInfoView);
+    }
 }
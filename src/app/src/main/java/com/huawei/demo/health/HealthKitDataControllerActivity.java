@@ -17,28 +17,45 @@
 package com.huawei.demo.health;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import android.app.PendingIntent;
 import android.content.Context;
 import android.os.Bundle;
-import android.text.method.ScrollingMovementMethod;
 import android.view.View;
-import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.huawei.demo.health.data.BulkInsertPipeline;
+import com.huawei.demo.health.data.CachingDataController;
+import com.huawei.demo.health.data.SampleColumns;
+import com.huawei.demo.health.data.SeriesRollup;
+import com.huawei.demo.health.data.SummationCache;
+import com.huawei.demo.health.data.TimeSlicedReader;
+import com.huawei.demo.health.log.LogConsole;
+import com.huawei.demo.health.metrics.ApiMetrics;
+import com.huawei.demo.health.metrics.LogcatExporter;
+import com.huawei.demo.health.metrics.TaskMetrics;
+import com.huawei.demo.health.task.ResultExecutor;
+import com.huawei.demo.health.task.RetryScheduler;
+import com.huawei.demo.health.util.SampleFormatUtil;
+import com.huawei.demo.health.util.TimeFormatUtil;
 import com.huawei.health.demo.R;
 import com.huawei.hmf.tasks.OnFailureListener;
 import com.huawei.hmf.tasks.OnSuccessListener;
 import com.huawei.hmf.tasks.Task;
 import com.huawei.hms.hihealth.DataController;
-import com.huawei.hms.hihealth.HiHealthStatusCodes;
 import com.huawei.hms.hihealth.HuaweiHiHealth;
 import com.huawei.hms.hihealth.data.DataCollector;
 import com.huawei.hms.hihealth.data.DataType;
@@ -61,26 +78,50 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
     // Line separators for the display on the UI
     private static final String SPLIT = "*******************************" + System.lineSeparator();
 
+    // Summary and latest data results, shared by all instances of the activity and invalidated by other writers
+    static final SummationCache SUMMATION_CACHE = new SummationCache();
+
     // Object of controller for fitness and health data, providing APIs for read/write, batch read/write, and listening
     private DataController dataController;
 
+    // DataController wrapper serving summary and latest data queries from SUMMATION_CACHE
+    private CachingDataController cachingDataController;
+
     // Internal context object of the activity
     private Context context;
 
     // PendingIntent, required when registering or unregistering a listener within the data controller
     private PendingIntent pendingIntent;
 
-    // TextView for displaying operation information on the UI
-    private TextView logInfoView;
+    // Log console for displaying operation information on the UI
+    private LogConsole logInfoView;
+
+    // Processes the results of the controller calls off the main thread
+    private ResultExecutor resultExecutor;
+
+    // Step rollup of the last range read, only kept when the range held the points of a single data collector,
+    // and only used while no write invalidated SUMMATION_CACHE since the read started. Accessed on the main thread.
+    private SeriesRollup stepRollup;
+
+    private long stepRollupStart;
+
+    private long stepRollupEnd;
+
+    private long stepRollupGeneration;
+
+    // Background thread for the blocking bulk import
+    private final ExecutorService bulkExecutor = Executors.newSingleThreadExecutor();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_health_datacontroller);
         context = this;
-        logInfoView = (TextView) findViewById(R.id.data_controller_log_info);
-        logInfoView.setMovementMethod(ScrollingMovementMethod.getInstance());
+        logInfoView = new LogConsole(findViewById(R.id.data_controller_log_info));
+        resultExecutor = new ResultExecutor(TAG, logInfoView);
         dataController = HuaweiHiHealth.getDataController(context);
+        cachingDataController = new CachingDataController(dataController, SUMMATION_CACHE);
+        ApiMetrics.getInstance().setExporter(new LogcatExporter());
     }
 
     /**
@@ -101,14 +142,13 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
         final SampleSet sampleSet = SampleSet.create(dataCollector);
 
         // 3. Build the start time, end time, and incremental step count for a DT_CONTINUOUS_STEPS_DELTA sampling point.
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        Date startDate = dateFormat.parse("2020-08-27 09:00:00");
-        Date endDate = dateFormat.parse("2020-08-27 09:05:00");
+        long startTime = TimeFormatUtil.parse("2020-08-27 09:00:00");
+        long endTime = TimeFormatUtil.parse("2020-08-27 09:05:00");
         int stepsDelta = 1000;
 
         // 4. Build a DT_CONTINUOUS_STEPS_DELTA sampling point.
         SamplePoint samplePoint = sampleSet.createSamplePoint()
-            .setTimeInterval(startDate.getTime(), endDate.getTime(), TimeUnit.MILLISECONDS);
+            .setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS);
         samplePoint.getFieldValue(Field.FIELD_STEPS_DELTA).setIntValue(stepsDelta);
         // If the written step count data needs to be displayed on the homepage of the Huawei Health App,
         // you need to use addMetadata to add the following metadata to the sampling point
@@ -119,18 +159,23 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
         sampleSet.addSample(samplePoint);
 
         // 6. Call the data controller to insert the sampling dataset into the Health platform.
-        Task<Void> insertTask = dataController.insert(sampleSet);
+        // The insertion is sent again if it fails with a transient status code.
+        Task<Void> insertTask = RetryScheduler.getInstance()
+            .execute("DataController", "insert", () -> cachingDataController.insert(sampleSet));
+        // Every call is recorded in ApiMetrics, see dumpMetrics.
+        TaskMetrics.track(insertTask, "insert", sampleSet.getDataType(), sampleSet.getSamplePoints().size());
 
         // 7. Calling the data controller to insert the sampling dataset is an asynchronous operation.
         // Therefore, a listener needs to be registered to monitor whether the data insertion is successful or not.
-        insertTask.addOnSuccessListener(new OnSuccessListener<Void>() {
+        ResultExecutor.Operation operation = resultExecutor.begin("insert");
+        insertTask.addOnSuccessListener(operation, new OnSuccessListener<Void>() {
             @Override
             public void onSuccess(Void result) {
                 logger("Success insert an SampleSet into HMS core");
                 showSampleSet(sampleSet);
                 logger(SPLIT);
             }
-        }).addOnFailureListener(new OnFailureListener() {
+        }).addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "insert");
@@ -138,6 +183,78 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Use the bulk insert pipeline to import one week of DT_CONTINUOUS_STEPS_DELTA sampling points.
+     * The points are generated lazily, grouped into SampleSet chunks and inserted with a bounded number of tasks.
+     *
+     * @param view (indicating a UI object)
+     * @throws ParseException (indicating a failure to parse the time string)
+     */
+    public void insertBulkData(View view) throws ParseException {
+        // 1. Build a DataCollector object.
+        final DataCollector dataCollector = new DataCollector.Builder().setPackageName(context)
+            .setDataType(DataType.DT_CONTINUOUS_STEPS_DELTA)
+            .setDataStreamName("STEPS_DELTA")
+            .setDataGenerateType(DataCollector.DATA_TYPE_RAW)
+            .build();
+
+        // 2. Build the time range of the import: one week of 5-minute step deltas.
+        final long startTime = TimeFormatUtil.parse("2020-08-20 00:00:00");
+        final long endTime = TimeFormatUtil.parse("2020-08-27 00:00:00");
+        final long interval = TimeUnit.MINUTES.toMillis(5);
+
+        // 3. Generate the sampling points on demand, so that the whole week is never held in memory.
+        Iterator<SamplePoint> samplePoints = new Iterator<SamplePoint>() {
+            private long next = startTime;
+
+            @Override
+            public boolean hasNext() {
+                return next < endTime;
+            }
+
+            @Override
+            public SamplePoint next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                SamplePoint samplePoint = new SamplePoint.Builder(dataCollector).build()
+                    .setTimeInterval(next, next + interval, TimeUnit.MILLISECONDS);
+                samplePoint.getFieldValue(Field.FIELD_STEPS_DELTA).setIntValue(100);
+                next += interval;
+                return samplePoint;
+            }
+        };
+
+        // 4. Run the import on a background thread, the pipeline blocks while all insert slots are in use.
+        logger("Begin bulk insert into HMS core");
+        bulkExecutor.execute(() -> {
+            BulkInsertPipeline pipeline = new BulkInsertPipeline(dataController);
+            pipeline.setListener(new BulkInsertPipeline.Listener() {
+                @Override
+                public void onChunkInserted(SampleSet sampleSet, BulkInsertPipeline.Stats stats) {
+                }
+
+                @Override
+                public void onChunkFailed(SampleSet sampleSet, Exception e) {
+                    runOnUiThread(() -> printFailureMessage(e, "insert"));
+                }
+            });
+            try {
+                BulkInsertPipeline.Stats stats = pipeline.ingest(samplePoints);
+                // The pipeline writes through the plain DataController, drop the cached summaries of the type.
+                SUMMATION_CACHE.invalidate(DataType.DT_CONTINUOUS_STEPS_DELTA.getName());
+                runOnUiThread(() -> {
+                    logger("Success bulk insert into HMS core: " + stats);
+                    logger(SPLIT);
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                pipeline.shutdown();
+            }
+        });
+    }
+
     /**
      * Use the data controller to delete the sampling data by specific criteria.
      *
@@ -153,27 +270,28 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
             .build();
 
         // 2. Build the time range for the deletion: start time and end time.
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        Date startDate = dateFormat.parse("2020-08-27 09:00:00");
-        Date endDate = dateFormat.parse("2020-08-27 09:05:00");
+        long startTime = TimeFormatUtil.parse("2020-08-27 09:00:00");
+        long endTime = TimeFormatUtil.parse("2020-08-27 09:05:00");
 
         // 3. Build a parameter object as the conditions for the deletion.
         DeleteOptions deleteOptions = new DeleteOptions.Builder().addDataCollector(dataCollector)
-            .setTimeInterval(startDate.getTime(), endDate.getTime(), TimeUnit.MILLISECONDS)
+            .setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS)
             .build();
 
         // 4. Use the specified condition deletion object to call the data controller to delete the sampling dataset.
-        Task<Void> deleteTask = dataController.delete(deleteOptions);
+        Task<Void> deleteTask = TaskMetrics.track(cachingDataController.delete(deleteOptions), "delete",
+            DataType.DT_CONTINUOUS_STEPS_DELTA);
 
         // 5. Calling the data controller to delete the sampling dataset is an asynchronous operation.
         // Therefore, a listener needs to be registered to monitor whether the data deletion is successful or not.
-        deleteTask.addOnSuccessListener(new OnSuccessListener<Void>() {
+        ResultExecutor.Operation operation = resultExecutor.begin("delete");
+        deleteTask.addOnSuccessListener(operation, new OnSuccessListener<Void>() {
             @Override
             public void onSuccess(Void result) {
                 logger("Success delete sample data from HMS core");
                 logger(SPLIT);
             }
-        }).addOnFailureListener(new OnFailureListener() {
+        }).addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "delete");
@@ -201,14 +319,13 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
 
         // 3. Build the start time, end time, and incremental step count for
         // a DT_CONTINUOUS_STEPS_DELTA sampling point for the update.
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        Date startDate = dateFormat.parse("2020-08-27 09:00:00");
-        Date endDate = dateFormat.parse("2020-08-27 09:05:00");
+        long startTime = TimeFormatUtil.parse("2020-08-27 09:00:00");
+        long endTime = TimeFormatUtil.parse("2020-08-27 09:05:00");
         int stepsDelta = 300;
 
         // 4. Build a DT_CONTINUOUS_STEPS_DELTA sampling point for the update.
         SamplePoint samplePoint = sampleSet.createSamplePoint()
-            .setTimeInterval(startDate.getTime(), endDate.getTime(), TimeUnit.MILLISECONDS);
+            .setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS);
         samplePoint.getFieldValue(Field.FIELD_STEPS_DELTA).setIntValue(stepsDelta);
         // If the modified step count data needs to be displayed on the homepage of the Huawei Health App,
         // you need to use addMetadata to add the following metadata to the sampling point
@@ -224,23 +341,25 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
         // (2) The end time of the modified object updateOptions cannot be less than the maximum value of the
         // end time of all sample data points in the modified data sample set
         UpdateOptions updateOptions =
-            new UpdateOptions.Builder().setTimeInterval(startDate.getTime(), endDate.getTime(), TimeUnit.MILLISECONDS)
+            new UpdateOptions.Builder().setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS)
                 .setSampleSet(sampleSet)
                 .build();
 
         // 7. Use the specified parameter object for the update to call the
         // data controller to modify the sampling dataset.
-        Task<Void> updateTask = dataController.update(updateOptions);
+        Task<Void> updateTask = TaskMetrics.track(cachingDataController.update(updateOptions), "update",
+            sampleSet.getDataType(), sampleSet.getSamplePoints().size());
 
         // 8. Calling the data controller to modify the sampling dataset is an asynchronous operation.
         // Therefore, a listener needs to be registered to monitor whether the data update is successful or not.
-        updateTask.addOnSuccessListener(new OnSuccessListener<Void>() {
+        ResultExecutor.Operation operation = resultExecutor.begin("update");
+        updateTask.addOnSuccessListener(operation, new OnSuccessListener<Void>() {
             @Override
             public void onSuccess(Void result) {
                 logger("Success update sample data from HMS core");
                 logger(SPLIT);
             }
-        }).addOnFailureListener(new OnFailureListener() {
+        }).addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "update");
@@ -256,27 +375,94 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
      */
     public void readData(View view) throws ParseException {
         // 1. Build the time range for the query: start time and end time.
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        Date startDate = dateFormat.parse("2020-08-26 09:00:00");
-        Date endDate = dateFormat.parse("2020-08-26 09:05:00");
+        long startTime = TimeFormatUtil.parse("2020-08-26 09:00:00");
+        long endTime = TimeFormatUtil.parse("2020-08-26 09:05:00");
 
         // 2. Build the condition-based query objec
         ReadOptions readOptions = new ReadOptions.Builder().read(DataType.DT_CONTINUOUS_STEPS_DELTA)
-            .setTimeRange(startDate.getTime(), endDate.getTime(), TimeUnit.MILLISECONDS)
+            .setTimeRange(startTime, endTime, TimeUnit.MILLISECONDS)
             .build();
 
         // 3. Use the specified condition query object to call the data controller to query the sampling dataset.
-        Task<ReadReply> readReplyTask = dataController.read(readOptions);
+        Task<ReadReply> readReplyTask =
+            TaskMetrics.track(dataController.read(readOptions), "read", DataType.DT_CONTINUOUS_STEPS_DELTA);
 
         // 4. Calling the data controller to query the sampling dataset is an asynchronous operation.
         // Therefore, a listener needs to be registered to monitor whether the data query is successful or not.
-        readReplyTask.addOnSuccessListener(readReply -> {
+        ResultExecutor.Operation operation = resultExecutor.begin("read");
+        readReplyTask.addOnSuccessListener(operation, readReply -> {
             logger("Success read an SampleSets from HMS core");
             for (SampleSet sampleSet : readReply.getSampleSets()) {
                 showSampleSet(sampleSet);
             }
             logger(SPLIT);
-        }).addOnFailureListener(e -> printFailureMessage(e, "read"));
+        }).addOnFailureListener(operation, e -> printFailureMessage(e, "read"));
+    }
+
+    /**
+     * Use the time sliced reader to query one year of DT_CONTINUOUS_STEPS_DELTA sampling data.
+     * The range is read in slices by several concurrent tasks, and the results arrive in time order.
+     *
+     * @param view (indicating a UI object)
+     * @throws ParseException (indicating a failure to parse the time string)
+     */
+    public void readRangeData(View view) throws ParseException {
+        // 1. Build the time range for the query: start time and end time.
+        final long startTime = TimeFormatUtil.parse("2019-08-28 00:00:00");
+        final long endTime = TimeFormatUtil.parse("2020-08-28 00:00:00");
+
+        // 2. Read the range slice by slice, only a summary of each SampleSet is printed.
+        // The points are copied into primitive columns, so that each SampleSet can be released after its slice,
+        // and rolled up into minute, hour and day buckets that readDaily can use instead of a server query.
+        // The platform summation merges overlapping points of different sources, which a plain sum of the raw
+        // points cannot do, so the rollup is only kept when all points come from one data collector.
+        logger("Begin range read from HMS core");
+        final SampleColumns columns = new SampleColumns(DataType.DT_CONTINUOUS_STEPS_DELTA);
+        final SeriesRollup rollup = new SeriesRollup(Field.FIELD_STEPS_DELTA, SeriesRollup.Mode.DELTA);
+        final Set<String> sources = new HashSet<>();
+        final long generation = SUMMATION_CACHE.getGeneration();
+        TimeSlicedReader reader = new TimeSlicedReader(dataController, DataType.DT_CONTINUOUS_STEPS_DELTA);
+        reader.read(startTime, endTime, new TimeSlicedReader.Listener() {
+            @Override
+            public void onSampleSet(SampleSet sampleSet) {
+                int size = sampleSet.getSamplePoints().size();
+                if (size > 0) {
+                    columns.append(sampleSet);
+                    rollup.add(sampleSet);
+                    sources.add(sampleSet.getDataCollector().getDataStreamId());
+                    runOnUiThread(() -> logger("Read " + size + " points of " + sampleSet.getDataType().getName()));
+                }
+            }
+
+            @Override
+            public void onComplete(int slices, long points, long elapsedMillis) {
+                // 3. Aggregate the columns on the reader thread, only the results are posted to the UI.
+                Field steps = Field.FIELD_STEPS_DELTA;
+                String summary = columns.size() == 0 ? "no steps"
+                    : "steps sum " + (long) columns.sum(steps) + ", avg " + columns.avg(steps) + ", min "
+                        + columns.min(steps) + ", max " + columns.max(steps) + ", p50/p95 "
+                        + Arrays.toString(columns.percentiles(steps, 50, 95));
+                final int sourceCount = sources.size();
+                runOnUiThread(() -> {
+                    stepRollup = sourceCount <= 1 ? rollup : null;
+                    stepRollupStart = startTime;
+                    stepRollupEnd = endTime;
+                    stepRollupGeneration = generation;
+                    logger("Success range read " + points + " points in " + slices + " slices, " + elapsedMillis
+                        + " ms");
+                    logger(summary);
+                    if (sourceCount > 1) {
+                        logger("Steps of " + sourceCount + " sources, readDaily queries HMS core");
+                    }
+                    logger(SPLIT);
+                });
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                runOnUiThread(() -> printFailureMessage(e, "read"));
+            }
+        });
     }
 
     /**
@@ -287,7 +473,11 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
     public void readToday(View view) {
         // 1. Use the specified data type (DT_CONTINUOUS_STEPS_DELTA) to call the data controller to query
         // the summary data of this data type of the current day.
-        Task<SampleSet> todaySummationTask = dataController.readTodaySummation(DataType.DT_CONTINUOUS_STEPS_DELTA);
+        // Taps that arrive while the query is in flight share its result.
+        Task<SampleSet> todaySummationTask = RetryScheduler.getInstance()
+            .read("DataController", "readTodaySummation", DataType.DT_CONTINUOUS_STEPS_DELTA.getName(),
+                () -> cachingDataController.readTodaySummation(DataType.DT_CONTINUOUS_STEPS_DELTA));
+        TaskMetrics.track(todaySummationTask, "readTodaySummation", DataType.DT_CONTINUOUS_STEPS_DELTA);
 
         // 2. Calling the data controller to query the summary data of the current day is an
         // asynchronous operation. Therefore, a listener needs to be registered to monitor whether
@@ -295,7 +485,8 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
         // Note: In this example, the inserted data time is fixed at 2020-08-27 09:05:00.
         // When commissioning the API, you need to change the inserted data time to the current date
         // for data to be queried.
-        todaySummationTask.addOnSuccessListener(new OnSuccessListener<SampleSet>() {
+        ResultExecutor.Operation operation = resultExecutor.begin("readTodaySummation");
+        todaySummationTask.addOnSuccessListener(operation, new OnSuccessListener<SampleSet>() {
             @Override
             public void onSuccess(SampleSet sampleSet) {
                 logger("Success read today summation from HMS core");
@@ -305,7 +496,7 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
                 logger(SPLIT);
             }
         });
-        todaySummationTask.addOnFailureListener(new OnFailureListener() {
+        todaySummationTask.addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "readTodaySummation");
@@ -324,10 +515,31 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
         int endTime = 20200827;
         int startTime = 20200818;
 
+        // If the last range read covers these days, held a single source and nothing was written since,
+        // sum its day buckets locally. The sums are returned like the platform summation, as DT_CONTINUOUS_STEPS_TOTAL.
+        long rangeStart = dayToMillis(startTime);
+        long rangeEnd = dayToMillis(endTime) + TimeUnit.DAYS.toMillis(1);
+        if (stepRollup != null && stepRollupGeneration == SUMMATION_CACHE.getGeneration()
+            && stepRollupStart <= rangeStart && rangeEnd <= stepRollupEnd) {
+            DataCollector dataCollector = new DataCollector.Builder().setPackageName(context)
+                .setDataType(DataType.DT_CONTINUOUS_STEPS_TOTAL)
+                .setDataStreamName("STEPS_TOTAL_ROLLUP")
+                .setDataGenerateType(DataCollector.DATA_TYPE_DERIVED)
+                .build();
+            logger("Success read daily summation from the local rollup");
+            showSampleSet(stepRollup.toSumSampleSet(dataCollector, Field.FIELD_STEPS,
+                SeriesRollup.Resolution.DAY, rangeStart, rangeEnd));
+            logger(SPLIT);
+            return;
+        }
+
         // 1. Use the specified data type (DT_CONTINUOUS_STEPS_DELTA), start and end time to call the data
         // controller to query the summary data of this data type of the daily
-        Task<SampleSet> daliySummationTask =
-            dataController.readDailySummation(DataType.DT_CONTINUOUS_STEPS_DELTA, startTime, endTime);
+        Task<SampleSet> daliySummationTask = RetryScheduler.getInstance()
+            .read("DataController", "readDailySummation",
+                DataType.DT_CONTINUOUS_STEPS_DELTA.getName() + '/' + startTime + '/' + endTime,
+                () -> cachingDataController.readDailySummation(DataType.DT_CONTINUOUS_STEPS_DELTA, startTime, endTime));
+        TaskMetrics.track(daliySummationTask, "readDailySummation", DataType.DT_CONTINUOUS_STEPS_DELTA);
 
         // 2. Calling the data controller to query the summary data of the daily is an
         // asynchronous operation. Therefore, a listener needs to be registered to monitor whether
@@ -335,7 +547,8 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
         // Note: In this example, the read data time is fixed at 20200827 and 20200818.
         // When commissioning the API, you need to change the read data time to the current date
         // for data to be queried.
-        daliySummationTask.addOnSuccessListener(new OnSuccessListener<SampleSet>() {
+        ResultExecutor.Operation operation = resultExecutor.begin("readDailySummation");
+        daliySummationTask.addOnSuccessListener(operation, new OnSuccessListener<SampleSet>() {
             @Override
             public void onSuccess(SampleSet sampleSet) {
                 logger("Success read daily summation from HMS core");
@@ -345,7 +558,7 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
                 logger(SPLIT);
             }
         });
-        daliySummationTask.addOnFailureListener(new OnFailureListener() {
+        daliySummationTask.addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "readTodaySummation");
@@ -353,6 +566,19 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Convert a day in yyyyMMdd format to the start of the day in milliseconds.
+     *
+     * @param day day in yyyyMMdd format
+     * @return start of the day in the default time zone
+     */
+    private static long dayToMillis(int day) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(day / 10000, day / 100 % 100 - 1, day % 100);
+        return calendar.getTimeInMillis();
+    }
+
     /**
      * read the latest data basing on data type
      *
@@ -363,11 +589,15 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
         // the latest data of this data type.
         List<DataType> dataTypes = new ArrayList<>();
         dataTypes.add(DataType.DT_INSTANTANEOUS_HEIGHT);
-        Task<Map<DataType, SamplePoint>> readLatestDatas = dataController.readLatestData(dataTypes);
+        Task<Map<DataType, SamplePoint>> readLatestDatas = RetryScheduler.getInstance()
+            .read("DataController", "readLatestData", DataType.DT_INSTANTANEOUS_HEIGHT.getName(),
+                () -> cachingDataController.readLatestData(dataTypes));
+        TaskMetrics.track(readLatestDatas, "readLatestData", DataType.DT_INSTANTANEOUS_HEIGHT);
 
         // 2. Calling the data controller to query the latest data is an asynchronous operation.
         // Therefore, a listener needs to be registered to monitor whether the data query is successful or not.
-        readLatestDatas.addOnSuccessListener(new OnSuccessListener<Map<DataType, SamplePoint>>() {
+        ResultExecutor.Operation operation = resultExecutor.begin("readLatestData");
+        readLatestDatas.addOnSuccessListener(operation, new OnSuccessListener<Map<DataType, SamplePoint>>() {
             @Override
             public void onSuccess(Map<DataType, SamplePoint> samplePointMap) {
                 logger("Success read latest data from HMS core");
@@ -382,12 +612,10 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
                 }
             }
         });
-        readLatestDatas.addOnFailureListener(new OnFailureListener() {
+        readLatestDatas.addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
-                String errorCode = e.getMessage();
-                String errorMsg = HiHealthStatusCodes.getStatusCodeMessage(Integer.parseInt(errorCode));
-                logger(errorCode + ": " + errorMsg);
+                printFailureMessage(e, "readLatestData");
             }
         });
     }
@@ -400,17 +628,18 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
     public void clearCloudData(View view) {
         // 1. Call the clearAll method of the data controller to delete data
         // inserted by the current app from the device and cloud.
-        Task<Void> clearTask = dataController.clearAll();
+        Task<Void> clearTask = TaskMetrics.track(cachingDataController.clearAll(), "clearAll", null);
 
         // 2. Calling the data controller to clear user data from the device and cloud is an asynchronous operation.
         // Therefore, a listener needs to be registered to monitor whether the clearance is successful or not.
-        clearTask.addOnSuccessListener(new OnSuccessListener<Void>() {
+        ResultExecutor.Operation operation = resultExecutor.begin("clearAll");
+        clearTask.addOnSuccessListener(operation, new OnSuccessListener<Void>() {
             @Override
             public void onSuccess(Void result) {
                 logger("clearAll success");
                 logger(SPLIT);
             }
-        }).addOnFailureListener(new OnFailureListener() {
+        }).addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "clearAll");
@@ -419,7 +648,29 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
     }
 
     /**
-     * TextView to send the operation result logs to the logcat and to the UI
+     * Print the latency and payload size of the Health Kit calls made since the app started, and export them,
+     * followed by the time this screen took to receive and process the results of its calls.
+     *
+     * @param view (indicating a UI object)
+     */
+    public void dumpMetrics(View view) {
+        String metrics = ApiMetrics.getInstance().dump();
+        logger(metrics.isEmpty() ? "No call recorded" : metrics);
+        ApiMetrics.getInstance().export();
+        String timings = resultExecutor.getTimings();
+        logger(timings.isEmpty() ? "No result processed" : timings);
+        logger(SPLIT);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        bulkExecutor.shutdownNow();
+        resultExecutor.shutdown();
+    }
+
+    /**
+     * Send the operation result logs to the logcat and to the UI
      *
      * @param string (indicating the log string)
      */
@@ -433,16 +684,7 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
      * @param sampleSet (indicating the sampling dataset)
      */
     private void showSampleSet(SampleSet sampleSet) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-        for (SamplePoint samplePoint : sampleSet.getSamplePoints()) {
-            logger("Sample point type: " + samplePoint.getDataType().getName());
-            logger("Start: " + dateFormat.format(new Date(samplePoint.getStartTime(TimeUnit.MILLISECONDS))));
-            logger("End: " + dateFormat.format(new Date(samplePoint.getEndTime(TimeUnit.MILLISECONDS))));
-            for (Field field : samplePoint.getDataType().getFields()) {
-                logger("Field: " + field.getName() + " Value: " + samplePoint.getFieldValue(field));
-            }
-        }
+        SampleFormatUtil.showSampleSet(sampleSet, this::logger);
     }
 
     /**
@@ -451,14 +693,7 @@ public class HealthKitDataControllerActivity extends AppCompatActivity {
      * @param samplePoint (indicating the sampling point)
      */
     private void showSamplePoint(SamplePoint samplePoint) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-        logger("Sample point type: " + samplePoint.getDataType().getName());
-        logger("Start: " + dateFormat.format(new Date(samplePoint.getStartTime(TimeUnit.MILLISECONDS))));
-        logger("End: " + dateFormat.format(new Date(samplePoint.getEndTime(TimeUnit.MILLISECONDS))));
-        for (Field field : samplePoint.getDataType().getFields()) {
-            logger("Field: " + field.getName() + " Value: " + samplePoint.getFieldValue(field));
-        }
+        SampleFormatUtil.showSamplePoint(samplePoint, this::logger);
         logger(System.lineSeparator());
     }
 
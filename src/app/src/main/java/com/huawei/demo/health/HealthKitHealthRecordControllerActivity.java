@@ -16,29 +16,44 @@
 
 package com.huawei.demo.health;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import android.content.Context;
 import android.os.Bundle;
-import android.text.method.ScrollingMovementMethod;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
-import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.google.gson.Gson;
+import com.huawei.demo.health.data.SeriesRollup;
+import com.huawei.demo.health.export.HealthExportGson;
+import com.huawei.demo.health.export.HealthExportWriter;
+import com.huawei.demo.health.log.LogConsole;
+import com.huawei.demo.health.metrics.TaskMetrics;
+import com.huawei.demo.health.sync.RecordStore;
+import com.huawei.demo.health.sync.RecordSyncEngine;
+import com.huawei.demo.health.task.ResultExecutor;
+import com.huawei.demo.health.task.RetryScheduler;
+import com.huawei.demo.health.util.TimeFormatUtil;
 import com.huawei.health.demo.R;
 import com.huawei.hmf.tasks.OnFailureListener;
 import com.huawei.hmf.tasks.OnSuccessListener;
 import com.huawei.hmf.tasks.Task;
+import com.huawei.hmf.tasks.Tasks;
 import com.huawei.hms.hihealth.HealthRecordController;
 import com.huawei.hms.hihealth.HiHealthStatusCodes;
 import com.huawei.hms.hihealth.HuaweiHiHealth;
@@ -56,8 +71,6 @@ import com.huawei.hms.hihealth.options.HealthRecordReadOptions;
 import com.huawei.hms.hihealth.options.HealthRecordUpdateOptions;
 import com.huawei.hms.hihealth.result.HealthRecordReply;
 
-import static java.text.DateFormat.getTimeInstance;
-
 /**
  * HealthRecord Sample Code
  *
@@ -69,6 +82,11 @@ public class HealthKitHealthRecordControllerActivity extends AppCompatActivity {
     // Line separators for the display on the UI
     private static final String SPLIT = "*******************************" + System.lineSeparator();
 
+    // Directory of the exports, relative to the files directory
+    private static final String EXPORT_DIRECTORY = "exports";
+
+    private static final long EXPORT_READ_TIMEOUT_SECONDS = 30;
+
     // Internal context object
     private Context context;
 
@@ -76,9 +94,22 @@ public class HealthKitHealthRecordControllerActivity extends AppCompatActivity {
     private HealthRecordController healthRecordController;
 
     // Text view for displaying operation information on the UI
-    private TextView logInfoView;
+    private LogConsole logInfoView;
+
+    // Processes the results of the controller calls off the main thread
+    private ResultExecutor resultExecutor;
+
+    // Delta sync of the health records into the local mirror
+    private RecordSyncEngine recordSyncEngine;
+
+    // Background thread for the blocking record sync
+    private final ExecutorService syncExecutor = Executors.newSingleThreadExecutor();
+
+    // Type adapters of the export, for the health record and the data types of its details and statistics
+    private Gson exportGson;
 
-    private String healthRecordIdFromInsertResult = "defaultValueId";
+    // Set by the result thread, read on the main thread
+    private volatile String healthRecordIdFromInsertResult = "defaultValueId";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -87,11 +118,21 @@ public class HealthKitHealthRecordControllerActivity extends AppCompatActivity {
         init();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        syncExecutor.shutdownNow();
+        resultExecutor.shutdown();
+    }
+
     private void init() {
         context = this;
         healthRecordController = HuaweiHiHealth.getHealthRecordController(context);
-        logInfoView = (TextView) findViewById(R.id.activity_records_controller_log_info);
-        logInfoView.setMovementMethod(ScrollingMovementMethod.getInstance());
+        logInfoView = new LogConsole(findViewById(R.id.activity_records_controller_log_info));
+        resultExecutor = new ResultExecutor(TAG, logInfoView);
+        recordSyncEngine = new RecordSyncEngine(null, healthRecordController, RecordStore.getInstance(context));
+        exportGson = HealthExportGson.create(Arrays.asList(HealthDataTypes.DT_HEALTH_RECORD_BRADYCARDIA,
+            DataType.DT_INSTANTANEOUS_HEART_RATE, DataType.POLYMERIZE_CONTINUOUS_HEART_RATE_STATISTICS));
     }
 
     /**
@@ -134,14 +175,12 @@ public class HealthKitHealthRecordControllerActivity extends AppCompatActivity {
             .setDataStreamName("such as step count")
             .build();
         // samplePointList is used to store statistics points.
-        List<SamplePoint> samplePointList = new ArrayList<>();
-        // Constructing Heart Rate Statistics Points
-        SamplePoint samplePoint1 = new SamplePoint.Builder(dataCollector1).build();
-        samplePoint1.getFieldValue(Field.FIELD_AVG).setDoubleValue(90);
-        samplePoint1.getFieldValue(Field.FIELD_MAX).setDoubleValue(100);
-        samplePoint1.getFieldValue(Field.FIELD_MIN).setDoubleValue(80);
-        samplePoint1.setTimeInterval(startTime + 1L, startTime + 300000L, TimeUnit.MILLISECONDS);
-        samplePointList.add(samplePoint1);
+        // The heart rate statistics points are computed from the detail points by a local rollup, one per hour.
+        SeriesRollup heartRateRollup = new SeriesRollup(Field.FIELD_BPM, SeriesRollup.Mode.SAMPLE);
+        heartRateRollup.add(sampleSet);
+        List<SamplePoint> samplePointList = heartRateRollup
+            .toStatisticsSampleSet(dataCollector1, SeriesRollup.Resolution.HOUR, startTime, endTime)
+            .getSamplePoints();
 
         // 3.Construct a health record collector (using the bradycardia health data type as an example) and construct a health record structure.
         DataCollector dataCollector2 = new com.huawei.hms.hihealth.data.DataCollector.Builder()
@@ -166,15 +205,24 @@ public class HealthKitHealthRecordControllerActivity extends AppCompatActivity {
         HealthRecordInsertOptions insertOptions =
             new HealthRecordInsertOptions.Builder().setHealthRecord(healthRecord).build();
 
-        healthRecordController.addHealthRecord(insertOptions).addOnSuccessListener(new OnSuccessListener<String>() {
+        // The record is sent again if the request fails with a transient status code.
+        Task<String> addTask = RetryScheduler.getInstance()
+            .execute("HealthRecordController", "addHealthRecord",
+                () -> healthRecordController.addHealthRecord(insertOptions));
+        TaskMetrics.track(addTask, "addHealthRecord", HealthDataTypes.DT_HEALTH_RECORD_BRADYCARDIA, 1);
+        ResultExecutor.Operation operation = resultExecutor.begin("addHealthRecord");
+        addTask.addOnSuccessListener(operation, new OnSuccessListener<String>() {
             @Override
             public void onSuccess(String healthRecordId) {
                 // Save the healthRecordId returned after the insertion is successful.
                 // The healthRecordId is used to update the scenario.
                 healthRecordIdFromInsertResult = healthRecordId;
+                // The record is read by the next sync of the mirror, even if it was added with past dates.
+                recordSyncEngine.markHealthRecordWritten(HealthDataTypes.DT_HEALTH_RECORD_BRADYCARDIA, healthRecordId,
+                    startTime);
                 logger("Add HealthRecord was successful,please save the healthRecordId:\n" + healthRecordId);
             }
-        }).addOnFailureListener(new OnFailureListener() {
+        }).addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "addHealthRecord");
@@ -222,14 +270,12 @@ public class HealthKitHealthRecordControllerActivity extends AppCompatActivity {
             .setDataStreamName("such as step count")
             .build();
         // samplePointList is used to store statistics points.
-        List<SamplePoint> samplePointList = new ArrayList<>();
-        // Constructing Heart Rate Statistics Points
-        SamplePoint samplePoint1 = new SamplePoint.Builder(dataCollector1).build();
-        samplePoint1.getFieldValue(Field.FIELD_AVG).setDoubleValue(90);
-        samplePoint1.getFieldValue(Field.FIELD_MAX).setDoubleValue(100);
-        samplePoint1.getFieldValue(Field.FIELD_MIN).setDoubleValue(80);
-        samplePoint1.setTimeInterval(startTime + 1L, startTime + 300000L, TimeUnit.MILLISECONDS);
-        samplePointList.add(samplePoint1);
+        // The heart rate statistics points are computed from the detail points by a local rollup, one per hour.
+        SeriesRollup heartRateRollup = new SeriesRollup(Field.FIELD_BPM, SeriesRollup.Mode.SAMPLE);
+        heartRateRollup.add(sampleSet);
+        List<SamplePoint> samplePointList = heartRateRollup
+            .toStatisticsSampleSet(dataCollector1, SeriesRollup.Resolution.HOUR, startTime, endTime)
+            .getSamplePoints();
 
         // 3.Construct a health record collector (using the bradycardia health data type as an example) and construct a health record structure.
         DataCollector dataCollector2 = new com.huawei.hms.hihealth.data.DataCollector.Builder()
@@ -252,16 +298,22 @@ public class HealthKitHealthRecordControllerActivity extends AppCompatActivity {
         HealthRecord healthRecord = healthRecordBuilder.build();
 
         // 4.Construct the updateOptions to be updated and carry the healthRecordId returned after the insertion is successful.
+        final String healthRecordId = healthRecordIdFromInsertResult;
         HealthRecordUpdateOptions updateOptions = new HealthRecordUpdateOptions.Builder().setHealthRecord(healthRecord)
-            .setHealthRecordId(healthRecordIdFromInsertResult)
+            .setHealthRecordId(healthRecordId)
             .build();
 
-        healthRecordController.updateHealthRecord(updateOptions).addOnSuccessListener(new OnSuccessListener<Void>() {
+        ResultExecutor.Operation operation = resultExecutor.begin("updateHealthRecord");
+        Task<Void> updateTask = TaskMetrics.track(healthRecordController.updateHealthRecord(updateOptions),
+            "updateHealthRecord", HealthDataTypes.DT_HEALTH_RECORD_BRADYCARDIA, 1);
+        updateTask.addOnSuccessListener(operation, new OnSuccessListener<Void>() {
             @Override
             public void onSuccess(Void aVoid) {
                 logger("Update HealthRecord was successful!");
+                recordSyncEngine.markHealthRecordWritten(HealthDataTypes.DT_HEALTH_RECORD_BRADYCARDIA, healthRecordId,
+                    startTime);
             }
-        }).addOnFailureListener(new OnFailureListener() {
+        }).addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "updateHealthRecord");
@@ -270,58 +322,14 @@ public class HealthKitHealthRecordControllerActivity extends AppCompatActivity {
     }
 
     /**
-     * Read historical health records
+     * Read historical health records of the last day. The local mirror is brought up to date by a sync, which is a
+     * delta read unless a read of the whole window is due, and the records are printed from the mirror.
      *
      * @param view indicating a UI object
      */
     public void getHealthRecord(View view) {
         logger(SPLIT + "this is MyHealthRecord Get");
-
-        // Build the time range of the request object: start time and end time
-        Calendar cal = Calendar.getInstance();
-        Date now = new Date();
-        cal.setTime(now);
-        long endTime = cal.getTimeInMillis();
-        cal.add(Calendar.DAY_OF_YEAR, -1);
-        long startTime = cal.getTimeInMillis();
-
-        // Build the request body for reading HealthRecord records
-        List<DataType> subDataTypeList = new ArrayList<>();
-        subDataTypeList.add(DataType.DT_INSTANTANEOUS_HEART_RATE);
-        HealthRecordReadOptions healthRecordReadOptions =
-            new HealthRecordReadOptions.Builder().setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS)
-                .readHealthRecordsFromAllApps()
-                .readByDataType(HealthDataTypes.DT_HEALTH_RECORD_BRADYCARDIA)
-                .setSubDataTypeList(subDataTypeList)
-                .build();
-
-        // Call the get method of the HealthRecordController to obtain health records
-        // from the Health platform based on the conditions in the request body
-        Task<HealthRecordReply> task = healthRecordController.getHealthRecord(healthRecordReadOptions);
-        task.addOnSuccessListener(new OnSuccessListener<HealthRecordReply>() {
-            @Override
-            public void onSuccess(HealthRecordReply readResponse) {
-                logger("Get HealthRecord was successful!");
-                // Print HealthRecord and corresponding health data in the result
-                List<HealthRecord> recordList = readResponse.getHealthRecords();
-                for (HealthRecord record : recordList) {
-                    if (record == null) {
-                        continue;
-                    }
-                    dumpHealthRecord(record);
-                    logger("Print detailed data points associated with health records");
-                    for (SampleSet dataSet : record.getSubDataDetails()) {
-                        dumpDataSet(dataSet);
-                    }
-                }
-            }
-        });
-        task.addOnFailureListener(new OnFailureListener() {
-            @Override
-            public void onFailure(Exception e) {
-                printFailureMessage(e, "getHealthRecord");
-            }
-        });
+        syncExecutor.execute(() -> syncAndPrint("getHealthRecord", TimeUnit.DAYS.toMillis(1)));
     }
 
     /**
@@ -355,8 +363,9 @@ public class HealthKitHealthRecordControllerActivity extends AppCompatActivity {
         subDataTypeList.add(DataType.DT_INSTANTANEOUS_HEART_RATE);
 
         // Build the request body for delete health records
+        final List<String> healthRecordIds = Collections.singletonList(healthRecordIdFromInsertResult);
         HealthRecordDeleteOptions deleteRequest = new HealthRecordDeleteOptions.Builder()
-                .setHealthRecordIds(Collections.singletonList(healthRecordIdFromInsertResult))
+                .setHealthRecordIds(healthRecordIds)
                 .isDeleteSubData(true)
                 .setDataType(dataType)
                 .setSubDataTypeList(subDataTypeList)
@@ -365,13 +374,16 @@ public class HealthKitHealthRecordControllerActivity extends AppCompatActivity {
 
         // Call the delete method of the HealthRecordController
         // from the Health platform based on the conditions in the request body
-        Task<Void> deleteTask = healthRecordController.deleteHealthRecord(deleteRequest);
-        deleteTask.addOnSuccessListener(new OnSuccessListener<Void>() {
+        Task<Void> deleteTask = TaskMetrics.track(healthRecordController.deleteHealthRecord(deleteRequest),
+            "deleteHealthRecord", HealthDataTypes.DT_HEALTH_RECORD_BRADYCARDIA);
+        ResultExecutor.Operation operation = resultExecutor.begin("deleteHealthRecord");
+        deleteTask.addOnSuccessListener(operation, new OnSuccessListener<Void>() {
             @Override
             public void onSuccess(Void aVoid) {
                 logger("Delete HealthRecord was successful!");
+                recordSyncEngine.markDeleted(RecordStore.KIND_HEALTH_RECORD, healthRecordIds);
             }
-        }).addOnFailureListener(new OnFailureListener() {
+        }).addOnFailureListener(operation, new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "deleteHealthRecord");
@@ -380,77 +392,91 @@ public class HealthKitHealthRecordControllerActivity extends AppCompatActivity {
     }
 
     /**
-     * Print the SamplePoint in the SampleSet object as an output.
+     * Read the bradycardia health records written since the last sync into the local mirror, and print the mirror.
      *
-     * @param sampleSet indicating the sampling dataSet
+     * @param view (indicating a UI object)
      */
-    private void dumpDataSet(SampleSet sampleSet) {
-        logger("Returned for SamplePoint and Data type: " + sampleSet.getDataType().getName());
-        for (SamplePoint dp : sampleSet.getSamplePoints()) {
-            DateFormat dateFormat = getTimeInstance();
-            logger("SamplePoint:");
-            logger("DataCollector:" + dp.getDataCollector().toString());
-            logger("\tType: " + dp.getDataType().getName());
-            logger("\tStart: " + dateFormat.format(dp.getStartTime(TimeUnit.MILLISECONDS)));
-            logger("\tEnd: " + dateFormat.format(dp.getEndTime(TimeUnit.MILLISECONDS)));
-            for (Field field : dp.getDataType().getFields()) {
-                logger("\tField: " + field.toString() + " Value: " + dp.getFieldValue(field));
-            }
-        }
+    public void syncHealthRecord(View view) {
+        logger(SPLIT + "this is HealthRecord Sync");
+        syncExecutor.execute(() -> syncAndPrint("syncHealthRecord", RecordSyncEngine.INITIAL_SYNC_MILLIS));
     }
 
     /**
-     * Print the HealthRecord object as an output.
+     * Sync the mirror of the bradycardia health records and print its records of a range ending now.
+     * Runs on the sync executor.
      *
-     * @param healthRecord indicating a health record
+     * @param api name of the calling operation, for the logs
+     * @param rangeMillis length of the printed range
      */
-    private void dumpHealthRecord(HealthRecord healthRecord) {
-        logger("Print health record summary information!");
-        DateFormat dateFormat = DateFormat.getDateInstance();
-        DateFormat timeFormat = DateFormat.getTimeInstance();
-        if (healthRecord != null) {
-            logger("\tHealthRecordIdentifier: " + healthRecord.getHealthRecordId() + "\n\tpackageName: "
-                + healthRecord.getDataCollector().getPackageName() + "\n\tStartTime: "
-                + dateFormat.format(healthRecord.getStartTime(TimeUnit.MILLISECONDS)) + " "
-                + timeFormat.format(healthRecord.getStartTime(TimeUnit.MILLISECONDS)) + "\n\tEndTime: "
-                + dateFormat.format(healthRecord.getEndTime(TimeUnit.MILLISECONDS)) + " "
-                + timeFormat.format(healthRecord.getEndTime(TimeUnit.MILLISECONDS)) + "\n\tHealthRecordDataType: "
-                + healthRecord.getDataCollector().getDataType().getName() + "\n\tHealthRecordDataCollectorId: "
-                + healthRecord.getDataCollector().getDataStreamId() + "\n\tmetaData: " + healthRecord.getMetadata()
-                + "\n\tFileValueMap: " + healthRecord.getFieldValues());
-
-            if (healthRecord.getSubDataSummary() != null && !healthRecord.getSubDataSummary().isEmpty()) {
-                showSamplePoints(healthRecord.getSubDataSummary());
+    private void syncAndPrint(String api, long rangeMillis) {
+        try {
+            long now = System.currentTimeMillis();
+            DataType dataType = HealthDataTypes.DT_HEALTH_RECORD_BRADYCARDIA;
+            long previousMark = recordSyncEngine.getHealthRecordHighWaterMark(dataType);
+            int stored = recordSyncEngine.syncHealthRecords(dataType, now);
+            logger(api + " was successful! " + stored + " records read since "
+                + (previousMark == 0 ? "the first sync" : TimeFormatUtil.format(previousMark)));
+            List<RecordStore.Row> rows =
+                RecordStore.getInstance(context).query(RecordStore.KIND_HEALTH_RECORD, now - rangeMillis, now + 1);
+            for (RecordStore.Row row : rows) {
+                logger(row.toString());
             }
+        } catch (ExecutionException e) {
+            printFailureMessage(e.getCause() instanceof Exception ? (Exception) e.getCause() : e, api);
+        } catch (InterruptedException | TimeoutException e) {
+            printFailureMessage(e, api);
         }
     }
 
     /**
-     * Print the SamplePoint in the SamplePointList object as an output.
+     * Export the bradycardia health records of the last 30 days with their heart rate details to a JSON file of the
+     * files directory. The records are streamed to the file one at a time, the same export can be uploaded with a
+     * HealthExportRequestBody.
      *
-     * @param subDataSummary Indicates the list of sample data.
+     * @param view (indicating a UI object)
      */
-    private void showSamplePoints(List<SamplePoint> subDataSummary) {
-        SimpleDateFormat sDateFormat;
-        sDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-
-        for (SamplePoint dp : subDataSummary) {
-            showSamplePoint(sDateFormat, dp);
-        }
-    }
-
-    private void showSamplePoint(SimpleDateFormat dateFormat, SamplePoint samplePoint) {
-        logger("Sample point type: " + samplePoint.getDataType().getName());
-        logger("Start: " + dateFormat.format(new Date(samplePoint.getStartTime(TimeUnit.MILLISECONDS))));
-        logger("End: " + dateFormat.format(new Date(samplePoint.getEndTime(TimeUnit.MILLISECONDS))));
-        for (Field field : samplePoint.getDataType().getFields()) {
-            logger("Field: " + field.getName() + " Value: " + samplePoint.getFieldValue(field));
-        }
-        logger(System.lineSeparator());
+    public void exportHealthRecords(View view) {
+        logger(SPLIT + "this is HealthRecord Export");
+        syncExecutor.execute(() -> {
+            long endTime = System.currentTimeMillis();
+            HealthRecordReadOptions readOptions = new HealthRecordReadOptions.Builder()
+                .setTimeInterval(endTime - RecordSyncEngine.INITIAL_SYNC_MILLIS, endTime, TimeUnit.MILLISECONDS)
+                .readHealthRecordsFromAllApps()
+                .readByDataType(HealthDataTypes.DT_HEALTH_RECORD_BRADYCARDIA)
+                .setSubDataTypeList(Collections.singletonList(DataType.DT_INSTANTANEOUS_HEART_RATE))
+                .build();
+            File directory = new File(getFilesDir(), EXPORT_DIRECTORY);
+            File file = new File(directory, "health-records.json");
+            try {
+                HealthRecordReply reply = Tasks.await(
+                    TaskMetrics.track(healthRecordController.getHealthRecord(readOptions), "getHealthRecord",
+                        HealthDataTypes.DT_HEALTH_RECORD_BRADYCARDIA),
+                    EXPORT_READ_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IOException("cannot create " + directory);
+                }
+                long start = SystemClock.elapsedRealtime();
+                long written = HealthExportWriter.writeFile(file, exportGson, writer -> {
+                    writer.beginSection(HealthExportWriter.SECTION_HEALTH_RECORDS);
+                    for (HealthRecord healthRecord : reply.getHealthRecords()) {
+                        if (healthRecord != null) {
+                            writer.write(healthRecord, HealthRecord.class);
+                        }
+                    }
+                });
+                logger("Export HealthRecord was successful! " + written + " records, " + file.length()
+                    + " bytes in " + (SystemClock.elapsedRealtime() - start) + " ms: " + file);
+            } catch (ExecutionException e) {
+                printFailureMessage(e.getCause() instanceof Exception ? (Exception) e.getCause() : e,
+                    "exportHealthRecords");
+            } catch (InterruptedException | TimeoutException | IOException e) {
+                printFailureMessage(e, "exportHealthRecords");
+            }
+        });
     }
 
     /**
-     * Send the operation result logs to the logcat and TextView control on the UI
+     * Send the operation result logs to the logcat and the log console on the UI
      *
      * @param string indicating the log string
      */
@@ -17,25 +17,25 @@
 package com.huawei.demo.health;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import android.content.Context;
 import android.os.Bundle;
-import android.text.method.ScrollingMovementMethod;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.AdapterView.OnItemSelectedListener;
 import android.widget.ArrayAdapter;
 import android.widget.EditText;
 import android.widget.Spinner;
-import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.huawei.demo.health.log.LogConsole;
+import com.huawei.demo.health.task.RetryScheduler;
+import com.huawei.demo.health.util.SampleFormatUtil;
+import com.huawei.demo.health.util.TimeFormatUtil;
 import com.huawei.health.demo.R;
 import com.huawei.hmf.tasks.OnCompleteListener;
 import com.huawei.hmf.tasks.OnFailureListener;
@@ -101,8 +101,8 @@ public class HealthKitSettingControllerActivity extends AppCompatActivity implem
     // EditText for setting data type name information on the UI
     private EditText dataTypeNameView;
 
-    // TextView for displaying operation information on the UI
-    private TextView logInfoView;
+    // Log console for displaying operation information on the UI
+    private LogConsole logInfoView;
 
     // drop-down box of Field name
     private Spinner spinner;
@@ -147,8 +147,7 @@ public class HealthKitSettingControllerActivity extends AppCompatActivity implem
      * Initialize Activity view.
      */
     private void initActivityView() {
-        logInfoView = findViewById(R.id.setting_controller_log_info);
-        logInfoView.setMovementMethod(ScrollingMovementMethod.getInstance());
+        logInfoView = new LogConsole(findViewById(R.id.setting_controller_log_info));
 
         for (java.lang.reflect.Field field : Field.class.getDeclaredFields()) {
             if (field.getType() != Field.class) {
@@ -206,7 +205,10 @@ public class HealthKitSettingControllerActivity extends AppCompatActivity implem
 
         // create SettingController and add new DataType
         // The added results are displayed in the phone screen
-        settingController.addDataType(dataTypeAddOptions).addOnFailureListener(new OnFailureListener() {
+        // The request is sent again if it fails with a transient status code.
+        Task<DataType> addTask = RetryScheduler.getInstance()
+            .execute("SettingController", "addDataType", () -> settingController.addDataType(dataTypeAddOptions));
+        addTask.addOnFailureListener(new OnFailureListener() {
             @Override
             public void onFailure(Exception e) {
                 printFailureMessage(e, "addNewDataType");
@@ -344,16 +346,15 @@ public class HealthKitSettingControllerActivity extends AppCompatActivity implem
         final SampleSet sampleSet = SampleSet.create(dataCollector);
 
         // 3. Build the start time, end time, and incremental step count for a DT_CONTINUOUS_STEPS_DELTA sampling point.
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        Date startDate = dateFormat.parse("2020-03-17 09:00:00");
-        Date endDate = dateFormat.parse("2020-03-17 09:05:00");
+        long startTime = TimeFormatUtil.parse("2020-03-17 09:00:00");
+        long endTime = TimeFormatUtil.parse("2020-03-17 09:05:00");
         int intValue = 1000;
         float floatValue = 10.0f;
         String strValue = "hello";
 
         // 4. Build a DT_CONTINUOUS_STEPS_DELTA sampling point.
         SamplePoint samplePoint = sampleSet.createSamplePoint()
-            .setTimeInterval(startDate.getTime(), endDate.getTime(), TimeUnit.MILLISECONDS);
+            .setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS);
         selectedField.getFormat();
 
         switch (selectedField.getFormat()) {
@@ -417,13 +418,12 @@ public class HealthKitSettingControllerActivity extends AppCompatActivity implem
             .build();
 
         // 2. Build the time range for the query: start time and end time.
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        Date startDate = dateFormat.parse("2020-03-17 09:00:00");
-        Date endDate = dateFormat.parse("2020-03-17 09:05:00");
+        long startTime = TimeFormatUtil.parse("2020-03-17 09:00:00");
+        long endTime = TimeFormatUtil.parse("2020-03-17 09:05:00");
 
         // 3. Build the condition-based query objec
         ReadOptions readOptions = new ReadOptions.Builder().read(dataCollector)
-            .setTimeRange(startDate.getTime(), endDate.getTime(), TimeUnit.MILLISECONDS)
+            .setTimeRange(startTime, endTime, TimeUnit.MILLISECONDS)
             .build();
 
         // 4. Use the specified condition query object to call the data controller to query the sampling dataset.
@@ -454,20 +454,11 @@ public class HealthKitSettingControllerActivity extends AppCompatActivity implem
      * @param sampleSet (indicating the sampling dataset)
      */
     private void showSampleSet(SampleSet sampleSet) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-        for (SamplePoint samplePoint : sampleSet.getSamplePoints()) {
-            logger("Sample point type: " + samplePoint.getDataType().getName());
-            logger("Start: " + dateFormat.format(new Date(samplePoint.getStartTime(TimeUnit.MILLISECONDS))));
-            logger("End: " + dateFormat.format(new Date(samplePoint.getEndTime(TimeUnit.MILLISECONDS))));
-            for (Field field : samplePoint.getDataType().getFields()) {
-                logger("Field: " + field.getName() + " Value: " + samplePoint.getFieldValue(field));
-            }
-        }
+        SampleFormatUtil.showSampleSet(sampleSet, this::logger);
     }
 
     /**
-     * TextView to send the operation result logs to the logcat and to the UI
+     * Send the operation result logs to the logcat and to the UI
      *
      * @param string (indicating the log string)
      */
@@ -16,6 +16,14 @@
 
 package com.huawei.demo.health;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
@@ -31,10 +39,19 @@ import android.util.Log;
 import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
 
+import com.huawei.demo.health.data.SampleCodec;
+import com.huawei.demo.health.data.SampleStore;
+import com.huawei.demo.health.recorder.CumulativeDeltas;
+import com.huawei.demo.health.recorder.RecorderRegistry;
+import com.huawei.demo.health.recorder.SamplePointBus;
+import com.huawei.demo.health.recorder.SamplePointFanIn;
+import com.huawei.demo.health.recorder.SamplePointJournal;
+import com.huawei.demo.health.recorder.SamplingPolicy;
+import com.huawei.demo.health.recorder.WakeManager;
 import com.huawei.health.demo.R;
-import com.huawei.hms.hihealth.AutoRecorderController;
-import com.huawei.hms.hihealth.HuaweiHiHealth;
-import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.options.OnSamplePointListener;
 
 /**
  * Defining a Frontend Service
@@ -42,18 +59,75 @@ import com.huawei.hms.hihealth.data.DataType;
  * @since 2020-09-05
  */
 public class PersistService extends Service {
+    /**
+     * Boolean extra of the start intent: also broadcast every SamplePoint, for consumers in other processes
+     */
+    public static final String EXTRA_CROSS_PROCESS_BROADCAST = "crossProcessBroadcast";
+
+    /**
+     * Byte array extra of the broadcasts: the SamplePoint as a standalone SampleCodec stream
+     */
+    public static final String EXTRA_ENCODED_SAMPLE_POINT = "EncodedSamplePoint";
+
+    /**
+     * Directory of the journal of real-time sample points, relative to the files directory
+     */
+    public static final String JOURNAL_DIRECTORY = "sample_journal";
+
     private static final String TAG = "PersistService";
 
-    // HMS Health AutoRecorderController
-    private AutoRecorderController autoRecorderController;
+    // Starts and stops the recordings, shared with the other recording owners of the process
+    private RecorderRegistry recorderRegistry;
 
     private Context context;
 
+    // Local journal of the real-time points, replayed into the DataController later
+    private SamplePointJournal journal;
+
+    // Holds the CPU awake only while journaled points wait for their force
+    private WakeManager journalWakeManager;
+
+    // Converters of the cumulative types journaled as deltas, by recorded type name, used by the fan-in worker only
+    private final Map<String, CumulativeDeltas> journalDeltas = new HashMap<>();
+
+    // Queue and single worker of the points of all recorded types
+    private SamplePointFanIn fanIn;
+
+    // Listener of every recorded type, it only enqueues the point
+    private OnSamplePointListener samplePointListener;
+
+    // Subscriptions of the recorded types, empty when not recording
+    private final List<RecorderRegistry.Subscription> subscriptions = new ArrayList<>();
+
+    // Whether a consumer outside of the app process asked for the broadcasts
+    private volatile boolean crossProcessBroadcast;
+
     @Override
     public void onCreate() {
         super.onCreate();
         context = this;
-        initAutoRecorderController();
+        recorderRegistry = RecorderRegistry.getInstance(context);
+        try {
+            journal = SamplePointJournal.open(new File(getFilesDir(), JOURNAL_DIRECTORY));
+            journalWakeManager = new WakeManager(context, "journal");
+            journal.setWakeGuard(journalWakeManager);
+        } catch (IOException e) {
+            Log.e(TAG, "open journal failed: " + e.getMessage());
+        }
+        for (SamplingPolicy policy : SamplingPolicy.DEFAULTS) {
+            if (policy.getPersistence() == SamplingPolicy.Persistence.JOURNAL && policy.isJournaledAsDelta()) {
+                journalDeltas.put(policy.getDataType().getName(), new CumulativeDeltas(
+                    new DataCollector.Builder().setPackageName(context)
+                        .setDataType(policy.getJournalDataType())
+                        .setDataGenerateType(DataCollector.DATA_TYPE_RAW)
+                        .build()));
+            }
+        }
+        // Started after the journal is open, the worker appends to it. The registry holds the listener and the
+        // fan-in strongly, they only reach the service weakly, so that a service that is not stopped properly is
+        // still collected and its subscriptions reported by RecorderRegistry.detectLeaks.
+        fanIn = new SamplePointFanIn(SamplingPolicy.DEFAULTS, new ServiceSink(this));
+        samplePointListener = fanIn::offer;
         Log.i(TAG, "service is create.");
     }
 
@@ -65,6 +139,7 @@ public class PersistService extends Service {
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
+        crossProcessBroadcast = intent != null && intent.getBooleanExtra(EXTRA_CROSS_PROCESS_BROADCAST, false);
         // Invoke the real-time callback interface of the HealthKit.
         getRemoteService();
         // Binding a notification bar
@@ -73,31 +148,75 @@ public class PersistService extends Service {
     }
 
     /**
-     * init AutoRecorderController
+     * Callback Interface for Starting the real-time recording of every type of SamplingPolicy.DEFAULTS
      */
-    private void initAutoRecorderController() {
-        autoRecorderController = HuaweiHiHealth.getAutoRecorderController(context);
+    private void getRemoteService() {
+        if (!subscriptions.isEmpty()) {
+            return;
+        }
+        // Start recording real-time steps, heart rate, distance and calories. The data reported by the sensors is
+        // called back to the app through samplePoint, every type into the same fan-in queue. The registry starts
+        // a type only if no other owner records it yet.
+        for (SamplingPolicy policy : SamplingPolicy.DEFAULTS) {
+            subscriptions.add(recorderRegistry.acquire(policy.getDataType(), this, samplePointListener));
+        }
+        Log.i(TAG, "record started... " + recorderRegistry);
     }
 
     /**
-     * Callback Interface for Starting the Total Step Count
+     * Release the subscriptions taken by getRemoteService, the registry stops a type when its last one is released.
      */
-    private void getRemoteService() {
-        if (autoRecorderController == null) {
-            initAutoRecorderController();
+    private void stopRemoteService() {
+        for (RecorderRegistry.Subscription subscription : subscriptions) {
+            String dataTypeName = subscription.getDataType().getName();
+            subscription.release()
+                .addOnFailureListener(e -> Log.i(TAG, "stop " + dataTypeName + " failed... " + e.getMessage()));
+        }
+        subscriptions.clear();
+        Log.i(TAG, "record stopped... " + recorderRegistry);
+    }
+
+    /**
+     * Deliver a point kept by the policy of its type. Called on the worker thread of the fan-in.
+     *
+     * @param samplePoint real-time sampling point
+     * @param policy policy of its DataType
+     */
+    private void dispatch(SamplePoint samplePoint, SamplingPolicy policy) {
+        // Kept in memory first, so that a reader woken by the bus finds the point in the store.
+        SampleStore.getInstance().put(samplePoint);
+        // Activities of this process receive the point through the bus, without parceling.
+        SamplePointBus.getInstance().publish(samplePoint);
+        if (policy.getPersistence() == SamplingPolicy.Persistence.JOURNAL) {
+            // A cumulative type is computed by the platform, only the steps or meters it adds are journaled.
+            appendToJournal(policy.isJournaledAsDelta()
+                ? journalDeltas.get(policy.getDataType().getName()).next(samplePoint) : samplePoint);
+        }
+        if (!crossProcessBroadcast) {
+            return;
+        }
+        Intent intent = new Intent();
+        // A few dozen bytes instead of the parceled point, the receiver reads it with a SampleCodec.Decoder.
+        intent.putExtra(EXTRA_ENCODED_SAMPLE_POINT, SampleCodec.encode(samplePoint));
+        intent.setAction("HealthKitService");
+        // Transmits service data to other processes through broadcast.
+        sendBroadcast(intent);
+    }
+
+    /**
+     * Keep the point in the local journal, so that it is not lost when no activity is listening.
+     *
+     * @param samplePoint real-time sampling point, or null if there is nothing to journal
+     */
+    private void appendToJournal(SamplePoint samplePoint) {
+        if (journal == null || samplePoint == null) {
+            return;
+        }
+        try {
+            journal.append(samplePoint);
+        } catch (IOException e) {
+            Log.e(TAG, "append to journal failed: " + e.getMessage());
         }
-        // Start recording real-time steps.
-        autoRecorderController.startRecord(DataType.DT_CONTINUOUS_STEPS_TOTAL, samplePoint -> {
-            // The step count, time, and type data reported by the pedometer is called back to the app through
-            // samplePoint.
-            Intent intent = new Intent();
-            intent.putExtra("SamplePoint", samplePoint);
-            intent.setAction("HealthKitService");
-            // Transmits service data to activities through broadcast.
-            sendBroadcast(intent);
-        })
-            .addOnSuccessListener(aVoid -> Log.i(TAG, "record steps success... "))
-            .addOnFailureListener(e -> Log.i(TAG, "report steps failed... "));
     }
 
     /**
@@ -126,6 +245,44 @@ public class PersistService extends Service {
     @Override
     public void onDestroy() {
         super.onDestroy();
+        stopRemoteService();
+        try {
+            // Delivers the coalesced points before the journal is closed
+            fanIn.shutdown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Log.i(TAG, fanIn.toString());
+        if (journal != null) {
+            journal.setWakeGuard(null);
+            Log.i(TAG, journal + " " + journalWakeManager);
+            try {
+                journal.close();
+            } catch (IOException e) {
+                Log.e(TAG, "close journal failed: " + e.getMessage());
+            }
+            journal = null;
+        }
         Log.i(TAG, "PersistService is destroy.");
     }
+
+    /**
+     * Sink of the fan-in that reaches the service through a weak reference. The points that arrive after the
+     * service was collected are dropped.
+     */
+    private static final class ServiceSink implements SamplePointFanIn.Sink {
+        private final WeakReference<PersistService> service;
+
+        private ServiceSink(PersistService service) {
+            this.service = new WeakReference<>(service);
+        }
+
+        @Override
+        public void onSamplePoint(SamplePoint samplePoint, SamplingPolicy policy) {
+            PersistService persistService = service.get();
+            if (persistService != null) {
+                persistService.dispatch(samplePoint, policy);
+            }
+        }
+    }
 }
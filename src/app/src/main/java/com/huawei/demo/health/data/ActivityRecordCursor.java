@@ -0,0 +1,256 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.huawei.demo.health.metrics.TaskMetrics;
+import com.huawei.hmf.tasks.Task;
+import com.huawei.hmf.tasks.Tasks;
+import com.huawei.hms.hihealth.ActivityRecordsController;
+import com.huawei.hms.hihealth.data.ActivityRecord;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.SampleSet;
+import com.huawei.hms.hihealth.options.ActivityRecordReadOptions;
+import com.huawei.hms.hihealth.result.ActivityRecordReply;
+
+/**
+ * Cursor over the ActivityRecords of a long time range, oldest window first.
+ * The range is read in windows: one getActivityRecord call per window returns the records without their sample
+ * data, and the SampleSets of a record are only read when getSampleSets is called for it. Only the records of the
+ * current window and the SampleSets of the current record are held, so the memory follows one window and not
+ * the whole history.
+ * The calls block until the Health platform replies, the cursor must be used on a background thread.
+ *
+ * @since 2026-10-18
+ */
+public class ActivityRecordCursor {
+    /**
+     * Default length of a window
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private final ActivityRecordsController activityRecordsController;
+
+    private final long startTime;
+
+    private final long endTime;
+
+    private final long windowMillis;
+
+    private final DataType sampleDataType;
+
+    // Start of the next window to read
+    private long nextWindowStart;
+
+    private List<ActivityRecord> windowRecords = Collections.emptyList();
+
+    private int position = -1;
+
+    private ActivityRecord current;
+
+    // SampleSets of the current record, null until read
+    private List<SampleSet> currentSampleSets;
+
+    private int windowsRead;
+
+    private int recordsRead;
+
+    private int sampleSetReads;
+
+    /**
+     * Create a cursor with the default window length.
+     *
+     * @param activityRecordsController ActivityRecordsController object used to read the records
+     * @param startTime start of the range, in milliseconds
+     * @param endTime end of the range, in milliseconds
+     * @param sampleDataType DataType of the SampleSets read by getSampleSets
+     */
+    public ActivityRecordCursor(ActivityRecordsController activityRecordsController, long startTime, long endTime,
+        DataType sampleDataType) {
+        this(activityRecordsController, startTime, endTime, DEFAULT_WINDOW_MILLIS, sampleDataType);
+    }
+
+    /**
+     * Create a cursor.
+     *
+     * @param activityRecordsController ActivityRecordsController object used to read the records
+     * @param startTime start of the range, in milliseconds
+     * @param endTime end of the range, in milliseconds
+     * @param windowMillis length of the windows, smaller windows hold fewer records at a time
+     * @param sampleDataType DataType of the SampleSets read by getSampleSets
+     */
+    public ActivityRecordCursor(ActivityRecordsController activityRecordsController, long startTime, long endTime,
+        long windowMillis, DataType sampleDataType) {
+        if (endTime <= startTime) {
+            throw new IllegalArgumentException("endTime must be greater than startTime");
+        }
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be positive");
+        }
+        this.activityRecordsController = activityRecordsController;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.windowMillis = windowMillis;
+        this.sampleDataType = sampleDataType;
+        this.nextWindowStart = startTime;
+    }
+
+    /**
+     * Move to the next record, reading the next windows until one has a record or the range is read.
+     *
+     * @return true if the cursor is on a record, false at the end of the range
+     * @throws ExecutionException if a read failed, the cause is the exception of the task
+     * @throws InterruptedException if the thread was interrupted while waiting for a read
+     * @throws TimeoutException if a read did not finish in time
+     */
+    public boolean moveToNext() throws ExecutionException, InterruptedException, TimeoutException {
+        current = null;
+        currentSampleSets = null;
+        while (position + 1 >= windowRecords.size()) {
+            if (nextWindowStart >= endTime) {
+                windowRecords = Collections.emptyList();
+                return false;
+            }
+            readWindow();
+        }
+        position++;
+        current = windowRecords.get(position);
+        recordsRead++;
+        return true;
+    }
+
+    /**
+     * Get the record the cursor is on.
+     *
+     * @return the record
+     */
+    public ActivityRecord getActivityRecord() {
+        if (current == null) {
+            throw new IllegalStateException("the cursor is not on a record");
+        }
+        return current;
+    }
+
+    /**
+     * Get the SampleSets of the record the cursor is on, read on the first call for the record.
+     *
+     * @return the SampleSets of the sample DataType, empty if none
+     * @throws ExecutionException if the read failed, the cause is the exception of the task
+     * @throws InterruptedException if the thread was interrupted while waiting for the read
+     * @throws TimeoutException if the read did not finish in time
+     */
+    public List<SampleSet> getSampleSets() throws ExecutionException, InterruptedException, TimeoutException {
+        ActivityRecord activityRecord = getActivityRecord();
+        if (currentSampleSets == null) {
+            currentSampleSets = readSampleSets(activityRecord);
+        }
+        return currentSampleSets;
+    }
+
+    /**
+     * Release the records of the current window. The cursor is at the end of the range afterwards.
+     */
+    public void close() {
+        windowRecords = Collections.emptyList();
+        position = -1;
+        current = null;
+        currentSampleSets = null;
+        nextWindowStart = endTime;
+    }
+
+    public int getWindowsRead() {
+        return windowsRead;
+    }
+
+    public int getRecordsRead() {
+        return recordsRead;
+    }
+
+    public int getSampleSetReads() {
+        return sampleSetReads;
+    }
+
+    private void readWindow() throws ExecutionException, InterruptedException, TimeoutException {
+        long windowStart = nextWindowStart;
+        long windowEnd = Math.min(endTime, windowStart + windowMillis);
+        // No DataType is requested, so the reply carries the records without their sample data.
+        ActivityRecordReadOptions readOptions =
+            new ActivityRecordReadOptions.Builder().setTimeInterval(windowStart, windowEnd, TimeUnit.MILLISECONDS)
+                .readActivityRecordsFromAllApps()
+                .build();
+        ActivityRecordReply reply = await(activityRecordsController.getActivityRecord(readOptions));
+        windowsRead++;
+        nextWindowStart = windowEnd;
+
+        // A record overlapping several windows is returned by each of them, it is kept in the window of its start.
+        // Records starting before the range are kept in the first window.
+        List<ActivityRecord> records = new ArrayList<>();
+        if (reply != null && reply.getActivityRecords() != null) {
+            for (ActivityRecord activityRecord : reply.getActivityRecords()) {
+                if (activityRecord == null) {
+                    continue;
+                }
+                long recordStart = activityRecord.getStartTime(TimeUnit.MILLISECONDS);
+                if (recordStart < windowEnd && (recordStart >= windowStart || windowStart == startTime)) {
+                    records.add(activityRecord);
+                }
+            }
+        }
+        windowRecords = records;
+        position = -1;
+    }
+
+    private List<SampleSet> readSampleSets(ActivityRecord activityRecord)
+        throws ExecutionException, InterruptedException, TimeoutException {
+        long recordStart = activityRecord.getStartTime(TimeUnit.MILLISECONDS);
+        // A record that is still going on has no end time yet.
+        long recordEnd =
+            activityRecord.isKeepGoing() ? endTime : activityRecord.getEndTime(TimeUnit.MILLISECONDS);
+        ActivityRecordReadOptions readOptions = new ActivityRecordReadOptions.Builder()
+            .setTimeInterval(recordStart, Math.max(recordEnd, recordStart + 1), TimeUnit.MILLISECONDS)
+            .setActivityRecordId(activityRecord.getId())
+            .readActivityRecordsFromAllApps()
+            .read(sampleDataType)
+            .build();
+        ActivityRecordReply reply = await(activityRecordsController.getActivityRecord(readOptions));
+        sampleSetReads++;
+        if (reply == null || reply.getActivityRecords() == null) {
+            return Collections.emptyList();
+        }
+        // The SampleSets are keyed by the records of the reply.
+        for (ActivityRecord replyRecord : reply.getActivityRecords()) {
+            if (replyRecord != null && activityRecord.getId().equals(replyRecord.getId())) {
+                List<SampleSet> sampleSets = reply.getSampleSet(replyRecord);
+                return sampleSets == null ? Collections.emptyList() : sampleSets;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private static ActivityRecordReply await(Task<ActivityRecordReply> task)
+        throws ExecutionException, InterruptedException, TimeoutException {
+        return Tasks.await(TaskMetrics.track(task, "getActivityRecord", null), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.data;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.huawei.demo.health.metrics.TaskMetrics;
+import com.huawei.hmf.tasks.Task;
+import com.huawei.hms.hihealth.DataController;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+/**
+ * Bulk insert pipeline on top of DataController.insert.
+ * Sample points are grouped into SampleSet chunks by DataCollector and time window, and at most maxInFlight
+ * insert tasks are running at the same time. When all permits are taken, submit blocks the producer, so the memory
+ * used by the pipeline is bounded by maxInFlight * maxPointsPerSet points plus the open chunks.
+ * The blocking methods must not be called on the main thread.
+ *
+ * @since 2026-10-18
+ */
+public class BulkInsertPipeline {
+    /**
+     * Default number of insert tasks running at the same time
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    /**
+     * Default maximum number of sampling points in one SampleSet chunk
+     */
+    public static final int DEFAULT_MAX_POINTS_PER_SET = 500;
+
+    /**
+     * Default time window of one SampleSet chunk, one hour
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    // Maximum number of chunks that are filled at the same time
+    private static final int MAX_OPEN_CHUNKS = 16;
+
+    private final DataController dataController;
+
+    private final int maxInFlight;
+
+    private final int maxPointsPerSet;
+
+    private final long windowMillis;
+
+    private final Semaphore inFlight;
+
+    // Insert results are delivered on this executor, so that a blocked producer never blocks the callbacks.
+    private final ExecutorService callbackExecutor = Executors.newSingleThreadExecutor();
+
+    // Chunks being filled, keyed by data collector, in insertion order
+    private final Map<String, Chunk> openChunks = new LinkedHashMap<>();
+
+    private final AtomicLong pointsSubmitted = new AtomicLong();
+
+    private final AtomicLong pointsInserted = new AtomicLong();
+
+    private final AtomicLong setsInserted = new AtomicLong();
+
+    private final AtomicLong setsFailed = new AtomicLong();
+
+    private volatile Listener listener;
+
+    private long startNanos;
+
+    /**
+     * Create a pipeline with the default limits.
+     *
+     * @param dataController DataController object used to insert data
+     */
+    public BulkInsertPipeline(DataController dataController) {
+        this(dataController, DEFAULT_MAX_IN_FLIGHT, DEFAULT_MAX_POINTS_PER_SET, DEFAULT_WINDOW_MILLIS);
+    }
+
+    /**
+     * Create a pipeline.
+     *
+     * @param dataController DataController object used to insert data
+     * @param maxInFlight maximum number of insert tasks running at the same time
+     * @param maxPointsPerSet maximum number of sampling points in one SampleSet
+     * @param windowMillis time window covered by one SampleSet, in milliseconds
+     */
+    public BulkInsertPipeline(DataController dataController, int maxInFlight, int maxPointsPerSet,
+        long windowMillis) {
+        if (maxInFlight <= 0 || maxPointsPerSet <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("limits must be positive");
+        }
+        this.dataController = dataController;
+        this.maxInFlight = maxInFlight;
+        this.maxPointsPerSet = maxPointsPerSet;
+        this.windowMillis = windowMillis;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Set the listener notified when a chunk is inserted or fails.
+     *
+     * @param listener chunk result listener, invoked on a background thread
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public Listener getListener() {
+        return listener;
+    }
+
+    /**
+     * Submit all sampling points of the iterator, then flush and wait until every insert task has finished.
+     *
+     * @param samplePoints sampling points, may be generated lazily
+     * @return throughput statistics of the import
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public Stats ingest(Iterator<SamplePoint> samplePoints) throws InterruptedException {
+        while (samplePoints.hasNext()) {
+            submit(samplePoints.next());
+        }
+        flush();
+        awaitCompletion();
+        return getStats();
+    }
+
+    /**
+     * Add a sampling point to its chunk. Blocks while maxInFlight insert tasks are running and a chunk is full.
+     *
+     * @param samplePoint sampling point created with the DataCollector it belongs to
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public synchronized void submit(SamplePoint samplePoint) throws InterruptedException {
+        if (startNanos == 0L) {
+            startNanos = System.nanoTime();
+        }
+        DataCollector dataCollector = samplePoint.getDataCollector();
+        long window = samplePoint.getStartTime(TimeUnit.MILLISECONDS) / windowMillis;
+        String key = dataCollector.getDataStreamId();
+
+        Chunk chunk = openChunks.get(key);
+        if (chunk != null && chunk.window != window) {
+            openChunks.remove(key);
+            dispatch(chunk);
+            chunk = null;
+        }
+        if (chunk == null) {
+            if (openChunks.size() >= MAX_OPEN_CHUNKS) {
+                // Flush the oldest chunk to keep the number of buffered points bounded.
+                Iterator<Chunk> oldest = openChunks.values().iterator();
+                Chunk evicted = oldest.next();
+                oldest.remove();
+                dispatch(evicted);
+            }
+            chunk = new Chunk(dataCollector, window, maxPointsPerSet);
+            openChunks.put(key, chunk);
+        }
+        chunk.points.add(samplePoint);
+        pointsSubmitted.incrementAndGet();
+        if (chunk.points.size() >= maxPointsPerSet) {
+            openChunks.remove(key);
+            dispatch(chunk);
+        }
+    }
+
+    /**
+     * Insert all chunks that are still being filled.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public synchronized void flush() throws InterruptedException {
+        for (Chunk chunk : openChunks.values()) {
+            dispatch(chunk);
+        }
+        openChunks.clear();
+    }
+
+    /**
+     * Wait until all dispatched insert tasks have finished.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void awaitCompletion() throws InterruptedException {
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+
+    /**
+     * Release the callback thread. The pipeline cannot be used after this call.
+     */
+    public void shutdown() {
+        callbackExecutor.shutdown();
+    }
+
+    /**
+     * Get a snapshot of the throughput statistics.
+     *
+     * @return statistics of the points and sets handled so far
+     */
+    public Stats getStats() {
+        long elapsed = startNanos == 0L ? 0L : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return new Stats(pointsSubmitted.get(), pointsInserted.get(), setsInserted.get(), setsFailed.get(), elapsed);
+    }
+
+    private void dispatch(Chunk chunk) throws InterruptedException {
+        // Backpressure: wait for a free insert slot before building the next SampleSet.
+        inFlight.acquire();
+        final SampleSet sampleSet = SampleSet.create(chunk.dataCollector);
+        for (SamplePoint samplePoint : chunk.points) {
+            sampleSet.addSample(samplePoint);
+        }
+        final int size = chunk.points.size();
+        Task<Void> insertTask;
+        try {
+            insertTask = TaskMetrics.track(dataController.insert(sampleSet), "insert", sampleSet.getDataType(), size);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        // The permit is released once, whatever the outcome, so that a canceled insert does not hang
+        // awaitCompletion. The listener runs first, awaitCompletion returns after it has seen every chunk.
+        insertTask.addOnCompleteListener(callbackExecutor, completed -> {
+            Listener current = listener;
+            try {
+                if (completed.isSuccessful()) {
+                    pointsInserted.addAndGet(size);
+                    setsInserted.incrementAndGet();
+                    if (current != null) {
+                        current.onChunkInserted(sampleSet, getStats());
+                    }
+                } else {
+                    setsFailed.incrementAndGet();
+                    if (current != null) {
+                        current.onChunkFailed(sampleSet, completed.isCanceled() || completed.getException() == null
+                            ? new CancellationException("insert canceled") : completed.getException());
+                    }
+                }
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Listener of the chunk insert results
+     */
+    public interface Listener {
+        /**
+         * Called when a SampleSet chunk is inserted.
+         *
+         * @param sampleSet inserted sampling dataset
+         * @param stats statistics after this chunk
+         */
+        void onChunkInserted(SampleSet sampleSet, Stats stats);
+
+        /**
+         * Called when a SampleSet chunk fails to be inserted.
+         *
+         * @param sampleSet sampling dataset that was not inserted
+         * @param e failure exception
+         */
+        void onChunkFailed(SampleSet sampleSet, Exception e);
+    }
+
+    /**
+     * Throughput statistics of the pipeline
+     */
+    public static class Stats {
+        private final long pointsSubmitted;
+
+        private final long pointsInserted;
+
+        private final long setsInserted;
+
+        private final long setsFailed;
+
+        private final long elapsedMillis;
+
+        Stats(long pointsSubmitted, long pointsInserted, long setsInserted, long setsFailed, long elapsedMillis) {
+            this.pointsSubmitted = pointsSubmitted;
+            this.pointsInserted = pointsInserted;
+            this.setsInserted = setsInserted;
+            this.setsFailed = setsFailed;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getPointsSubmitted() {
+            return pointsSubmitted;
+        }
+
+        public long getPointsInserted() {
+            return pointsInserted;
+        }
+
+        public long getSetsInserted() {
+            return setsInserted;
+        }
+
+        public long getSetsFailed() {
+            return setsFailed;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * Get the number of inserted points per second.
+         *
+         * @return inserted points per second
+         */
+        public double getPointsPerSecond() {
+            return elapsedMillis == 0L ? 0d : pointsInserted * 1000d / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "submitted " + pointsSubmitted + " points, inserted " + pointsInserted + " points in "
+                + setsInserted + " sets, " + setsFailed + " sets failed, " + elapsedMillis + " ms, "
+                + String.format(Locale.ENGLISH, "%.1f", getPointsPerSecond()) + " points/s";
+        }
+    }
+
+    private static class Chunk {
+        private final DataCollector dataCollector;
+
+        private final long window;
+
+        private final List<SamplePoint> points;
+
+        Chunk(DataCollector dataCollector, long window, int capacity) {
+            this.dataCollector = dataCollector;
+            this.window = window;
+            this.points = new ArrayList<>(Math.min(capacity, 64));
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.data;
+
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.huawei.hmf.tasks.Task;
+import com.huawei.hmf.tasks.Tasks;
+import com.huawei.hms.hihealth.DataController;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+import com.huawei.hms.hihealth.options.DeleteOptions;
+import com.huawei.hms.hihealth.options.UpdateOptions;
+
+/**
+ * DataController wrapper that serves readTodaySummation, readDailySummation and readLatestData from a
+ * SummationCache, and invalidates the cache when the app writes data through insert, update, delete or clearAll.
+ * Daily summations of days that are over are kept until invalidated, other results expire after the TTL.
+ *
+ * @since 2026-10-18
+ */
+public class CachingDataController {
+    /**
+     * Default time to live of results that can still change
+     */
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final String API_TODAY = "readTodaySummation";
+
+    private static final String API_DAILY = "readDailySummation";
+
+    private static final String API_LATEST = "readLatestData";
+
+    // Marker cached for data types that have no latest data
+    private static final Object NO_DATA = new Object();
+
+    private final DataController dataController;
+
+    private final SummationCache cache;
+
+    private final long ttlMillis;
+
+    /**
+     * Create a caching wrapper with the default TTL.
+     *
+     * @param dataController DataController object to wrap
+     * @param cache cache shared by the wrappers of the app
+     */
+    public CachingDataController(DataController dataController, SummationCache cache) {
+        this(dataController, cache, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Create a caching wrapper.
+     *
+     * @param dataController DataController object to wrap
+     * @param cache cache shared by the wrappers of the app
+     * @param ttlMillis time to live of results that can still change
+     */
+    public CachingDataController(DataController dataController, SummationCache cache, long ttlMillis) {
+        this.dataController = dataController;
+        this.cache = cache;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Cached DataController.readTodaySummation. The entry expires after the TTL or at midnight.
+     *
+     * @param dataType data type to query
+     * @return task with the summary of the current day
+     */
+    public Task<SampleSet> readTodaySummation(DataType dataType) {
+        long now = System.currentTimeMillis();
+        String key = SummationCache.key(API_TODAY, dataType.getName(), startOfDay(now));
+        SampleSet cached = cache.get(key, now);
+        if (cached != null) {
+            return Tasks.fromResult(cached);
+        }
+        long generation = cache.getGeneration();
+        long expiresAt = Math.min(now + ttlMillis, startOfDay(now) + TimeUnit.DAYS.toMillis(1));
+        return dataController.readTodaySummation(dataType)
+            .addOnSuccessListener(sampleSet -> cache.put(key, dataType.getName(), sampleSet, expiresAt, generation));
+    }
+
+    /**
+     * Cached DataController.readDailySummation. If endTime is before today the result never changes on its own,
+     * so it is kept until invalidated.
+     *
+     * @param dataType data type to query
+     * @param startTime start day in yyyyMMdd format
+     * @param endTime end day in yyyyMMdd format
+     * @return task with the daily summaries
+     */
+    public Task<SampleSet> readDailySummation(DataType dataType, int startTime, int endTime) {
+        long now = System.currentTimeMillis();
+        String key = SummationCache.key(API_DAILY, dataType.getName(), startTime, endTime);
+        SampleSet cached = cache.get(key, now);
+        if (cached != null) {
+            return Tasks.fromResult(cached);
+        }
+        long generation = cache.getGeneration();
+        long expiresAt = endTime < today(now) ? SummationCache.NO_EXPIRY : now + ttlMillis;
+        return dataController.readDailySummation(dataType, startTime, endTime)
+            .addOnSuccessListener(sampleSet -> cache.put(key, dataType.getName(), sampleSet, expiresAt, generation));
+    }
+
+    /**
+     * Cached DataController.readLatestData. The cache is used only when every requested type is cached,
+     * otherwise all types are read in one call and cached one by one.
+     *
+     * @param dataTypes data types to query
+     * @return task with the latest point of each data type that has data
+     */
+    public Task<Map<DataType, SamplePoint>> readLatestData(List<DataType> dataTypes) {
+        long now = System.currentTimeMillis();
+        Map<DataType, SamplePoint> result = new HashMap<>();
+        for (DataType dataType : dataTypes) {
+            Object cached = cache.get(SummationCache.key(API_LATEST, dataType.getName()), now);
+            if (cached == null) {
+                result = null;
+                break;
+            }
+            // A type without data is cached as an empty marker, so that it does not force a new read.
+            if (cached instanceof SamplePoint) {
+                result.put(dataType, (SamplePoint) cached);
+            }
+        }
+        if (result != null) {
+            return Tasks.fromResult(result);
+        }
+        long generation = cache.getGeneration();
+        long expiresAt = now + ttlMillis;
+        return dataController.readLatestData(dataTypes).addOnSuccessListener(samplePointMap -> {
+            if (samplePointMap == null) {
+                return;
+            }
+            for (DataType dataType : dataTypes) {
+                Object value = samplePointMap.containsKey(dataType) ? samplePointMap.get(dataType) : NO_DATA;
+                cache.put(SummationCache.key(API_LATEST, dataType.getName()), dataType.getName(), value, expiresAt,
+                    generation);
+            }
+        });
+    }
+
+    /**
+     * DataController.insert, invalidating the cached results of the inserted data type.
+     *
+     * @param sampleSet sampling dataset to insert
+     * @return insert task
+     */
+    public Task<Void> insert(SampleSet sampleSet) {
+        // Invalidate before and after the write: before, so that no read started now is cached,
+        // and after, so that a read that overlaps the write is not served from the cache.
+        String dataTypeName = sampleSet.getDataType().getName();
+        cache.invalidate(dataTypeName);
+        return dataController.insert(sampleSet).addOnCompleteListener(task -> cache.invalidate(dataTypeName));
+    }
+
+    /**
+     * DataController.update. UpdateOptions does not expose its data types, so all results are invalidated.
+     *
+     * @param updateOptions update conditions
+     * @return update task
+     */
+    public Task<Void> update(UpdateOptions updateOptions) {
+        cache.invalidateAll();
+        return dataController.update(updateOptions).addOnCompleteListener(task -> cache.invalidateAll());
+    }
+
+    /**
+     * DataController.delete. DeleteOptions does not expose its data types, so all results are invalidated.
+     *
+     * @param deleteOptions delete conditions
+     * @return delete task
+     */
+    public Task<Void> delete(DeleteOptions deleteOptions) {
+        cache.invalidateAll();
+        return dataController.delete(deleteOptions).addOnCompleteListener(task -> cache.invalidateAll());
+    }
+
+    /**
+     * DataController.clearAll, invalidating all cached results.
+     *
+     * @return clear task
+     */
+    public Task<Void> clearAll() {
+        cache.invalidateAll();
+        return dataController.clearAll().addOnCompleteListener(task -> cache.invalidateAll());
+    }
+
+    /**
+     * Get the wrapped DataController, for the APIs that are not cached.
+     *
+     * @return the wrapped DataController
+     */
+    public DataController getDataController() {
+        return dataController;
+    }
+
+    private static long startOfDay(long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    private static int today(long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        return calendar.get(Calendar.YEAR) * 10000 + (calendar.get(Calendar.MONTH) + 1) * 100
+            + calendar.get(Calendar.DAY_OF_MONTH);
+    }
+}
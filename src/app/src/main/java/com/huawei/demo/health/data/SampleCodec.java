@@ -0,0 +1,557 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.data;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+import com.huawei.hms.hihealth.data.Value;
+
+/**
+ * Compact binary format of SamplePoints, shared by the journal, the broadcasts to other processes and the exports.
+ * <p>
+ * A standalone stream starts with a header (magic, version) followed by records back to back. A type record
+ * defines a type id for the rest of the stream: kind, id, data type name and field formats. A sample record refers
+ * to it: kind, type id, start time as delta to the previous sample of the stream, duration, the mask of the set
+ * fields, then the set values. Integers and times are zigzag varints, floats and doubles take 4 and 8 bytes,
+ * strings are a length and UTF-8 bytes; map values are not encoded. A reader must reject a stream of a newer
+ * version.
+ * <p>
+ * The Decoder is a flyweight over the buffer: it keeps the offsets of the values of the current sample and reads
+ * them in place, so that going through the samples allocates nothing. Only a type record allocates its name.
+ *
+ * @since 2026-10-18
+ */
+public final class SampleCodec {
+    /**
+     * Magic number of a standalone stream, "HKS1"
+     */
+    public static final int MAGIC = 0x484B5331;
+
+    /**
+     * Version written by the Encoder
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * Size of the header of a standalone stream
+     */
+    public static final int HEADER_SIZE = 5;
+
+    private static final byte KIND_TYPE = 1;
+
+    private static final byte KIND_SAMPLE = 2;
+
+    // One bit per field in the mask of the set fields
+    private static final int MAX_FIELDS = Long.SIZE;
+
+    private static final int INITIAL_CAPACITY = 128;
+
+    private SampleCodec() {
+    }
+
+    /**
+     * Write the header of a standalone stream.
+     *
+     * @param buffer buffer to write to
+     */
+    public static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC).put(VERSION);
+    }
+
+    /**
+     * Read the header of a standalone stream.
+     *
+     * @param buffer buffer to read from
+     * @return true if the stream has a known version, false if it is not a stream or a stream of a newer version
+     */
+    public static boolean readHeader(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            return false;
+        }
+        byte version = buffer.get();
+        return version >= 1 && version <= VERSION;
+    }
+
+    /**
+     * Encode one point as a standalone stream, for an Intent extra.
+     *
+     * @param samplePoint sampling point
+     * @return header, type record and sample record
+     */
+    public static byte[] encode(SamplePoint samplePoint) {
+        Encoder encoder = new Encoder();
+        for (int capacity = INITIAL_CAPACITY; ; capacity *= 2) {
+            ByteBuffer buffer = ByteBuffer.allocate(capacity);
+            writeHeader(buffer);
+            if (encoder.encode(samplePoint, buffer)) {
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            }
+        }
+    }
+
+    /**
+     * Writes the records of one stream. Not thread safe.
+     */
+    public static final class Encoder {
+        // Type ids of the stream, by data type name
+        private final Map<String, Integer> typeIds = new HashMap<>();
+
+        private long previousStartTime;
+
+        /**
+         * Start a new stream: the next point of each data type is preceded by its type record again.
+         */
+        public void reset() {
+            typeIds.clear();
+            previousStartTime = 0L;
+        }
+
+        /**
+         * Write the sample record of a point, preceded by a type record for the first point of its data type.
+         *
+         * @param samplePoint sampling point
+         * @param buffer buffer to write to
+         * @return true if the records were written, false if they do not fit: the buffer and the encoder are
+         *     then left as they were
+         */
+        public boolean encode(SamplePoint samplePoint, ByteBuffer buffer) {
+            int position = buffer.position();
+            String dataTypeName = samplePoint.getDataType().getName();
+            Integer typeId = typeIds.get(dataTypeName);
+            long startTime = samplePoint.getStartTime(TimeUnit.MILLISECONDS);
+            try {
+                if (typeId == null) {
+                    putType(buffer, typeIds.size(), dataTypeName, samplePoint.getDataType().getFields());
+                }
+                putSample(buffer, typeId == null ? typeIds.size() : typeId, startTime, samplePoint);
+            } catch (BufferOverflowException e) {
+                buffer.position(position);
+                return false;
+            }
+            if (typeId == null) {
+                typeIds.put(dataTypeName, typeIds.size());
+            }
+            previousStartTime = startTime;
+            return true;
+        }
+
+        /**
+         * Write all points of a SampleSet.
+         *
+         * @param sampleSet sampling points
+         * @param buffer buffer to write to
+         * @return number of points written, less than the size of the set if the buffer is full
+         */
+        public int encode(SampleSet sampleSet, ByteBuffer buffer) {
+            int written = 0;
+            for (SamplePoint samplePoint : sampleSet.getSamplePoints()) {
+                if (!encode(samplePoint, buffer)) {
+                    break;
+                }
+                written++;
+            }
+            return written;
+        }
+
+        private static void putType(ByteBuffer buffer, int typeId, String dataTypeName, List<Field> fields) {
+            buffer.put(KIND_TYPE);
+            putVarLong(buffer, typeId);
+            byte[] name = dataTypeName.getBytes(StandardCharsets.UTF_8);
+            putVarLong(buffer, name.length);
+            buffer.put(name);
+            putVarLong(buffer, fields.size());
+            for (Field field : fields) {
+                buffer.put((byte) field.getFormat());
+            }
+        }
+
+        private void putSample(ByteBuffer buffer, int typeId, long startTime, SamplePoint samplePoint) {
+            buffer.put(KIND_SAMPLE);
+            putVarLong(buffer, typeId);
+            putVarLong(buffer, zigzag(startTime - previousStartTime));
+            putVarLong(buffer, zigzag(samplePoint.getEndTime(TimeUnit.MILLISECONDS) - startTime));
+            List<Field> fields = samplePoint.getDataType().getFields();
+            int count = Math.min(fields.size(), MAX_FIELDS);
+            long setMask = 0L;
+            for (int i = 0; i < count; i++) {
+                Value value = samplePoint.getFieldValue(fields.get(i));
+                if (value != null && value.isSet() && fields.get(i).getFormat() != Field.FORMAT_MAP) {
+                    setMask |= 1L << i;
+                }
+            }
+            putVarLong(buffer, setMask);
+            for (int i = 0; i < count; i++) {
+                if ((setMask & (1L << i)) != 0) {
+                    putValue(buffer, fields.get(i).getFormat(), samplePoint.getFieldValue(fields.get(i)));
+                }
+            }
+        }
+
+        private static void putValue(ByteBuffer buffer, int format, Value value) {
+            if (format == Field.FORMAT_INT32) {
+                putVarLong(buffer, zigzag(value.asIntValue()));
+            } else if (format == Field.FORMAT_LONG) {
+                putVarLong(buffer, zigzag(value.asLongValue()));
+            } else if (format == Field.FORMAT_FLOAT) {
+                buffer.putFloat(value.asFloatValue());
+            } else if (format == Field.FORMAT_DOUBLE) {
+                buffer.putDouble(value.asDoubleValue());
+            } else {
+                byte[] bytes = String.valueOf(value.asStringValue()).getBytes(StandardCharsets.UTF_8);
+                putVarLong(buffer, bytes.length);
+                buffer.put(bytes);
+            }
+        }
+    }
+
+    /**
+     * Reads the records of one stream as a flyweight: after {@link #next()} the getters describe the current
+     * sample, whose values stay in the buffer. Not thread safe.
+     */
+    public static final class Decoder {
+        private ByteBuffer buffer;
+
+        // Names and field formats of the type ids of the stream
+        private String[] typeNames = new String[4];
+
+        private byte[][] typeFormats = new byte[4][];
+
+        private long previousStartTime;
+
+        // Current sample, typeId is -1 before the first sample of a buffer and after the last one
+        private int typeId = -1;
+
+        private long startTime;
+
+        private long endTime;
+
+        private long setMask;
+
+        // Position in the buffer of each set value of the current sample
+        private final int[] offsets = new int[MAX_FIELDS];
+
+        /**
+         * Start a new stream: forget the type ids and the previous start time.
+         *
+         * @return this decoder
+         */
+        public Decoder reset() {
+            Arrays.fill(typeNames, null);
+            Arrays.fill(typeFormats, null);
+            previousStartTime = 0L;
+            buffer = null;
+            typeId = -1;
+            return this;
+        }
+
+        /**
+         * Read the records of a buffer, from its position to its limit. The type ids and the previous start time
+         * are kept, so that a stream can be split over several buffers, as over the payloads of a journal segment.
+         *
+         * @param buffer buffer positioned on the first record
+         * @return this decoder
+         */
+        public Decoder wrap(ByteBuffer buffer) {
+            this.buffer = buffer;
+            typeId = -1;
+            return this;
+        }
+
+        /**
+         * Move to the next sample of the buffer, reading the type records before it.
+         *
+         * @return true if there is a sample, false at the end of the buffer
+         * @throws IllegalArgumentException if the buffer does not hold valid records
+         */
+        public boolean next() {
+            try {
+                while (buffer != null && buffer.hasRemaining()) {
+                    byte kind = buffer.get();
+                    if (kind == KIND_TYPE) {
+                        readType();
+                    } else if (kind == KIND_SAMPLE) {
+                        readSample();
+                        return true;
+                    } else {
+                        throw new IllegalArgumentException("unknown record kind " + kind);
+                    }
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IllegalArgumentException("truncated record", e);
+            }
+            typeId = -1;
+            return false;
+        }
+
+        /**
+         * Get the type id of the current sample, stable for the stream.
+         *
+         * @return type id
+         */
+        public int getTypeId() {
+            return typeId;
+        }
+
+        /**
+         * Get the data type name of the current sample, without allocation.
+         *
+         * @return name such as com.huawei.continuous.steps.total
+         */
+        public String getDataTypeName() {
+            return typeNames[typeId];
+        }
+
+        /**
+         * Get the start time of the current sample.
+         *
+         * @return start time in milliseconds
+         */
+        public long getStartTime() {
+            return startTime;
+        }
+
+        /**
+         * Get the end time of the current sample, the start time for an instantaneous sample.
+         *
+         * @return end time in milliseconds
+         */
+        public long getEndTime() {
+            return endTime;
+        }
+
+        /**
+         * Get the number of fields of the data type of the current sample.
+         *
+         * @return number of fields, as written by the encoder
+         */
+        public int getFieldCount() {
+            return Math.min(typeFormats[typeId].length, MAX_FIELDS);
+        }
+
+        /**
+         * Get the format of a field of the current sample.
+         *
+         * @param index index of the field in the data type
+         * @return format such as Field.FORMAT_INT32
+         */
+        public int getFormat(int index) {
+            return typeFormats[typeId][index];
+        }
+
+        /**
+         * Check whether a field of the current sample has a value.
+         *
+         * @param index index of the field in the data type
+         * @return true if the value was set
+         */
+        public boolean isSet(int index) {
+            return index < MAX_FIELDS && (setMask & (1L << index)) != 0;
+        }
+
+        public int getInt(int index) {
+            checkValue(index, Field.FORMAT_INT32, Field.FORMAT_INT32);
+            return (int) unzigzag(varLongAt(buffer, offsets[index]));
+        }
+
+        public long getLong(int index) {
+            checkValue(index, Field.FORMAT_INT32, Field.FORMAT_LONG);
+            return unzigzag(varLongAt(buffer, offsets[index]));
+        }
+
+        public float getFloat(int index) {
+            checkValue(index, Field.FORMAT_FLOAT, Field.FORMAT_FLOAT);
+            return buffer.getFloat(offsets[index]);
+        }
+
+        public double getDouble(int index) {
+            checkValue(index, Field.FORMAT_FLOAT, Field.FORMAT_DOUBLE);
+            if (getFormat(index) == Field.FORMAT_FLOAT) {
+                return buffer.getFloat(offsets[index]);
+            }
+            return buffer.getDouble(offsets[index]);
+        }
+
+        /**
+         * Get a string value of the current sample. Unlike the other getters it allocates the string.
+         *
+         * @param index index of the field in the data type
+         * @return the string
+         */
+        public String getString(int index) {
+            checkValue(index, Field.FORMAT_STRING, Field.FORMAT_STRING);
+            ByteBuffer value = buffer.duplicate();
+            value.position(offsets[index]);
+            byte[] bytes = new byte[(int) getVarLong(value)];
+            value.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Copy the current sample to a new point of a SampleSet of the same data type. Values of fields the
+         * data type does not have, written by a version with more fields, are left out.
+         *
+         * @param sampleSet SampleSet whose DataCollector the point is created with, the point is not added to it
+         * @return the point
+         */
+        public SamplePoint toSamplePoint(SampleSet sampleSet) {
+            SamplePoint samplePoint = sampleSet.createSamplePoint();
+            if (startTime == endTime) {
+                samplePoint.setSamplingTime(startTime, TimeUnit.MILLISECONDS);
+            } else {
+                samplePoint.setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS);
+            }
+            List<Field> fields = sampleSet.getDataType().getFields();
+            int count = Math.min(getFieldCount(), fields.size());
+            for (int i = 0; i < count; i++) {
+                if (isSet(i)) {
+                    copyValue(i, samplePoint.getFieldValue(fields.get(i)));
+                }
+            }
+            return samplePoint;
+        }
+
+        private void copyValue(int index, Value value) {
+            int format = getFormat(index);
+            if (format == Field.FORMAT_INT32) {
+                value.setIntValue(getInt(index));
+            } else if (format == Field.FORMAT_LONG) {
+                value.setLongValue(getLong(index));
+            } else if (format == Field.FORMAT_FLOAT) {
+                value.setFloatValue(getFloat(index));
+            } else if (format == Field.FORMAT_DOUBLE) {
+                value.setDoubleValue(getDouble(index));
+            } else {
+                value.setStringValue(getString(index));
+            }
+        }
+
+        private void checkValue(int index, int format, int otherFormat) {
+            if (!isSet(index)) {
+                throw new IllegalStateException("field " + index + " not set");
+            }
+            int actual = getFormat(index);
+            if (actual != format && actual != otherFormat) {
+                throw new IllegalStateException("field " + index + " has format " + actual);
+            }
+        }
+
+        private void readType() {
+            int id = (int) getVarLong(buffer);
+            byte[] name = new byte[(int) getVarLong(buffer)];
+            buffer.get(name);
+            byte[] formats = new byte[(int) getVarLong(buffer)];
+            buffer.get(formats);
+            if (id < 0) {
+                throw new IllegalArgumentException("invalid type id " + id);
+            }
+            if (id >= typeNames.length) {
+                int capacity = Math.max(id + 1, typeNames.length * 2);
+                typeNames = Arrays.copyOf(typeNames, capacity);
+                typeFormats = Arrays.copyOf(typeFormats, capacity);
+            }
+            typeNames[id] = new String(name, StandardCharsets.UTF_8);
+            typeFormats[id] = formats;
+        }
+
+        private void readSample() {
+            int id = (int) getVarLong(buffer);
+            if (id < 0 || id >= typeNames.length || typeNames[id] == null) {
+                throw new IllegalArgumentException("undefined type id " + id);
+            }
+            typeId = id;
+            startTime = previousStartTime + unzigzag(getVarLong(buffer));
+            endTime = startTime + unzigzag(getVarLong(buffer));
+            previousStartTime = startTime;
+            setMask = getVarLong(buffer);
+            byte[] formats = typeFormats[id];
+            for (int i = 0; i < formats.length && i < MAX_FIELDS; i++) {
+                if ((setMask & (1L << i)) != 0) {
+                    offsets[i] = buffer.position();
+                    skipValue(formats[i]);
+                }
+            }
+        }
+
+        private void skipValue(int format) {
+            if (format == Field.FORMAT_INT32 || format == Field.FORMAT_LONG) {
+                getVarLong(buffer);
+            } else if (format == Field.FORMAT_FLOAT) {
+                buffer.position(buffer.position() + Float.BYTES);
+            } else if (format == Field.FORMAT_DOUBLE) {
+                buffer.position(buffer.position() + Double.BYTES);
+            } else if (format == Field.FORMAT_STRING) {
+                int length = (int) getVarLong(buffer);
+                buffer.position(buffer.position() + length);
+            } else {
+                throw new IllegalArgumentException("value of format " + format + " cannot be decoded");
+            }
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer.put((byte) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0L;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    private static long varLongAt(ByteBuffer buffer, int index) {
+        long value = 0L;
+        int position = index;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get(position++);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+}
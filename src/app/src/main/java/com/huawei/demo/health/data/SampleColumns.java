@@ -0,0 +1,630 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.data;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+import com.huawei.hms.hihealth.data.Value;
+
+/**
+ * Columnar copy of the sampling points of one data type.
+ * Start and end times are kept in long arrays and every numeric field in a primitive array of its format: int[] for
+ * FORMAT_INT32, long[] for FORMAT_LONG, float[] for FORMAT_FLOAT and double[] for FORMAT_DOUBLE. String and map
+ * fields are not kept. No reference to the SamplePoints is kept, so the SampleSets can be released once appended,
+ * and the aggregations are plain loops over the primitive arrays. Not thread safe.
+ *
+ * @since 2026-10-18
+ */
+public class SampleColumns {
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Primitive array kind of the numeric field formats
+    private static final int KIND_INT = 0;
+
+    private static final int KIND_LONG = 1;
+
+    private static final int KIND_FLOAT = 2;
+
+    private static final int KIND_DOUBLE = 3;
+
+    private static final int KIND_NONE = -1;
+
+    private final DataType dataType;
+
+    private final List<Field> fields;
+
+    // Format of each field, the column of a non-numeric field is null
+    private final int[] formats;
+
+    private final Object[] columns;
+
+    // Rows without a value, per column. Null as long as every row has a value.
+    private final BitSet[] missing;
+
+    private long[] startTimes;
+
+    private long[] endTimes;
+
+    private int size;
+
+    /**
+     * Create an empty store.
+     *
+     * @param dataType data type of the points
+     */
+    public SampleColumns(DataType dataType) {
+        this(dataType, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Create an empty store.
+     *
+     * @param dataType data type of the points
+     * @param capacity number of points the arrays are allocated for
+     */
+    public SampleColumns(DataType dataType, int capacity) {
+        this.dataType = dataType;
+        this.fields = dataType.getFields();
+        int initialCapacity = Math.max(capacity, 1);
+        this.formats = new int[fields.size()];
+        this.columns = new Object[fields.size()];
+        this.missing = new BitSet[fields.size()];
+        for (int i = 0; i < formats.length; i++) {
+            formats[i] = fields.get(i).getFormat();
+            columns[i] = newColumn(formats[i], initialCapacity);
+        }
+        this.startTimes = new long[initialCapacity];
+        this.endTimes = new long[initialCapacity];
+    }
+
+    /**
+     * Convert all SampleSets of a read result, one store per data type.
+     *
+     * @param sampleSets SampleSets returned by DataController.read
+     * @return stores keyed by data type name, in the order of the SampleSets
+     */
+    public static Map<String, SampleColumns> fromSampleSets(List<SampleSet> sampleSets) {
+        Map<String, SampleColumns> result = new LinkedHashMap<>();
+        for (SampleSet sampleSet : sampleSets) {
+            DataType type = sampleSet.getDataType();
+            SampleColumns columns = result.get(type.getName());
+            if (columns == null) {
+                columns = new SampleColumns(type, sampleSet.getSamplePoints().size());
+                result.put(type.getName(), columns);
+            }
+            columns.append(sampleSet);
+        }
+        return result;
+    }
+
+    /**
+     * Append all points of a SampleSet.
+     *
+     * @param sampleSet SampleSet of the data type of this store
+     */
+    public void append(SampleSet sampleSet) {
+        if (!dataType.getName().equals(sampleSet.getDataType().getName())) {
+            throw new IllegalArgumentException("data type " + sampleSet.getDataType().getName() + " is not "
+                + dataType.getName());
+        }
+        List<SamplePoint> samplePoints = sampleSet.getSamplePoints();
+        ensureCapacity(size + samplePoints.size());
+        for (SamplePoint samplePoint : samplePoints) {
+            appendPoint(samplePoint);
+        }
+    }
+
+    /**
+     * Append a point.
+     *
+     * @param samplePoint point of the data type of this store
+     */
+    public void append(SamplePoint samplePoint) {
+        ensureCapacity(size + 1);
+        appendPoint(samplePoint);
+    }
+
+    /**
+     * Release the memory the arrays have allocated beyond the number of points.
+     */
+    public void trimToSize() {
+        resize(Math.max(size, 1));
+    }
+
+    /**
+     * Get the data type of the points.
+     *
+     * @return data type
+     */
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    /**
+     * Get the number of points.
+     *
+     * @return number of points
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the start time of a point.
+     *
+     * @param index index of the point
+     * @return start time in milliseconds
+     */
+    public long getStartTime(int index) {
+        checkIndex(index);
+        return startTimes[index];
+    }
+
+    /**
+     * Get the end time of a point.
+     *
+     * @param index index of the point
+     * @return end time in milliseconds
+     */
+    public long getEndTime(int index) {
+        checkIndex(index);
+        return endTimes[index];
+    }
+
+    /**
+     * Whether a point has a value for a field.
+     *
+     * @param field numeric field of the data type
+     * @param index index of the point
+     * @return true if the value is set
+     */
+    public boolean hasValue(Field field, int index) {
+        checkIndex(index);
+        BitSet absent = missing[columnOf(field)];
+        return absent == null || !absent.get(index);
+    }
+
+    /**
+     * Get the value of a field as a double.
+     *
+     * @param field numeric field of the data type
+     * @param index index of the point
+     * @return the value, or NaN if it is not set
+     */
+    public double getValue(Field field, int index) {
+        checkIndex(index);
+        int column = columnOf(field);
+        if (missing[column] != null && missing[column].get(index)) {
+            return Double.NaN;
+        }
+        return valueAt(column, index);
+    }
+
+    /**
+     * Count the points that have a value for a field.
+     *
+     * @param field numeric field of the data type
+     * @return number of values
+     */
+    public int count(Field field) {
+        BitSet absent = missing[columnOf(field)];
+        return absent == null ? size : size - absent.cardinality();
+    }
+
+    /**
+     * Sum the values of a field.
+     *
+     * @param field numeric field of the data type
+     * @return sum of the values, 0 if there is no value
+     */
+    public double sum(Field field) {
+        int column = columnOf(field);
+        if (missing[column] != null) {
+            double sum = 0;
+            for (int i = nextPresent(column, 0); i < size; i = nextPresent(column, i + 1)) {
+                sum += valueAt(column, i);
+            }
+            return sum;
+        }
+        // Dense loops per primitive type, without boxing or per row branches.
+        switch (kindOf(formats[column])) {
+            case KIND_INT: {
+                long sum = 0;
+                int[] values = (int[]) columns[column];
+                for (int i = 0; i < size; i++) {
+                    sum += values[i];
+                }
+                return sum;
+            }
+            case KIND_LONG: {
+                long sum = 0;
+                long[] values = (long[]) columns[column];
+                for (int i = 0; i < size; i++) {
+                    sum += values[i];
+                }
+                return sum;
+            }
+            case KIND_FLOAT: {
+                double sum = 0;
+                float[] values = (float[]) columns[column];
+                for (int i = 0; i < size; i++) {
+                    sum += values[i];
+                }
+                return sum;
+            }
+            default: {
+                double sum = 0;
+                double[] values = (double[]) columns[column];
+                for (int i = 0; i < size; i++) {
+                    sum += values[i];
+                }
+                return sum;
+            }
+        }
+    }
+
+    /**
+     * Get the smallest value of a field.
+     *
+     * @param field numeric field of the data type
+     * @return smallest value, or NaN if there is no value
+     */
+    public double min(Field field) {
+        int column = columnOf(field);
+        if (missing[column] != null || size == 0) {
+            double min = Double.NaN;
+            for (int i = nextPresent(column, 0); i < size; i = nextPresent(column, i + 1)) {
+                double value = valueAt(column, i);
+                if (!(value >= min)) {
+                    min = value;
+                }
+            }
+            return min;
+        }
+        // Dense loops per primitive type, as in sum.
+        switch (kindOf(formats[column])) {
+            case KIND_INT: {
+                int[] values = (int[]) columns[column];
+                int min = values[0];
+                for (int i = 1; i < size; i++) {
+                    if (values[i] < min) {
+                        min = values[i];
+                    }
+                }
+                return min;
+            }
+            case KIND_LONG: {
+                long[] values = (long[]) columns[column];
+                long min = values[0];
+                for (int i = 1; i < size; i++) {
+                    if (values[i] < min) {
+                        min = values[i];
+                    }
+                }
+                return min;
+            }
+            case KIND_FLOAT: {
+                float[] values = (float[]) columns[column];
+                double min = Double.NaN;
+                for (int i = 0; i < size; i++) {
+                    if (!(values[i] >= min)) {
+                        min = values[i];
+                    }
+                }
+                return min;
+            }
+            default: {
+                double[] values = (double[]) columns[column];
+                double min = Double.NaN;
+                for (int i = 0; i < size; i++) {
+                    if (!(values[i] >= min)) {
+                        min = values[i];
+                    }
+                }
+                return min;
+            }
+        }
+    }
+
+    /**
+     * Get the largest value of a field.
+     *
+     * @param field numeric field of the data type
+     * @return largest value, or NaN if there is no value
+     */
+    public double max(Field field) {
+        int column = columnOf(field);
+        if (missing[column] != null || size == 0) {
+            double max = Double.NaN;
+            for (int i = nextPresent(column, 0); i < size; i = nextPresent(column, i + 1)) {
+                double value = valueAt(column, i);
+                if (!(value <= max)) {
+                    max = value;
+                }
+            }
+            return max;
+        }
+        // Dense loops per primitive type, as in sum.
+        switch (kindOf(formats[column])) {
+            case KIND_INT: {
+                int[] values = (int[]) columns[column];
+                int max = values[0];
+                for (int i = 1; i < size; i++) {
+                    if (values[i] > max) {
+                        max = values[i];
+                    }
+                }
+                return max;
+            }
+            case KIND_LONG: {
+                long[] values = (long[]) columns[column];
+                long max = values[0];
+                for (int i = 1; i < size; i++) {
+                    if (values[i] > max) {
+                        max = values[i];
+                    }
+                }
+                return max;
+            }
+            case KIND_FLOAT: {
+                float[] values = (float[]) columns[column];
+                double max = Double.NaN;
+                for (int i = 0; i < size; i++) {
+                    if (!(values[i] <= max)) {
+                        max = values[i];
+                    }
+                }
+                return max;
+            }
+            default: {
+                double[] values = (double[]) columns[column];
+                double max = Double.NaN;
+                for (int i = 0; i < size; i++) {
+                    if (!(values[i] <= max)) {
+                        max = values[i];
+                    }
+                }
+                return max;
+            }
+        }
+    }
+
+    /**
+     * Get the average value of a field.
+     *
+     * @param field numeric field of the data type
+     * @return average value, or NaN if there is no value
+     */
+    public double avg(Field field) {
+        int count = count(field);
+        return count == 0 ? Double.NaN : sum(field) / count;
+    }
+
+    /**
+     * Get percentiles of a field, interpolated linearly between the closest ranks.
+     * The values are copied and sorted once for all requested percentiles.
+     *
+     * @param field numeric field of the data type
+     * @param percentiles percentiles between 0 and 100
+     * @return the value of each percentile, NaN if there is no value
+     */
+    public double[] percentiles(Field field, double... percentiles) {
+        double[] sorted = valuesOf(columnOf(field));
+        int n = sorted.length;
+        Arrays.sort(sorted);
+        double[] result = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            if (percentiles[i] < 0 || percentiles[i] > 100) {
+                throw new IllegalArgumentException("percentile " + percentiles[i] + " not in [0, 100]");
+            }
+            if (n == 0) {
+                result[i] = Double.NaN;
+                continue;
+            }
+            double rank = percentiles[i] / 100 * (n - 1);
+            int lower = (int) Math.floor(rank);
+            int upper = Math.min(lower + 1, n - 1);
+            result[i] = sorted[lower] + (sorted[upper] - sorted[lower]) * (rank - lower);
+        }
+        return result;
+    }
+
+    /**
+     * Get a percentile of a field.
+     *
+     * @param field numeric field of the data type
+     * @param percentile percentile between 0 and 100
+     * @return value of the percentile, NaN if there is no value
+     */
+    public double percentile(Field field, double percentile) {
+        return percentiles(field, percentile)[0];
+    }
+
+    private double[] valuesOf(int column) {
+        if (missing[column] != null) {
+            double[] copy = new double[size - missing[column].cardinality()];
+            int n = 0;
+            for (int i = nextPresent(column, 0); i < size; i = nextPresent(column, i + 1)) {
+                copy[n++] = valueAt(column, i);
+            }
+            return copy;
+        }
+        // One pass over the primitive column, without a type switch per row.
+        double[] copy = new double[size];
+        switch (kindOf(formats[column])) {
+            case KIND_INT: {
+                int[] values = (int[]) columns[column];
+                for (int i = 0; i < size; i++) {
+                    copy[i] = values[i];
+                }
+                return copy;
+            }
+            case KIND_LONG: {
+                long[] values = (long[]) columns[column];
+                for (int i = 0; i < size; i++) {
+                    copy[i] = values[i];
+                }
+                return copy;
+            }
+            case KIND_FLOAT: {
+                float[] values = (float[]) columns[column];
+                for (int i = 0; i < size; i++) {
+                    copy[i] = values[i];
+                }
+                return copy;
+            }
+            default:
+                System.arraycopy(columns[column], 0, copy, 0, size);
+                return copy;
+        }
+    }
+
+    private static int kindOf(int format) {
+        if (format == Field.FORMAT_INT32) {
+            return KIND_INT;
+        } else if (format == Field.FORMAT_LONG) {
+            return KIND_LONG;
+        } else if (format == Field.FORMAT_FLOAT) {
+            return KIND_FLOAT;
+        } else if (format == Field.FORMAT_DOUBLE) {
+            return KIND_DOUBLE;
+        }
+        return KIND_NONE;
+    }
+
+    private static Object newColumn(int format, int capacity) {
+        switch (kindOf(format)) {
+            case KIND_INT:
+                return new int[capacity];
+            case KIND_LONG:
+                return new long[capacity];
+            case KIND_FLOAT:
+                return new float[capacity];
+            case KIND_DOUBLE:
+                return new double[capacity];
+            default:
+                return null;
+        }
+    }
+
+    private void appendPoint(SamplePoint samplePoint) {
+        int row = size++;
+        startTimes[row] = samplePoint.getStartTime(TimeUnit.MILLISECONDS);
+        endTimes[row] = samplePoint.getEndTime(TimeUnit.MILLISECONDS);
+        for (int column = 0; column < columns.length; column++) {
+            if (columns[column] == null) {
+                continue;
+            }
+            Value value = samplePoint.getFieldValue(fields.get(column));
+            if (value == null || !value.isSet()) {
+                if (missing[column] == null) {
+                    missing[column] = new BitSet();
+                }
+                missing[column].set(row);
+                continue;
+            }
+            switch (kindOf(formats[column])) {
+                case KIND_INT:
+                    ((int[]) columns[column])[row] = value.asIntValue();
+                    break;
+                case KIND_LONG:
+                    ((long[]) columns[column])[row] = value.asLongValue();
+                    break;
+                case KIND_FLOAT:
+                    ((float[]) columns[column])[row] = value.asFloatValue();
+                    break;
+                default:
+                    ((double[]) columns[column])[row] = value.asDoubleValue();
+                    break;
+            }
+        }
+    }
+
+    private double valueAt(int column, int row) {
+        switch (kindOf(formats[column])) {
+            case KIND_INT:
+                return ((int[]) columns[column])[row];
+            case KIND_LONG:
+                return ((long[]) columns[column])[row];
+            case KIND_FLOAT:
+                return ((float[]) columns[column])[row];
+            default:
+                return ((double[]) columns[column])[row];
+        }
+    }
+
+    private int nextPresent(int column, int from) {
+        BitSet absent = missing[column];
+        return absent == null ? from : absent.nextClearBit(from);
+    }
+
+    private int columnOf(Field field) {
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).getName().equals(field.getName())) {
+                if (columns[i] == null) {
+                    throw new IllegalArgumentException("field " + field.getName() + " is not numeric");
+                }
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("field " + field.getName() + " is not a field of " + dataType.getName());
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > startTimes.length) {
+            resize(Math.max(capacity, startTimes.length * 2));
+        }
+    }
+
+    private void resize(int capacity) {
+        startTimes = Arrays.copyOf(startTimes, capacity);
+        endTimes = Arrays.copyOf(endTimes, capacity);
+        for (int i = 0; i < columns.length; i++) {
+            switch (kindOf(formats[i])) {
+                case KIND_INT:
+                    columns[i] = Arrays.copyOf((int[]) columns[i], capacity);
+                    break;
+                case KIND_LONG:
+                    columns[i] = Arrays.copyOf((long[]) columns[i], capacity);
+                    break;
+                case KIND_FLOAT:
+                    columns[i] = Arrays.copyOf((float[]) columns[i], capacity);
+                    break;
+                case KIND_DOUBLE:
+                    columns[i] = Arrays.copyOf((double[]) columns[i], capacity);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+/**
+ * In-memory store of recent SamplePoints shared by the recorder service, the foreground workout and the
+ * activities of the app process.
+ * Points are sharded by DataType, data stream and time bucket, each shard is a concurrent skip list keyed by start
+ * time. Writers of different streams or buckets never touch the same shard, and even writers of the same shard and
+ * range readers do not lock: a read walks the shards of its range and sees a weakly consistent view of them. A point
+ * replaces the point of the same data stream and start time, so points delivered twice are not duplicated, while
+ * the points of two sources of a type are both kept. Shards older than the retention are dropped whole when a newer
+ * shard of the same stream is created.
+ *
+ * @since 2026-10-18
+ */
+public class SampleStore {
+    private static final long DEFAULT_BUCKET_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final long DEFAULT_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final SampleStore INSTANCE = new SampleStore(DEFAULT_BUCKET_MILLIS, DEFAULT_RETENTION_MILLIS);
+
+    private static final Comparator<SamplePoint> BY_START_TIME =
+        (left, right) -> Long.compare(left.getStartTime(TimeUnit.MILLISECONDS),
+            right.getStartTime(TimeUnit.MILLISECONDS));
+
+    private final long bucketMillis;
+
+    // Number of buckets kept before the newest bucket of a stream
+    private final long retainedBuckets;
+
+    // Streams of each DataType name, keyed by data stream ID
+    private final ConcurrentMap<String, ConcurrentMap<String, Stream>> streams = new ConcurrentHashMap<>();
+
+    // Counted apart, the size of a skip list is a walk over all of its nodes
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Create a store.
+     *
+     * @param bucketMillis time span of a shard in milliseconds
+     * @param retentionMillis how long points are kept before the newest point of their stream, in milliseconds
+     */
+    public SampleStore(long bucketMillis, long retentionMillis) {
+        if (bucketMillis <= 0 || retentionMillis < 0) {
+            throw new IllegalArgumentException("bucketMillis must be positive and retentionMillis not negative");
+        }
+        this.bucketMillis = bucketMillis;
+        this.retainedBuckets = (retentionMillis + bucketMillis - 1) / bucketMillis;
+    }
+
+    /**
+     * Get the store shared by the services and activities of the app process: one hour shards, one day retention.
+     *
+     * @return the store
+     */
+    public static SampleStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Add a point, or replace the point of the same data stream and start time.
+     *
+     * @param samplePoint sampling point
+     * @return true if the point was added, false if it replaced a point
+     */
+    public boolean put(SamplePoint samplePoint) {
+        long time = samplePoint.getStartTime(TimeUnit.MILLISECONDS);
+        ConcurrentSkipListMap<Long, SamplePoint> shard = stream(samplePoint).shard(time);
+        if (shard.put(time, samplePoint) != null) {
+            return false;
+        }
+        size.increment();
+        return true;
+    }
+
+    /**
+     * Add all points of a SampleSet.
+     *
+     * @param sampleSet sampling points
+     */
+    public void putAll(SampleSet sampleSet) {
+        for (SamplePoint samplePoint : sampleSet.getSamplePoints()) {
+            put(samplePoint);
+        }
+    }
+
+    /**
+     * Get the points of a DataType that start in a time range, in time order. The points of all streams of the
+     * type are returned, points of different sources with the same start time are all included.
+     *
+     * @param dataType data type
+     * @param startTime start of the range in milliseconds
+     * @param endTime end of the range in milliseconds, exclusive
+     * @return copy of the points, empty if there is none
+     */
+    public List<SamplePoint> read(DataType dataType, long startTime, long endTime) {
+        ConcurrentMap<String, Stream> typeStreams = streams.get(dataType.getName());
+        if (typeStreams == null || endTime <= startTime) {
+            return Collections.emptyList();
+        }
+        List<SamplePoint> samplePoints = new ArrayList<>();
+        for (Stream stream : typeStreams.values()) {
+            stream.read(startTime, endTime, samplePoints);
+        }
+        if (typeStreams.size() > 1) {
+            Collections.sort(samplePoints, BY_START_TIME);
+        }
+        return samplePoints;
+    }
+
+    /**
+     * Get the points of a data stream that start in a time range, in time order.
+     *
+     * @param dataCollector data collector of the stream
+     * @param startTime start of the range in milliseconds
+     * @param endTime end of the range in milliseconds, exclusive
+     * @return copy of the points, empty if there is none
+     */
+    public List<SamplePoint> read(DataCollector dataCollector, long startTime, long endTime) {
+        ConcurrentMap<String, Stream> typeStreams = streams.get(dataCollector.getDataType().getName());
+        Stream stream = typeStreams == null ? null : typeStreams.get(dataCollector.getDataStreamId());
+        if (stream == null || endTime <= startTime) {
+            return Collections.emptyList();
+        }
+        List<SamplePoint> samplePoints = new ArrayList<>();
+        stream.read(startTime, endTime, samplePoints);
+        return samplePoints;
+    }
+
+    /**
+     * Get the latest point of a DataType, over all of its streams.
+     *
+     * @param dataType data type
+     * @return the point with the latest start time, null if there is none
+     */
+    public SamplePoint latest(DataType dataType) {
+        ConcurrentMap<String, Stream> typeStreams = streams.get(dataType.getName());
+        if (typeStreams == null) {
+            return null;
+        }
+        SamplePoint latest = null;
+        for (Stream stream : typeStreams.values()) {
+            SamplePoint samplePoint = stream.latest();
+            if (samplePoint != null && (latest == null || BY_START_TIME.compare(samplePoint, latest) > 0)) {
+                latest = samplePoint;
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Drop all points of a DataType.
+     *
+     * @param dataType data type
+     */
+    public void clear(DataType dataType) {
+        ConcurrentMap<String, Stream> typeStreams = streams.remove(dataType.getName());
+        if (typeStreams != null) {
+            for (Stream stream : typeStreams.values()) {
+                for (ConcurrentSkipListMap<Long, SamplePoint> shard : stream.buckets.values()) {
+                    size.add(-shard.size());
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of points in the store. Points added while shards are dropped may be miscounted until the
+     * writers are done.
+     *
+     * @return number of points
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    private Stream stream(SamplePoint samplePoint) {
+        String dataTypeName = samplePoint.getDataType().getName();
+        ConcurrentMap<String, Stream> typeStreams = streams.get(dataTypeName);
+        if (typeStreams == null) {
+            typeStreams = new ConcurrentHashMap<>();
+            ConcurrentMap<String, Stream> previous = streams.putIfAbsent(dataTypeName, typeStreams);
+            if (previous != null) {
+                typeStreams = previous;
+            }
+        }
+        String streamId = samplePoint.getDataCollector().getDataStreamId();
+        Stream stream = typeStreams.get(streamId);
+        if (stream == null) {
+            stream = new Stream();
+            Stream previous = typeStreams.putIfAbsent(streamId, stream);
+            if (previous != null) {
+                stream = previous;
+            }
+        }
+        return stream;
+    }
+
+    private long bucketOf(long time) {
+        return Math.floorDiv(time, bucketMillis);
+    }
+
+    /**
+     * Shards of one data stream, keyed by bucket index, then points keyed by start time in milliseconds
+     */
+    private final class Stream {
+        private final ConcurrentSkipListMap<Long, ConcurrentSkipListMap<Long, SamplePoint>> buckets =
+            new ConcurrentSkipListMap<>();
+
+        private ConcurrentSkipListMap<Long, SamplePoint> shard(long time) {
+            long bucket = bucketOf(time);
+            ConcurrentSkipListMap<Long, SamplePoint> shard = buckets.get(bucket);
+            if (shard != null) {
+                return shard;
+            }
+            shard = new ConcurrentSkipListMap<>();
+            ConcurrentSkipListMap<Long, SamplePoint> previous = buckets.putIfAbsent(bucket, shard);
+            if (previous != null) {
+                return previous;
+            }
+            // Only the writer that opens a bucket looks for expired ones.
+            evict(bucket - retainedBuckets);
+            return shard;
+        }
+
+        private void read(long startTime, long endTime, List<SamplePoint> samplePoints) {
+            ConcurrentNavigableMap<Long, ConcurrentSkipListMap<Long, SamplePoint>> range =
+                buckets.subMap(bucketOf(startTime), true, bucketOf(endTime - 1), true);
+            for (ConcurrentSkipListMap<Long, SamplePoint> shard : range.values()) {
+                samplePoints.addAll(shard.subMap(startTime, true, endTime, false).values());
+            }
+        }
+
+        private SamplePoint latest() {
+            for (ConcurrentSkipListMap<Long, SamplePoint> shard : buckets.descendingMap().values()) {
+                Map.Entry<Long, SamplePoint> last = shard.lastEntry();
+                if (last != null) {
+                    return last.getValue();
+                }
+            }
+            return null;
+        }
+
+        private void evict(long oldestBucket) {
+            while (true) {
+                Map.Entry<Long, ConcurrentSkipListMap<Long, SamplePoint>> first = buckets.firstEntry();
+                if (first == null || first.getKey() >= oldestBucket) {
+                    return;
+                }
+                if (buckets.remove(first.getKey(), first.getValue())) {
+                    size.add(-first.getValue().size());
+                }
+            }
+        }
+    }
+}
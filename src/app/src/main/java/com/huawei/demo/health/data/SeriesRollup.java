@@ -0,0 +1,398 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+import com.huawei.hms.hihealth.data.Value;
+
+/**
+ * Incremental minute, hour and day rollups of one numeric field, such as FIELD_BPM of DT_INSTANTANEOUS_HEART_RATE
+ * or FIELD_STEPS_DELTA of DT_CONTINUOUS_STEPS_DELTA.
+ * Every added point updates the count, sum, min and max of its bucket at each resolution, so statistics over a
+ * range cost one pass over the buckets of the range instead of a read of the raw points. Buckets are aligned to
+ * the local time of the time zone, and the oldest buckets of a resolution are dropped after its retention.
+ *
+ * @since 2026-10-18
+ */
+public class SeriesRollup {
+    /**
+     * How the values of the points are accumulated
+     */
+    public enum Mode {
+        /**
+         * Instantaneous value, such as a heart rate, counted in the bucket of the start time of the point
+         */
+        SAMPLE,
+
+        /**
+         * Amount over the time interval of the point, such as a step delta, split over the buckets the interval
+         * covers in proportion to the overlap
+         */
+        DELTA
+    }
+
+    /**
+     * Bucket size and retention
+     */
+    public enum Resolution {
+        MINUTE(TimeUnit.MINUTES.toMillis(1), TimeUnit.DAYS.toMillis(2)),
+
+        HOUR(TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(92)),
+
+        DAY(TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toMillis(5 * 366));
+
+        private final long bucketMillis;
+
+        private final long retentionMillis;
+
+        Resolution(long bucketMillis, long retentionMillis) {
+            this.bucketMillis = bucketMillis;
+            this.retentionMillis = retentionMillis;
+        }
+
+        /**
+         * Get the bucket size.
+         *
+         * @return bucket size in milliseconds
+         */
+        public long getBucketMillis() {
+            return bucketMillis;
+        }
+    }
+
+    private final Field field;
+
+    private final Mode mode;
+
+    private final TimeZone timeZone;
+
+    // Buckets keyed by start time, one map per resolution
+    private final List<TreeMap<Long, Bucket>> buckets = new ArrayList<>();
+
+    private long latestTime = Long.MIN_VALUE;
+
+    /**
+     * Create a rollup in the default time zone.
+     *
+     * @param field numeric field to aggregate
+     * @param mode how the values are accumulated
+     */
+    public SeriesRollup(Field field, Mode mode) {
+        this(field, mode, TimeZone.getDefault());
+    }
+
+    /**
+     * Create a rollup.
+     *
+     * @param field numeric field to aggregate
+     * @param mode how the values are accumulated
+     * @param timeZone time zone the buckets are aligned to
+     */
+    public SeriesRollup(Field field, Mode mode, TimeZone timeZone) {
+        this.field = field;
+        this.mode = mode;
+        this.timeZone = timeZone;
+        for (int i = 0; i < Resolution.values().length; i++) {
+            buckets.add(new TreeMap<>());
+        }
+    }
+
+    /**
+     * Add all points of a SampleSet.
+     *
+     * @param sampleSet points that contain the field
+     */
+    public synchronized void add(SampleSet sampleSet) {
+        for (SamplePoint samplePoint : sampleSet.getSamplePoints()) {
+            add(samplePoint);
+        }
+    }
+
+    /**
+     * Add a point. Points without a value for the field are ignored.
+     *
+     * @param samplePoint point that contains the field
+     */
+    public synchronized void add(SamplePoint samplePoint) {
+        Value value = samplePoint.getFieldValue(field);
+        if (value == null || !value.isSet()) {
+            return;
+        }
+        double amount = asDouble(value);
+        long startTime = samplePoint.getStartTime(TimeUnit.MILLISECONDS);
+        long endTime = samplePoint.getEndTime(TimeUnit.MILLISECONDS);
+        if (mode == Mode.SAMPLE || endTime <= startTime) {
+            addValue(startTime, amount);
+        } else {
+            addDelta(startTime, endTime, amount);
+        }
+    }
+
+    /**
+     * Add an instantaneous value.
+     *
+     * @param time time of the value in milliseconds
+     * @param value the value
+     */
+    public synchronized void addValue(long time, double value) {
+        for (Resolution resolution : Resolution.values()) {
+            bucket(resolution, bucketStart(resolution, time)).add(value);
+        }
+        advance(time);
+    }
+
+    /**
+     * Add an amount measured over a time interval, split over the buckets the interval covers.
+     *
+     * @param startTime start of the interval in milliseconds
+     * @param endTime end of the interval in milliseconds, exclusive
+     * @param amount amount over the whole interval
+     */
+    public synchronized void addDelta(long startTime, long endTime, double amount) {
+        if (endTime <= startTime) {
+            addValue(startTime, amount);
+            return;
+        }
+        double perMilli = amount / (endTime - startTime);
+        for (Resolution resolution : Resolution.values()) {
+            long start = bucketStart(resolution, startTime);
+            while (start < endTime) {
+                long end = bucketStart(resolution, start + resolution.bucketMillis + resolution.bucketMillis / 2);
+                long overlap = Math.min(end, endTime) - Math.max(start, startTime);
+                bucket(resolution, start).add(perMilli * overlap);
+                start = end;
+            }
+        }
+        advance(endTime - 1);
+    }
+
+    /**
+     * Get the statistics of the buckets that overlap a time range, in time order. Empty buckets are skipped.
+     *
+     * @param resolution bucket resolution
+     * @param startTime start of the range in milliseconds
+     * @param endTime end of the range in milliseconds, exclusive
+     * @return statistics of each bucket, with its time interval clamped to the range
+     */
+    public synchronized List<Stats> query(Resolution resolution, long startTime, long endTime) {
+        List<Stats> result = new ArrayList<>();
+        TreeMap<Long, Bucket> map = buckets.get(resolution.ordinal());
+        Long first = map.floorKey(startTime);
+        for (Map.Entry<Long, Bucket> entry : map.subMap(first == null ? startTime : first, endTime).entrySet()) {
+            Bucket bucket = entry.getValue();
+            long bucketEnd = Math.min(bucket.end, endTime);
+            if (bucketEnd <= startTime) {
+                continue;
+            }
+            result.add(new Stats(Math.max(entry.getKey(), startTime), bucketEnd, bucket.count, bucket.sum, bucket.min,
+                bucket.max));
+        }
+        return result;
+    }
+
+    /**
+     * Build statistics points with FIELD_MIN, FIELD_MAX and FIELD_AVG, for example for
+     * POLYMERIZE_CONTINUOUS_HEART_RATE_STATISTICS.
+     *
+     * @param dataCollector DataCollector of a statistics data type
+     * @param resolution bucket resolution
+     * @param startTime start of the range in milliseconds
+     * @param endTime end of the range in milliseconds, exclusive
+     * @return one point per bucket that has values
+     */
+    public SampleSet toStatisticsSampleSet(DataCollector dataCollector, Resolution resolution, long startTime,
+        long endTime) {
+        SampleSet sampleSet = SampleSet.create(dataCollector);
+        for (Stats stats : query(resolution, startTime, endTime)) {
+            SamplePoint samplePoint = sampleSet.createSamplePoint()
+                .setTimeInterval(stats.getStartTime(), stats.getEndTime(), TimeUnit.MILLISECONDS);
+            samplePoint.getFieldValue(Field.FIELD_AVG).setDoubleValue(stats.getAvg());
+            samplePoint.getFieldValue(Field.FIELD_MAX).setDoubleValue(stats.getMax());
+            samplePoint.getFieldValue(Field.FIELD_MIN).setDoubleValue(stats.getMin());
+            sampleSet.addSample(samplePoint);
+        }
+        return sampleSet;
+    }
+
+    /**
+     * Build points with the sum of each bucket, for example daily DT_CONTINUOUS_STEPS_DELTA totals.
+     *
+     * @param dataCollector DataCollector of the data type of the points
+     * @param sumField field that receives the sum, set according to its format
+     * @param resolution bucket resolution
+     * @param startTime start of the range in milliseconds
+     * @param endTime end of the range in milliseconds, exclusive
+     * @return one point per bucket that has values
+     */
+    public SampleSet toSumSampleSet(DataCollector dataCollector, Field sumField, Resolution resolution, long startTime,
+        long endTime) {
+        SampleSet sampleSet = SampleSet.create(dataCollector);
+        for (Stats stats : query(resolution, startTime, endTime)) {
+            SamplePoint samplePoint = sampleSet.createSamplePoint()
+                .setTimeInterval(stats.getStartTime(), stats.getEndTime(), TimeUnit.MILLISECONDS);
+            Value value = samplePoint.getFieldValue(sumField);
+            int format = sumField.getFormat();
+            if (format == Field.FORMAT_INT32) {
+                value.setIntValue((int) Math.round(stats.getSum()));
+            } else if (format == Field.FORMAT_LONG) {
+                value.setLongValue(Math.round(stats.getSum()));
+            } else if (format == Field.FORMAT_FLOAT) {
+                value.setFloatValue((float) stats.getSum());
+            } else {
+                value.setDoubleValue(stats.getSum());
+            }
+            sampleSet.addSample(samplePoint);
+        }
+        return sampleSet;
+    }
+
+    private double asDouble(Value value) {
+        int format = field.getFormat();
+        if (format == Field.FORMAT_INT32) {
+            return value.asIntValue();
+        } else if (format == Field.FORMAT_LONG) {
+            return value.asLongValue();
+        } else if (format == Field.FORMAT_FLOAT) {
+            return value.asFloatValue();
+        }
+        return value.asDoubleValue();
+    }
+
+    private long bucketStart(Resolution resolution, long time) {
+        // Align to the local time, so that hour and day buckets start at local hours and midnights.
+        long size = resolution.bucketMillis;
+        long offset = timeZone.getOffset(time);
+        long start = Math.floorDiv(time + offset, size) * size - offset;
+        // After a daylight saving change during the bucket, the offset at its start is the one that applies.
+        long startOffset = timeZone.getOffset(start);
+        if (startOffset != offset) {
+            long adjusted = Math.floorDiv(time + startOffset, size) * size - startOffset;
+            if (adjusted <= time) {
+                start = adjusted;
+            }
+        }
+        return start;
+    }
+
+    private Bucket bucket(Resolution resolution, long start) {
+        TreeMap<Long, Bucket> map = buckets.get(resolution.ordinal());
+        Bucket bucket = map.get(start);
+        if (bucket == null) {
+            long end = bucketStart(resolution, start + resolution.bucketMillis + resolution.bucketMillis / 2);
+            bucket = new Bucket(end);
+            map.put(start, bucket);
+        }
+        return bucket;
+    }
+
+    private void advance(long time) {
+        if (time <= latestTime) {
+            return;
+        }
+        latestTime = time;
+        for (Resolution resolution : Resolution.values()) {
+            buckets.get(resolution.ordinal()).headMap(time - resolution.retentionMillis).clear();
+        }
+    }
+
+    private static class Bucket {
+        private final long end;
+
+        private long count;
+
+        private double sum;
+
+        private double min = Double.POSITIVE_INFINITY;
+
+        private double max = Double.NEGATIVE_INFINITY;
+
+        Bucket(long end) {
+            this.end = end;
+        }
+
+        void add(double value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+
+    /**
+     * Statistics of one bucket
+     */
+    public static class Stats {
+        private final long startTime;
+
+        private final long endTime;
+
+        private final long count;
+
+        private final double sum;
+
+        private final double min;
+
+        private final double max;
+
+        Stats(long startTime, long endTime, long count, double sum, double min, double max) {
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getEndTime() {
+            return endTime;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getAvg() {
+            return count == 0 ? Double.NaN : sum / count;
+        }
+    }
+}
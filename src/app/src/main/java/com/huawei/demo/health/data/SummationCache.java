@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.data;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory cache of summary and latest data results, keyed by data type name.
+ * Entries expire after their TTL and the least recently used entry is evicted when the cache is full.
+ * Entries stored with NO_EXPIRY stay until they are invalidated.
+ * Every invalidation increases a generation number, so that a read started before a write does not store its
+ * stale result after the write.
+ *
+ * @since 2026-10-18
+ */
+public class SummationCache {
+    /**
+     * Expiry time of entries that never expire
+     */
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    /**
+     * Default maximum number of entries
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+
+    private final int maxEntries;
+
+    // Access ordered, the eldest entry is the least recently used one.
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long generation;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * Create a cache with the default size.
+     */
+    public SummationCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Create a cache.
+     *
+     * @param maxEntries maximum number of entries kept
+     */
+    public SummationCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > SummationCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Get a cached value.
+     *
+     * @param key cache key, see {@link #key(String, String, Object...)}
+     * @param now current time in milliseconds
+     * @param <T> value type
+     * @return the cached value, or null if it is missing or expired
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T get(String key, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAt <= now) {
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+        return (T) entry.value;
+    }
+
+    /**
+     * Store a value if no invalidation happened since the read was started.
+     *
+     * @param key cache key
+     * @param dataTypeName data type the value belongs to
+     * @param value value to store
+     * @param expiresAt expiry time in milliseconds, or NO_EXPIRY
+     * @param readGeneration generation returned by {@link #getGeneration()} when the read was started
+     */
+    public synchronized void put(String key, String dataTypeName, Object value, long expiresAt, long readGeneration) {
+        if (value == null || readGeneration != generation) {
+            return;
+        }
+        entries.put(key, new Entry(dataTypeName, value, expiresAt));
+    }
+
+    /**
+     * Get the current generation. Pass it to {@link #put} when the read completes.
+     *
+     * @return current generation number
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Remove all entries of a data type.
+     *
+     * @param dataTypeName data type name
+     */
+    public synchronized void invalidate(String dataTypeName) {
+        generation++;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().dataTypeName.equals(dataTypeName)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * Get the hit and miss counters, for display.
+     *
+     * @return description of the cache state
+     */
+    @Override
+    public synchronized String toString() {
+        return "SummationCache{size=" + entries.size() + ", hits=" + hits + ", misses=" + misses + "}";
+    }
+
+    /**
+     * Build a cache key.
+     *
+     * @param api API name
+     * @param dataTypeName data type name
+     * @param args additional request arguments
+     * @return cache key
+     */
+    public static String key(String api, String dataTypeName, Object... args) {
+        StringBuilder builder = new StringBuilder(api).append('|').append(dataTypeName);
+        for (Object arg : args) {
+            builder.append('|').append(arg);
+        }
+        return builder.toString();
+    }
+
+    private static class Entry {
+        private final String dataTypeName;
+
+        private final Object value;
+
+        private final long expiresAt;
+
+        Entry(String dataTypeName, Object value, long expiresAt) {
+            this.dataTypeName = dataTypeName;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
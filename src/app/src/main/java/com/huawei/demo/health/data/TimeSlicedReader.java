@@ -0,0 +1,336 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.huawei.demo.health.metrics.TaskMetrics;
+import com.huawei.hmf.tasks.Task;
+import com.huawei.hms.hihealth.DataController;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+import com.huawei.hms.hihealth.options.ReadOptions;
+import com.huawei.hms.hihealth.result.ReadReply;
+
+/**
+ * Reads a long time range with DataController.read in time slices.
+ * Up to parallelism slices are read at the same time and the SampleSets are delivered to the listener in time
+ * order as soon as all earlier slices are delivered. The size of the slices that are not issued yet adapts to the
+ * point density observed in the finished slices, so that each read returns about targetPointsPerSlice points.
+ * A point is delivered once, with the slice it starts in, the first slice also keeps the points that start before
+ * the range and end in it.
+ * All state is confined to one callback thread, and the listener is invoked on that thread.
+ *
+ * @since 2026-10-18
+ */
+public class TimeSlicedReader {
+    /**
+     * Default number of read tasks running at the same time
+     */
+    public static final int DEFAULT_PARALLELISM = 3;
+
+    /**
+     * Default number of points one slice should return
+     */
+    public static final int DEFAULT_TARGET_POINTS_PER_SLICE = 2000;
+
+    private static final long MIN_SLICE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final long MAX_SLICE_MILLIS = TimeUnit.DAYS.toMillis(31);
+
+    private static final long INITIAL_SLICE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final DataController dataController;
+
+    private final DataType dataType;
+
+    private final DataCollector dataCollector;
+
+    private final int parallelism;
+
+    private final int targetPointsPerSlice;
+
+    private final ExecutorService callbackExecutor = Executors.newSingleThreadExecutor();
+
+    // The fields below are only accessed on the callback thread.
+    private final Map<Integer, List<SampleSet>> finishedSlices = new HashMap<>();
+
+    private Listener listener;
+
+    private long rangeEnd;
+
+    private long nextSliceStart;
+
+    private long sliceMillis;
+
+    private int issuedSlices;
+
+    private int deliveredSlices;
+
+    private int runningSlices;
+
+    private long deliveredPoints;
+
+    private long startNanos;
+
+    private boolean finished;
+
+    /**
+     * Create a reader of a data type with the default parallelism.
+     *
+     * @param dataController DataController object used to read data
+     * @param dataType data type to read
+     */
+    public TimeSlicedReader(DataController dataController, DataType dataType) {
+        this(dataController, dataType, null, DEFAULT_PARALLELISM, DEFAULT_TARGET_POINTS_PER_SLICE);
+    }
+
+    /**
+     * Create a reader of a data collector with the default parallelism.
+     *
+     * @param dataController DataController object used to read data
+     * @param dataCollector data collector to read
+     */
+    public TimeSlicedReader(DataController dataController, DataCollector dataCollector) {
+        this(dataController, null, dataCollector, DEFAULT_PARALLELISM, DEFAULT_TARGET_POINTS_PER_SLICE);
+    }
+
+    /**
+     * Create a reader. Exactly one of dataType and dataCollector must be set.
+     *
+     * @param dataController DataController object used to read data
+     * @param dataType data type to read, or null
+     * @param dataCollector data collector to read, or null
+     * @param parallelism maximum number of read tasks running at the same time
+     * @param targetPointsPerSlice number of points one slice should return
+     */
+    public TimeSlicedReader(DataController dataController, DataType dataType, DataCollector dataCollector,
+        int parallelism, int targetPointsPerSlice) {
+        if ((dataType == null) == (dataCollector == null)) {
+            throw new IllegalArgumentException("either dataType or dataCollector must be set");
+        }
+        if (parallelism <= 0 || targetPointsPerSlice <= 0) {
+            throw new IllegalArgumentException("limits must be positive");
+        }
+        this.dataController = dataController;
+        this.dataType = dataType;
+        this.dataCollector = dataCollector;
+        this.parallelism = parallelism;
+        this.targetPointsPerSlice = targetPointsPerSlice;
+    }
+
+    /**
+     * Start reading [startTime, endTime). The reader can be used for one range only.
+     *
+     * @param startTime start time in milliseconds, inclusive
+     * @param endTime end time in milliseconds, exclusive
+     * @param listener listener receiving the SampleSets in time order
+     */
+    public void read(long startTime, long endTime, Listener listener) {
+        if (endTime <= startTime) {
+            throw new IllegalArgumentException("endTime must be greater than startTime");
+        }
+        callbackExecutor.execute(() -> {
+            this.listener = listener;
+            this.rangeEnd = endTime;
+            this.nextSliceStart = startTime;
+            this.sliceMillis = Math.min(INITIAL_SLICE_MILLIS, endTime - startTime);
+            this.startNanos = System.nanoTime();
+            issueSlices();
+        });
+    }
+
+    /**
+     * Stop issuing slices. Slices that are running are dropped when they finish.
+     * Cancelling a read that already finished, or cancelling twice, has no effect.
+     */
+    public void cancel() {
+        try {
+            callbackExecutor.execute(() -> finish());
+        } catch (RejectedExecutionException e) {
+            // The read finished and released the callback thread, there is nothing left to stop.
+        }
+    }
+
+    private void issueSlices() {
+        // Keep at most parallelism reads running, and do not run ahead of the delivery by more than that,
+        // so that at most 2 * parallelism slices are held in memory.
+        while (!finished && nextSliceStart < rangeEnd && runningSlices < parallelism
+            && issuedSlices - deliveredSlices < 2 * parallelism) {
+            long sliceStart = nextSliceStart;
+            long sliceEnd = Math.min(rangeEnd, sliceStart + sliceMillis);
+            nextSliceStart = sliceEnd;
+            int index = issuedSlices++;
+            runningSlices++;
+            readSlice(index, sliceStart, sliceEnd);
+        }
+        if (!finished && nextSliceStart >= rangeEnd && runningSlices == 0 && finishedSlices.isEmpty()) {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            listener.onComplete(deliveredSlices, deliveredPoints, elapsed);
+            finish();
+        }
+    }
+
+    private void readSlice(int index, long sliceStart, long sliceEnd) {
+        ReadOptions.Builder builder = new ReadOptions.Builder();
+        if (dataType != null) {
+            builder.read(dataType);
+        } else {
+            builder.read(dataCollector);
+        }
+        // The slices share no millisecond, so an instantaneous point is returned by one slice only.
+        ReadOptions readOptions = builder.setTimeRange(sliceStart, sliceEnd - 1, TimeUnit.MILLISECONDS).build();
+        Task<ReadReply> readTask = TaskMetrics.track(dataController.read(readOptions), "read",
+            dataType != null ? dataType : dataCollector.getDataType());
+        // A canceled read calls neither the success nor the failure listeners, it is handled as a failure here so
+        // that the running slices are counted down and the callback thread released.
+        readTask.addOnCompleteListener(callbackExecutor, completed -> {
+            runningSlices--;
+            if (finished) {
+                releaseIfIdle();
+                return;
+            }
+            if (!completed.isSuccessful()) {
+                listener.onFailure(completed.isCanceled() || completed.getException() == null
+                    ? new CancellationException("read canceled") : completed.getException());
+                finish();
+                return;
+            }
+            List<SampleSet> sampleSets = completed.getResult().getSampleSets();
+            if (index > 0) {
+                sampleSets = dropEarlierPoints(sampleSets, sliceStart);
+            }
+            adaptSliceSize(sampleSets, sliceEnd - sliceStart);
+            finishedSlices.put(index, sampleSets);
+            deliverInOrder();
+            issueSlices();
+        });
+    }
+
+    /**
+     * A continuous point that overlaps a slice boundary, such as a steps delta, is returned by the reads of both
+     * slices. It is kept in the slice where it starts, and dropped from the later one.
+     */
+    private static List<SampleSet> dropEarlierPoints(List<SampleSet> sampleSets, long sliceStart) {
+        List<SampleSet> kept = new ArrayList<>(sampleSets.size());
+        for (SampleSet sampleSet : sampleSets) {
+            List<SamplePoint> samplePoints = sampleSet.getSamplePoints();
+            int earlier = 0;
+            for (SamplePoint samplePoint : samplePoints) {
+                if (samplePoint.getStartTime(TimeUnit.MILLISECONDS) < sliceStart) {
+                    earlier++;
+                }
+            }
+            if (earlier == 0) {
+                kept.add(sampleSet);
+                continue;
+            }
+            SampleSet filtered = SampleSet.create(sampleSet.getDataCollector());
+            for (SamplePoint samplePoint : samplePoints) {
+                if (samplePoint.getStartTime(TimeUnit.MILLISECONDS) >= sliceStart) {
+                    filtered.addSample(samplePoint);
+                }
+            }
+            kept.add(filtered);
+        }
+        return kept;
+    }
+
+    private void adaptSliceSize(List<SampleSet> sampleSets, long duration) {
+        int points = countPoints(sampleSets);
+        if (points == 0) {
+            // Sparse range, grow quickly.
+            sliceMillis = Math.min(MAX_SLICE_MILLIS, sliceMillis * 2);
+            return;
+        }
+        double millisPerPoint = (double) duration / points;
+        long wanted = (long) (millisPerPoint * targetPointsPerSlice);
+        // Smooth the change so that one unusual slice does not swing the size too far.
+        long smoothed = (sliceMillis + wanted) / 2;
+        sliceMillis = Math.max(MIN_SLICE_MILLIS, Math.min(MAX_SLICE_MILLIS, smoothed));
+    }
+
+    private void deliverInOrder() {
+        List<SampleSet> sampleSets;
+        while ((sampleSets = finishedSlices.remove(deliveredSlices)) != null) {
+            deliveredSlices++;
+            for (SampleSet sampleSet : sampleSets) {
+                deliveredPoints += sampleSet.getSamplePoints().size();
+                listener.onSampleSet(sampleSet);
+            }
+        }
+    }
+
+    private void finish() {
+        finished = true;
+        finishedSlices.clear();
+        releaseIfIdle();
+    }
+
+    private void releaseIfIdle() {
+        // Running reads still deliver their results on the callback thread.
+        if (runningSlices == 0) {
+            callbackExecutor.shutdown();
+        }
+    }
+
+    private static int countPoints(List<SampleSet> sampleSets) {
+        int points = 0;
+        for (SampleSet sampleSet : sampleSets) {
+            points += sampleSet.getSamplePoints().size();
+        }
+        return points;
+    }
+
+    /**
+     * Listener of the time sliced read, invoked on the callback thread
+     */
+    public interface Listener {
+        /**
+         * Called for every SampleSet, in time order of the slices.
+         *
+         * @param sampleSet sampling dataset of one slice
+         */
+        void onSampleSet(SampleSet sampleSet);
+
+        /**
+         * Called once after the last slice is delivered.
+         *
+         * @param slices number of slices read
+         * @param points number of points delivered
+         * @param elapsedMillis time taken by the whole read
+         */
+        void onComplete(int slices, long points, long elapsedMillis);
+
+        /**
+         * Called once when a slice fails. No more SampleSets are delivered after this call.
+         *
+         * @param e failure exception
+         */
+        void onFailure(Exception e);
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.export;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.huawei.hms.hihealth.data.ActivityRecord;
+import com.huawei.hms.hihealth.data.ActivitySummary;
+import com.huawei.hms.hihealth.data.PaceSummary;
+import com.huawei.hms.hihealth.data.SamplePoint;
+
+/**
+ * Streaming JSON form of an ActivityRecord with its ActivitySummary: the summary points with their
+ * DataCollectors and the PaceSummary with its maps. The detail SampleSets of a record are exported apart, in the
+ * sampleSets section. An ActivityRecord still going on is written with an end time of 0 and read without one.
+ *
+ * @since 2026-10-18
+ */
+public class ActivityRecordTypeAdapter extends TypeAdapter<ActivityRecord> {
+    private static final String ID = "id";
+
+    private static final String NAME = "name";
+
+    private static final String DESC = "desc";
+
+    private static final String ACTIVITY_TYPE = "activityType";
+
+    private static final String TIME_ZONE = "timeZone";
+
+    private static final String ACTIVITY_SUMMARY = "activitySummary";
+
+    private static final String DATA_SUMMARY = "dataSummary";
+
+    private static final String PACE_SUMMARY = "paceSummary";
+
+    private static final String AVG_PACE = "avgPace";
+
+    private static final String BEST_PACE = "bestPace";
+
+    private static final String PACE_MAP = "paceMap";
+
+    private static final String PART_TIME_MAP = "partTimeMap";
+
+    private static final String BRITISH_PACE_MAP = "britishPaceMap";
+
+    private static final String BRITISH_PART_TIME_MAP = "britishPartTimeMap";
+
+    private static final String SPORT_HEALTH_PACE_MAP = "sportHealthPaceMap";
+
+    private final SamplePointTypeAdapter samplePointAdapter;
+
+    /**
+     * Create an adapter.
+     *
+     * @param samplePointAdapter adapter of the summary points
+     */
+    public ActivityRecordTypeAdapter(SamplePointTypeAdapter samplePointAdapter) {
+        this.samplePointAdapter = samplePointAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, ActivityRecord activityRecord) throws IOException {
+        if (activityRecord == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(ID).value(activityRecord.getId());
+        out.name(NAME).value(activityRecord.getName());
+        out.name(DESC).value(activityRecord.getDesc());
+        out.name(ACTIVITY_TYPE).value(activityRecord.getActivityType());
+        out.name(SamplePointTypeAdapter.START_TIME).value(activityRecord.getStartTime(TimeUnit.MILLISECONDS));
+        out.name(SamplePointTypeAdapter.END_TIME).value(activityRecord.getEndTime(TimeUnit.MILLISECONDS));
+        out.name(TIME_ZONE).value(activityRecord.getTimeZone());
+        ActivitySummary activitySummary = activityRecord.getActivitySummary();
+        if (activitySummary != null) {
+            out.name(ACTIVITY_SUMMARY);
+            writeActivitySummary(out, activitySummary);
+        }
+        out.endObject();
+    }
+
+    @Override
+    public ActivityRecord read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ActivityRecord.Builder builder = new ActivityRecord.Builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else if (ID.equals(name)) {
+                builder.setId(in.nextString());
+            } else if (NAME.equals(name)) {
+                builder.setName(in.nextString());
+            } else if (DESC.equals(name)) {
+                builder.setDesc(in.nextString());
+            } else if (ACTIVITY_TYPE.equals(name)) {
+                builder.setActivityTypeId(in.nextString());
+            } else if (SamplePointTypeAdapter.START_TIME.equals(name)) {
+                builder.setStartTime(in.nextLong(), TimeUnit.MILLISECONDS);
+            } else if (SamplePointTypeAdapter.END_TIME.equals(name)) {
+                long endTime = in.nextLong();
+                if (endTime > 0) {
+                    builder.setEndTime(endTime, TimeUnit.MILLISECONDS);
+                }
+            } else if (TIME_ZONE.equals(name)) {
+                builder.setTimeZone(in.nextString());
+            } else if (ACTIVITY_SUMMARY.equals(name)) {
+                builder.setActivitySummary(readActivitySummary(in));
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+
+    private void writeActivitySummary(JsonWriter out, ActivitySummary activitySummary) throws IOException {
+        out.beginObject();
+        if (activitySummary.getDataSummary() != null) {
+            out.name(DATA_SUMMARY).beginArray();
+            for (SamplePoint samplePoint : activitySummary.getDataSummary()) {
+                samplePointAdapter.write(out, samplePoint);
+            }
+            out.endArray();
+        }
+        PaceSummary paceSummary = activitySummary.getPaceSummary();
+        if (paceSummary != null) {
+            out.name(PACE_SUMMARY).beginObject();
+            out.name(AVG_PACE).value(paceSummary.getAvgPace());
+            out.name(BEST_PACE).value(paceSummary.getBestPace());
+            writeMap(out, PACE_MAP, paceSummary.getPaceMap());
+            writeMap(out, PART_TIME_MAP, paceSummary.getPartTimeMap());
+            writeMap(out, BRITISH_PACE_MAP, paceSummary.getBritishPaceMap());
+            writeMap(out, BRITISH_PART_TIME_MAP, paceSummary.getBritishPartTimeMap());
+            writeMap(out, SPORT_HEALTH_PACE_MAP, paceSummary.getSportHealthPaceMap());
+            out.endObject();
+        }
+        out.endObject();
+    }
+
+    private ActivitySummary readActivitySummary(JsonReader in) throws IOException {
+        ActivitySummary activitySummary = new ActivitySummary();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (DATA_SUMMARY.equals(name) && in.peek() != JsonToken.NULL) {
+                List<SamplePoint> samplePoints = new ArrayList<>();
+                in.beginArray();
+                while (in.hasNext()) {
+                    samplePoints.add(samplePointAdapter.read(in));
+                }
+                in.endArray();
+                activitySummary.setDataSummary(samplePoints);
+            } else if (PACE_SUMMARY.equals(name) && in.peek() != JsonToken.NULL) {
+                activitySummary.setPaceSummary(readPaceSummary(in));
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return activitySummary;
+    }
+
+    private static PaceSummary readPaceSummary(JsonReader in) throws IOException {
+        PaceSummary paceSummary = new PaceSummary();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else if (AVG_PACE.equals(name)) {
+                paceSummary.setAvgPace(in.nextDouble());
+            } else if (BEST_PACE.equals(name)) {
+                paceSummary.setBestPace(in.nextDouble());
+            } else if (PACE_MAP.equals(name)) {
+                paceSummary.setPaceMap(readMap(in));
+            } else if (PART_TIME_MAP.equals(name)) {
+                paceSummary.setPartTimeMap(readMap(in));
+            } else if (BRITISH_PACE_MAP.equals(name)) {
+                paceSummary.setBritishPaceMap(readMap(in));
+            } else if (BRITISH_PART_TIME_MAP.equals(name)) {
+                paceSummary.setBritishPartTimeMap(readMap(in));
+            } else if (SPORT_HEALTH_PACE_MAP.equals(name)) {
+                paceSummary.setSportHealthPaceMap(readMap(in));
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return paceSummary;
+    }
+
+    private static void writeMap(JsonWriter out, String name, Map<String, Double> map) throws IOException {
+        if (map == null) {
+            return;
+        }
+        out.name(name).beginObject();
+        for (Map.Entry<String, Double> entry : map.entrySet()) {
+            out.name(entry.getKey()).value(entry.getValue());
+        }
+        out.endObject();
+    }
+
+    private static Map<String, Double> readMap(JsonReader in) throws IOException {
+        Map<String, Double> map = new HashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else {
+                map.put(key, in.nextDouble());
+            }
+        }
+        in.endObject();
+        return map;
+    }
+}
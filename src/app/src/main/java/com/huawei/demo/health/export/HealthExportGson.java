@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.export;
+
+import java.util.Collection;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.huawei.hms.hihealth.data.ActivityRecord;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.HealthRecord;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+/**
+ * Gson instance with the streaming type adapters of the exported Health Kit classes.
+ *
+ * @since 2026-10-18
+ */
+public final class HealthExportGson {
+    private HealthExportGson() {
+    }
+
+    /**
+     * Create a Gson instance for the exports. It is thread safe and should be shared.
+     *
+     * @param dataTypes data types an import can read, including the data types of the summary points
+     * @return Gson with type adapters for SamplePoint, SampleSet, ActivityRecord and HealthRecord
+     */
+    public static Gson create(Collection<DataType> dataTypes) {
+        SamplePointTypeAdapter samplePointAdapter = new SamplePointTypeAdapter(dataTypes);
+        SampleSetTypeAdapter sampleSetAdapter = new SampleSetTypeAdapter(samplePointAdapter);
+        return new GsonBuilder().registerTypeAdapter(SamplePoint.class, samplePointAdapter)
+            .registerTypeAdapter(SampleSet.class, sampleSetAdapter)
+            .registerTypeAdapter(ActivityRecord.class, new ActivityRecordTypeAdapter(samplePointAdapter))
+            .registerTypeAdapter(HealthRecord.class, new HealthRecordTypeAdapter(samplePointAdapter, sampleSetAdapter))
+            .create();
+    }
+}
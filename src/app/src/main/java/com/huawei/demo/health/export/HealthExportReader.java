@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Reads an export written by HealthExportWriter record by record, handing each record to the handler of its
+ * section as soon as it is read. Sections without a handler are skipped without being parsed into objects, so the
+ * memory used does not depend on the size of the export.
+ * Records of an unknown data type fail the read with a JsonParseException. Not thread safe.
+ *
+ * @since 2026-10-18
+ */
+public class HealthExportReader implements Closeable {
+    private final JsonReader jsonReader;
+
+    private final Gson gson;
+
+    // Handlers by section name
+    private final Map<String, Section<?>> sections = new HashMap<>();
+
+    /**
+     * Receives the records of a section
+     *
+     * @param <T> type of the records
+     */
+    public interface Handler<T> {
+        /**
+         * Called with each record of the section, in the order of the export.
+         *
+         * @param record the record
+         * @throws IOException to stop the read
+         */
+        void onRecord(T record) throws IOException;
+    }
+
+    /**
+     * Create a reader.
+     *
+     * @param reader source, buffered by the caller if it is a stream
+     * @param gson Gson instance with the type adapters of the exported classes
+     */
+    public HealthExportReader(Reader reader, Gson gson) {
+        this.jsonReader = new JsonReader(reader);
+        this.gson = gson;
+    }
+
+    /**
+     * Set the handler of a section.
+     *
+     * @param name section name, such as HealthExportWriter.SECTION_SAMPLE_SETS
+     * @param type class the Gson instance has a type adapter for
+     * @param handler receives the records
+     * @param <T> type of the records
+     * @return this reader
+     */
+    public <T> HealthExportReader on(String name, Class<T> type, Handler<? super T> handler) {
+        sections.put(name, new Section<>(gson.getAdapter(type), handler));
+        return this;
+    }
+
+    /**
+     * Read the whole document.
+     *
+     * @return number of records handed to the handlers
+     * @throws IOException if the source fails, is not an export or is an export of a newer version
+     */
+    public long read() throws IOException {
+        long read = 0L;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            if (HealthExportWriter.VERSION_NAME.equals(name)) {
+                int version = jsonReader.nextInt();
+                if (version > HealthExportWriter.VERSION) {
+                    throw new IOException("export version " + version + " is not supported");
+                }
+                continue;
+            }
+            Section<?> section = sections.get(name);
+            if (section == null) {
+                jsonReader.skipValue();
+                continue;
+            }
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                section.readRecord(jsonReader);
+                read++;
+            }
+            jsonReader.endArray();
+        }
+        jsonReader.endObject();
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        jsonReader.close();
+    }
+
+    private static final class Section<T> {
+        private final TypeAdapter<T> adapter;
+
+        private final Handler<? super T> handler;
+
+        Section(TypeAdapter<T> adapter, Handler<? super T> handler) {
+            this.adapter = adapter;
+            this.handler = handler;
+        }
+
+        void readRecord(JsonReader in) throws IOException {
+            handler.onRecord(adapter.read(in));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.export;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.Gson;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * OkHttp request body streaming an export to the backend while it is written: the records go from the type
+ * adapters through the sink to the connection, with chunked transfer encoding since the length is not known.
+ * OkHttp may write the body again when it retries a request, the content must then write the same records.
+ *
+ * @since 2026-10-18
+ */
+public class HealthExportRequestBody extends RequestBody {
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private final Gson gson;
+
+    private final HealthExportWriter.Content content;
+
+    /**
+     * Create a request body.
+     *
+     * @param gson Gson instance with the type adapters of the exported classes, see HealthExportGson
+     * @param content writes the sections of the export
+     */
+    public HealthExportRequestBody(Gson gson, HealthExportWriter.Content content) {
+        this.gson = gson;
+        this.content = content;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        // The sink is buffered, the writer only adds the buffer of its encoder. OkHttp closes the sink.
+        HealthExportWriter writer =
+            new HealthExportWriter(new OutputStreamWriter(sink.outputStream(), StandardCharsets.UTF_8), gson);
+        content.writeTo(writer);
+        writer.finish();
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.export;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes an export of Health Kit data as one JSON document, streamed record by record:
+ * {"version": 1, "sampleSets": [...], "activityRecords": [...], "healthRecords": [...]}.
+ * Each record is written by the TypeAdapter the Gson instance has for its class, see HealthExportGson, straight to
+ * the underlying writer: no document tree is built and only the record being written is in memory.
+ * Not thread safe.
+ *
+ * @since 2026-10-18
+ */
+public class HealthExportWriter implements Closeable, Flushable {
+    /**
+     * Version of the document, a reader rejects a newer one
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Section of the SampleSets
+     */
+    public static final String SECTION_SAMPLE_SETS = "sampleSets";
+
+    /**
+     * Section of the ActivityRecords
+     */
+    public static final String SECTION_ACTIVITY_RECORDS = "activityRecords";
+
+    /**
+     * Section of the HealthRecords
+     */
+    public static final String SECTION_HEALTH_RECORDS = "healthRecords";
+
+    static final String VERSION_NAME = "version";
+
+    private static final String PARTIAL_SUFFIX = ".partial";
+
+    private final JsonWriter jsonWriter;
+
+    private final Gson gson;
+
+    private boolean inSection;
+
+    private boolean finished;
+
+    private long written;
+
+    /**
+     * Writes the records of an export, it may be called again if the upload of a request body is retried
+     */
+    public interface Content {
+        /**
+         * Write the sections of the export.
+         *
+         * @param writer writer of the export
+         * @throws IOException if the records cannot be read or written
+         */
+        void writeTo(HealthExportWriter writer) throws IOException;
+    }
+
+    /**
+     * Start a document.
+     *
+     * @param writer destination, buffered by the caller if it is a stream
+     * @param gson Gson instance with the type adapters of the exported classes
+     * @throws IOException if the destination fails
+     */
+    public HealthExportWriter(Writer writer, Gson gson) throws IOException {
+        this.jsonWriter = new JsonWriter(writer);
+        this.gson = gson;
+        jsonWriter.beginObject();
+        jsonWriter.name(VERSION_NAME).value(VERSION);
+    }
+
+    /**
+     * Write an export to a file. The document is written to a partial file renamed once it is complete, so that a
+     * failed export never leaves a truncated file behind.
+     *
+     * @param file destination file, replaced if it exists
+     * @param gson Gson instance with the type adapters of the exported classes
+     * @param content writes the sections of the export
+     * @return number of records written
+     * @throws IOException if the export fails
+     */
+    public static long writeFile(File file, Gson gson, Content content) throws IOException {
+        File partial = new File(file.getPath() + PARTIAL_SUFFIX);
+        boolean complete = false;
+        long written;
+        try {
+            try (HealthExportWriter writer = new HealthExportWriter(new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(partial), StandardCharsets.UTF_8)), gson)) {
+                content.writeTo(writer);
+                writer.finish();
+                written = writer.getWritten();
+            }
+            if (!partial.renameTo(file)) {
+                throw new IOException("cannot rename " + partial + " to " + file);
+            }
+            complete = true;
+        } finally {
+            if (!complete && partial.exists() && !partial.delete()) {
+                partial.deleteOnExit();
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Start a section, ending the current one. A section name must not be used twice in a document.
+     *
+     * @param name section name, such as SECTION_SAMPLE_SETS
+     * @throws IOException if the destination fails
+     */
+    public void beginSection(String name) throws IOException {
+        endSection();
+        jsonWriter.name(name).beginArray();
+        inSection = true;
+    }
+
+    /**
+     * Write a record into the current section.
+     *
+     * @param record the record
+     * @param type class the Gson instance has a type adapter for
+     * @param <T> type of the record
+     * @throws IOException if the destination fails
+     * @throws IllegalStateException if no section is started
+     */
+    public <T> void write(T record, Class<T> type) throws IOException {
+        if (!inSection) {
+            throw new IllegalStateException("write outside of a section");
+        }
+        gson.getAdapter(type).write(jsonWriter, record);
+        written++;
+    }
+
+    /**
+     * End the current section, if any.
+     *
+     * @throws IOException if the destination fails
+     */
+    public void endSection() throws IOException {
+        if (inSection) {
+            jsonWriter.endArray();
+            inSection = false;
+        }
+    }
+
+    /**
+     * End the document and flush it, without closing the destination, as a request body must.
+     *
+     * @throws IOException if the destination fails
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        endSection();
+        jsonWriter.endObject();
+        jsonWriter.flush();
+        finished = true;
+    }
+
+    /**
+     * Get the number of records written so far.
+     *
+     * @return number of records
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        jsonWriter.flush();
+    }
+
+    /**
+     * Close the destination. Call finish first: a document that was not finished is left incomplete, so that a
+     * reader fails on it, and close then throws after closing the destination.
+     *
+     * @throws IOException if the destination fails or the document is incomplete
+     */
+    @Override
+    public void close() throws IOException {
+        jsonWriter.flush();
+        jsonWriter.close();
+    }
+}
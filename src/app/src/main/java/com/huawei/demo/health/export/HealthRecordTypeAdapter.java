@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.export;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.HealthRecord;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+import com.huawei.hms.hihealth.data.Value;
+
+/**
+ * Streaming JSON form of a HealthRecord: its DataCollector, times, metadata and field values, the statistics
+ * points of subDataSummary and the detail SampleSets of subDataDetails. The id is exported for the backend and
+ * ignored by an import, the Health platform assigns a new one.
+ *
+ * @since 2026-10-18
+ */
+public class HealthRecordTypeAdapter extends TypeAdapter<HealthRecord> {
+    private static final String ID = "id";
+
+    private static final String METADATA = "metadata";
+
+    private static final String VALUES = "values";
+
+    private static final String SUB_DATA_SUMMARY = "subDataSummary";
+
+    private static final String SUB_DATA_DETAILS = "subDataDetails";
+
+    private final SamplePointTypeAdapter samplePointAdapter;
+
+    private final SampleSetTypeAdapter sampleSetAdapter;
+
+    /**
+     * Create an adapter.
+     *
+     * @param samplePointAdapter adapter of the DataCollector and of the statistics points
+     * @param sampleSetAdapter adapter of the detail SampleSets
+     */
+    public HealthRecordTypeAdapter(SamplePointTypeAdapter samplePointAdapter, SampleSetTypeAdapter sampleSetAdapter) {
+        this.samplePointAdapter = samplePointAdapter;
+        this.sampleSetAdapter = sampleSetAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, HealthRecord healthRecord) throws IOException {
+        if (healthRecord == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(SamplePointTypeAdapter.DATA_COLLECTOR);
+        samplePointAdapter.writeDataCollector(out, healthRecord.getDataCollector());
+        out.name(ID).value(healthRecord.getHealthRecordId());
+        out.name(SamplePointTypeAdapter.START_TIME).value(healthRecord.getStartTime(TimeUnit.MILLISECONDS));
+        out.name(SamplePointTypeAdapter.END_TIME).value(healthRecord.getEndTime(TimeUnit.MILLISECONDS));
+        out.name(METADATA).value(healthRecord.getMetadata());
+        out.name(VALUES).beginObject();
+        for (Field field : healthRecord.getDataCollector().getDataType().getFields()) {
+            Value value = healthRecord.getFieldValue(field);
+            if (value != null && value.isSet()) {
+                SamplePointTypeAdapter.writeValue(out, field, value);
+            }
+        }
+        out.endObject();
+        if (healthRecord.getSubDataSummary() != null) {
+            out.name(SUB_DATA_SUMMARY).beginArray();
+            for (SamplePoint samplePoint : healthRecord.getSubDataSummary()) {
+                samplePointAdapter.write(out, samplePoint);
+            }
+            out.endArray();
+        }
+        if (healthRecord.getSubDataDetails() != null) {
+            out.name(SUB_DATA_DETAILS).beginArray();
+            for (SampleSet sampleSet : healthRecord.getSubDataDetails()) {
+                sampleSetAdapter.write(out, sampleSet);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    @Override
+    public HealthRecord read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        in.beginObject();
+        if (!in.hasNext() || !SamplePointTypeAdapter.DATA_COLLECTOR.equals(in.nextName())) {
+            throw new JsonParseException("dataCollector must be the first member of a health record");
+        }
+        DataCollector dataCollector = samplePointAdapter.readDataCollector(in);
+        HealthRecord.Builder builder = new HealthRecord.Builder(dataCollector);
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else if (SamplePointTypeAdapter.START_TIME.equals(name)) {
+                builder.setStartTime(in.nextLong(), TimeUnit.MILLISECONDS);
+            } else if (SamplePointTypeAdapter.END_TIME.equals(name)) {
+                builder.setEndTime(in.nextLong(), TimeUnit.MILLISECONDS);
+            } else if (METADATA.equals(name)) {
+                builder.setMetadata(in.nextString());
+            } else if (VALUES.equals(name)) {
+                readValues(in, dataCollector.getDataType().getFields(), builder);
+            } else if (SUB_DATA_SUMMARY.equals(name)) {
+                List<SamplePoint> samplePoints = new ArrayList<>();
+                in.beginArray();
+                while (in.hasNext()) {
+                    samplePoints.add(samplePointAdapter.read(in));
+                }
+                in.endArray();
+                builder.setSubDataSummary(samplePoints);
+            } else if (SUB_DATA_DETAILS.equals(name)) {
+                List<SampleSet> sampleSets = new ArrayList<>();
+                in.beginArray();
+                while (in.hasNext()) {
+                    sampleSets.add(sampleSetAdapter.read(in));
+                }
+                in.endArray();
+                builder.setSubDataDetails(sampleSets);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+
+    private static void readValues(JsonReader in, List<Field> fields, HealthRecord.Builder builder)
+        throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            Field field = SamplePointTypeAdapter.findField(fields, in.nextName());
+            if (field == null || in.peek() == JsonToken.NULL) {
+                in.skipValue();
+            } else if (field.getFormat() == Field.FORMAT_INT32) {
+                builder.setFieldValue(field, in.nextInt());
+            } else if (field.getFormat() == Field.FORMAT_LONG) {
+                builder.setFieldValue(field, in.nextLong());
+            } else if (field.getFormat() == Field.FORMAT_FLOAT || field.getFormat() == Field.FORMAT_DOUBLE) {
+                builder.setFieldValue(field, in.nextDouble());
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+}
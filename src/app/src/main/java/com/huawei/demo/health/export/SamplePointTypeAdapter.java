@@ -0,0 +1,301 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.export;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+import com.huawei.hms.hihealth.data.Value;
+
+/**
+ * Streaming JSON form of a SamplePoint outside of a SampleSet, such as a point of an ActivitySummary:
+ * {"dataCollector": {...}, "startTime": ms, "endTime": ms, "values": {"field name": value}}.
+ * The other adapters of the package use it for the DataCollectors and the values of their points. Values are
+ * written with their format, map values are left out, and values of unknown fields are skipped when reading.
+ *
+ * @since 2026-10-18
+ */
+public class SamplePointTypeAdapter extends TypeAdapter<SamplePoint> {
+    static final String DATA_COLLECTOR = "dataCollector";
+
+    static final String START_TIME = "startTime";
+
+    static final String END_TIME = "endTime";
+
+    private static final String VALUES = "values";
+
+    private static final String DATA_TYPE = "dataType";
+
+    private static final String PACKAGE_NAME = "packageName";
+
+    private static final String DATA_STREAM_NAME = "dataStreamName";
+
+    private static final String DATA_GENERATE_TYPE = "dataGenerateType";
+
+    // Data types an import can read, by name
+    private final Map<String, DataType> dataTypes = new HashMap<>();
+
+    /**
+     * Create an adapter.
+     *
+     * @param dataTypes data types an import can read, points of other data types fail the import
+     */
+    public SamplePointTypeAdapter(Collection<DataType> dataTypes) {
+        for (DataType dataType : dataTypes) {
+            this.dataTypes.put(dataType.getName(), dataType);
+        }
+    }
+
+    @Override
+    public void write(JsonWriter out, SamplePoint samplePoint) throws IOException {
+        if (samplePoint == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(DATA_COLLECTOR);
+        writeDataCollector(out, samplePoint.getDataCollector());
+        writeFields(out, samplePoint);
+        out.endObject();
+    }
+
+    @Override
+    public SamplePoint read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        // The point is built from its data collector, which write puts first. A document with the collector later
+        // is rejected rather than buffered, so that points are read as they stream in.
+        in.beginObject();
+        if (!in.hasNext() || !DATA_COLLECTOR.equals(in.nextName())) {
+            throw new JsonParseException("dataCollector must be the first member of a sample point");
+        }
+        DataCollector dataCollector = readDataCollector(in);
+        SamplePoint samplePoint = new SamplePoint.Builder(dataCollector).build();
+        readFields(in, samplePoint);
+        in.endObject();
+        return samplePoint;
+    }
+
+    /**
+     * Write the times and values of a point, without the object around them.
+     *
+     * @param out writer positioned inside the object of the point
+     * @param samplePoint the point
+     * @throws IOException if the writer fails
+     */
+    void writeFields(JsonWriter out, SamplePoint samplePoint) throws IOException {
+        out.name(START_TIME).value(samplePoint.getStartTime(TimeUnit.MILLISECONDS));
+        out.name(END_TIME).value(samplePoint.getEndTime(TimeUnit.MILLISECONDS));
+        out.name(VALUES).beginObject();
+        for (Field field : samplePoint.getDataType().getFields()) {
+            Value value = samplePoint.getFieldValue(field);
+            if (value != null && value.isSet()) {
+                writeValue(out, field, value);
+            }
+        }
+        out.endObject();
+    }
+
+    /**
+     * Read the times and values of a point up to the end of its object.
+     *
+     * @param in reader positioned inside the object of the point
+     * @param samplePoint point to set
+     * @throws IOException if the reader fails
+     */
+    void readFields(JsonReader in, SamplePoint samplePoint) throws IOException {
+        long startTime = 0L;
+        long endTime = 0L;
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (START_TIME.equals(name)) {
+                startTime = in.nextLong();
+            } else if (END_TIME.equals(name)) {
+                endTime = in.nextLong();
+            } else if (VALUES.equals(name)) {
+                readValues(in, samplePoint);
+            } else {
+                in.skipValue();
+            }
+        }
+        if (startTime == endTime) {
+            samplePoint.setSamplingTime(startTime, TimeUnit.MILLISECONDS);
+        } else {
+            samplePoint.setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Write a DataCollector as an object.
+     *
+     * @param out writer
+     * @param dataCollector the collector
+     * @throws IOException if the writer fails
+     */
+    void writeDataCollector(JsonWriter out, DataCollector dataCollector) throws IOException {
+        out.beginObject();
+        out.name(DATA_TYPE).value(dataCollector.getDataType().getName());
+        out.name(PACKAGE_NAME).value(dataCollector.getPackageName());
+        out.name(DATA_STREAM_NAME).value(dataCollector.getDataStreamName());
+        out.name(DATA_GENERATE_TYPE).value(dataCollector.getDataGenerateType());
+        out.endObject();
+    }
+
+    /**
+     * Read a DataCollector written by writeDataCollector.
+     *
+     * @param in reader
+     * @return the collector
+     * @throws IOException if the reader fails
+     * @throws JsonParseException if the data type is not one of the data types of the adapter
+     */
+    DataCollector readDataCollector(JsonReader in) throws IOException {
+        DataCollector.Builder builder = new DataCollector.Builder();
+        boolean hasDataType = false;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else if (DATA_TYPE.equals(name)) {
+                builder.setDataType(getDataType(in.nextString()));
+                hasDataType = true;
+            } else if (PACKAGE_NAME.equals(name)) {
+                builder.setPackageName(in.nextString());
+            } else if (DATA_STREAM_NAME.equals(name)) {
+                builder.setDataStreamName(in.nextString());
+            } else if (DATA_GENERATE_TYPE.equals(name)) {
+                builder.setDataGenerateType(in.nextInt());
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        if (!hasDataType) {
+            throw new JsonParseException("dataCollector without dataType");
+        }
+        return builder.build();
+    }
+
+    /**
+     * Write a value under the name of its field.
+     *
+     * @param out writer positioned inside an object
+     * @param field field of the value
+     * @param value the value, set
+     * @throws IOException if the writer fails
+     */
+    static void writeValue(JsonWriter out, Field field, Value value) throws IOException {
+        int format = field.getFormat();
+        if (format == Field.FORMAT_INT32) {
+            out.name(field.getName()).value(value.asIntValue());
+        } else if (format == Field.FORMAT_LONG) {
+            out.name(field.getName()).value(value.asLongValue());
+        } else if (format == Field.FORMAT_FLOAT) {
+            // Written as the float prints, 71.2 rather than the digits of its double widening
+            out.name(field.getName()).value(Float.valueOf(value.asFloatValue()));
+        } else if (format == Field.FORMAT_DOUBLE) {
+            out.name(field.getName()).value(value.asDoubleValue());
+        } else if (format == Field.FORMAT_STRING) {
+            out.name(field.getName()).value(value.asStringValue());
+        }
+    }
+
+    private void readValues(JsonReader in, SamplePoint samplePoint) throws IOException {
+        List<Field> fields = samplePoint.getDataType().getFields();
+        in.beginObject();
+        while (in.hasNext()) {
+            Field field = findField(fields, in.nextName());
+            if (field == null || in.peek() == JsonToken.NULL) {
+                in.skipValue();
+                continue;
+            }
+            Value value = samplePoint.getFieldValue(field);
+            int format = field.getFormat();
+            if (format == Field.FORMAT_INT32) {
+                value.setIntValue(in.nextInt());
+            } else if (format == Field.FORMAT_LONG) {
+                value.setLongValue(in.nextLong());
+            } else if (format == Field.FORMAT_FLOAT) {
+                value.setFloatValue((float) in.nextDouble());
+            } else if (format == Field.FORMAT_DOUBLE) {
+                value.setDoubleValue(in.nextDouble());
+            } else if (format == Field.FORMAT_STRING) {
+                value.setStringValue(in.nextString());
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    /**
+     * Find a field of a data type by name.
+     *
+     * @param fields fields of the data type
+     * @param name field name
+     * @return the field, null if the data type has no such field
+     */
+    static Field findField(List<Field> fields, String name) {
+        for (Field field : fields) {
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private DataType getDataType(String name) {
+        DataType dataType = dataTypes.get(name);
+        if (dataType == null) {
+            throw new JsonParseException("unknown data type " + name);
+        }
+        return dataType;
+    }
+
+    /**
+     * Create a point of a SampleSet and read its times and values.
+     *
+     * @param in reader positioned on the object of the point
+     * @param sampleSet set the point is created with, the point is not added
+     * @return the point
+     * @throws IOException if the reader fails
+     */
+    SamplePoint readSetPoint(JsonReader in, SampleSet sampleSet) throws IOException {
+        SamplePoint samplePoint = sampleSet.createSamplePoint();
+        in.beginObject();
+        readFields(in, samplePoint);
+        in.endObject();
+        return samplePoint;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.export;
+
+import java.io.IOException;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+/**
+ * Streaming JSON form of a SampleSet: {"dataCollector": {...}, "samplePoints": [{"startTime", "endTime",
+ * "values"}]}. The DataCollector is written once for the set, the points are written and read one at a time.
+ *
+ * @since 2026-10-18
+ */
+public class SampleSetTypeAdapter extends TypeAdapter<SampleSet> {
+    private static final String SAMPLE_POINTS = "samplePoints";
+
+    private final SamplePointTypeAdapter samplePointAdapter;
+
+    /**
+     * Create an adapter.
+     *
+     * @param samplePointAdapter adapter of the DataCollector and of the values of the points
+     */
+    public SampleSetTypeAdapter(SamplePointTypeAdapter samplePointAdapter) {
+        this.samplePointAdapter = samplePointAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, SampleSet sampleSet) throws IOException {
+        if (sampleSet == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(SamplePointTypeAdapter.DATA_COLLECTOR);
+        samplePointAdapter.writeDataCollector(out, sampleSet.getDataCollector());
+        out.name(SAMPLE_POINTS).beginArray();
+        for (SamplePoint samplePoint : sampleSet.getSamplePoints()) {
+            out.beginObject();
+            samplePointAdapter.writeFields(out, samplePoint);
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    @Override
+    public SampleSet read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        in.beginObject();
+        if (!in.hasNext() || !SamplePointTypeAdapter.DATA_COLLECTOR.equals(in.nextName())) {
+            throw new JsonParseException("dataCollector must be the first member of a sample set");
+        }
+        SampleSet sampleSet = SampleSet.create(samplePointAdapter.readDataCollector(in));
+        while (in.hasNext()) {
+            if (SAMPLE_POINTS.equals(in.nextName())) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    sampleSet.addSample(samplePointAdapter.readSetPoint(in, sampleSet));
+                }
+                in.endArray();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return sampleSet;
+    }
+}
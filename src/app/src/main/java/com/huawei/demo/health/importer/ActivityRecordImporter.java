@@ -0,0 +1,389 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.importer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.huawei.demo.health.metrics.TaskMetrics;
+import com.huawei.demo.health.task.RetryScheduler;
+import com.huawei.hmf.tasks.Task;
+import com.huawei.hms.hihealth.options.ActivityRecordInsertOptions;
+
+/**
+ * Imports GPX, TCX and FIT workout files as ActivityRecords.
+ * The files are parsed on parseThreads threads and their addActivityRecord requests are pipelined: the next files
+ * are parsed while up to maxInFlight requests are running. A parsed workout waits for a free request slot, so at
+ * most parseThreads + maxInFlight workouts are held at the same time, whatever the number of files.
+ * A file that cannot be parsed, or whose request fails WorkoutMapper.check, is rejected without a request.
+ * Transient failures are retried by RetryScheduler. The blocking methods must not be called on the main thread.
+ *
+ * @since 2026-10-18
+ */
+public class ActivityRecordImporter {
+    /**
+     * Default number of files parsed at the same time
+     */
+    public static final int DEFAULT_PARSE_THREADS =
+        Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Default number of addActivityRecord requests running at the same time
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    private final Sink sink;
+
+    private final WorkoutMapper mapper;
+
+    private final int capacity;
+
+    private final ExecutorService parseExecutor;
+
+    // Request results are delivered on this executor, so that a parse thread waiting for a slot never blocks them.
+    private final ExecutorService callbackExecutor = Executors.newSingleThreadExecutor();
+
+    // Delivers on callbackExecutor, and on the completing thread once it is shut down, so that a request still
+    // running at shutdown gives its permits back.
+    private final Executor callbacks = command -> {
+        try {
+            callbackExecutor.execute(command);
+        } catch (RejectedExecutionException e) {
+            command.run();
+        }
+    };
+
+    // Workouts being parsed, waiting for a request slot or being added
+    private final Semaphore pending;
+
+    private final Semaphore inFlight;
+
+    private final AtomicLong filesSubmitted = new AtomicLong();
+
+    private final AtomicLong recordsInserted = new AtomicLong();
+
+    private final AtomicLong pointsInserted = new AtomicLong();
+
+    private final AtomicLong filesRejected = new AtomicLong();
+
+    private final AtomicLong recordsFailed = new AtomicLong();
+
+    private Listener listener;
+
+    private long startNanos;
+
+    /**
+     * Create an importer with the default limits.
+     *
+     * @param sink receiver of the requests, ActivityRecordsController::addActivityRecord or a fake
+     * @param mapper mapper of the workouts to requests
+     */
+    public ActivityRecordImporter(Sink sink, WorkoutMapper mapper) {
+        this(sink, mapper, DEFAULT_PARSE_THREADS, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Create an importer.
+     *
+     * @param sink receiver of the requests, ActivityRecordsController::addActivityRecord or a fake
+     * @param mapper mapper of the workouts to requests
+     * @param parseThreads number of files parsed at the same time
+     * @param maxInFlight maximum number of requests running at the same time
+     */
+    public ActivityRecordImporter(Sink sink, WorkoutMapper mapper, int parseThreads, int maxInFlight) {
+        if (parseThreads <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("limits must be positive");
+        }
+        this.sink = sink;
+        this.mapper = mapper;
+        this.capacity = parseThreads + maxInFlight;
+        this.parseExecutor = Executors.newFixedThreadPool(parseThreads);
+        this.pending = new Semaphore(capacity);
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Receiver of the addActivityRecord requests
+     */
+    public interface Sink {
+        /**
+         * Add an activity record.
+         *
+         * @param options request built by the WorkoutMapper
+         * @return task of the request
+         */
+        Task<Void> addActivityRecord(ActivityRecordInsertOptions options);
+    }
+
+    /**
+     * Listener of the import of each file
+     */
+    public interface Listener {
+        /**
+         * Called when the record of a file is added.
+         *
+         * @param file imported file
+         * @param stats statistics after this file
+         */
+        void onFileImported(File file, Stats stats);
+
+        /**
+         * Called when a file cannot be parsed or its record cannot be added.
+         *
+         * @param file file that was not imported
+         * @param e failure exception
+         */
+        void onFileFailed(File file, Exception e);
+    }
+
+    /**
+     * Set the listener notified for each file.
+     *
+     * @param listener file result listener, invoked on a background thread
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Import files and wait until all of them are imported or failed.
+     * Blocks while parseThreads + maxInFlight workouts are pending. After shutdown the remaining files are not
+     * submitted.
+     *
+     * @param files GPX, TCX and FIT files, recognized by their extension
+     * @return statistics of the import
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public Stats importFiles(List<File> files) throws InterruptedException {
+        if (startNanos == 0L) {
+            startNanos = System.nanoTime();
+        }
+        for (File file : files) {
+            pending.acquire();
+            try {
+                parseExecutor.execute(() -> parseAndAdd(file));
+            } catch (RejectedExecutionException e) {
+                // The importer was shut down, the remaining files are not submitted.
+                pending.release();
+                break;
+            }
+            filesSubmitted.incrementAndGet();
+        }
+        pending.acquire(capacity);
+        pending.release(capacity);
+        return getStats();
+    }
+
+    /**
+     * Release the threads of the importer. The importer cannot be used after this call.
+     */
+    public void shutdown() {
+        // Files dropped before being parsed give their permit back, so that a waiting importFiles returns. The
+        // requests already running give theirs back when they complete.
+        pending.release(parseExecutor.shutdownNow().size());
+        callbackExecutor.shutdown();
+    }
+
+    /**
+     * Get a snapshot of the statistics.
+     *
+     * @return statistics of the files handled so far
+     */
+    public Stats getStats() {
+        long elapsed = startNanos == 0L ? 0L : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return new Stats(filesSubmitted.get(), recordsInserted.get(), pointsInserted.get(), filesRejected.get(),
+            recordsFailed.get(), elapsed);
+    }
+
+    private void parseAndAdd(File file) {
+        ActivityRecordInsertOptions options;
+        int points;
+        try (InputStream input = new FileInputStream(file)) {
+            WorkoutParser parser = WorkoutParser.forFileName(file.getName());
+            if (parser == null) {
+                throw new IOException(file.getName() + ": unsupported file format");
+            }
+            Workout workout = parser.parse(input, file.getName());
+            options = mapper.map(workout);
+            String error = WorkoutMapper.check(options);
+            if (error != null) {
+                throw new IOException(file.getName() + ": " + error);
+            }
+            points = WorkoutMapper.countDetailPoints(workout);
+        } catch (IOException | RuntimeException e) {
+            filesRejected.incrementAndGet();
+            try {
+                notifyFailed(file, e);
+            } finally {
+                pending.release();
+            }
+            return;
+        }
+
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recordsFailed.incrementAndGet();
+            try {
+                notifyFailed(file, e);
+            } finally {
+                pending.release();
+            }
+            return;
+        }
+        // The permits of the file are released once: by the completion listener, or here if it is not registered.
+        boolean registered = false;
+        RuntimeException failure = null;
+        try {
+            Task<Void> addTask = RetryScheduler.getInstance()
+                .execute("ActivityRecordsController", "addActivityRecord", () -> sink.addActivityRecord(options));
+            TaskMetrics.track(addTask, "addActivityRecord", null, 1);
+            addTask.addOnCompleteListener(callbacks, task -> onAdded(file, points, task));
+            registered = true;
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            if (!registered) {
+                recordsFailed.incrementAndGet();
+                inFlight.release();
+                try {
+                    if (failure != null) {
+                        notifyFailed(file, failure);
+                    }
+                } finally {
+                    pending.release();
+                }
+            }
+        }
+    }
+
+    private void onAdded(File file, int points, Task<Void> task) {
+        boolean added = task.isSuccessful();
+        if (added) {
+            recordsInserted.incrementAndGet();
+            pointsInserted.addAndGet(points);
+        } else {
+            recordsFailed.incrementAndGet();
+        }
+        inFlight.release();
+        // The file is pending until its listener returns, so that importFiles returns after the last notification.
+        try {
+            if (added) {
+                Listener current = listener;
+                if (current != null) {
+                    current.onFileImported(file, getStats());
+                }
+            } else if (task.isCanceled() || task.getException() == null) {
+                notifyFailed(file, new CancellationException("addActivityRecord canceled"));
+            } else {
+                notifyFailed(file, task.getException());
+            }
+        } finally {
+            pending.release();
+        }
+    }
+
+    private void notifyFailed(File file, Exception e) {
+        Listener current = listener;
+        if (current != null) {
+            current.onFileFailed(file, e);
+        }
+    }
+
+    /**
+     * Statistics of an import
+     */
+    public static class Stats {
+        private final long filesSubmitted;
+
+        private final long recordsInserted;
+
+        private final long pointsInserted;
+
+        private final long filesRejected;
+
+        private final long recordsFailed;
+
+        private final long elapsedMillis;
+
+        Stats(long filesSubmitted, long recordsInserted, long pointsInserted, long filesRejected, long recordsFailed,
+            long elapsedMillis) {
+            this.filesSubmitted = filesSubmitted;
+            this.recordsInserted = recordsInserted;
+            this.pointsInserted = pointsInserted;
+            this.filesRejected = filesRejected;
+            this.recordsFailed = recordsFailed;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getFilesSubmitted() {
+            return filesSubmitted;
+        }
+
+        public long getRecordsInserted() {
+            return recordsInserted;
+        }
+
+        /**
+         * Get the number of detail points of the added records.
+         *
+         * @return detail points added
+         */
+        public long getPointsInserted() {
+            return pointsInserted;
+        }
+
+        /**
+         * Get the number of files that could not be parsed.
+         *
+         * @return rejected files
+         */
+        public long getFilesRejected() {
+            return filesRejected;
+        }
+
+        public long getRecordsFailed() {
+            return recordsFailed;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "submitted " + filesSubmitted + " files, added " + recordsInserted + " records with "
+                + pointsInserted + " detail points, " + filesRejected + " files rejected, " + recordsFailed
+                + " records failed, " + elapsedMillis + " ms, "
+                + String.format(Locale.ENGLISH, "%.1f", elapsedMillis == 0L ? 0d
+                    : recordsInserted * 1000d / elapsedMillis) + " records/s";
+        }
+    }
+}
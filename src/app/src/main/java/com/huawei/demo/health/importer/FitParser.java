@@ -0,0 +1,311 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.importer;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.huawei.hms.hihealth.HiHealthActivities;
+
+/**
+ * Parser of the activity files of the Garmin Flexible and Interoperable Data Transfer (FIT) protocol.
+ * The file is decoded as a stream: the definition messages are kept per local message type, the record messages
+ * are read into the Workout and the session message gives the sport and the calories. The other messages and
+ * the developer fields are skipped. The CRC is not checked, a truncated file is rejected by its data size.
+ *
+ * @since 2026-10-18
+ */
+final class FitParser implements WorkoutParser {
+    static final FitParser INSTANCE = new FitParser();
+
+    // FIT timestamps count the seconds since 1989-12-31T00:00:00Z
+    private static final long FIT_EPOCH_SECONDS = 631_065_600L;
+
+    private static final int MESG_SESSION = 18;
+
+    private static final int MESG_RECORD = 20;
+
+    private static final int FIELD_TIMESTAMP = 253;
+
+    private static final int RECORD_POSITION_LAT = 0;
+
+    private static final int RECORD_POSITION_LONG = 1;
+
+    private static final int RECORD_HEART_RATE = 3;
+
+    private static final int RECORD_CADENCE = 4;
+
+    private static final int RECORD_DISTANCE = 5;
+
+    private static final int RECORD_SPEED = 6;
+
+    private static final int RECORD_ENHANCED_SPEED = 73;
+
+    private static final int SESSION_SPORT = 5;
+
+    private static final int SESSION_TOTAL_CALORIES = 11;
+
+    // Degrees per semicircle, 180 / 2^31
+    private static final double DEGREES_PER_SEMICIRCLE = 180d / (1L << 31);
+
+    private static final int LOCAL_TYPES = 16;
+
+    private FitParser() {
+    }
+
+    @Override
+    public Workout parse(InputStream input, String source) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        int headerSize = in.readUnsignedByte();
+        if (headerSize < 12) {
+            throw new IOException(source + ": not a FIT file");
+        }
+        byte[] header = new byte[headerSize - 1];
+        in.readFully(header);
+        long dataSize = (header[3] & 0xFFL) | (header[4] & 0xFFL) << 8 | (header[5] & 0xFFL) << 16
+            | (header[6] & 0xFFL) << 24;
+        if (header[7] != '.' || header[8] != 'F' || header[9] != 'I' || header[10] != 'T') {
+            throw new IOException(source + ": not a FIT file");
+        }
+        Workout workout = new Workout(source);
+        try {
+            new Decoder(in, workout).decode(dataSize);
+        } catch (EOFException e) {
+            throw new IOException(source + ": truncated FIT file", e);
+        }
+        workout.finish();
+        if (workout.size() < 2) {
+            throw new IOException(source + ": less than two records");
+        }
+        return workout;
+    }
+
+    private static String activityTypeOf(long sport) {
+        switch ((int) sport) {
+            case 1:
+                return HiHealthActivities.RUNNING;
+            case 2:
+                return HiHealthActivities.BIKING;
+            case 5:
+                return HiHealthActivities.SWIMMING;
+            case 11:
+                return HiHealthActivities.WALKING;
+            case 17:
+                return HiHealthActivities.HIKING;
+            default:
+                return HiHealthActivities.OTHER;
+        }
+    }
+
+    /**
+     * Definition of the messages of a local message type
+     */
+    private static final class Definition {
+        private final int globalNumber;
+
+        private final boolean bigEndian;
+
+        private final int[] fieldNumbers;
+
+        private final int[] fieldSizes;
+
+        // Total size of the developer fields, skipped
+        private final int developerSize;
+
+        Definition(int globalNumber, boolean bigEndian, int[] fieldNumbers, int[] fieldSizes, int developerSize) {
+            this.globalNumber = globalNumber;
+            this.bigEndian = bigEndian;
+            this.fieldNumbers = fieldNumbers;
+            this.fieldSizes = fieldSizes;
+            this.developerSize = developerSize;
+        }
+    }
+
+    private static final class Decoder {
+        private final DataInputStream in;
+
+        private final Workout workout;
+
+        private final Definition[] definitions = new Definition[LOCAL_TYPES];
+
+        private long remaining;
+
+        // Last full timestamp, base of the compressed timestamp headers
+        private long lastTimestamp = -1;
+
+        Decoder(DataInputStream in, Workout workout) {
+            this.in = in;
+            this.workout = workout;
+        }
+
+        void decode(long dataSize) throws IOException {
+            remaining = dataSize;
+            while (remaining > 0) {
+                int recordHeader = readByte();
+                if ((recordHeader & 0x80) != 0) {
+                    // Compressed timestamp header: local type in bits 5-6, time offset in bits 0-4.
+                    int offset = recordHeader & 0x1F;
+                    long timestamp = -1;
+                    if (lastTimestamp >= 0) {
+                        timestamp = (lastTimestamp & ~0x1FL) + offset;
+                        if (offset < (lastTimestamp & 0x1F)) {
+                            timestamp += 0x20;
+                        }
+                        lastTimestamp = timestamp;
+                    }
+                    readData(definitionOf((recordHeader >> 5) & 0x03), timestamp);
+                } else if ((recordHeader & 0x40) != 0) {
+                    readDefinition(recordHeader & 0x0F, (recordHeader & 0x20) != 0);
+                } else {
+                    readData(definitionOf(recordHeader & 0x0F), -1);
+                }
+            }
+        }
+
+        private Definition definitionOf(int localType) throws IOException {
+            Definition definition = definitions[localType];
+            if (definition == null) {
+                throw new IOException(workout.getSource() + ": data message without definition");
+            }
+            return definition;
+        }
+
+        private void readDefinition(int localType, boolean hasDeveloperFields) throws IOException {
+            readByte();
+            boolean bigEndian = readByte() == 1;
+            int first = readByte();
+            int second = readByte();
+            int globalNumber = bigEndian ? first << 8 | second : second << 8 | first;
+            int fieldCount = readByte();
+            int[] fieldNumbers = new int[fieldCount];
+            int[] fieldSizes = new int[fieldCount];
+            for (int i = 0; i < fieldCount; i++) {
+                fieldNumbers[i] = readByte();
+                fieldSizes[i] = readByte();
+                readByte();
+            }
+            int developerSize = 0;
+            if (hasDeveloperFields) {
+                int developerCount = readByte();
+                for (int i = 0; i < developerCount; i++) {
+                    readByte();
+                    developerSize += readByte();
+                    readByte();
+                }
+            }
+            definitions[localType] =
+                new Definition(globalNumber, bigEndian, fieldNumbers, fieldSizes, developerSize);
+        }
+
+        private void readData(Definition definition, long compressedTimestamp) throws IOException {
+            boolean record = definition.globalNumber == MESG_RECORD;
+            boolean session = definition.globalNumber == MESG_SESSION;
+            long timestamp = compressedTimestamp;
+            double latitude = Double.NaN;
+            double longitude = Double.NaN;
+            double distance = Double.NaN;
+            float heartRate = Float.NaN;
+            float cadence = Float.NaN;
+            float speed = Float.NaN;
+            for (int i = 0; i < definition.fieldNumbers.length; i++) {
+                int size = definition.fieldSizes[i];
+                int number = definition.fieldNumbers[i];
+                if (!(record || session || number == FIELD_TIMESTAMP) || size > Long.BYTES) {
+                    skip(size);
+                    continue;
+                }
+                long value = readUnsigned(size, definition.bigEndian);
+                if (isInvalid(value, size)) {
+                    continue;
+                }
+                if (number == FIELD_TIMESTAMP) {
+                    timestamp = value;
+                    lastTimestamp = value;
+                } else if (record) {
+                    switch (number) {
+                        case RECORD_POSITION_LAT:
+                            latitude = (int) value * DEGREES_PER_SEMICIRCLE;
+                            break;
+                        case RECORD_POSITION_LONG:
+                            longitude = (int) value * DEGREES_PER_SEMICIRCLE;
+                            break;
+                        case RECORD_HEART_RATE:
+                            heartRate = value;
+                            break;
+                        case RECORD_CADENCE:
+                            cadence = value;
+                            break;
+                        case RECORD_DISTANCE:
+                            distance = value / 100d;
+                            break;
+                        case RECORD_SPEED:
+                        case RECORD_ENHANCED_SPEED:
+                            speed = value / 1000f;
+                            break;
+                        default:
+                            break;
+                    }
+                } else if (number == SESSION_SPORT) {
+                    workout.setSport(activityTypeOf(value));
+                } else if (number == SESSION_TOTAL_CALORIES) {
+                    workout.setCalories(value);
+                }
+            }
+            skip(definition.developerSize);
+            if (record && timestamp >= 0) {
+                long timeMillis = (timestamp + FIT_EPOCH_SECONDS) * 1000L;
+                workout.addPoint(timeMillis, latitude, longitude, distance, heartRate, cadence, speed);
+            }
+        }
+
+        // All bits set is the invalid value of the unsigned types, and of sint32 position fields in 0x7FFFFFFF.
+        private static boolean isInvalid(long value, int size) {
+            long allSet = size == Long.BYTES ? -1L : (1L << (size * 8)) - 1;
+            return value == allSet || (size == 4 && value == 0x7FFFFFFFL);
+        }
+
+        private long readUnsigned(int size, boolean bigEndian) throws IOException {
+            long value = 0;
+            for (int i = 0; i < size; i++) {
+                long next = readByte();
+                value = bigEndian ? value << 8 | next : value | next << (8 * i);
+            }
+            return value;
+        }
+
+        private int readByte() throws IOException {
+            remaining--;
+            return in.readUnsignedByte();
+        }
+
+        private void skip(int count) throws IOException {
+            remaining -= count;
+            int left = count;
+            while (left > 0) {
+                int skipped = in.skipBytes(left);
+                if (skipped <= 0) {
+                    in.readUnsignedByte();
+                    skipped = 1;
+                }
+                left -= skipped;
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.importer;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+/**
+ * Parser of GPX 1.1 files. The track points of all tracks and segments are read in order, with the heart rate,
+ * cadence and speed of the Garmin TrackPointExtension. The distance and the speed are derived from the positions
+ * when the file does not carry them.
+ *
+ * @since 2026-10-18
+ */
+final class GpxParser extends XmlWorkoutParser {
+    static final GpxParser INSTANCE = new GpxParser();
+
+    private GpxParser() {
+    }
+
+    @Override
+    Handler newHandler(Workout workout) {
+        return new GpxHandler(workout);
+    }
+
+    private static final class GpxHandler extends Handler {
+        private final Workout workout;
+
+        private boolean inPoint;
+
+        private long time;
+
+        private double latitude;
+
+        private double longitude;
+
+        private float heartRate;
+
+        private float cadence;
+
+        private float speed;
+
+        GpxHandler(Workout workout) {
+            this.workout = workout;
+        }
+
+        @Override
+        void onStart(String name, String parent, Attributes attributes) {
+            if ("trkpt".equals(name)) {
+                inPoint = true;
+                time = NO_TIME;
+                latitude = parseDouble(attributes.getValue("lat"));
+                longitude = parseDouble(attributes.getValue("lon"));
+                heartRate = Float.NaN;
+                cadence = Float.NaN;
+                speed = Float.NaN;
+            }
+        }
+
+        @Override
+        void onEnd(String name, String parent, String text) throws SAXException {
+            if (!inPoint) {
+                if ("trk".equals(parent) && "name".equals(name)) {
+                    workout.setName(text);
+                } else if ("trk".equals(parent) && "type".equals(name)) {
+                    workout.setSport(activityTypeOf(text));
+                }
+                return;
+            }
+            switch (name) {
+                case "time":
+                    if ("trkpt".equals(parent)) {
+                        time = parseTime(text);
+                    }
+                    break;
+                case "hr":
+                    heartRate = parseFloat(text);
+                    break;
+                case "cad":
+                    cadence = parseFloat(text);
+                    break;
+                case "speed":
+                    speed = parseFloat(text);
+                    break;
+                case "trkpt":
+                    inPoint = false;
+                    if (time != NO_TIME) {
+                        workout.addPoint(time, latitude, longitude, Double.NaN, heartRate, cadence, speed);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
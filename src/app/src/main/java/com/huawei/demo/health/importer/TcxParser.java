@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.importer;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+/**
+ * Parser of Garmin Training Center (TCX) files. The track points of all laps are read in order, with the speed and
+ * running cadence of the ActivityExtension. The calories of the laps are added up.
+ *
+ * @since 2026-10-18
+ */
+final class TcxParser extends XmlWorkoutParser {
+    static final TcxParser INSTANCE = new TcxParser();
+
+    private TcxParser() {
+    }
+
+    @Override
+    Handler newHandler(Workout workout) {
+        return new TcxHandler(workout);
+    }
+
+    private static final class TcxHandler extends Handler {
+        private final Workout workout;
+
+        private boolean inPoint;
+
+        private long time;
+
+        private double latitude;
+
+        private double longitude;
+
+        private double distance;
+
+        private float heartRate;
+
+        private float cadence;
+
+        private float speed;
+
+        TcxHandler(Workout workout) {
+            this.workout = workout;
+        }
+
+        @Override
+        void onStart(String name, String parent, Attributes attributes) {
+            if ("Activity".equals(name)) {
+                workout.setSport(activityTypeOf(attributes.getValue("Sport")));
+            } else if ("Trackpoint".equals(name)) {
+                inPoint = true;
+                time = NO_TIME;
+                latitude = Double.NaN;
+                longitude = Double.NaN;
+                distance = Double.NaN;
+                heartRate = Float.NaN;
+                cadence = Float.NaN;
+                speed = Float.NaN;
+            }
+        }
+
+        @Override
+        void onEnd(String name, String parent, String text) throws SAXException {
+            if (!inPoint) {
+                if ("Lap".equals(parent) && "Calories".equals(name)) {
+                    float lapCalories = parseFloat(text);
+                    if (!Float.isNaN(lapCalories)) {
+                        float calories = workout.getCalories();
+                        workout.setCalories(Float.isNaN(calories) ? lapCalories : calories + lapCalories);
+                    }
+                }
+                return;
+            }
+            switch (name) {
+                case "Time":
+                    time = parseTime(text);
+                    break;
+                case "LatitudeDegrees":
+                    latitude = parseDouble(text);
+                    break;
+                case "LongitudeDegrees":
+                    longitude = parseDouble(text);
+                    break;
+                case "DistanceMeters":
+                    distance = parseDouble(text);
+                    break;
+                case "Value":
+                    if ("HeartRateBpm".equals(parent)) {
+                        heartRate = parseFloat(text);
+                    }
+                    break;
+                case "Cadence":
+                case "RunCadence":
+                    cadence = parseFloat(text);
+                    break;
+                case "Speed":
+                    speed = parseFloat(text);
+                    break;
+                case "Trackpoint":
+                    inPoint = false;
+                    if (time != NO_TIME) {
+                        workout.addPoint(time, latitude, longitude, distance, heartRate, cadence, speed);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
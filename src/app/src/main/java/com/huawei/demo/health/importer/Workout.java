@@ -0,0 +1,266 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.importer;
+
+import java.util.Arrays;
+
+/**
+ * Workout read from a GPX, TCX or FIT file, before it is mapped to an ActivityRecord.
+ * The track points are stored in primitive columns, a missing value is NaN. Points must be added in time order,
+ * points without a later time than the previous one are dropped.
+ *
+ * @since 2026-10-18
+ */
+public final class Workout {
+    // Mean earth radius of the haversine distance, in meters
+    private static final double EARTH_RADIUS_METERS = 6_371_000d;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final String source;
+
+    private String name;
+
+    // HiHealthActivities type of the workout
+    private String sport;
+
+    private float calories = Float.NaN;
+
+    private int size;
+
+    private long[] times = new long[INITIAL_CAPACITY];
+
+    private double[] latitudes = new double[INITIAL_CAPACITY];
+
+    private double[] longitudes = new double[INITIAL_CAPACITY];
+
+    // Cumulative distance from the start, in meters
+    private double[] distances = new double[INITIAL_CAPACITY];
+
+    private float[] heartRates = new float[INITIAL_CAPACITY];
+
+    // Cadence as written in the file: strides or revolutions per minute
+    private float[] cadences = new float[INITIAL_CAPACITY];
+
+    // Speed in meters per second
+    private float[] speeds = new float[INITIAL_CAPACITY];
+
+    /**
+     * Create an empty workout.
+     *
+     * @param source name of the file the workout is read from
+     */
+    public Workout(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Add a track point. Unknown values are NaN.
+     *
+     * @param time time of the point, in milliseconds
+     * @param latitude latitude in degrees
+     * @param longitude longitude in degrees
+     * @param distance cumulative distance in meters
+     * @param heartRate heart rate in beats per minute
+     * @param cadence cadence in strides or revolutions per minute
+     * @param speed speed in meters per second
+     * @return true if the point was added, false if it is not later than the previous point
+     */
+    public boolean addPoint(long time, double latitude, double longitude, double distance, float heartRate,
+        float cadence, float speed) {
+        if (size > 0 && time <= times[size - 1]) {
+            return false;
+        }
+        if (size == times.length) {
+            grow();
+        }
+        times[size] = time;
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        distances[size] = distance;
+        heartRates[size] = heartRate;
+        cadences[size] = cadence;
+        speeds[size] = speed;
+        size++;
+        return true;
+    }
+
+    /**
+     * Derive the values the file does not carry: the cumulative distance from the positions and the speed from
+     * the distance. Called once by the parser after the last point.
+     */
+    public void finish() {
+        if (size == 0) {
+            return;
+        }
+        if (!hasRecordedDistance()) {
+            fillDistancesFromPositions();
+        }
+        for (int i = 1; i < size; i++) {
+            if (Float.isNaN(speeds[i]) && !Double.isNaN(distances[i]) && !Double.isNaN(distances[i - 1])) {
+                double seconds = (times[i] - times[i - 1]) / 1000d;
+                speeds[i] = (float) (Math.max(0d, distances[i] - distances[i - 1]) / seconds);
+            }
+        }
+        fillDistanceGaps();
+    }
+
+    private boolean hasRecordedDistance() {
+        for (int i = 0; i < size; i++) {
+            if (!Double.isNaN(distances[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // A point without distance, such as a heart rate only record of a FIT file, keeps the distance before it.
+    private void fillDistanceGaps() {
+        for (int i = 1; i < size; i++) {
+            if (Double.isNaN(distances[i])) {
+                distances[i] = distances[i - 1];
+            }
+        }
+    }
+
+    private void fillDistancesFromPositions() {
+        double total = 0d;
+        int previous = -1;
+        for (int i = 0; i < size; i++) {
+            if (Double.isNaN(latitudes[i]) || Double.isNaN(longitudes[i])) {
+                distances[i] = previous < 0 ? Double.NaN : total;
+                continue;
+            }
+            if (previous >= 0) {
+                total += haversine(latitudes[previous], longitudes[previous], latitudes[i], longitudes[i]);
+            }
+            distances[i] = total;
+            previous = i;
+        }
+    }
+
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1d, Math.sqrt(a)));
+    }
+
+    private void grow() {
+        int capacity = times.length * 2;
+        times = Arrays.copyOf(times, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        distances = Arrays.copyOf(distances, capacity);
+        heartRates = Arrays.copyOf(heartRates, capacity);
+        cadences = Arrays.copyOf(cadences, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSport() {
+        return sport;
+    }
+
+    public void setSport(String sport) {
+        this.sport = sport;
+    }
+
+    /**
+     * Get the calories of the workout, as written in the file.
+     *
+     * @return calories in kcal, NaN if unknown
+     */
+    public float getCalories() {
+        return calories;
+    }
+
+    public void setCalories(float calories) {
+        this.calories = calories;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    public double getDistance(int index) {
+        return distances[index];
+    }
+
+    public float getHeartRate(int index) {
+        return heartRates[index];
+    }
+
+    public float getCadence(int index) {
+        return cadences[index];
+    }
+
+    public float getSpeed(int index) {
+        return speeds[index];
+    }
+
+    /**
+     * Get the start time, the time of the first point.
+     *
+     * @return start time in milliseconds
+     */
+    public long getStartTime() {
+        return times[0];
+    }
+
+    /**
+     * Get the end time, the time of the last point.
+     *
+     * @return end time in milliseconds
+     */
+    public long getEndTime() {
+        return times[size - 1];
+    }
+
+    /**
+     * Get the distance covered by the workout.
+     *
+     * @return distance in meters, NaN if unknown
+     */
+    public double getTotalDistance() {
+        if (size == 0) {
+            return Double.NaN;
+        }
+        // The first distance is not 0 in a file cut out of a longer recording.
+        int first = 0;
+        while (first < size - 1 && Double.isNaN(distances[first])) {
+            first++;
+        }
+        return distances[size - 1] - distances[first];
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import com.huawei.hms.hihealth.HiHealthActivities;
+import com.huawei.hms.hihealth.data.ActivityRecord;
+import com.huawei.hms.hihealth.data.ActivitySummary;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+import com.huawei.hms.hihealth.options.ActivityRecordInsertOptions;
+
+/**
+ * Maps a Workout to the request of ActivityRecordsController.addActivityRecord: an ActivityRecord with an
+ * ActivitySummary of the distance, speed and heart rate, and detail SampleSets of the heart rate, step rate and
+ * speed. A detail SampleSet holds at most MAX_DETAIL_POINTS points, denser tracks are averaged over equal
+ * intervals. The record id is derived from the activity type and the start time, so importing the same workout
+ * again writes the same record.
+ * The mapper keeps no state between workouts and can be used on several threads.
+ *
+ * @since 2026-10-18
+ */
+public class WorkoutMapper {
+    /**
+     * Maximum number of points of a detail SampleSet
+     */
+    public static final int MAX_DETAIL_POINTS = 1000;
+
+    private static final String COLLECTOR_NAME = "import";
+
+    private final DataCollector distanceCollector;
+
+    private final DataCollector speedStatisticsCollector;
+
+    private final DataCollector heartRateStatisticsCollector;
+
+    private final DataCollector heartRateCollector;
+
+    private final DataCollector stepRateCollector;
+
+    private final DataCollector speedCollector;
+
+    /**
+     * Create a mapper writing the data as the given app.
+     *
+     * @param packageName package name of the importing app
+     */
+    public WorkoutMapper(String packageName) {
+        distanceCollector = collector(packageName, DataType.DT_CONTINUOUS_DISTANCE_TOTAL);
+        speedStatisticsCollector = collector(packageName, DataType.POLYMERIZE_CONTINUOUS_SPEED_STATISTICS);
+        heartRateStatisticsCollector = collector(packageName, DataType.POLYMERIZE_CONTINUOUS_HEART_RATE_STATISTICS);
+        heartRateCollector = collector(packageName, DataType.DT_INSTANTANEOUS_HEART_RATE);
+        stepRateCollector = collector(packageName, DataType.DT_INSTANTANEOUS_STEPS_RATE);
+        speedCollector = collector(packageName, DataType.DT_INSTANTANEOUS_SPEED);
+    }
+
+    /**
+     * Build the request adding a workout.
+     *
+     * @param workout workout with at least two points
+     * @return the request
+     */
+    public ActivityRecordInsertOptions map(Workout workout) {
+        long startTime = workout.getStartTime();
+        long endTime = workout.getEndTime();
+        String activityType = workout.getSport() == null ? HiHealthActivities.OTHER : workout.getSport();
+
+        List<SamplePoint> summaryPoints = new ArrayList<>();
+        double distance = workout.getTotalDistance();
+        if (!Double.isNaN(distance)) {
+            SamplePoint distancePoint = new SamplePoint.Builder(distanceCollector).build()
+                .setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS);
+            distancePoint.getFieldValue(Field.FIELD_DISTANCE).setFloatValue((float) distance);
+            summaryPoints.add(distancePoint);
+        }
+        addStatistics(summaryPoints, speedStatisticsCollector, workout, Column.SPEED);
+        addStatistics(summaryPoints, heartRateStatisticsCollector, workout, Column.HEART_RATE);
+        ActivitySummary activitySummary = new ActivitySummary();
+        activitySummary.setDataSummary(summaryPoints);
+
+        String name = workout.getName() == null || workout.getName().isEmpty() ? workout.getSource()
+            : workout.getName();
+        ActivityRecord activityRecord = new ActivityRecord.Builder().setName(name)
+            .setDesc("Imported from " + workout.getSource())
+            .setId("import_" + activityType + "_" + startTime)
+            .setActivityTypeId(activityType)
+            .setStartTime(startTime, TimeUnit.MILLISECONDS)
+            .setEndTime(endTime, TimeUnit.MILLISECONDS)
+            .setActivitySummary(activitySummary)
+            .setTimeZone(timeZoneOf(startTime))
+            .build();
+
+        ActivityRecordInsertOptions.Builder builder =
+            new ActivityRecordInsertOptions.Builder().setActivityRecord(activityRecord);
+        addDetail(builder, heartRateCollector, Field.FIELD_BPM, workout, Column.HEART_RATE);
+        // Running and walking files count the strides of one foot, a step rate counts both feet.
+        if (isOnFoot(activityType)) {
+            addDetail(builder, stepRateCollector, Field.FIELD_STEP_RATE, workout, Column.STEP_RATE);
+        }
+        addDetail(builder, speedCollector, Field.FIELD_SPEED, workout, Column.SPEED);
+        return builder.build();
+    }
+
+    /**
+     * Check a request as the platform checks it, so that a file is rejected before its request is sent.
+     *
+     * @param options request built by map
+     * @return the reason the request would be rejected, null if it is valid
+     */
+    public static String check(ActivityRecordInsertOptions options) {
+        ActivityRecord activityRecord = options.getActivityRecord();
+        if (activityRecord == null || activityRecord.getId() == null || activityRecord.getId().isEmpty()) {
+            return "activity record without id";
+        }
+        long startTime = activityRecord.getStartTime(TimeUnit.MILLISECONDS);
+        long endTime = activityRecord.getEndTime(TimeUnit.MILLISECONDS);
+        if (startTime <= 0 || endTime <= startTime || endTime > System.currentTimeMillis()) {
+            return activityRecord.getId() + ": invalid time range";
+        }
+        if (activityRecord.getActivitySummary() != null) {
+            String error = checkPoints(activityRecord.getId(), activityRecord.getActivitySummary().getDataSummary(),
+                startTime, endTime);
+            if (error != null) {
+                return error;
+            }
+        }
+        List<SampleSet> sampleSets = options.getSampleSets();
+        if (sampleSets != null) {
+            for (SampleSet sampleSet : sampleSets) {
+                List<SamplePoint> samplePoints = sampleSet.getSamplePoints();
+                if (samplePoints.isEmpty() || samplePoints.size() > MAX_DETAIL_POINTS) {
+                    return activityRecord.getId() + ": invalid sample point count " + samplePoints.size();
+                }
+                String error = checkPoints(activityRecord.getId(), samplePoints, startTime, endTime);
+                if (error != null) {
+                    return error;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String checkPoints(String id, List<SamplePoint> samplePoints, long startTime, long endTime) {
+        if (samplePoints == null) {
+            return null;
+        }
+        for (SamplePoint samplePoint : samplePoints) {
+            if (samplePoint.getStartTime(TimeUnit.MILLISECONDS) < startTime
+                || samplePoint.getEndTime(TimeUnit.MILLISECONDS) > endTime) {
+                return id + ": " + samplePoint.getDataType().getName() + " point outside of the record";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Count the points of the detail SampleSets a workout is mapped to, without building them.
+     *
+     * @param workout workout with at least two points
+     * @return number of detail points
+     */
+    public static int countDetailPoints(Workout workout) {
+        int points = 0;
+        for (Column column : Column.values()) {
+            if (column != Column.STEP_RATE || isOnFoot(workout.getSport())) {
+                points += detailPoints(column.count(workout));
+            }
+        }
+        return points;
+    }
+
+    private static boolean isOnFoot(String activityType) {
+        return HiHealthActivities.RUNNING.equals(activityType) || HiHealthActivities.WALKING.equals(activityType)
+            || HiHealthActivities.HIKING.equals(activityType);
+    }
+
+    private static void addStatistics(List<SamplePoint> summaryPoints, DataCollector collector, Workout workout,
+        Column column) {
+        double sum = 0d;
+        int count = 0;
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (int i = 0; i < workout.size(); i++) {
+            float value = column.get(workout, i);
+            if (!Float.isNaN(value)) {
+                sum += value;
+                count++;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        SamplePoint samplePoint = new SamplePoint.Builder(collector).build()
+            .setTimeInterval(workout.getStartTime(), workout.getEndTime(), TimeUnit.MILLISECONDS);
+        samplePoint.getFieldValue(Field.FIELD_AVG).setFloatValue((float) (sum / count));
+        samplePoint.getFieldValue(Field.FIELD_MIN).setFloatValue(min);
+        samplePoint.getFieldValue(Field.FIELD_MAX).setFloatValue(max);
+        summaryPoints.add(samplePoint);
+    }
+
+    private static void addDetail(ActivityRecordInsertOptions.Builder builder, DataCollector collector, Field field,
+        Workout workout, Column column) {
+        int count = column.count(workout);
+        if (count == 0) {
+            return;
+        }
+        SampleSet sampleSet = SampleSet.create(collector);
+        // Average the values of each bucket of consecutive points, and date the average at the last point.
+        int perBucket = pointsPerBucket(count);
+        double sum = 0d;
+        int inBucket = 0;
+        for (int i = 0; i < workout.size(); i++) {
+            float value = column.get(workout, i);
+            if (Float.isNaN(value)) {
+                continue;
+            }
+            sum += value;
+            inBucket++;
+            if (inBucket == perBucket) {
+                addPoint(sampleSet, field, workout.getTime(i), (float) (sum / inBucket));
+                sum = 0d;
+                inBucket = 0;
+            }
+        }
+        if (inBucket > 0) {
+            addPoint(sampleSet, field, lastTime(workout, column), (float) (sum / inBucket));
+        }
+        builder.addSampleSet(sampleSet);
+    }
+
+    private static int detailPoints(int count) {
+        if (count == 0) {
+            return 0;
+        }
+        int perBucket = pointsPerBucket(count);
+        return (count + perBucket - 1) / perBucket;
+    }
+
+    private static int pointsPerBucket(int count) {
+        return (count + MAX_DETAIL_POINTS - 1) / MAX_DETAIL_POINTS;
+    }
+
+    private static void addPoint(SampleSet sampleSet, Field field, long time, float value) {
+        SamplePoint samplePoint = sampleSet.createSamplePoint().setSamplingTime(time, TimeUnit.MILLISECONDS);
+        samplePoint.getFieldValue(field).setFloatValue(value);
+        sampleSet.addSample(samplePoint);
+    }
+
+    private static long lastTime(Workout workout, Column column) {
+        for (int i = workout.size() - 1; i > 0; i--) {
+            if (!Float.isNaN(column.get(workout, i))) {
+                return workout.getTime(i);
+            }
+        }
+        return workout.getTime(0);
+    }
+
+    // Offset of the default time zone at a time, in the "+0800" format of ActivityRecord
+    private static String timeZoneOf(long time) {
+        int offsetMinutes = TimeZone.getDefault().getOffset(time) / 60000;
+        char sign = offsetMinutes < 0 ? '-' : '+';
+        int absolute = Math.abs(offsetMinutes);
+        return String.format(Locale.ENGLISH, "%c%02d%02d", sign, absolute / 60, absolute % 60);
+    }
+
+    private static DataCollector collector(String packageName, DataType dataType) {
+        return new DataCollector.Builder().setDataType(dataType)
+            .setDataGenerateType(DataCollector.DATA_TYPE_RAW)
+            .setPackageName(packageName)
+            .setDataCollectorName(COLLECTOR_NAME)
+            .build();
+    }
+
+    private enum Column {
+        HEART_RATE,
+        STEP_RATE,
+        SPEED;
+
+        float get(Workout workout, int index) {
+            switch (this) {
+                case HEART_RATE:
+                    float heartRate = workout.getHeartRate(index);
+                    return heartRate > 0 ? heartRate : Float.NaN;
+                case STEP_RATE:
+                    return workout.getCadence(index) * 2;
+                default:
+                    return workout.getSpeed(index);
+            }
+        }
+
+        int count(Workout workout) {
+            int count = 0;
+            for (int i = 0; i < workout.size(); i++) {
+                if (!Float.isNaN(get(workout, i))) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Parser of one workout file format. A parser keeps no state between files, one instance can parse files on
+ * several threads at the same time.
+ *
+ * @since 2026-10-18
+ */
+public interface WorkoutParser {
+    /**
+     * Read a workout. The stream is read sequentially and is not closed.
+     *
+     * @param input content of the file
+     * @param source name of the file, used in the errors and as the default workout name
+     * @return the workout, with finish already called
+     * @throws IOException if the stream cannot be read or is not a valid file of the format
+     */
+    Workout parse(InputStream input, String source) throws IOException;
+
+    /**
+     * Get the parser of a file by its extension.
+     *
+     * @param fileName file name ending with .gpx, .tcx or .fit, in any case
+     * @return the parser, or null if the format is not supported
+     */
+    static WorkoutParser forFileName(String fileName) {
+        String lowerCase = fileName.toLowerCase(Locale.ENGLISH);
+        if (lowerCase.endsWith(".gpx")) {
+            return GpxParser.INSTANCE;
+        }
+        if (lowerCase.endsWith(".tcx")) {
+            return TcxParser.INSTANCE;
+        }
+        if (lowerCase.endsWith(".fit")) {
+            return FitParser.INSTANCE;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.Locale;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.huawei.demo.health.util.TimeFormatUtil;
+import com.huawei.hms.hihealth.HiHealthActivities;
+
+/**
+ * Base of the parsers of the XML workout formats. The file is read with SAX, so only the current track point is
+ * held besides the Workout columns, whatever the size of the file.
+ *
+ * @since 2026-10-18
+ */
+abstract class XmlWorkoutParser implements WorkoutParser {
+    @Override
+    public Workout parse(InputStream input, String source) throws IOException {
+        Workout workout = new Workout(source);
+        try {
+            // One factory per file, SAXParserFactory is not thread-safe.
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.newSAXParser().parse(input, newHandler(workout));
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException(source + ": " + e.getMessage(), e);
+        }
+        workout.finish();
+        if (workout.size() < 2) {
+            throw new IOException(source + ": less than two track points");
+        }
+        return workout;
+    }
+
+    /**
+     * Create the handler filling a workout.
+     *
+     * @param workout workout to fill
+     * @return the handler
+     */
+    abstract Handler newHandler(Workout workout);
+
+    /**
+     * Map a sport name of a GPX or TCX file to a HiHealthActivities type.
+     *
+     * @param name sport name, such as "Running" or "cycling"
+     * @return the activity type, OTHER if unknown
+     */
+    static String activityTypeOf(String name) {
+        if (name == null) {
+            return HiHealthActivities.OTHER;
+        }
+        String lowerCase = name.trim().toLowerCase(Locale.ENGLISH);
+        if (lowerCase.startsWith("run")) {
+            return HiHealthActivities.RUNNING;
+        }
+        if (lowerCase.startsWith("walk")) {
+            return HiHealthActivities.WALKING;
+        }
+        if (lowerCase.startsWith("hik")) {
+            return HiHealthActivities.HIKING;
+        }
+        if (lowerCase.startsWith("bik") || lowerCase.startsWith("cycl")) {
+            return HiHealthActivities.BIKING;
+        }
+        if (lowerCase.startsWith("swim")) {
+            return HiHealthActivities.SWIMMING;
+        }
+        return HiHealthActivities.OTHER;
+    }
+
+    /**
+     * SAX handler tracking the parent of each element and the text of the leaf elements
+     */
+    abstract static class Handler extends DefaultHandler {
+        /**
+         * Time of a track point without time
+         */
+        static final long NO_TIME = Long.MIN_VALUE;
+
+        private final ArrayDeque<String> path = new ArrayDeque<>();
+
+        private final StringBuilder text = new StringBuilder();
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+            throws SAXException {
+            String name = localName == null || localName.isEmpty() ? qName : localName;
+            text.setLength(0);
+            onStart(name, path.peek(), attributes);
+            path.push(name);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            String name = localName == null || localName.isEmpty() ? qName : localName;
+            path.pop();
+            onEnd(name, path.peek(), text.toString().trim());
+            text.setLength(0);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            text.append(ch, start, length);
+        }
+
+        /**
+         * Called when an element starts.
+         *
+         * @param name local name of the element
+         * @param parent local name of the parent element, null for the root
+         * @param attributes attributes of the element
+         * @throws SAXException if the element is invalid
+         */
+        abstract void onStart(String name, String parent, Attributes attributes) throws SAXException;
+
+        /**
+         * Called when an element ends.
+         *
+         * @param name local name of the element
+         * @param parent local name of the parent element, null for the root
+         * @param text trimmed text of the element, meaningful for leaf elements only
+         * @throws SAXException if the element is invalid
+         */
+        abstract void onEnd(String name, String parent, String text) throws SAXException;
+
+        static long parseTime(String text) throws SAXException {
+            try {
+                return TimeFormatUtil.parseIso8601(text);
+            } catch (ParseException e) {
+                throw new SAXException(e.getMessage(), e);
+            }
+        }
+
+        static double parseDouble(String text) {
+            if (text == null || text.isEmpty()) {
+                return Double.NaN;
+            }
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+
+        static float parseFloat(String text) {
+            return (float) parseDouble(text);
+        }
+    }
+}
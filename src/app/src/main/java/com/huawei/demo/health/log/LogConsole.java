@@ -0,0 +1,238 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.huawei.health.demo.R;
+
+/**
+ * Log output of the sample activities, shown in a RecyclerView.
+ * Lines can be appended from any thread. They are queued and moved to a LogRingBuffer once per frame, so the UI
+ * thread does one adapter update per frame however many lines are logged, only the visible lines are bound, and
+ * the memory is bounded by the capacity. The lines of a batch are queued together, so a result is never shown
+ * half printed.
+ *
+ * @since 2026-10-18
+ */
+public class LogConsole {
+    /**
+     * Default maximum number of lines kept
+     */
+    public static final int DEFAULT_CAPACITY = 2000;
+
+    private final RecyclerView recyclerView;
+
+    // Only accessed on the main thread
+    private final LogRingBuffer buffer;
+
+    private final LogAdapter adapter;
+
+    private final Object lock = new Object();
+
+    // Lines appended since the last frame, guarded by lock
+    private ArrayDeque<String> pending = new ArrayDeque<>();
+
+    // Swapped with pending on every frame, so that draining does not allocate
+    private ArrayDeque<String> draining = new ArrayDeque<>();
+
+    // Whether a drain is posted for the next frame, guarded by lock
+    private boolean drainScheduled;
+
+    private final Runnable drainTask = this::drain;
+
+    // Lines of the batch running on the current thread, see runBatch
+    private final ThreadLocal<List<String>> batches = new ThreadLocal<>();
+
+    /**
+     * Create a console with the default capacity.
+     *
+     * @param recyclerView RecyclerView showing the lines
+     */
+    public LogConsole(RecyclerView recyclerView) {
+        this(recyclerView, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a console.
+     *
+     * @param recyclerView RecyclerView showing the lines
+     * @param capacity maximum number of lines kept
+     */
+    public LogConsole(RecyclerView recyclerView, int capacity) {
+        this.recyclerView = recyclerView;
+        this.buffer = new LogRingBuffer(capacity);
+        this.adapter = new LogAdapter(buffer);
+        recyclerView.setLayoutManager(new LinearLayoutManager(recyclerView.getContext()));
+        recyclerView.setItemAnimator(null);
+        recyclerView.setAdapter(adapter);
+    }
+
+    /**
+     * Append a line. Can be called from any thread.
+     *
+     * @param line log line
+     */
+    public void append(String line) {
+        List<String> batch = batches.get();
+        if (batch != null) {
+            batch.add(line);
+            return;
+        }
+        synchronized (lock) {
+            enqueue(line);
+            if (drainScheduled) {
+                return;
+            }
+            drainScheduled = true;
+        }
+        recyclerView.postOnAnimation(drainTask);
+    }
+
+    /**
+     * Run a task that appends lines, and queue its lines at once when it ends. Can be called from any thread,
+     * the lines appended by the task on other threads are not part of the batch.
+     *
+     * @param task task appending lines
+     */
+    public void runBatch(Runnable task) {
+        if (batches.get() != null) {
+            // Nested batch, its lines are queued with the outer one.
+            task.run();
+            return;
+        }
+        List<String> batch = new ArrayList<>();
+        batches.set(batch);
+        try {
+            task.run();
+        } finally {
+            batches.remove();
+            appendAll(batch);
+        }
+    }
+
+    private void appendAll(List<String> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            for (String line : lines) {
+                enqueue(line);
+            }
+            if (drainScheduled) {
+                return;
+            }
+            drainScheduled = true;
+        }
+        recyclerView.postOnAnimation(drainTask);
+    }
+
+    // Must hold the lock
+    private void enqueue(String line) {
+        // Lines that would be overwritten in the same frame are dropped right away.
+        if (pending.size() == buffer.capacity()) {
+            pending.pollFirst();
+        }
+        pending.addLast(line);
+    }
+
+    /**
+     * Remove all lines. Must be called on the main thread.
+     */
+    public void clear() {
+        synchronized (lock) {
+            pending.clear();
+        }
+        buffer.clear();
+        adapter.notifyDataSetChanged();
+    }
+
+    private void drain() {
+        ArrayDeque<String> batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = draining;
+            draining = batch;
+            drainScheduled = false;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        boolean atBottom = !recyclerView.canScrollVertically(1);
+        int oldSize = buffer.size();
+        int added = batch.size();
+        boolean overwritten = false;
+        String line;
+        while ((line = batch.pollFirst()) != null) {
+            overwritten |= buffer.add(line);
+        }
+        if (overwritten) {
+            adapter.notifyDataSetChanged();
+        } else {
+            adapter.notifyItemRangeInserted(oldSize, added);
+        }
+        // Follow the output only if the user has not scrolled up.
+        if (atBottom) {
+            recyclerView.scrollToPosition(buffer.size() - 1);
+        }
+    }
+
+    private static class LogAdapter extends RecyclerView.Adapter<LineHolder> {
+        private final LogRingBuffer buffer;
+
+        LogAdapter(LogRingBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @NonNull
+        @Override
+        public LineHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            TextView textView =
+                (TextView) LayoutInflater.from(parent.getContext()).inflate(R.layout.item_log_line, parent, false);
+            return new LineHolder(textView);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull LineHolder holder, int position) {
+            holder.textView.setText(buffer.get(position));
+        }
+
+        @Override
+        public int getItemCount() {
+            return buffer.size();
+        }
+    }
+
+    private static class LineHolder extends RecyclerView.ViewHolder {
+        private final TextView textView;
+
+        LineHolder(TextView textView) {
+            super(textView);
+            this.textView = textView;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.log;
+
+/**
+ * Fixed-capacity ring buffer of log lines. When the buffer is full, the oldest line is overwritten.
+ * Not thread safe, LogConsole only accesses it on the main thread.
+ *
+ * @since 2026-10-18
+ */
+public class LogRingBuffer {
+    private final String[] lines;
+
+    // Index of the oldest line
+    private int head;
+
+    private int size;
+
+    /**
+     * Create a ring buffer.
+     *
+     * @param capacity maximum number of lines kept
+     */
+    public LogRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        lines = new String[capacity];
+    }
+
+    /**
+     * Append a line.
+     *
+     * @param line log line
+     * @return true if the oldest line was overwritten
+     */
+    public boolean add(String line) {
+        if (size < lines.length) {
+            lines[(head + size) % lines.length] = line;
+            size++;
+            return false;
+        }
+        lines[head] = line;
+        head = (head + 1) % lines.length;
+        return true;
+    }
+
+    /**
+     * Get a line.
+     *
+     * @param index index of the line, 0 is the oldest line kept
+     * @return log line
+     */
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return lines[(head + index) % lines.length];
+    }
+
+    /**
+     * Get the number of lines kept.
+     *
+     * @return number of lines
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the capacity.
+     *
+     * @return maximum number of lines kept
+     */
+    public int capacity() {
+        return lines.length;
+    }
+
+    /**
+     * Remove all lines.
+     */
+    public void clear() {
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+}
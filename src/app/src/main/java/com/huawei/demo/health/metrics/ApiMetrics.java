@@ -0,0 +1,271 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of the Health Kit API calls, per API and DataType: latency histogram, payload size histogram (points or
+ * records per call) and success and failure counts.
+ * Recording a call of a known API and DataType takes two map lookups and does not allocate. The metrics are read
+ * as snapshots, printed by dump, and pushed to the Exporter by export.
+ * The class has no Android dependency, so the in-memory path runs on the JVM.
+ *
+ * @since 2026-10-18
+ */
+public final class ApiMetrics {
+    /**
+     * DataType name of the calls that are not about one DataType
+     */
+    public static final String NO_DATA_TYPE = "-";
+
+    // Slower calls are counted in the last bucket
+    private static final long HIGHEST_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private static final long HIGHEST_PAYLOAD_SIZE = 1_000_000L;
+
+    private static final ApiMetrics INSTANCE = new ApiMetrics();
+
+    // API name to DataType name to series, two levels so that a lookup needs no key object
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Series>> series = new ConcurrentHashMap<>();
+
+    private volatile Exporter exporter;
+
+    /**
+     * Create an empty registry. The app uses the one of getInstance.
+     */
+    public ApiMetrics() {
+    }
+
+    /**
+     * Get the registry shared by the app process.
+     *
+     * @return the registry
+     */
+    public static ApiMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Receiver of the metrics snapshots, for example a log or an upload to a monitoring backend
+     */
+    public interface Exporter {
+        /**
+         * Called by export with the snapshot of every series.
+         *
+         * @param snapshots snapshots sorted by API and DataType
+         */
+        void export(List<SeriesSnapshot> snapshots);
+    }
+
+    /**
+     * Set the exporter used by export.
+     *
+     * @param exporter exporter, or null for none
+     */
+    public void setExporter(Exporter exporter) {
+        this.exporter = exporter;
+    }
+
+    /**
+     * Record a successful call.
+     *
+     * @param api API name
+     * @param dataType DataType name, or NO_DATA_TYPE
+     * @param latencyNanos time from the call to its result
+     * @param payloadSize points or records carried by the call
+     */
+    public void recordSuccess(String api, String dataType, long latencyNanos, long payloadSize) {
+        Series target = seriesOf(api, dataType);
+        target.successes.incrementAndGet();
+        target.latency.record(latencyNanos);
+        target.payload.record(payloadSize);
+    }
+
+    /**
+     * Record a failed call. Its latency is recorded too, a slow failure is as visible as a slow success.
+     *
+     * @param api API name
+     * @param dataType DataType name, or NO_DATA_TYPE
+     * @param latencyNanos time from the call to its failure
+     */
+    public void recordFailure(String api, String dataType, long latencyNanos) {
+        Series target = seriesOf(api, dataType);
+        target.failures.incrementAndGet();
+        target.latency.record(latencyNanos);
+    }
+
+    /**
+     * Get a snapshot of every series.
+     *
+     * @return snapshots sorted by API and DataType
+     */
+    public List<SeriesSnapshot> snapshot() {
+        List<SeriesSnapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<String, ConcurrentHashMap<String, Series>> byApi : series.entrySet()) {
+            for (Map.Entry<String, Series> byType : byApi.getValue().entrySet()) {
+                Series value = byType.getValue();
+                snapshots.add(new SeriesSnapshot(byApi.getKey(), byType.getKey(), value.successes.get(),
+                    value.failures.get(), value.latency.snapshot(), value.payload.snapshot()));
+            }
+        }
+        Collections.sort(snapshots, (left, right) -> {
+            int byApi = left.api.compareTo(right.api);
+            return byApi != 0 ? byApi : left.dataType.compareTo(right.dataType);
+        });
+        return snapshots;
+    }
+
+    /**
+     * Print the metrics, one line per API and DataType.
+     *
+     * @return the text of the metrics
+     */
+    public String dump() {
+        StringBuilder builder = new StringBuilder();
+        for (SeriesSnapshot snapshot : snapshot()) {
+            builder.append(snapshot).append(System.lineSeparator());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Push a snapshot of the metrics to the exporter, if one is set.
+     *
+     * @return true if an exporter received the snapshot
+     */
+    public boolean export() {
+        Exporter current = exporter;
+        if (current == null) {
+            return false;
+        }
+        current.export(snapshot());
+        return true;
+    }
+
+    /**
+     * Forget all series.
+     */
+    public void reset() {
+        series.clear();
+    }
+
+    private Series seriesOf(String api, String dataType) {
+        ConcurrentHashMap<String, Series> byType = series.get(api);
+        if (byType == null) {
+            series.putIfAbsent(api, new ConcurrentHashMap<>());
+            byType = series.get(api);
+        }
+        String type = dataType == null ? NO_DATA_TYPE : dataType;
+        Series target = byType.get(type);
+        if (target == null) {
+            byType.putIfAbsent(type, new Series());
+            target = byType.get(type);
+        }
+        return target;
+    }
+
+    private static final class Series {
+        private final AtomicLong successes = new AtomicLong();
+
+        private final AtomicLong failures = new AtomicLong();
+
+        private final Histogram latency = new Histogram(HIGHEST_LATENCY_NANOS);
+
+        private final Histogram payload = new Histogram(HIGHEST_PAYLOAD_SIZE);
+    }
+
+    /**
+     * Metrics of one API and DataType at a point in time
+     */
+    public static final class SeriesSnapshot {
+        private final String api;
+
+        private final String dataType;
+
+        private final long successes;
+
+        private final long failures;
+
+        private final Histogram.Snapshot latency;
+
+        private final Histogram.Snapshot payload;
+
+        private SeriesSnapshot(String api, String dataType, long successes, long failures,
+            Histogram.Snapshot latency, Histogram.Snapshot payload) {
+            this.api = api;
+            this.dataType = dataType;
+            this.successes = successes;
+            this.failures = failures;
+            this.latency = latency;
+            this.payload = payload;
+        }
+
+        public String getApi() {
+            return api;
+        }
+
+        public String getDataType() {
+            return dataType;
+        }
+
+        public long getSuccesses() {
+            return successes;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * Get the latencies in nanoseconds, of the successes and the failures.
+         *
+         * @return latency histogram snapshot
+         */
+        public Histogram.Snapshot getLatency() {
+            return latency;
+        }
+
+        /**
+         * Get the payload sizes of the successes.
+         *
+         * @return payload size histogram snapshot
+         */
+        public Histogram.Snapshot getPayload() {
+            return payload;
+        }
+
+        @Override
+        public String toString() {
+            return api + " " + dataType + ": ok " + successes + ", failed " + failures + ", latency ms p50 "
+                + toMillis(latency.getValueAtPercentile(50)) + " p90 " + toMillis(latency.getValueAtPercentile(90))
+                + " p99 " + toMillis(latency.getValueAtPercentile(99)) + " max " + toMillis(latency.getMax())
+                + ", payload p50 " + payload.getValueAtPercentile(50) + " max " + payload.getMax() + " total "
+                + payload.getSum();
+        }
+
+        private static double toMillis(long nanos) {
+            return Math.round(nanos / 1e4) / 100.0;
+        }
+    }
+}
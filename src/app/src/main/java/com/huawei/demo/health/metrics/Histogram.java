@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative long values with log-linear buckets, in the style of HdrHistogram.
+ * Values below SUB_BUCKETS are counted exactly, larger values in buckets whose width is about 3% of their value.
+ * Recording is lock-free and does not allocate, so it can be done on the callback thread of every API call.
+ * Values above the highest trackable value are counted in the last bucket.
+ *
+ * @since 2026-10-18
+ */
+public final class Histogram {
+    // Number of exact buckets, and twice the number of sub buckets per power of two above them
+    private static final int SUB_BUCKETS = 64;
+
+    private static final int SUB_BUCKET_BITS = 6;
+
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+    private final long highestTrackableValue;
+
+    private final AtomicLongArray counts;
+
+    private final AtomicLong totalCount = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Create a histogram.
+     *
+     * @param highestTrackableValue largest value told apart from the others
+     */
+    public Histogram(long highestTrackableValue) {
+        if (highestTrackableValue < SUB_BUCKETS) {
+            throw new IllegalArgumentException("highestTrackableValue must be at least " + SUB_BUCKETS);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(indexOf(highestTrackableValue) + 1);
+    }
+
+    /**
+     * Record a value. Can be called from any thread.
+     *
+     * @param value value to record, negative values are counted as 0
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, Math.min(value, highestTrackableValue));
+        counts.incrementAndGet(indexOf(clamped));
+        totalCount.incrementAndGet();
+        sum.addAndGet(clamped);
+        long currentMax = max.get();
+        while (clamped > currentMax && !max.compareAndSet(currentMax, clamped)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Forget the recorded values. Values recorded during the reset may be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Copy the recorded values, to read consistent percentiles while recording continues.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        long count = 0;
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.get(), max.get());
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // Shift so that the value keeps SUB_BUCKET_BITS significant bits, in [HALF_SUB_BUCKETS, SUB_BUCKETS)
+        int shift = (Long.SIZE - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (subBucket - HALF_SUB_BUCKETS);
+    }
+
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long subBucket = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Recorded values at a point in time
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+
+        private final long count;
+
+        private final long sum;
+
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Get the value below which the given share of the values fall, within the precision of the buckets.
+         *
+         * @param percentile percentile in [0, 100]
+         * @return the highest value of the bucket holding the percentile, at most the maximum; 0 if empty
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueAt(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
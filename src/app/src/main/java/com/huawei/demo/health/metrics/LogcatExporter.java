@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.metrics;
+
+import java.util.List;
+
+import android.util.Log;
+
+/**
+ * Exporter writing the metrics to the logcat, one line per API and DataType.
+ * Replace it with an exporter to a monitoring backend in a real app.
+ *
+ * @since 2026-10-18
+ */
+public class LogcatExporter implements ApiMetrics.Exporter {
+    private static final String TAG = "ApiMetrics";
+
+    @Override
+    public void export(List<ApiMetrics.SeriesSnapshot> snapshots) {
+        for (ApiMetrics.SeriesSnapshot snapshot : snapshots) {
+            Log.i(TAG, snapshot.toString());
+        }
+    }
+}
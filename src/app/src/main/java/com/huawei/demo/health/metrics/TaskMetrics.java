@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.metrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import com.huawei.hmf.tasks.Task;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.SampleSet;
+import com.huawei.hms.hihealth.result.ActivityRecordReply;
+import com.huawei.hms.hihealth.result.HealthRecordReply;
+import com.huawei.hms.hihealth.result.ReadReply;
+
+/**
+ * Records the metrics of a controller call into ApiMetrics when its Task completes.
+ * Wrap the task right after the call; the listener runs on the thread that completes the task.
+ *
+ * @since 2026-10-18
+ */
+public final class TaskMetrics {
+    // Size of a result that is not read from the result, see track with a payload size
+    private static final long SIZE_OF_RESULT = -1L;
+
+    // Runs the listener on the completing thread, recording is short and does not block
+    private static final Executor DIRECT = Runnable::run;
+
+    private TaskMetrics() {
+    }
+
+    /**
+     * Record the latency, the outcome and the size of the result of a call.
+     *
+     * @param task task returned by the controller
+     * @param api API name
+     * @param dataType DataType of the call, or null if the call is not about one DataType
+     * @param <T> result type
+     * @return the same task
+     */
+    public static <T> Task<T> track(Task<T> task, String api, DataType dataType) {
+        return track(task, api, dataType, SIZE_OF_RESULT);
+    }
+
+    /**
+     * Record the latency and the outcome of a call that sends a known number of points or records, such as an
+     * insert.
+     *
+     * @param task task returned by the controller
+     * @param api API name
+     * @param dataType DataType of the call, or null if the call is not about one DataType
+     * @param payloadSize points or records sent by the call
+     * @param <T> result type
+     * @return the same task
+     */
+    public static <T> Task<T> track(Task<T> task, String api, DataType dataType, long payloadSize) {
+        long startNanos = System.nanoTime();
+        String dataTypeName = dataType == null ? ApiMetrics.NO_DATA_TYPE : dataType.getName();
+        task.addOnCompleteListener(DIRECT, completed -> {
+            long latencyNanos = System.nanoTime() - startNanos;
+            if (completed.isSuccessful()) {
+                long size = payloadSize == SIZE_OF_RESULT ? payloadSize(completed.getResult()) : payloadSize;
+                ApiMetrics.getInstance().recordSuccess(api, dataTypeName, latencyNanos, size);
+            } else {
+                ApiMetrics.getInstance().recordFailure(api, dataTypeName, latencyNanos);
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Get the number of points or records of a result.
+     *
+     * @param result result of a controller call
+     * @return the size, 0 for results without points or records
+     */
+    public static long payloadSize(Object result) {
+        if (result instanceof SampleSet) {
+            return ((SampleSet) result).getSamplePoints().size();
+        }
+        if (result instanceof ReadReply) {
+            return pointsOf(((ReadReply) result).getSampleSets());
+        }
+        if (result instanceof ActivityRecordReply) {
+            return sizeOf(((ActivityRecordReply) result).getActivityRecords());
+        }
+        if (result instanceof HealthRecordReply) {
+            return sizeOf(((HealthRecordReply) result).getHealthRecords());
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        return 0;
+    }
+
+    private static long pointsOf(List<SampleSet> sampleSets) {
+        long points = 0;
+        if (sampleSets != null) {
+            for (SampleSet sampleSet : sampleSets) {
+                points += sampleSet.getSamplePoints().size();
+            }
+        }
+        return points;
+    }
+
+    private static long sizeOf(Collection<?> collection) {
+        return collection == null ? 0 : collection.size();
+    }
+}
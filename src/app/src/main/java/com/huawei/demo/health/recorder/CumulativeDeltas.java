@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.recorder;
+
+import java.util.concurrent.TimeUnit;
+
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.Value;
+
+/**
+ * Turns the points of a cumulative type, such as DT_CONTINUOUS_STEPS_TOTAL, into points of the matching delta type,
+ * such as DT_CONTINUOUS_STEPS_DELTA. Cumulative types are computed by the platform from the deltas, they are not
+ * raw data an app may insert, so only the deltas are journaled.
+ * The recorder counts a cumulative type the same way here and in LiveActivitySummary, see added: the first total is
+ * a baseline that adds nothing, as it also holds what the source counted before the recording started, for example
+ * the steps of the day. Each later total adds its difference to the previous total, from the previous end time. A
+ * total lower than the previous one means the source restarted from 0, for example at midnight, it adds its whole
+ * value from its start time. A point that does not end after the previous one is late or repeated and adds nothing.
+ * Not thread safe, it is used by the worker of the fan-in.
+ *
+ * @since 2026-10-18
+ */
+public class CumulativeDeltas {
+    private final DataCollector deltaCollector;
+
+    private final Field deltaField;
+
+    private boolean hasPrevious;
+
+    private long previousEndTime;
+
+    private double previousTotal;
+
+    /**
+     * Create the converter of one cumulative type.
+     *
+     * @param deltaCollector DataCollector of the delta type the points are converted to
+     */
+    public CumulativeDeltas(DataCollector deltaCollector) {
+        this.deltaCollector = deltaCollector;
+        this.deltaField = deltaCollector.getDataType().getFields().get(0);
+    }
+
+    /**
+     * Get the amount a total adds to the previous total of the same source.
+     *
+     * @param previousTotal previous total of the source
+     * @param total next total of the source
+     * @return the difference of the totals, or the whole total if the source restarted from 0
+     */
+    static double added(double previousTotal, double total) {
+        return total < previousTotal ? total : total - previousTotal;
+    }
+
+    /**
+     * Get the delta added by a cumulative point.
+     *
+     * @param total point of the cumulative type, in time order
+     * @return the delta point, or null if the point adds nothing
+     */
+    public SamplePoint next(SamplePoint total) {
+        long startTime = total.getStartTime(TimeUnit.MILLISECONDS);
+        long endTime = total.getEndTime(TimeUnit.MILLISECONDS);
+        double value = valueOf(total.getFieldValue(total.getDataType().getFields().get(0)));
+        if (!hasPrevious) {
+            hasPrevious = true;
+            previousEndTime = endTime;
+            previousTotal = value;
+            return null;
+        }
+        if (endTime <= previousEndTime) {
+            return null;
+        }
+        double delta = added(previousTotal, value);
+        // The deltas do not overlap: a restarted source counts from its start time, or from the previous point.
+        long deltaStartTime = Math.max(previousEndTime, startTime);
+        previousEndTime = endTime;
+        previousTotal = value;
+        if (delta <= 0d || endTime <= deltaStartTime) {
+            return null;
+        }
+        SamplePoint samplePoint = new SamplePoint.Builder(deltaCollector).build()
+            .setTimeInterval(deltaStartTime, endTime, TimeUnit.MILLISECONDS);
+        Value deltaValue = samplePoint.getFieldValue(deltaField);
+        if (deltaField.getFormat() == Field.FORMAT_INT32) {
+            deltaValue.setIntValue((int) Math.round(delta));
+        } else if (deltaField.getFormat() == Field.FORMAT_LONG) {
+            deltaValue.setLongValue(Math.round(delta));
+        } else {
+            deltaValue.setFloatValue((float) delta);
+        }
+        return samplePoint;
+    }
+
+    private static double valueOf(Value value) {
+        switch (value.getFormat()) {
+            case Field.FORMAT_INT32:
+                return value.asIntValue();
+            case Field.FORMAT_LONG:
+                return value.asLongValue();
+            case Field.FORMAT_DOUBLE:
+                return value.asDoubleValue();
+            default:
+                return value.asFloatValue();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.recorder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.huawei.hms.hihealth.data.ActivitySummary;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.PaceSummary;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.options.OnSamplePointListener;
+
+/**
+ * Running totals of a live activity record, updated with every real-time SamplePoint while the record runs:
+ * steps, distance, speed min, average and max, and the pace of each kilometer.
+ * An update costs a few comparisons and additions, so the totals can follow the recorder at its own rate, and
+ * toActivitySummary builds the ActivitySummary of the record when it ends without reading its data again.
+ * The totals only follow the types of DATA_TYPES, acquire them from the RecorderRegistry with the summary as
+ * listener when the record begins: speed is not recorded by PersistService, and a subscription of the registry
+ * receives every point, where the coalesced SamplePointBus subscription would drop points.
+ *
+ * @since 2026-10-18
+ */
+public class LiveActivitySummary implements OnSamplePointListener {
+    /**
+     * Types whose recordings the totals need: cumulative steps and distance, and instantaneous speed
+     */
+    public static final List<DataType> DATA_TYPES = Collections.unmodifiableList(Arrays.asList(
+        DataType.DT_CONTINUOUS_STEPS_TOTAL, DataType.DT_CONTINUOUS_DISTANCE_TOTAL, DataType.DT_INSTANTANEOUS_SPEED));
+
+    // Length of a split of the pace map, in meters
+    private static final double SPLIT_METERS = 1000d;
+
+    private static final String COLLECTOR_NAME = "LiveActivitySummary";
+
+    private final long startTime;
+
+    // Time of the latest point, the end of the summary points
+    private long lastTime;
+
+    // Steps of the record, from DT_CONTINUOUS_STEPS_TOTAL or DT_CONTINUOUS_STEPS_DELTA points
+    private final Counter steps = new Counter();
+
+    // Distance of the record in meters, from DT_CONTINUOUS_DISTANCE_TOTAL or DT_CONTINUOUS_DISTANCE_DELTA points
+    private final Counter distance = new Counter();
+
+    private float minSpeed = Float.MAX_VALUE;
+
+    private float maxSpeed;
+
+    private double speedSum;
+
+    private long speedCount;
+
+    // Seconds per kilometer of each completed kilometer, keyed by its number as in PaceSummary
+    private final Map<String, Double> paceMap = new LinkedHashMap<>();
+
+    // Seconds from the start to the end of each completed kilometer
+    private final Map<String, Double> partTimeMap = new LinkedHashMap<>();
+
+    private long lastSplitTime;
+
+    private double bestPace = Double.NaN;
+
+    private long ignoredPoints;
+
+    /**
+     * Start the totals of a record.
+     *
+     * @param startTime start time of the activity record in milliseconds, earlier points are ignored
+     */
+    public LiveActivitySummary(long startTime) {
+        this.startTime = startTime;
+        this.lastTime = startTime;
+        this.lastSplitTime = startTime;
+    }
+
+    /**
+     * Add a real-time point to the totals. Can be called from any thread.
+     *
+     * @param samplePoint sampling point reported by the AutoRecorderController
+     */
+    @Override
+    public synchronized void onSamplePoint(SamplePoint samplePoint) {
+        long time = samplePoint.getEndTime(TimeUnit.MILLISECONDS);
+        if (time < startTime) {
+            ignoredPoints++;
+            return;
+        }
+        DataType dataType = samplePoint.getDataType();
+        if (DataType.DT_CONTINUOUS_STEPS_TOTAL.equals(dataType)) {
+            steps.total(samplePoint.getFieldValue(Field.FIELD_STEPS).asIntValue());
+        } else if (DataType.DT_CONTINUOUS_STEPS_DELTA.equals(dataType)) {
+            steps.delta(samplePoint.getFieldValue(Field.FIELD_STEPS_DELTA).asIntValue());
+        } else if (DataType.DT_CONTINUOUS_DISTANCE_TOTAL.equals(dataType)) {
+            distance.total(samplePoint.getFieldValue(Field.FIELD_DISTANCE).asFloatValue());
+            updateSplits(time);
+        } else if (DataType.DT_CONTINUOUS_DISTANCE_DELTA.equals(dataType)) {
+            distance.delta(samplePoint.getFieldValue(Field.FIELD_DISTANCE_DELTA).asFloatValue());
+            updateSplits(time);
+        } else if (DataType.DT_INSTANTANEOUS_SPEED.equals(dataType)) {
+            float speed = samplePoint.getFieldValue(Field.FIELD_SPEED).asFloatValue();
+            minSpeed = Math.min(minSpeed, speed);
+            maxSpeed = Math.max(maxSpeed, speed);
+            speedSum += speed;
+            speedCount++;
+        } else {
+            ignoredPoints++;
+            return;
+        }
+        lastTime = Math.max(lastTime, time);
+    }
+
+    // A point can complete several kilometers after a gap, each gets the average pace of the gap.
+    private void updateSplits(long time) {
+        double meters = distance.get();
+        int completed = paceMap.size();
+        int reached = (int) (meters / SPLIT_METERS);
+        if (reached <= completed) {
+            return;
+        }
+        double seconds = (time - lastSplitTime) / 1000d;
+        double pace = seconds / (reached - completed);
+        for (int split = completed + 1; split <= reached; split++) {
+            paceMap.put(split + ".0", pace);
+            partTimeMap.put(split + ".0", (lastSplitTime - startTime) / 1000d + pace * (split - completed));
+        }
+        bestPace = Double.isNaN(bestPace) ? pace : Math.min(bestPace, pace);
+        lastSplitTime = time;
+    }
+
+    public synchronized long getSteps() {
+        return (long) steps.get();
+    }
+
+    /**
+     * Get the distance of the record.
+     *
+     * @return distance in meters
+     */
+    public synchronized double getDistance() {
+        return distance.get();
+    }
+
+    /**
+     * Get the average of the reported speeds.
+     *
+     * @return speed in meters per second, 0 if no speed was reported
+     */
+    public synchronized float getAvgSpeed() {
+        return speedCount == 0 ? 0f : (float) (speedSum / speedCount);
+    }
+
+    /**
+     * Get the average pace from the start to the latest point.
+     *
+     * @return seconds per kilometer, NaN before the first meter
+     */
+    public synchronized double getAvgPace() {
+        double meters = distance.get();
+        return meters <= 0 ? Double.NaN : (lastTime - startTime) / 1000d / (meters / SPLIT_METERS);
+    }
+
+    public synchronized long getIgnoredPoints() {
+        return ignoredPoints;
+    }
+
+    /**
+     * Build the ActivitySummary of the totals: distance, speed statistics and steps points from the start to the
+     * latest point, and a PaceSummary with the average and best pace and the pace of each completed kilometer.
+     *
+     * @param packageName package name of the app, for the DataCollectors of the summary points
+     * @return the summary
+     */
+    public synchronized ActivitySummary toActivitySummary(String packageName) {
+        long endTime = Math.max(lastTime, startTime + 1L);
+        SamplePoint distancePoint = new SamplePoint.Builder(collector(packageName,
+            DataType.DT_CONTINUOUS_DISTANCE_TOTAL)).build().setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS);
+        distancePoint.getFieldValue(Field.FIELD_DISTANCE).setFloatValue((float) distance.get());
+
+        SamplePoint speedPoint = new SamplePoint.Builder(collector(packageName,
+            DataType.POLYMERIZE_CONTINUOUS_SPEED_STATISTICS)).build()
+            .setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS);
+        speedPoint.getFieldValue(Field.FIELD_AVG).setFloatValue(getAvgSpeed());
+        speedPoint.getFieldValue(Field.FIELD_MIN).setFloatValue(speedCount == 0 ? 0f : minSpeed);
+        speedPoint.getFieldValue(Field.FIELD_MAX).setFloatValue(maxSpeed);
+
+        SamplePoint stepsPoint = new SamplePoint.Builder(collector(packageName,
+            DataType.DT_CONTINUOUS_STEPS_TOTAL)).build().setTimeInterval(startTime, endTime, TimeUnit.MILLISECONDS);
+        stepsPoint.getFieldValue(Field.FIELD_STEPS).setIntValue((int) steps.get());
+
+        ActivitySummary activitySummary = new ActivitySummary();
+        activitySummary.setDataSummary(Arrays.asList(distancePoint, speedPoint, stepsPoint));
+        PaceSummary paceSummary = new PaceSummary();
+        double avgPace = getAvgPace();
+        if (!Double.isNaN(avgPace)) {
+            paceSummary.setAvgPace(avgPace);
+        }
+        // Before the first kilometer, the best pace is the one of the fastest reported speed.
+        if (!Double.isNaN(bestPace)) {
+            paceSummary.setBestPace(bestPace);
+        } else if (maxSpeed > 0f) {
+            paceSummary.setBestPace(SPLIT_METERS / maxSpeed);
+        }
+        paceSummary.setPaceMap(new LinkedHashMap<>(paceMap));
+        paceSummary.setPartTimeMap(new LinkedHashMap<>(partTimeMap));
+        activitySummary.setPaceSummary(paceSummary);
+        return activitySummary;
+    }
+
+    private static DataCollector collector(String packageName, DataType dataType) {
+        return new DataCollector.Builder().setDataType(dataType)
+            .setDataGenerateType(DataCollector.DATA_TYPE_RAW)
+            .setPackageName(packageName)
+            .setDataCollectorName(COLLECTOR_NAME)
+            .build();
+    }
+
+    /**
+     * Amount of the record from delta points or from cumulative totals. The totals are counted as the journal
+     * counts them, see CumulativeDeltas: from the first total in the record, so a total of the day does not count
+     * the steps taken before the start, and across a restart of the source from 0, for example at midnight.
+     */
+    private static final class Counter {
+        private double amount;
+
+        private boolean hasTotal;
+
+        private double previous;
+
+        private void delta(double value) {
+            amount += value;
+        }
+
+        private void total(double value) {
+            if (hasTotal) {
+                amount += CumulativeDeltas.added(previous, value);
+            }
+            hasTotal = true;
+            previous = value;
+        }
+
+        private double get() {
+            return amount;
+        }
+    }
+}
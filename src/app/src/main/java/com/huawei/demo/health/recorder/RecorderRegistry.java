@@ -0,0 +1,252 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.recorder;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.huawei.demo.health.metrics.TaskMetrics;
+import com.huawei.hmf.tasks.Task;
+import com.huawei.hmf.tasks.TaskCompletionSource;
+import com.huawei.hms.hihealth.AutoRecorderController;
+import com.huawei.hms.hihealth.HuaweiHiHealth;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.options.OnSamplePointListener;
+
+/**
+ * Owner of the real-time recordings of the app process. The registry keeps one OnSamplePointListener per DataType,
+ * so that stopRecord always receives the listener the recording was started with, and hands out reference-counted
+ * subscriptions: the first subscription of a type starts its recording, the release of the last one stops it.
+ * <p>
+ * An owner that is garbage collected without releasing its subscription would keep the sensor sampling in the
+ * background. detectLeaks reports such subscriptions with the stack that acquired them and releases them, and
+ * retries the stop of the recordings whose stop failed.
+ *
+ * @since 2026-10-18
+ */
+public final class RecorderRegistry {
+    private static final String TAG = "RecorderRegistry";
+
+    private static volatile RecorderRegistry instance;
+
+    private final AutoRecorderController autoRecorderController;
+
+    // DataType name to its running recording
+    private final Map<String, Recording> recordings = new HashMap<>();
+
+    // Recordings without subscription whose stop failed, stopped again by detectLeaks
+    private final List<Recording> orphans = new ArrayList<>();
+
+    private RecorderRegistry(Context context) {
+        autoRecorderController = HuaweiHiHealth.getAutoRecorderController(context);
+    }
+
+    /**
+     * Get the registry of the app process.
+     *
+     * @param context any context, its application context is kept
+     * @return the registry
+     */
+    public static RecorderRegistry getInstance(Context context) {
+        if (instance == null) {
+            synchronized (RecorderRegistry.class) {
+                if (instance == null) {
+                    instance = new RecorderRegistry(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Subscribe to the real-time points of a type, starting its recording if it is the first subscription.
+     *
+     * @param dataType DataType to record
+     * @param owner object whose lifetime bounds the subscription, usually the service or the activity; it is only
+     * weakly referenced
+     * @param listener receiver of the points, called on the thread of the platform callback; it must not reference
+     * the owner, or the owner is never collected and its leak never detected
+     * @return the subscription, release it when the points are no longer needed
+     */
+    public synchronized Subscription acquire(DataType dataType, Object owner, OnSamplePointListener listener) {
+        detectLeaks();
+        Recording recording = recordings.get(dataType.getName());
+        if (recording == null) {
+            recording = new Recording(dataType);
+            recordings.put(dataType.getName(), recording);
+        }
+        Subscription subscription = new Subscription(recording, owner, listener);
+        recording.subscriptions.add(subscription);
+        if (!recording.started) {
+            start(recording);
+        }
+        return subscription;
+    }
+
+    /**
+     * Release the subscriptions whose owner was garbage collected, and stop again the recordings whose stop
+     * failed. Each leak is logged with the stack that acquired the subscription.
+     *
+     * @return one description per leaked subscription or orphaned recording
+     */
+    public synchronized List<String> detectLeaks() {
+        List<String> leaks = new ArrayList<>();
+        for (Recording recording : new ArrayList<>(recordings.values())) {
+            for (Subscription subscription : recording.subscriptions) {
+                if (subscription.owner.get() == null) {
+                    String leak = recording.dataType.getName() + " subscription of " + subscription.ownerName
+                        + " was not released by its owner";
+                    Log.w(TAG, leak, subscription.acquiredAt);
+                    leaks.add(leak);
+                    release(subscription);
+                }
+            }
+        }
+        for (Iterator<Recording> iterator = orphans.iterator(); iterator.hasNext();) {
+            Recording orphan = iterator.next();
+            iterator.remove();
+            String leak = orphan.dataType.getName() + " recording was still running without subscription";
+            Log.w(TAG, leak);
+            leaks.add(leak);
+            stop(orphan);
+        }
+        return leaks;
+    }
+
+    /**
+     * Get the subscription counts of the running recordings, for display.
+     *
+     * @return description of the registry state
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder("RecorderRegistry{");
+        for (Recording recording : recordings.values()) {
+            builder.append(recording.dataType.getName()).append('=').append(recording.subscriptions.size())
+                .append(recording.started ? "" : " (not started)").append(", ");
+        }
+        return builder.append("orphans=").append(orphans.size()).append('}').toString();
+    }
+
+    private synchronized Task<Void> release(Subscription subscription) {
+        Recording recording = subscription.recording;
+        if (!recording.subscriptions.remove(subscription) || !recording.subscriptions.isEmpty()) {
+            // Another owner still records the type
+            TaskCompletionSource<Void> released = new TaskCompletionSource<>();
+            released.setResult(null);
+            return released.getTask();
+        }
+        recordings.remove(recording.dataType.getName());
+        return stop(recording);
+    }
+
+    private void start(Recording recording) {
+        recording.started = true;
+        TaskMetrics.track(autoRecorderController.startRecord(recording.dataType, recording.listener), "startRecord",
+            recording.dataType).addOnFailureListener(e -> {
+                Log.w(TAG, "start " + recording.dataType.getName() + " failed: " + e.getMessage());
+                synchronized (this) {
+                    // The next subscription tries again
+                    recording.started = false;
+                }
+            });
+    }
+
+    private Task<Void> stop(Recording recording) {
+        Task<Void> stopTask = TaskMetrics.track(autoRecorderController.stopRecord(recording.dataType,
+            recording.listener), "stopRecord", recording.dataType);
+        stopTask.addOnFailureListener(e -> {
+            Log.w(TAG, "stop " + recording.dataType.getName() + " failed: " + e.getMessage());
+            synchronized (this) {
+                orphans.add(recording);
+            }
+        });
+        return stopTask;
+    }
+
+    /**
+     * Recording of one DataType and its subscriptions
+     */
+    private static final class Recording {
+        private final DataType dataType;
+
+        private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+        // The only listener given to startRecord and stopRecord for this recording
+        private final OnSamplePointListener listener;
+
+        private boolean started;
+
+        private Recording(DataType dataType) {
+            this.dataType = dataType;
+            this.listener = this::deliver;
+        }
+
+        private void deliver(SamplePoint samplePoint) {
+            for (Subscription subscription : subscriptions) {
+                subscription.listener.onSamplePoint(samplePoint);
+            }
+        }
+    }
+
+    /**
+     * Subscription of an owner to the points of a DataType
+     */
+    public final class Subscription {
+        private final Recording recording;
+
+        private final WeakReference<Object> owner;
+
+        private final String ownerName;
+
+        private final OnSamplePointListener listener;
+
+        // Stack of the acquire call, logged if the subscription leaks
+        private final Throwable acquiredAt;
+
+        private Subscription(Recording recording, Object owner, OnSamplePointListener listener) {
+            this.recording = recording;
+            this.owner = new WeakReference<>(owner);
+            this.ownerName = owner.getClass().getSimpleName();
+            this.listener = listener;
+            this.acquiredAt = new Throwable("subscription acquired here");
+        }
+
+        public DataType getDataType() {
+            return recording.dataType;
+        }
+
+        /**
+         * Release the subscription. The recording stops when its last subscription is released.
+         * Releasing twice has no effect.
+         *
+         * @return the stopRecord task if the recording stops, otherwise a completed task
+         */
+        public Task<Void> release() {
+            return RecorderRegistry.this.release(this);
+        }
+    }
+}
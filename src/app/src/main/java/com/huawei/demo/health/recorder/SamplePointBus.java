@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.recorder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import android.view.Choreographer;
+
+import com.huawei.hms.hihealth.data.SamplePoint;
+
+/**
+ * In-process channel for the real-time SamplePoints reported by AutoRecorderController.
+ * The recording thread publishes points without locks or Binder calls. Every subscriber keeps only the latest
+ * point of each DataType and receives it once per frame on its own thread, so a burst of updates between two
+ * frames costs one delivery per type. Consumers in other processes still need a broadcast, see PersistService.
+ *
+ * @since 2026-10-18
+ */
+public final class SamplePointBus {
+    private static final SamplePointBus INSTANCE = new SamplePointBus();
+
+    // Copy on write: publishing iterates a snapshot without locking
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // Listeners called on the publishing thread with every point, see addDirectListener
+    private final CopyOnWriteArrayList<Listener> directListeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong published = new AtomicLong();
+
+    private SamplePointBus() {
+    }
+
+    /**
+     * Get the bus shared by the services and activities of the app process.
+     *
+     * @return the bus
+     */
+    public static SamplePointBus getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Listener of the sample points
+     */
+    public interface Listener {
+        /**
+         * Called once per frame for each DataType that was updated, with its latest point; a direct listener is
+         * called with every point on the publishing thread.
+         *
+         * @param samplePoint sampling point, the latest of its DataType for a subscription
+         */
+        void onSamplePoint(SamplePoint samplePoint);
+    }
+
+    /**
+     * Subscribe to the sample points. Must be called on a thread with a Looper, usually the main thread,
+     * the listener is called on that thread.
+     *
+     * @param listener listener of the sample points
+     * @return subscription, cancel it when the points are no longer needed
+     */
+    public Subscription subscribe(Listener listener) {
+        Subscription subscription = new Subscription(listener, Choreographer.getInstance());
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Add a listener called on the publishing thread with every point, without coalescing. For consumers that
+     * must see each point, such as running totals; the listener must return quickly and must not block.
+     *
+     * @param listener listener of the sample points
+     */
+    public void addDirectListener(Listener listener) {
+        directListeners.addIfAbsent(listener);
+    }
+
+    /**
+     * Remove a listener added by addDirectListener.
+     *
+     * @param listener listener of the sample points
+     */
+    public void removeDirectListener(Listener listener) {
+        directListeners.remove(listener);
+    }
+
+    /**
+     * Publish a sample point to the subscribers. Can be called from any thread.
+     *
+     * @param samplePoint sampling point reported by the AutoRecorderController
+     * @return true if at least one subscriber will receive the point
+     */
+    public boolean publish(SamplePoint samplePoint) {
+        published.incrementAndGet();
+        boolean delivered = false;
+        for (Listener listener : directListeners) {
+            listener.onSamplePoint(samplePoint);
+            delivered = true;
+        }
+        for (Subscription subscription : subscriptions) {
+            delivered |= subscription.offer(samplePoint);
+        }
+        return delivered;
+    }
+
+    /**
+     * Whether any subscriber is registered.
+     *
+     * @return true if there is at least one subscriber
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty() || !directListeners.isEmpty();
+    }
+
+    /**
+     * Get the published and delivered counters, for display.
+     *
+     * @return description of the bus state
+     */
+    @Override
+    public String toString() {
+        long delivered = 0;
+        for (Subscription subscription : subscriptions) {
+            delivered += subscription.delivered.get();
+        }
+        return "SamplePointBus{subscribers=" + subscriptions.size() + ", directListeners=" + directListeners.size()
+            + ", published=" + published.get()
+            + ", delivered=" + delivered + "}";
+    }
+
+    /**
+     * Subscription of a listener. Holds the latest undelivered point of each DataType.
+     */
+    public final class Subscription implements Choreographer.FrameCallback {
+        private final Listener listener;
+
+        private final Choreographer choreographer;
+
+        // Latest undelivered point per DataType name, a slot is created once per type and then only swapped
+        private final ConcurrentHashMap<String, AtomicReference<SamplePoint>> latest = new ConcurrentHashMap<>();
+
+        // Whether a frame callback is posted and has not started draining yet
+        private final AtomicBoolean frameScheduled = new AtomicBoolean();
+
+        private final AtomicLong delivered = new AtomicLong();
+
+        private volatile boolean cancelled;
+
+        private Subscription(Listener listener, Choreographer choreographer) {
+            this.listener = listener;
+            this.choreographer = choreographer;
+        }
+
+        private boolean offer(SamplePoint samplePoint) {
+            if (cancelled) {
+                return false;
+            }
+            String dataTypeName = samplePoint.getDataType().getName();
+            AtomicReference<SamplePoint> slot = latest.get(dataTypeName);
+            if (slot == null) {
+                latest.putIfAbsent(dataTypeName, new AtomicReference<>());
+                slot = latest.get(dataTypeName);
+            }
+            // A point not yet delivered is simply replaced, only the latest one is shown.
+            slot.set(samplePoint);
+            if (frameScheduled.compareAndSet(false, true)) {
+                choreographer.postFrameCallback(this);
+            }
+            return true;
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            // Clear the flag before draining, so that a point offered during the drain schedules the next frame.
+            frameScheduled.set(false);
+            for (AtomicReference<SamplePoint> slot : latest.values()) {
+                SamplePoint samplePoint = slot.getAndSet(null);
+                if (samplePoint != null && !cancelled) {
+                    delivered.incrementAndGet();
+                    listener.onSamplePoint(samplePoint);
+                }
+            }
+        }
+
+        /**
+         * Stop the delivery. Must be called on the thread that subscribed.
+         */
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            choreographer.removeFrameCallback(this);
+        }
+    }
+}
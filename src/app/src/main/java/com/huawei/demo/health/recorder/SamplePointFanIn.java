@@ -0,0 +1,232 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.recorder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.huawei.hms.hihealth.data.SamplePoint;
+
+/**
+ * Fan-in of the real-time points of every recorded DataType: the recorder callbacks only enqueue their point into
+ * one lock-free queue, and a single worker thread applies the SamplingPolicy of each type and hands the kept points
+ * to the Sink. Recording more types adds neither threads nor locks on the callback path.
+ * The worker sleeps while the queue is empty and no coalesced point is waiting, a callback wakes it.
+ *
+ * @since 2026-10-18
+ */
+public class SamplePointFanIn {
+    // Longest wait for the worker to deliver the last points at shutdown
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private final Map<String, SamplingPolicy> policies = new HashMap<>();
+
+    private final Sink sink;
+
+    private final ConcurrentLinkedQueue<SamplePoint> queue = new ConcurrentLinkedQueue<>();
+
+    // Set by the worker before it parks, a producer that clears it unparks the worker
+    private final AtomicBoolean sleeping = new AtomicBoolean();
+
+    private final Thread worker;
+
+    private volatile boolean running = true;
+
+    private final AtomicLong offered = new AtomicLong();
+
+    private final AtomicLong sampledOut = new AtomicLong();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private final AtomicLong delivered = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    // DataType name to its sampling state, only used by the worker
+    private final Map<String, TypeState> states = new HashMap<>();
+
+    /**
+     * Receiver of the kept points, called on the worker thread
+     */
+    public interface Sink {
+        /**
+         * Called with each point kept by the policy of its type, in the order of the queue.
+         *
+         * @param samplePoint sampling point
+         * @param policy policy of its DataType
+         */
+        void onSamplePoint(SamplePoint samplePoint, SamplingPolicy policy);
+    }
+
+    /**
+     * Create a fan-in and start its worker.
+     *
+     * @param policies policies of the recorded types, the points of other types are delivered at once
+     * @param sink receiver of the kept points
+     */
+    public SamplePointFanIn(List<SamplingPolicy> policies, Sink sink) {
+        for (SamplingPolicy policy : policies) {
+            this.policies.put(policy.getDataType().getName(), policy);
+        }
+        this.sink = sink;
+        this.worker = new Thread(this::drain, "SamplePointFanIn");
+        this.worker.start();
+    }
+
+    /**
+     * Enqueue a point. Can be called from any thread, does not block.
+     *
+     * @param samplePoint sampling point reported by the AutoRecorderController
+     * @return false if the fan-in is shut down and the point is dropped
+     */
+    public boolean offer(SamplePoint samplePoint) {
+        if (!running) {
+            return false;
+        }
+        queue.offer(samplePoint);
+        offered.incrementAndGet();
+        if (sleeping.get() && sleeping.compareAndSet(true, false)) {
+            LockSupport.unpark(worker);
+        }
+        return true;
+    }
+
+    /**
+     * Stop accepting points, deliver the queued and coalesced ones and stop the worker.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the worker
+     */
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(worker);
+        worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Get the counters of the fan-in, for display.
+     *
+     * @return description of the fan-in state
+     */
+    @Override
+    public String toString() {
+        return "SamplePointFanIn{offered=" + offered.get() + ", sampledOut=" + sampledOut.get() + ", coalesced="
+            + coalesced.get() + ", delivered=" + delivered.get() + ", failed=" + failed.get() + ", queued="
+            + queue.size() + "}";
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            SamplePoint samplePoint;
+            while ((samplePoint = queue.poll()) != null) {
+                accept(samplePoint);
+            }
+            long now = System.nanoTime();
+            long nextDeadline = deliverDue(now, false);
+            sleeping.set(true);
+            // Checked again after publishing the flag, a point offered before it would not unpark the worker.
+            if (running && queue.isEmpty()) {
+                if (nextDeadline == Long.MAX_VALUE) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, nextDeadline - now);
+                }
+            }
+            sleeping.set(false);
+        }
+        deliverDue(System.nanoTime(), true);
+    }
+
+    private void accept(SamplePoint samplePoint) {
+        String dataTypeName = samplePoint.getDataType().getName();
+        TypeState state = states.get(dataTypeName);
+        if (state == null) {
+            SamplingPolicy policy = policies.get(dataTypeName);
+            state = new TypeState(policy == null ? SamplingPolicy.passThrough(samplePoint.getDataType()) : policy);
+            states.put(dataTypeName, state);
+        }
+        long interval = state.policy.getSamplingIntervalMillis();
+        long time = samplePoint.getEndTime(TimeUnit.MILLISECONDS);
+        if (interval > 0 && state.hasKept && time - state.lastKeptTime < interval) {
+            sampledOut.incrementAndGet();
+            return;
+        }
+        state.hasKept = true;
+        state.lastKeptTime = time;
+        long window = state.policy.getCoalescingWindowMillis();
+        if (window == 0) {
+            deliver(samplePoint, state.policy);
+            return;
+        }
+        if (state.pending == null) {
+            state.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(window);
+        } else {
+            coalesced.incrementAndGet();
+        }
+        state.pending = samplePoint;
+    }
+
+    // Deliver the coalesced points whose window ended, or all of them, and return the earliest remaining deadline.
+    private long deliverDue(long now, boolean all) {
+        long nextDeadline = Long.MAX_VALUE;
+        for (TypeState state : states.values()) {
+            if (state.pending == null) {
+                continue;
+            }
+            if (all || state.deadlineNanos - now <= 0) {
+                SamplePoint samplePoint = state.pending;
+                state.pending = null;
+                deliver(samplePoint, state.policy);
+            } else {
+                nextDeadline = Math.min(nextDeadline, state.deadlineNanos);
+            }
+        }
+        return nextDeadline;
+    }
+
+    private void deliver(SamplePoint samplePoint, SamplingPolicy policy) {
+        try {
+            sink.onSamplePoint(samplePoint, policy);
+            delivered.incrementAndGet();
+        } catch (RuntimeException e) {
+            // The worker serves every type, a failing point must not stop it.
+            failed.incrementAndGet();
+        }
+    }
+
+    private static final class TypeState {
+        private final SamplingPolicy policy;
+
+        private boolean hasKept;
+
+        private long lastKeptTime;
+
+        // Latest point of the current coalescing window, null if no window is open
+        private SamplePoint pending;
+
+        private long deadlineNanos;
+
+        private TypeState(SamplingPolicy policy) {
+            this.policy = policy;
+        }
+    }
+}
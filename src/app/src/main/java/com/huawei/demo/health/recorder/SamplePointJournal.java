@@ -0,0 +1,623 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.recorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import com.huawei.demo.health.data.BulkInsertPipeline;
+import com.huawei.demo.health.data.SampleCodec;
+import com.huawei.demo.health.util.FailureClassifier;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+/**
+ * Append-only journal of real-time SamplePoints, stored in memory-mapped segment files.
+ * Appending a point only encodes it into the mapped segment, the segment is forced to storage one fsync interval
+ * after the first append that follows a force, and when it is full a new segment is started. No timer runs while
+ * nothing is appended, and a WakeGuard can keep the CPU awake only until the pending force is done.
+ * Replaying inserts the points of the finished segments in bulk with a BulkInsertPipeline and deletes each segment
+ * once its chunks have finished, journaling the points of the chunks that may succeed later again for the next
+ * replay. The points of a chunk that failed for good, for example because its data is invalid, are dropped.
+ * <p>
+ * Segment layout: magic, version, then records of [length u16][crc32 of payload][payload]. A zero length ends the
+ * segment, a record with a wrong CRC is treated as a torn write and also ends it. The payloads of a segment form
+ * one SampleCodec stream without its header: the type record of a data type is written once per segment, in the
+ * payload of its first sample.
+ *
+ * @since 2026-10-18
+ */
+public class SamplePointJournal {
+    /**
+     * Default segment size
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1024 * 1024;
+
+    /**
+     * Default delay between the first append after a force and the next force of the current segment to storage
+     */
+    public static final long DEFAULT_FSYNC_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private static final int MAGIC = 0x484B4A31;
+
+    private static final byte VERSION = 1;
+
+    private static final int HEADER_SIZE = 5;
+
+    // Length and CRC in front of every payload
+    private static final int RECORD_OVERHEAD = 6;
+
+    private static final int MAX_PAYLOAD = 0xFFFF;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    // Time given to the force itself, on top of the fsync interval, before the wake guard times out
+    private static final long FORCE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final WakeGuard NO_WAKE_GUARD = new WakeGuard() {
+        @Override
+        public void acquire(long timeoutMillis) {
+        }
+
+        @Override
+        public void release() {
+        }
+    };
+
+    // Journals opened by the process, one per directory, so that the service and the activities share the writer
+    private static final Map<String, SamplePointJournal> OPEN_JOURNALS = new HashMap<>();
+
+    private final File directory;
+
+    private final int segmentSize;
+
+    private final ScheduledExecutorService fsyncExecutor;
+
+    private final long fsyncIntervalMillis;
+
+    // Serializes replays, appends only lock the journal itself
+    private final Object replayLock = new Object();
+
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_PAYLOAD);
+
+    private final CRC32 crc = new CRC32();
+
+    private int references;
+
+    // Sequence number of the next segment
+    private long nextSequence;
+
+    // Current segment, created on the first append after a rotation
+    private MappedByteBuffer segment;
+
+    private RandomAccessFile segmentFile;
+
+    // Type ids and start time deltas of the current segment
+    private final SampleCodec.Encoder encoder = new SampleCodec.Encoder();
+
+    private boolean dirty;
+
+    // Whether a force is scheduled, the wake guard is held until it runs
+    private boolean forceScheduled;
+
+    private WakeGuard wakeGuard = NO_WAKE_GUARD;
+
+    private long forces;
+
+    private long appended;
+
+    // Points of failed chunks that a replay dropped instead of journaling them again
+    private final AtomicLong dropped = new AtomicLong();
+
+    private SamplePointJournal(File directory, int segmentSize, long fsyncIntervalMillis) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncExecutor = Executors.newSingleThreadScheduledExecutor();
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        long[] sequences = listSequences(directory);
+        nextSequence = sequences.length == 0 ? 1 : sequences[sequences.length - 1] + 1;
+    }
+
+    /**
+     * Open the journal of a directory with the default segment size and fsync interval.
+     * Every call must be paired with a call to {@link #close()}.
+     *
+     * @param directory directory of the segment files
+     * @return the journal shared by the process for this directory
+     * @throws IOException if the directory cannot be created
+     */
+    public static SamplePointJournal open(File directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_FSYNC_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Open the journal of a directory. The sizes only apply if the journal is not open yet.
+     * Every call must be paired with a call to {@link #close()}.
+     *
+     * @param directory directory of the segment files
+     * @param segmentSize size of a segment file in bytes
+     * @param fsyncIntervalMillis delay between the first append after a force and the next force
+     * @return the journal shared by the process for this directory
+     * @throws IOException if the directory cannot be created
+     */
+    public static SamplePointJournal open(File directory, int segmentSize, long fsyncIntervalMillis)
+        throws IOException {
+        if (segmentSize < HEADER_SIZE + RECORD_OVERHEAD + MAX_PAYLOAD) {
+            throw new IllegalArgumentException("segmentSize too small");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create " + directory);
+        }
+        synchronized (OPEN_JOURNALS) {
+            String path = directory.getCanonicalPath();
+            SamplePointJournal journal = OPEN_JOURNALS.get(path);
+            if (journal == null) {
+                journal = new SamplePointJournal(directory, segmentSize, fsyncIntervalMillis);
+                OPEN_JOURNALS.put(path, journal);
+            }
+            journal.references++;
+            return journal;
+        }
+    }
+
+    /**
+     * Keeps the CPU awake while appended points wait for their force, see setWakeGuard
+     */
+    public interface WakeGuard {
+        /**
+         * Called by the first append after a force. The guard must time out by itself after the given time.
+         *
+         * @param timeoutMillis longest time until the matching release
+         */
+        void acquire(long timeoutMillis);
+
+        /**
+         * Called once the force is done, or when the journal is closed.
+         */
+        void release();
+    }
+
+    /**
+     * Set the guard held from the first append after a force until the force, so that the device does not
+     * suspend with points that are not on storage yet. No guard is held between forces.
+     *
+     * @param wakeGuard guard, or null for none
+     */
+    public synchronized void setWakeGuard(WakeGuard wakeGuard) {
+        if (forceScheduled) {
+            this.wakeGuard.release();
+            (wakeGuard == null ? NO_WAKE_GUARD : wakeGuard).acquire(fsyncIntervalMillis + FORCE_TIMEOUT_MILLIS);
+        }
+        this.wakeGuard = wakeGuard == null ? NO_WAKE_GUARD : wakeGuard;
+    }
+
+    /**
+     * Append a sampling point. Fields in map format are not journaled.
+     *
+     * @param samplePoint sampling point to append
+     * @throws IOException if a new segment cannot be created
+     */
+    public synchronized void append(SamplePoint samplePoint) throws IOException {
+        checkOpen();
+        appendPoint(samplePoint);
+        if (!forceScheduled && dirty) {
+            // The points of a sensor batch arrive together, they are forced together.
+            forceScheduled = true;
+            wakeGuard.acquire(fsyncIntervalMillis + FORCE_TIMEOUT_MILLIS);
+            fsyncExecutor.schedule(this::forceQuietly, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void appendPoint(SamplePoint samplePoint) throws IOException {
+        if (segment == null) {
+            startSegment();
+        }
+        if (!encoder.encode(samplePoint, scratch)) {
+            throw new IOException("sample point too large for a record");
+        }
+        if (!writeRecord()) {
+            // The record did not fit in the segment, write it with its type record into a new one.
+            startSegment();
+            encoder.encode(samplePoint, scratch);
+            if (!writeRecord()) {
+                throw new IOException("sample point too large for a segment");
+            }
+        }
+        appended++;
+    }
+
+    /**
+     * Close the current segment, so that the points appended so far can be replayed.
+     *
+     * @throws IOException if the segment cannot be forced to storage
+     */
+    public synchronized void rotate() throws IOException {
+        checkOpen();
+        closeSegment();
+    }
+
+    /**
+     * Insert the points of all closed segments, including the points appended so far. The segments are replayed
+     * one after the other and each one is deleted once its chunks have finished. The points of the chunks that
+     * failed with a retryable or authorization failure are first appended again, so that the next replay inserts
+     * them and only them. The points of the chunks that failed for good are dropped and counted, see
+     * getDroppedPoints, as inserting them again would fail again.
+     * Blocks until the insert tasks have finished, do not call it on the main thread.
+     *
+     * @param provider DataCollector to insert each data type with
+     * @param pipeline pipeline used for the inserts
+     * @return statistics of the replay
+     * @throws IOException if a segment cannot be read or deleted, or the failed points cannot be appended
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the inserts
+     */
+    public BulkInsertPipeline.Stats replay(DataCollectorProvider provider, BulkInsertPipeline pipeline)
+        throws IOException, InterruptedException {
+        synchronized (replayLock) {
+            long lastSequence;
+            synchronized (this) {
+                checkOpen();
+                closeSegment();
+                lastSequence = nextSequence - 1;
+            }
+            List<SampleSet> failedSets = Collections.synchronizedList(new ArrayList<>());
+            BulkInsertPipeline.Listener listener = pipeline.getListener();
+            pipeline.setListener(new FailureCollector(listener, failedSets, dropped));
+            try {
+                for (long sequence : listSequences(directory)) {
+                    if (sequence <= lastSequence) {
+                        replaySegment(segmentFile(sequence), provider, pipeline, failedSets);
+                    }
+                }
+            } finally {
+                pipeline.setListener(listener);
+            }
+            return pipeline.getStats();
+        }
+    }
+
+    private void replaySegment(File file, DataCollectorProvider provider, BulkInsertPipeline pipeline,
+        List<SampleSet> failedSets) throws IOException, InterruptedException {
+        failedSets.clear();
+        Iterator<SamplePoint> samplePoints = new SegmentReader(readSegment(file), provider);
+        while (samplePoints.hasNext()) {
+            pipeline.submit(samplePoints.next());
+        }
+        pipeline.flush();
+        pipeline.awaitCompletion();
+        if (!failedSets.isEmpty()) {
+            // The points to retry go to a segment after lastSequence, the inserted ones are not replayed again.
+            synchronized (this) {
+                checkOpen();
+                for (SampleSet sampleSet : failedSets) {
+                    for (SamplePoint samplePoint : sampleSet.getSamplePoints()) {
+                        appendPoint(samplePoint);
+                    }
+                }
+                closeSegment();
+            }
+        }
+        if (!file.delete()) {
+            throw new IOException("cannot delete " + file);
+        }
+    }
+
+    /**
+     * Release the journal. The last close forces the current segment to storage and stops the fsync thread.
+     * Closing more often than the journal was opened fails, instead of closing it under another owner.
+     *
+     * @throws IOException if the segment cannot be forced to storage
+     */
+    public void close() throws IOException {
+        synchronized (OPEN_JOURNALS) {
+            if (references == 0) {
+                throw new IllegalStateException("journal is already closed");
+            }
+            if (--references > 0) {
+                return;
+            }
+            OPEN_JOURNALS.values().remove(this);
+        }
+        fsyncExecutor.shutdownNow();
+        synchronized (this) {
+            try {
+                closeSegment();
+            } finally {
+                releaseWakeGuard();
+            }
+        }
+    }
+
+    /**
+     * Get the number of points that replays dropped since the journal was opened, because their chunk failed for
+     * good.
+     *
+     * @return dropped points
+     */
+    public long getDroppedPoints() {
+        return dropped.get();
+    }
+
+    /**
+     * Get the number of points appended since the journal was opened, for display.
+     *
+     * @return description of the journal state
+     */
+    @Override
+    public synchronized String toString() {
+        return "SamplePointJournal{appended=" + appended + ", forces=" + forces + ", dropped=" + dropped.get()
+            + ", nextSegment=" + nextSequence + "}";
+    }
+
+    private void checkOpen() {
+        if (fsyncExecutor.isShutdown()) {
+            throw new IllegalStateException("journal is closed");
+        }
+    }
+
+    private void startSegment() throws IOException {
+        closeSegment();
+        File file = segmentFile(nextSequence++);
+        segmentFile = new RandomAccessFile(file, "rw");
+        segment = segmentFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.putInt(MAGIC).put(VERSION);
+        encoder.reset();
+        dirty = true;
+    }
+
+    private void closeSegment() throws IOException {
+        if (segment == null) {
+            return;
+        }
+        segment.force();
+        segment = null;
+        dirty = false;
+        segmentFile.close();
+        segmentFile = null;
+    }
+
+    private synchronized void forceQuietly() {
+        try {
+            if (segment != null && dirty) {
+                segment.force();
+                dirty = false;
+                forces++;
+            }
+        } finally {
+            releaseWakeGuard();
+        }
+    }
+
+    private void releaseWakeGuard() {
+        if (forceScheduled) {
+            forceScheduled = false;
+            wakeGuard.release();
+        }
+    }
+
+    private boolean writeRecord() {
+        scratch.flip();
+        int length = scratch.remaining();
+        if (segment.remaining() < RECORD_OVERHEAD + length) {
+            scratch.clear();
+            return false;
+        }
+        crc.reset();
+        crc.update(scratch.array(), 0, length);
+        segment.putShort((short) length).putInt((int) crc.getValue()).put(scratch);
+        scratch.clear();
+        dirty = true;
+        return true;
+    }
+
+    private File segmentFile(long sequence) {
+        return new File(directory, String.format(Locale.ROOT, "%s%012d%s", SEGMENT_PREFIX, sequence,
+            SEGMENT_SUFFIX));
+    }
+
+    private static long[] listSequences(File directory) {
+        String[] names = directory.list();
+        if (names == null) {
+            return new long[0];
+        }
+        long[] sequences = new long[names.length];
+        int count = 0;
+        for (String name : names) {
+            if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                try {
+                    sequences[count] = Long.parseLong(
+                        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    count++;
+                } catch (NumberFormatException e) {
+                    // Not a segment of this journal
+                }
+            }
+        }
+        long[] result = Arrays.copyOf(sequences, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static ByteBuffer readSegment(File file) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            return input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, input.length());
+        }
+    }
+
+    /**
+     * Provides the DataCollector the points of a data type are inserted with
+     */
+    public interface DataCollectorProvider {
+        /**
+         * Get the DataCollector of a data type.
+         *
+         * @param dataTypeName name of the data type
+         * @return the DataCollector, or null to skip the points of this data type
+         */
+        DataCollector getDataCollector(String dataTypeName);
+    }
+
+    /**
+     * Collects the chunks that failed during a replay and may succeed later, counts the points of the chunks that
+     * failed for good, and forwards every result to the listener of the caller.
+     */
+    private static class FailureCollector implements BulkInsertPipeline.Listener {
+        private final BulkInsertPipeline.Listener listener;
+
+        private final List<SampleSet> failedSets;
+
+        private final AtomicLong dropped;
+
+        FailureCollector(BulkInsertPipeline.Listener listener, List<SampleSet> failedSets, AtomicLong dropped) {
+            this.listener = listener;
+            this.failedSets = failedSets;
+            this.dropped = dropped;
+        }
+
+        @Override
+        public void onChunkInserted(SampleSet sampleSet, BulkInsertPipeline.Stats stats) {
+            if (listener != null) {
+                listener.onChunkInserted(sampleSet, stats);
+            }
+        }
+
+        @Override
+        public void onChunkFailed(SampleSet sampleSet, Exception e) {
+            // A canceled or interrupted insert says nothing about its points, they are kept for the next replay.
+            boolean stopped = e instanceof CancellationException || e instanceof InterruptedException;
+            if (!stopped && FailureClassifier.categorize(e) == FailureClassifier.Category.FATAL) {
+                dropped.addAndGet(sampleSet.getSamplePoints().size());
+            } else {
+                failedSets.add(sampleSet);
+            }
+            if (listener != null) {
+                listener.onChunkFailed(sampleSet, e);
+            }
+        }
+    }
+
+    /**
+     * Decodes the samples of a segment lazily, skipping unknown data types and the torn tail of a segment.
+     */
+    private static class SegmentReader implements Iterator<SamplePoint> {
+        private final ByteBuffer buffer;
+
+        private final DataCollectorProvider provider;
+
+        private final CRC32 crc = new CRC32();
+
+        private final SampleCodec.Decoder decoder = new SampleCodec.Decoder();
+
+        // SampleSet of each data type name, only used to create sample points, null to skip the type
+        private final Map<String, SampleSet> sampleSets = new HashMap<>();
+
+        private boolean payloadRemaining;
+
+        private SamplePoint next;
+
+        SegmentReader(ByteBuffer buffer, DataCollectorProvider provider) {
+            this.buffer = buffer;
+            this.provider = provider;
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                // Not a segment of a known version, nothing to replay.
+                buffer.position(buffer.limit());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (payloadRemaining && decoder.next()) {
+                    next = toSamplePoint();
+                } else if (!nextPayload()) {
+                    break;
+                }
+            }
+            if (next == null) {
+                buffer.position(buffer.limit());
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public SamplePoint next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SamplePoint result = next;
+            next = null;
+            return result;
+        }
+
+        private boolean nextPayload() {
+            payloadRemaining = false;
+            if (buffer.remaining() < RECORD_OVERHEAD) {
+                return false;
+            }
+            int length = buffer.getShort() & 0xFFFF;
+            int expectedCrc = buffer.getInt();
+            if (length == 0 || length > buffer.remaining()) {
+                return false;
+            }
+            ByteBuffer payload = buffer.slice();
+            payload.limit(length);
+            buffer.position(buffer.position() + length);
+            crc.reset();
+            for (int i = 0; i < length; i++) {
+                crc.update(payload.get(i));
+            }
+            if ((int) crc.getValue() != expectedCrc) {
+                return false;
+            }
+            decoder.wrap(payload);
+            payloadRemaining = true;
+            return true;
+        }
+
+        private SamplePoint toSamplePoint() {
+            String dataTypeName = decoder.getDataTypeName();
+            if (!sampleSets.containsKey(dataTypeName)) {
+                DataCollector dataCollector = provider.getDataCollector(dataTypeName);
+                sampleSets.put(dataTypeName, dataCollector == null ? null : SampleSet.create(dataCollector));
+            }
+            SampleSet sampleSet = sampleSets.get(dataTypeName);
+            return sampleSet == null ? null : decoder.toSamplePoint(sampleSet);
+        }
+    }
+}
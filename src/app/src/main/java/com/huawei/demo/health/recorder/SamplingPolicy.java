@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.recorder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.huawei.hms.hihealth.data.DataType;
+
+/**
+ * How the real-time points of one DataType are recorded: the sampling interval, the coalescing window and where
+ * the kept points are persisted.
+ * The sampling interval drops a point whose time is closer than the interval to the previous kept point, it suits
+ * instantaneous types such as the heart rate. The coalescing window holds a point for the window after its arrival
+ * and replaces it by any later point of the type, so that a cumulative type such as the step total is delivered
+ * once per window and its latest value is never lost.
+ *
+ * @since 2026-10-18
+ */
+public final class SamplingPolicy {
+    /**
+     * Where the kept points go besides the SamplePointBus
+     */
+    public enum Persistence {
+        /**
+         * Only the live consumers of the bus receive the points
+         */
+        NONE,
+
+        /**
+         * The points are also appended to the SamplePointJournal, to be inserted into the DataController later.
+         * The points of a cumulative type are journaled as the points of its delta type, see getJournalDataType.
+         */
+        JOURNAL
+    }
+
+    /**
+     * Policies of the types recorded by PersistService
+     */
+    public static final List<SamplingPolicy> DEFAULTS = Collections.unmodifiableList(Arrays.asList(
+        new SamplingPolicy(DataType.DT_CONTINUOUS_STEPS_TOTAL, 0L, TimeUnit.SECONDS.toMillis(1), Persistence.JOURNAL,
+            DataType.DT_CONTINUOUS_STEPS_DELTA),
+        new SamplingPolicy(DataType.DT_INSTANTANEOUS_HEART_RATE, TimeUnit.SECONDS.toMillis(1), 0L,
+            Persistence.JOURNAL),
+        new SamplingPolicy(DataType.DT_CONTINUOUS_DISTANCE_TOTAL, 0L, TimeUnit.SECONDS.toMillis(2),
+            Persistence.JOURNAL, DataType.DT_CONTINUOUS_DISTANCE_DELTA),
+        new SamplingPolicy(DataType.DT_CONTINUOUS_CALORIES_BURNT_TOTAL, 0L, TimeUnit.SECONDS.toMillis(5),
+            Persistence.NONE)));
+
+    private final DataType dataType;
+
+    private final long samplingIntervalMillis;
+
+    private final long coalescingWindowMillis;
+
+    private final Persistence persistence;
+
+    // Type of the journaled points, the delta type of a cumulative type
+    private final DataType journalDataType;
+
+    /**
+     * Create a policy journaling the points of the recorded type as they are.
+     *
+     * @param dataType recorded DataType
+     * @param samplingIntervalMillis shortest time between two kept points, 0 to keep every point
+     * @param coalescingWindowMillis time a point is held for later points of the type, 0 to deliver it at once
+     * @param persistence where the kept points are persisted
+     */
+    public SamplingPolicy(DataType dataType, long samplingIntervalMillis, long coalescingWindowMillis,
+        Persistence persistence) {
+        this(dataType, samplingIntervalMillis, coalescingWindowMillis, persistence, dataType);
+    }
+
+    /**
+     * Create a policy of a cumulative type, whose points are journaled as the points of its delta type.
+     *
+     * @param dataType recorded cumulative DataType, such as DT_CONTINUOUS_STEPS_TOTAL
+     * @param samplingIntervalMillis shortest time between two kept points, 0 to keep every point
+     * @param coalescingWindowMillis time a point is held for later points of the type, 0 to deliver it at once
+     * @param persistence where the kept points are persisted
+     * @param journalDataType delta DataType of the journaled points, such as DT_CONTINUOUS_STEPS_DELTA
+     */
+    public SamplingPolicy(DataType dataType, long samplingIntervalMillis, long coalescingWindowMillis,
+        Persistence persistence, DataType journalDataType) {
+        if (samplingIntervalMillis < 0 || coalescingWindowMillis < 0) {
+            throw new IllegalArgumentException("negative interval");
+        }
+        this.dataType = dataType;
+        this.samplingIntervalMillis = samplingIntervalMillis;
+        this.coalescingWindowMillis = coalescingWindowMillis;
+        this.persistence = persistence;
+        this.journalDataType = journalDataType;
+    }
+
+    /**
+     * Get the policy of a type without one: every point is delivered at once and not persisted.
+     *
+     * @param dataType DataType
+     * @return the policy
+     */
+    public static SamplingPolicy passThrough(DataType dataType) {
+        return new SamplingPolicy(dataType, 0L, 0L, Persistence.NONE);
+    }
+
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    public long getSamplingIntervalMillis() {
+        return samplingIntervalMillis;
+    }
+
+    public long getCoalescingWindowMillis() {
+        return coalescingWindowMillis;
+    }
+
+    public Persistence getPersistence() {
+        return persistence;
+    }
+
+    /**
+     * Get the type the points are journaled and inserted as. It differs from the recorded type for a cumulative
+     * type, which the platform computes and does not accept as raw data.
+     *
+     * @return the recorded DataType, or the delta DataType of a cumulative type
+     */
+    public DataType getJournalDataType() {
+        return journalDataType;
+    }
+
+    /**
+     * Whether the points are converted to a delta type before they are journaled.
+     *
+     * @return true for a cumulative type journaled as its delta type
+     */
+    public boolean isJournaledAsDelta() {
+        return journalDataType != dataType;
+    }
+
+    @Override
+    public String toString() {
+        return dataType.getName() + "{interval=" + samplingIntervalMillis + "ms, window=" + coalescingWindowMillis
+            + "ms, " + persistence + "}";
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.recorder;
+
+import java.util.concurrent.TimeUnit;
+
+import android.content.Context;
+import android.os.PowerManager;
+
+import com.huawei.demo.health.metrics.ApiMetrics;
+import com.huawei.demo.health.metrics.Histogram;
+
+/**
+ * Short, time-bounded partial wake locks, held only while some work must not be interrupted by a suspend, such as
+ * the force of the journaled points. Between two holds the CPU may sleep: the AutoRecorderController batches the
+ * sensor events and wakes the app when it delivers them.
+ * Overlapping holders share one wake lock, released by the last one or at the latest timeout. The hold times are
+ * recorded in a histogram and in ApiMetrics as the latency of the WakeLock series, one series per name.
+ *
+ * @since 2026-10-18
+ */
+public class WakeManager implements SamplePointJournal.WakeGuard {
+    /**
+     * API name of the hold times in ApiMetrics
+     */
+    public static final String METRICS_API = "WakeLock";
+
+    private static final String TAG_PREFIX = "HealthKitDemo:";
+
+    // Longer holds are counted in the last bucket, no hold should come close to it
+    private static final long HIGHEST_HOLD_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final String name;
+
+    private final PowerManager.WakeLock wakeLock;
+
+    private final Histogram holdTimes = new Histogram(HIGHEST_HOLD_NANOS);
+
+    // Number of acquire calls not released yet
+    private int holders;
+
+    private long heldSinceNanos;
+
+    // Time at which the wake lock releases itself
+    private long deadlineNanos;
+
+    private long timeouts;
+
+    /**
+     * Create a wake manager.
+     *
+     * @param context context
+     * @param name name of the wake lock and of its metrics series
+     */
+    public WakeManager(Context context, String name) {
+        this.name = name;
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        this.wakeLock = powerManager.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, TAG_PREFIX + name);
+        // Counted here, so that a release after the timeout does not throw
+        this.wakeLock.setReferenceCounted(false);
+    }
+
+    /**
+     * Hold the wake lock for at most the given time. The lock is shared with the current holders, and its
+     * timeout is extended if this holder needs longer.
+     *
+     * @param timeoutMillis longest time until the matching release
+     */
+    @Override
+    public synchronized void acquire(long timeoutMillis) {
+        long now = System.nanoTime();
+        long deadline = now + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        if (holders++ == 0) {
+            heldSinceNanos = now;
+            deadlineNanos = deadline;
+        } else if (deadline - deadlineNanos <= 0) {
+            return;
+        } else {
+            deadlineNanos = deadline;
+        }
+        wakeLock.acquire(TimeUnit.NANOSECONDS.toMillis(deadlineNanos - now));
+    }
+
+    /**
+     * Release a hold. The last holder releases the wake lock and records the hold time.
+     */
+    @Override
+    public synchronized void release() {
+        if (holders == 0 || --holders > 0) {
+            return;
+        }
+        wakeLock.release();
+        long now = System.nanoTime();
+        // After a timeout the lock was only held until its deadline.
+        if (now - deadlineNanos > 0) {
+            timeouts++;
+            now = deadlineNanos;
+        }
+        long heldNanos = now - heldSinceNanos;
+        holdTimes.record(heldNanos);
+        ApiMetrics.getInstance().recordSuccess(METRICS_API, name, heldNanos, 0);
+    }
+
+    /**
+     * Get the hold times in nanoseconds.
+     *
+     * @return snapshot of the hold time histogram
+     */
+    public Histogram.Snapshot getHoldTimes() {
+        return holdTimes.snapshot();
+    }
+
+    /**
+     * Get the hold statistics, for display.
+     *
+     * @return description of the holds
+     */
+    @Override
+    public synchronized String toString() {
+        Histogram.Snapshot snapshot = holdTimes.snapshot();
+        return "WakeManager{" + name + ", holds=" + snapshot.getCount() + ", heldMs="
+            + TimeUnit.NANOSECONDS.toMillis(snapshot.getSum()) + ", maxMs="
+            + TimeUnit.NANOSECONDS.toMillis(snapshot.getMax()) + ", timeouts=" + timeouts + ", held=" + (holders > 0)
+            + "}";
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * Local SQLite mirror of the ActivityRecords and HealthRecords read from the Health platform.
+ * Besides the records it keeps the sync state of each series, the high-water mark where the next delta read starts
+ * and the time of the last read of the whole window, and the tombstones of the records deleted by the app, so that
+ * an overlapping read does not bring a deleted record back.
+ * All methods can be called from any thread, SQLiteDatabase serializes the access.
+ *
+ * @since 2026-10-18
+ */
+public final class RecordStore extends SQLiteOpenHelper {
+    /**
+     * Kind of the ActivityRecord rows
+     */
+    public static final String KIND_ACTIVITY_RECORD = "activity";
+
+    /**
+     * Kind of the HealthRecord rows
+     */
+    public static final String KIND_HEALTH_RECORD = "health";
+
+    private static final String DATABASE_NAME = "record_mirror.db";
+
+    private static final int DATABASE_VERSION = 2;
+
+    private static final String TABLE_RECORD = "record";
+
+    private static final String TABLE_SYNC_STATE = "sync_state";
+
+    private static final String TABLE_TOMBSTONE = "tombstone";
+
+    private static final String[] RECORD_COLUMNS =
+        {"kind", "id", "data_type", "name", "package_name", "start_time", "end_time", "detail"};
+
+    private static volatile RecordStore instance;
+
+    private RecordStore(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    /**
+     * Get the store of the app process.
+     *
+     * @param context any context, its application context is kept
+     * @return the store
+     */
+    public static RecordStore getInstance(Context context) {
+        if (instance == null) {
+            synchronized (RecordStore.class) {
+                if (instance == null) {
+                    instance = new RecordStore(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_RECORD + " (kind TEXT NOT NULL, id TEXT NOT NULL, data_type TEXT, "
+            + "name TEXT, package_name TEXT, start_time INTEGER NOT NULL, end_time INTEGER NOT NULL, detail TEXT, "
+            + "PRIMARY KEY (kind, id))");
+        db.execSQL("CREATE INDEX record_time ON " + TABLE_RECORD + " (kind, start_time)");
+        db.execSQL("CREATE TABLE " + TABLE_SYNC_STATE + " (series TEXT PRIMARY KEY, high_water_mark INTEGER NOT NULL, "
+            + "full_sync_time INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE TABLE " + TABLE_TOMBSTONE + " (kind TEXT NOT NULL, id TEXT NOT NULL, "
+            + "deleted_at INTEGER NOT NULL, PRIMARY KEY (kind, id))");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // The mirror can always be read again from the Health platform.
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_RECORD);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SYNC_STATE);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_TOMBSTONE);
+        onCreate(db);
+    }
+
+    /**
+     * Get the high-water mark of a series.
+     *
+     * @param series series name, for example the kind and the DataType
+     * @return the end of the range read by the last sync, 0 if the series was never synced
+     */
+    public long getHighWaterMark(String series) {
+        try (Cursor cursor = getReadableDatabase().query(TABLE_SYNC_STATE, new String[] {"high_water_mark"},
+            "series = ?", new String[] {series}, null, null, null)) {
+            return cursor.moveToNext() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Get the time of the last read of the whole window of a series.
+     *
+     * @param series series name
+     * @return the end of the last full read, 0 if the series was never fully read
+     */
+    public long getFullSyncTime(String series) {
+        try (Cursor cursor = getReadableDatabase().query(TABLE_SYNC_STATE, new String[] {"full_sync_time"},
+            "series = ?", new String[] {series}, null, null, null)) {
+            return cursor.moveToNext() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Store the records of a read and move the high-water mark of the series, in one transaction.
+     * For a read of the whole window, the mirrored records of the window that were not read are removed and the
+     * full sync time is set to the end of the window. Records with a tombstone are skipped.
+     *
+     * @param series series name
+     * @param window range that was read in full, or null for a delta read
+     * @param rows records read
+     * @param highWaterMark new high-water mark of the series
+     * @return number of records stored
+     */
+    public int applyDelta(String series, Window window, List<Row> rows, long highWaterMark) {
+        SQLiteDatabase db = getWritableDatabase();
+        int stored = 0;
+        db.beginTransaction();
+        try {
+            if (window != null) {
+                window.clear(db);
+            }
+            ContentValues values = new ContentValues();
+            for (Row row : rows) {
+                if (isDeleted(db, row.kind, row.id)) {
+                    continue;
+                }
+                values.clear();
+                values.put("kind", row.kind);
+                values.put("id", row.id);
+                values.put("data_type", row.dataType);
+                values.put("name", row.name);
+                values.put("package_name", row.packageName);
+                values.put("start_time", row.startTime);
+                values.put("end_time", row.endTime);
+                values.put("detail", row.detail);
+                db.insertWithOnConflict(TABLE_RECORD, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                stored++;
+            }
+            values.clear();
+            values.put("high_water_mark", highWaterMark);
+            if (window != null) {
+                values.put("full_sync_time", window.endTime);
+            }
+            if (db.update(TABLE_SYNC_STATE, values, "series = ?", new String[] {series}) == 0) {
+                values.put("series", series);
+                db.insert(TABLE_SYNC_STATE, null, values);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return stored;
+    }
+
+    /**
+     * Move the high-water mark of a series back to a time, if it is later, so that the next delta read covers a
+     * record written with that start time. A series that was never synced is left alone, its first sync reads the
+     * whole window.
+     *
+     * @param series series name
+     * @param time start time of the written record, in milliseconds
+     */
+    public void lowerHighWaterMark(String series, long time) {
+        getWritableDatabase().execSQL("UPDATE " + TABLE_SYNC_STATE + " SET high_water_mark = ? "
+            + "WHERE series = ? AND high_water_mark > ?", new Object[] {time, series, time});
+    }
+
+    /**
+     * Forget the time of the last full read of a series, its next sync reads the whole window again.
+     *
+     * @param series series name
+     */
+    public void resetFullSyncTime(String series) {
+        ContentValues values = new ContentValues();
+        values.put("full_sync_time", 0L);
+        getWritableDatabase().update(TABLE_SYNC_STATE, values, "series = ?", new String[] {series});
+    }
+
+    /**
+     * Remove records deleted by the app and keep a tombstone for each of them.
+     *
+     * @param kind kind of the records
+     * @param ids ids of the deleted records
+     * @param deletedAt time of the deletion, in milliseconds
+     */
+    public void markDeleted(String kind, List<String> ids, long deletedAt) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            for (String id : ids) {
+                db.delete(TABLE_RECORD, "kind = ? AND id = ?", new String[] {kind, id});
+                values.clear();
+                values.put("kind", kind);
+                values.put("id", id);
+                values.put("deleted_at", deletedAt);
+                db.insertWithOnConflict(TABLE_TOMBSTONE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Remove the tombstone of a record written again by the app, so that the next reads mirror it.
+     *
+     * @param kind kind of the record
+     * @param id id of the record
+     */
+    public void clearTombstone(String kind, String id) {
+        getWritableDatabase().delete(TABLE_TOMBSTONE, "kind = ? AND id = ?", new String[] {kind, id});
+    }
+
+    /**
+     * Remove the tombstones of deletions older than a time. A tombstone is only needed while a delta read can
+     * still return the deleted record.
+     *
+     * @param deletedBefore time in milliseconds
+     * @return number of tombstones removed
+     */
+    public int pruneTombstones(long deletedBefore) {
+        return getWritableDatabase().delete(TABLE_TOMBSTONE, "deleted_at < ?",
+            new String[] {Long.toString(deletedBefore)});
+    }
+
+    /**
+     * Read the mirrored records of a kind that start in a time range.
+     *
+     * @param kind kind of the records
+     * @param startTime start of the range, in milliseconds
+     * @param endTime end of the range, in milliseconds
+     * @return the records in start time order
+     */
+    public List<Row> query(String kind, long startTime, long endTime) {
+        List<Row> rows = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_RECORD, RECORD_COLUMNS,
+            "kind = ? AND start_time >= ? AND start_time < ?",
+            new String[] {kind, Long.toString(startTime), Long.toString(endTime)}, null, null, "start_time")) {
+            while (cursor.moveToNext()) {
+                rows.add(new Row(cursor.getString(0), cursor.getString(1), cursor.getString(2), cursor.getString(3),
+                    cursor.getString(4), cursor.getLong(5), cursor.getLong(6), cursor.getString(7)));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Forget the sync state of every series, the next sync of each series reads its whole window again.
+     */
+    public void resetHighWaterMarks() {
+        getWritableDatabase().delete(TABLE_SYNC_STATE, null, null);
+    }
+
+    private static boolean isDeleted(SQLiteDatabase db, String kind, String id) {
+        try (Cursor cursor = db.query(TABLE_TOMBSTONE, new String[] {"id"}, "kind = ? AND id = ?",
+            new String[] {kind, id}, null, null, null)) {
+            return cursor.moveToNext();
+        }
+    }
+
+    /**
+     * Time range of a series read in full: the mirrored records of the range are replaced by the records read
+     */
+    public static final class Window {
+        private final String kind;
+
+        // DataType name of the rows, null for all the rows of the kind
+        private final String dataType;
+
+        private final long startTime;
+
+        private final long endTime;
+
+        public Window(String kind, String dataType, long startTime, long endTime) {
+            this.kind = kind;
+            this.dataType = dataType;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        private void clear(SQLiteDatabase db) {
+            String start = Long.toString(startTime);
+            String end = Long.toString(endTime);
+            if (dataType == null) {
+                db.delete(TABLE_RECORD, "kind = ? AND start_time >= ? AND start_time < ?",
+                    new String[] {kind, start, end});
+            } else {
+                db.delete(TABLE_RECORD, "kind = ? AND data_type = ? AND start_time >= ? AND start_time < ?",
+                    new String[] {kind, dataType, start, end});
+            }
+        }
+    }
+
+    /**
+     * Mirrored fields of an ActivityRecord or a HealthRecord
+     */
+    public static final class Row {
+        private final String kind;
+
+        private final String id;
+
+        // Activity type of an ActivityRecord, DataType name of a HealthRecord
+        private final String dataType;
+
+        private final String name;
+
+        private final String packageName;
+
+        private final long startTime;
+
+        private final long endTime;
+
+        // Description of an ActivityRecord, metadata of a HealthRecord
+        private final String detail;
+
+        public Row(String kind, String id, String dataType, String name, String packageName, long startTime,
+            long endTime, String detail) {
+            this.kind = kind;
+            this.id = id;
+            this.dataType = dataType;
+            this.name = name;
+            this.packageName = packageName;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.detail = detail;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getDataType() {
+            return dataType;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPackageName() {
+            return packageName;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getEndTime() {
+            return endTime;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + id + " " + dataType + (name == null ? "" : " " + name) + " from " + packageName
+                + " [" + startTime + ", " + endTime + "]" + (detail == null ? "" : " " + detail);
+        }
+    }
+}
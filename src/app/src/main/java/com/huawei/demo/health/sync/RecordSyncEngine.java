@@ -0,0 +1,262 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.huawei.demo.health.data.ActivityRecordCursor;
+import com.huawei.demo.health.metrics.TaskMetrics;
+import com.huawei.hmf.tasks.Tasks;
+import com.huawei.hms.hihealth.ActivityRecordsController;
+import com.huawei.hms.hihealth.HealthRecordController;
+import com.huawei.hms.hihealth.data.ActivityRecord;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.HealthRecord;
+import com.huawei.hms.hihealth.options.HealthRecordReadOptions;
+import com.huawei.hms.hihealth.result.HealthRecordReply;
+
+/**
+ * Keeps the RecordStore mirror of the last INITIAL_SYNC_MILLIS up to date, mostly with delta reads.
+ * The platform reads select records by their own start and end times, not by the time they were written, so a
+ * delta cannot see a record written later with past dates. Each series (the ActivityRecords, the HealthRecords of
+ * one DataType) therefore has two cursors:
+ * <ul>
+ * <li>the high-water mark: a delta sync reads from the mark, minus a small overlap, to now. The writes of the app
+ * move it back to the start of the written record through markActivityRecordWritten and markHealthRecordWritten,
+ * so they are read by the next sync whatever their dates.</li>
+ * <li>the full sync time: at most FULL_SYNC_INTERVAL_MILLIS after it, a sync reads the whole window again and
+ * replaces the mirrored records of the window. This brings in the records other apps wrote with past dates and
+ * removes the records they deleted.</li>
+ * </ul>
+ * An ActivityRecord that is still going on holds the mark at its start, so it is read again until it ends.
+ * Records deleted by the app are removed at once through markDeleted.
+ * The sync methods block until the Health platform replies, they must be called on a background thread.
+ *
+ * @since 2026-10-18
+ */
+public class RecordSyncEngine {
+    /**
+     * Range read by the first sync of a series
+     */
+    public static final long INITIAL_SYNC_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+    /**
+     * Longest time between two reads of the whole window, the other syncs are delta reads
+     */
+    public static final long FULL_SYNC_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    // Records written shortly before the last sync with an earlier time are read by the next one
+    private static final long SYNC_OVERLAP_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    // Longer than any overlap, a pruned tombstone cannot be needed by a delta read
+    private static final long TOMBSTONE_TTL_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private static final String ACTIVITY_RECORD_SERIES = RecordStore.KIND_ACTIVITY_RECORD;
+
+    private final ActivityRecordsController activityRecordsController;
+
+    private final HealthRecordController healthRecordController;
+
+    private final RecordStore store;
+
+    /**
+     * Create an engine. A controller can be null if its kind of record is not synced.
+     *
+     * @param activityRecordsController controller used to read the ActivityRecords
+     * @param healthRecordController controller used to read the HealthRecords
+     * @param store mirror to update
+     */
+    public RecordSyncEngine(ActivityRecordsController activityRecordsController,
+        HealthRecordController healthRecordController, RecordStore store) {
+        this.activityRecordsController = activityRecordsController;
+        this.healthRecordController = healthRecordController;
+        this.store = store;
+    }
+
+    /**
+     * Read the ActivityRecords since the last sync into the mirror.
+     *
+     * @param now current time in milliseconds, end of the delta
+     * @return number of records stored
+     * @throws ExecutionException if a read failed, the cause is the exception of the task
+     * @throws InterruptedException if the thread was interrupted while waiting for a read
+     * @throws TimeoutException if a read did not finish in time
+     */
+    public synchronized int syncActivityRecords(long now)
+        throws ExecutionException, InterruptedException, TimeoutException {
+        boolean full = isFullSyncDue(ACTIVITY_RECORD_SERIES, now);
+        long startTime = full ? now - INITIAL_SYNC_MILLIS : deltaStart(ACTIVITY_RECORD_SERIES, now);
+        long highWaterMark = now;
+        List<RecordStore.Row> rows = new ArrayList<>();
+        // Only the records are read, without their sample data.
+        ActivityRecordCursor cursor =
+            new ActivityRecordCursor(activityRecordsController, startTime, now, DataType.DT_CONTINUOUS_STEPS_DELTA);
+        try {
+            while (cursor.moveToNext()) {
+                ActivityRecord activityRecord = cursor.getActivityRecord();
+                long recordStart = activityRecord.getStartTime(TimeUnit.MILLISECONDS);
+                if (activityRecord.isKeepGoing()) {
+                    highWaterMark = Math.min(highWaterMark, recordStart);
+                }
+                rows.add(new RecordStore.Row(RecordStore.KIND_ACTIVITY_RECORD, activityRecord.getId(),
+                    activityRecord.getActivityType(), activityRecord.getName(), activityRecord.getPackageName(),
+                    recordStart, activityRecord.getEndTime(TimeUnit.MILLISECONDS), activityRecord.getDesc()));
+            }
+        } finally {
+            cursor.close();
+        }
+        return apply(ACTIVITY_RECORD_SERIES, full ? new RecordStore.Window(RecordStore.KIND_ACTIVITY_RECORD, null,
+            startTime, now) : null, rows, highWaterMark, now);
+    }
+
+    /**
+     * Read the HealthRecords of a DataType since the last sync into the mirror.
+     *
+     * @param dataType DataType of the health records
+     * @param now current time in milliseconds, end of the delta
+     * @return number of records stored
+     * @throws ExecutionException if the read failed, the cause is the exception of the task
+     * @throws InterruptedException if the thread was interrupted while waiting for the read
+     * @throws TimeoutException if the read did not finish in time
+     */
+    public synchronized int syncHealthRecords(DataType dataType, long now)
+        throws ExecutionException, InterruptedException, TimeoutException {
+        String series = healthRecordSeries(dataType);
+        boolean full = isFullSyncDue(series, now);
+        long startTime = full ? now - INITIAL_SYNC_MILLIS : deltaStart(series, now);
+        HealthRecordReadOptions readOptions =
+            new HealthRecordReadOptions.Builder().setTimeInterval(startTime, now, TimeUnit.MILLISECONDS)
+                .readHealthRecordsFromAllApps()
+                .readByDataType(dataType)
+                .build();
+        HealthRecordReply reply = Tasks.await(
+            TaskMetrics.track(healthRecordController.getHealthRecord(readOptions), "getHealthRecord", dataType),
+            TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        List<RecordStore.Row> rows = new ArrayList<>();
+        if (reply != null && reply.getHealthRecords() != null) {
+            for (HealthRecord healthRecord : reply.getHealthRecords()) {
+                if (healthRecord == null) {
+                    continue;
+                }
+                rows.add(new RecordStore.Row(RecordStore.KIND_HEALTH_RECORD, healthRecord.getHealthRecordId(),
+                    dataType.getName(), null, healthRecord.getDataCollector().getPackageName(),
+                    healthRecord.getStartTime(TimeUnit.MILLISECONDS), healthRecord.getEndTime(TimeUnit.MILLISECONDS),
+                    healthRecord.getMetadata()));
+            }
+        }
+        return apply(series, full ? new RecordStore.Window(RecordStore.KIND_HEALTH_RECORD, dataType.getName(),
+            startTime, now) : null, rows, now, now);
+    }
+
+    /**
+     * Remove records deleted by the app from the mirror and keep them out of the next delta reads.
+     * Call it when the delete task succeeded.
+     *
+     * @param kind RecordStore.KIND_ACTIVITY_RECORD or RecordStore.KIND_HEALTH_RECORD
+     * @param ids ids of the deleted records
+     */
+    public void markDeleted(String kind, List<String> ids) {
+        store.markDeleted(kind, ids, System.currentTimeMillis());
+    }
+
+    /**
+     * Make the next sync read an ActivityRecord the app has written, whatever its dates. The tombstone of an
+     * earlier deletion of the same id is removed, so that a record added again is not skipped.
+     * Call it when the add task succeeded.
+     *
+     * @param activityRecordId id of the written record
+     * @param startTime start time of the written record, in milliseconds
+     */
+    public void markActivityRecordWritten(String activityRecordId, long startTime) {
+        store.clearTombstone(RecordStore.KIND_ACTIVITY_RECORD, activityRecordId);
+        store.lowerHighWaterMark(ACTIVITY_RECORD_SERIES, startTime);
+    }
+
+    /**
+     * Make the next sync read a HealthRecord the app has written or updated, whatever its dates. The tombstone of
+     * an earlier deletion of the same id is removed.
+     * Call it when the add or update task succeeded.
+     *
+     * @param dataType DataType of the health record
+     * @param healthRecordId id of the written record
+     * @param startTime start time of the written record, in milliseconds
+     */
+    public void markHealthRecordWritten(DataType dataType, String healthRecordId, long startTime) {
+        store.clearTombstone(RecordStore.KIND_HEALTH_RECORD, healthRecordId);
+        store.lowerHighWaterMark(healthRecordSeries(dataType), startTime);
+    }
+
+    /**
+     * Make the next sync of the ActivityRecords read the whole window again, for example after a bulk import of
+     * records whose dates are not tracked one by one.
+     */
+    public void requestActivityRecordFullSync() {
+        store.resetFullSyncTime(ACTIVITY_RECORD_SERIES);
+    }
+
+    /**
+     * Get the high-water mark of the HealthRecords of a DataType.
+     *
+     * @param dataType DataType of the health records
+     * @return the end of the range read by the last sync, 0 if never synced
+     */
+    public long getHealthRecordHighWaterMark(DataType dataType) {
+        return store.getHighWaterMark(healthRecordSeries(dataType));
+    }
+
+    /**
+     * Get the high-water mark of the ActivityRecords.
+     *
+     * @return the end of the range read by the last sync, 0 if never synced
+     */
+    public long getActivityRecordHighWaterMark() {
+        return store.getHighWaterMark(ACTIVITY_RECORD_SERIES);
+    }
+
+    private boolean isFullSyncDue(String series, long now) {
+        long fullSyncTime = store.getFullSyncTime(series);
+        // A full sync time in the future (clock change) would postpone the next full sync, it is due at once.
+        return fullSyncTime <= 0 || fullSyncTime > now || now - fullSyncTime >= FULL_SYNC_INTERVAL_MILLIS;
+    }
+
+    private long deltaStart(String series, long now) {
+        long highWaterMark = store.getHighWaterMark(series);
+        if (highWaterMark <= 0) {
+            return now - INITIAL_SYNC_MILLIS;
+        }
+        // A mark in the future (clock change) would skip records, the overlap keeps the range non-empty.
+        // A mark moved back by a write of the app is read from, but not before the mirrored window.
+        return Math.max(now - INITIAL_SYNC_MILLIS, Math.min(highWaterMark, now) - SYNC_OVERLAP_MILLIS);
+    }
+
+    private int apply(String series, RecordStore.Window window, List<RecordStore.Row> rows, long highWaterMark,
+        long now) {
+        int stored = store.applyDelta(series, window, rows, highWaterMark);
+        store.pruneTombstones(now - TOMBSTONE_TTL_MILLIS);
+        return stored;
+    }
+
+    private static String healthRecordSeries(DataType dataType) {
+        return RecordStore.KIND_HEALTH_RECORD + '/' + dataType.getName();
+    }
+}
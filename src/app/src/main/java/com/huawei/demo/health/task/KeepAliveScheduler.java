@@ -0,0 +1,263 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keep-alive plan of the background activity records: when each record must be continued, and how long to wait
+ * between two continue calls.
+ * One wake-up continues every record that is due within the flex window, so concurrent records share their
+ * wake-ups. The interval starts below the platform timeout and adapts to the timeouts observed: a timeout shrinks
+ * it under the time that passed, and continue calls that succeed let it grow back slowly up to that limit. They
+ * also relax the limit itself, so that one early timeout, for example after a delayed alarm, does not bound the
+ * interval for good.
+ * Times are elapsed realtime in milliseconds. Not thread-safe, used on the main thread of the service.
+ *
+ * @since 2026-10-18
+ */
+public final class KeepAliveScheduler {
+    /**
+     * Default interval between two continue calls of a record, below the platform workout timeout
+     */
+    public static final long DEFAULT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(9);
+
+    /**
+     * Default lower bound of the interval
+     */
+    public static final long DEFAULT_MIN_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    // Share of the observed timeout used as interval, the rest is a margin for a late alarm
+    private static final double TIMEOUT_MARGIN = 0.8d;
+
+    // Successful continue calls before the interval grows again
+    private static final int GROWTH_STREAK = 3;
+
+    // Share of the distance to the ceiling added when the interval grows
+    private static final double GROWTH_FACTOR = 0.25d;
+
+    private final long minIntervalMillis;
+
+    private final long maxIntervalMillis;
+
+    // Record id to the time its next continue call is due
+    private final Map<String, Long> deadlines = new HashMap<>();
+
+    // Record id to the time of its last successful begin or continue call
+    private final Map<String, Long> lastContinued = new HashMap<>();
+
+    private long intervalMillis;
+
+    // Shortest time after which the platform reported a timeout, relaxed by the successes since, 0 if none
+    private long observedTimeoutMillis;
+
+    private int successStreak;
+
+    /**
+     * Create a scheduler.
+     *
+     * @param intervalMillis initial interval between two continue calls of a record, also its upper bound
+     * @param minIntervalMillis lower bound of the interval
+     */
+    public KeepAliveScheduler(long intervalMillis, long minIntervalMillis) {
+        if (minIntervalMillis <= 0 || intervalMillis < minIntervalMillis) {
+            throw new IllegalArgumentException("invalid keep-alive interval");
+        }
+        this.intervalMillis = intervalMillis;
+        this.maxIntervalMillis = intervalMillis;
+        this.minIntervalMillis = minIntervalMillis;
+    }
+
+    /**
+     * Restore the timeout observed by a previous workout, so that its first interval is already adapted.
+     *
+     * @param timeoutMillis observed timeout, 0 if none
+     */
+    public void restoreObservedTimeout(long timeoutMillis) {
+        if (timeoutMillis > 0) {
+            observedTimeoutMillis = timeoutMillis;
+            intervalMillis = Math.min(intervalMillis, ceiling());
+        }
+    }
+
+    /**
+     * Follow a record that has begun.
+     *
+     * @param activityRecordId id of the activity record
+     * @param now current time
+     */
+    public void add(String activityRecordId, long now) {
+        deadlines.put(activityRecordId, now + intervalMillis);
+        lastContinued.put(activityRecordId, now);
+    }
+
+    /**
+     * Stop following a record, because it ended.
+     *
+     * @param activityRecordId id of the activity record
+     * @return true if the record was followed
+     */
+    public boolean remove(String activityRecordId) {
+        lastContinued.remove(activityRecordId);
+        return deadlines.remove(activityRecordId) != null;
+    }
+
+    public boolean isEmpty() {
+        return deadlines.isEmpty();
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public long getObservedTimeoutMillis() {
+        return observedTimeoutMillis;
+    }
+
+    /**
+     * Get the length of the window in which a wake-up may happen before a deadline. The alarm is set to this
+     * window, so that the system can batch it with other wake-ups.
+     *
+     * @return flex in milliseconds
+     */
+    public long getFlexMillis() {
+        return intervalMillis / 4;
+    }
+
+    /**
+     * Get the time of the next wake-up: the earliest deadline.
+     *
+     * @return time of the earliest deadline, Long.MAX_VALUE if no record is followed
+     */
+    public long nextDeadline() {
+        long next = Long.MAX_VALUE;
+        for (long deadline : deadlines.values()) {
+            next = Math.min(next, deadline);
+        }
+        return next;
+    }
+
+    /**
+     * Take the records to continue at a wake-up: the ones due before the end of the flex window, so that a
+     * record due a little later does not need a wake-up of its own. Their next deadline is set one interval
+     * from now, and moved by onContinueFailed if the call fails.
+     *
+     * @param now current time
+     * @return ids of the records to continue
+     */
+    public List<String> takeDue(long now) {
+        List<String> due = new ArrayList<>();
+        long horizon = now + getFlexMillis();
+        for (Map.Entry<String, Long> entry : deadlines.entrySet()) {
+            if (entry.getValue() <= horizon) {
+                due.add(entry.getKey());
+                entry.setValue(now + intervalMillis);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Report a successful continue call. After a few successes in a row the observed timeout is relaxed and the
+     * interval grows back a quarter of the way to its ceiling.
+     *
+     * @param activityRecordId id of the activity record
+     * @param now time of the result
+     */
+    public void onContinued(String activityRecordId, long now) {
+        if (!deadlines.containsKey(activityRecordId)) {
+            return;
+        }
+        lastContinued.put(activityRecordId, now);
+        if (++successStreak >= GROWTH_STREAK) {
+            successStreak = 0;
+            relaxObservedTimeout();
+            long ceiling = ceiling();
+            intervalMillis = Math.min(ceiling, intervalMillis + (long) ((ceiling - intervalMillis) * GROWTH_FACTOR));
+        }
+    }
+
+    /**
+     * Report a failed continue call. The record is tried again after the minimum interval, without waiting for
+     * a full interval.
+     *
+     * @param activityRecordId id of the activity record
+     * @param now time of the result
+     */
+    public void onContinueFailed(String activityRecordId, long now) {
+        successStreak = 0;
+        if (deadlines.containsKey(activityRecordId)) {
+            deadlines.put(activityRecordId, now + minIntervalMillis);
+        }
+    }
+
+    /**
+     * Report that the platform ended a record on timeout. The time since its last successful call bounds the
+     * platform timeout, the interval is cut below it and the record is no longer followed.
+     *
+     * @param activityRecordId id of the activity record
+     * @param now time of the report
+     * @return the new interval
+     */
+    public long onTimeout(String activityRecordId, long now) {
+        successStreak = 0;
+        Long last = lastContinued.get(activityRecordId);
+        remove(activityRecordId);
+        if (last == null || now <= last) {
+            // Without a usable observation, halve the interval.
+            intervalMillis = Math.max(minIntervalMillis, intervalMillis / 2);
+            return intervalMillis;
+        }
+        long elapsed = now - last;
+        observedTimeoutMillis = observedTimeoutMillis == 0 ? elapsed : Math.min(observedTimeoutMillis, elapsed);
+        intervalMillis = Math.min(intervalMillis, ceiling());
+        return intervalMillis;
+    }
+
+    /**
+     * Move the observed timeout a quarter of the way to the timeout that no longer bounds the interval, and forget
+     * it once it is close. A new timeout bounds the interval again.
+     */
+    private void relaxObservedTimeout() {
+        if (observedTimeoutMillis == 0) {
+            return;
+        }
+        long unbounded = (long) (maxIntervalMillis / TIMEOUT_MARGIN);
+        long distance = unbounded - observedTimeoutMillis;
+        if (distance < minIntervalMillis) {
+            observedTimeoutMillis = 0;
+        } else {
+            observedTimeoutMillis += (long) (distance * GROWTH_FACTOR);
+        }
+    }
+
+    private long ceiling() {
+        if (observedTimeoutMillis == 0) {
+            return maxIntervalMillis;
+        }
+        long bound = (long) (observedTimeoutMillis * TIMEOUT_MARGIN);
+        return Math.max(minIntervalMillis, Math.min(maxIntervalMillis, bound));
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.task;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import android.util.Log;
+
+import com.huawei.demo.health.log.LogConsole;
+
+/**
+ * Runs the Task listeners of an activity on a background thread instead of the main thread.
+ * Attach the listeners of a controller call with the Operation returned by begin: the result is processed and
+ * formatted on the background thread, and its log lines reach the console as one batch, so the main thread only
+ * inserts the finished lines. The time until the result arrives and the processing time are recorded per operation.
+ *
+ * @since 2026-10-18
+ */
+public final class ResultExecutor {
+    private final String tag;
+
+    private final LogConsole console;
+
+    // A single thread keeps the results of the activity in the order they arrive
+    private final ExecutorService executor;
+
+    // Operation name to its timings, guarded by itself
+    private final Map<String, Timing> timings = new TreeMap<>();
+
+    private volatile boolean shutdown;
+
+    /**
+     * Create the executor of an activity.
+     *
+     * @param tag activity log tag, also used for the thread name
+     * @param console log console of the activity
+     */
+    public ResultExecutor(String tag, LogConsole console) {
+        this.tag = tag;
+        this.console = console;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, tag + "-results");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start timing an operation. Call it when the controller is called, and pass the returned executor to the
+     * addOnSuccessListener and addOnFailureListener of the task.
+     *
+     * @param name name of the operation, usually the API name
+     * @return executor of the listeners of the operation
+     */
+    public Operation begin(String name) {
+        return new Operation(name);
+    }
+
+    /**
+     * Get the timings of the operations, for display.
+     *
+     * @return one line per operation with its count, average and maximum times
+     */
+    public String getTimings() {
+        StringBuilder builder = new StringBuilder();
+        synchronized (timings) {
+            for (Map.Entry<String, Timing> entry : timings.entrySet()) {
+                Timing timing = entry.getValue();
+                builder.append(entry.getKey())
+                    .append(": count ")
+                    .append(timing.count)
+                    .append(", latency avg ")
+                    .append(toMillis(timing.totalLatencyNanos / Math.max(timing.count, 1)))
+                    .append(" ms max ")
+                    .append(toMillis(timing.maxLatencyNanos))
+                    .append(" ms, processing avg ")
+                    .append(toMillis(timing.totalProcessingNanos / Math.max(timing.count, 1)))
+                    .append(" ms max ")
+                    .append(toMillis(timing.maxProcessingNanos))
+                    .append(" ms")
+                    .append(System.lineSeparator());
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Stop processing results, for example when the activity is destroyed. Results that arrive later are dropped.
+     */
+    public void shutdown() {
+        shutdown = true;
+        executor.shutdownNow();
+    }
+
+    private void record(String name, long latencyNanos, long processingNanos, boolean first) {
+        synchronized (timings) {
+            Timing timing = timings.get(name);
+            if (timing == null) {
+                timing = new Timing();
+                timings.put(name, timing);
+            }
+            if (first) {
+                timing.count++;
+                timing.totalLatencyNanos += latencyNanos;
+                timing.maxLatencyNanos = Math.max(timing.maxLatencyNanos, latencyNanos);
+            }
+            timing.totalProcessingNanos += processingNanos;
+            timing.maxProcessingNanos = Math.max(timing.maxProcessingNanos, processingNanos);
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Executor of the listeners of one controller call
+     */
+    public final class Operation implements Executor {
+        private final String name;
+
+        private final long startNanos = System.nanoTime();
+
+        // The latency is taken from the first listener, the others of the same result only add processing time
+        private final AtomicBoolean resultArrived = new AtomicBoolean();
+
+        private Operation(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (shutdown) {
+                return;
+            }
+            long latencyNanos = System.nanoTime() - startNanos;
+            boolean first = resultArrived.compareAndSet(false, true);
+            try {
+                executor.execute(() -> process(command, latencyNanos, first));
+            } catch (RejectedExecutionException e) {
+                // Shut down in the meantime, the result is dropped.
+                Log.d(tag, name + " result dropped after shutdown");
+            }
+        }
+
+        private void process(Runnable command, long latencyNanos, boolean first) {
+            long begin = System.nanoTime();
+            console.runBatch(command);
+            long processingNanos = System.nanoTime() - begin;
+            record(name, latencyNanos, processingNanos, first);
+            Log.d(tag, name + " result after " + toMillis(latencyNanos) + " ms, processed in "
+                + toMillis(processingNanos) + " ms");
+        }
+    }
+
+    private static final class Timing {
+        private long count;
+
+        private long totalLatencyNanos;
+
+        private long maxLatencyNanos;
+
+        private long totalProcessingNanos;
+
+        private long maxProcessingNanos;
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.task;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.huawei.demo.health.util.FailureClassifier;
+import com.huawei.hmf.tasks.Task;
+import com.huawei.hmf.tasks.TaskCompletionSource;
+
+/**
+ * Runs the Health Kit controller calls of the app with a retry policy and a concurrency limit.
+ * A call that fails with a retryable status code is sent again after a jittered exponential backoff.
+ * Each controller runs at most a fixed number of calls at once, the others wait in order.
+ * Identical reads that are in flight at the same time share one underlying call.
+ *
+ * @since 2026-10-18
+ */
+public final class RetryScheduler {
+    /**
+     * Default number of attempts of a call, the first one included
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+
+    /**
+     * Default backoff before the first retry
+     */
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 500L;
+
+    /**
+     * Default upper bound of the backoff
+     */
+    public static final long DEFAULT_MAX_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(8);
+
+    /**
+     * Default number of calls of a controller that run at once
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_CALLS = 4;
+
+    private static final RetryScheduler INSTANCE = new RetryScheduler(DEFAULT_MAX_ATTEMPTS,
+        DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_MAX_CONCURRENT_CALLS);
+
+    private final int maxAttempts;
+
+    private final long baseDelayMillis;
+
+    private final long maxDelayMillis;
+
+    private final int maxConcurrentCalls;
+
+    // Runs the backoff timers and the completion of the attempts, off the main thread
+    private final ScheduledExecutorService executor;
+
+    // Controller name to its queue of calls
+    private final ConcurrentHashMap<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    // Key of a read to the task shared by its callers, until the read completes
+    private final ConcurrentHashMap<String, Task<?>> inFlightReads = new ConcurrentHashMap<>();
+
+    private final AtomicLong calls = new AtomicLong();
+
+    private final AtomicLong retries = new AtomicLong();
+
+    private final AtomicLong coalescedReads = new AtomicLong();
+
+    /**
+     * Create a scheduler. The activities share the one of getInstance, so that the limits apply to the whole app.
+     *
+     * @param maxAttempts number of attempts of a call, the first one included
+     * @param baseDelayMillis backoff before the first retry, doubled for every further retry
+     * @param maxDelayMillis upper bound of the backoff
+     * @param maxConcurrentCalls number of calls of a controller that run at once
+     */
+    public RetryScheduler(int maxAttempts, long baseDelayMillis, long maxDelayMillis, int maxConcurrentCalls) {
+        if (maxAttempts <= 0 || baseDelayMillis <= 0 || maxDelayMillis < baseDelayMillis || maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("invalid retry policy");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RetryScheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the scheduler shared by the activities of the app process.
+     *
+     * @return the scheduler
+     */
+    public static RetryScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Run a call of a controller, retrying it on transient failures.
+     * The call may be made more than once, use it for writes that can be repeated, such as an insert.
+     *
+     * @param controller name of the controller, calls of the same controller share its concurrency limit
+     * @param api name of the API, for the failure counters
+     * @param call starts one attempt of the call
+     * @param <T> result type of the call
+     * @return task completed with the result of the first successful attempt, or the failure of the last one
+     */
+    public <T> Task<T> execute(String controller, String api, Supplier<Task<T>> call) {
+        Operation<T> operation = new Operation<>(lane(controller), api, call, null);
+        operation.lane.enqueue(operation);
+        return operation.source.getTask();
+    }
+
+    /**
+     * Run a read of a controller, retrying it on transient failures. While a read with the same key is in flight,
+     * its task is returned instead of starting a new call.
+     *
+     * @param controller name of the controller, calls of the same controller share its concurrency limit
+     * @param api name of the API, for the failure counters
+     * @param key identifies the read with its parameters, reads with the same key must return the same data
+     * @param call starts one attempt of the read
+     * @param <T> result type of the read
+     * @return task completed with the result of the read
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Task<T> read(String controller, String api, String key, Supplier<Task<T>> call) {
+        String readKey = controller + '/' + api + '/' + key;
+        Task<?> inFlight = inFlightReads.get(readKey);
+        if (inFlight != null) {
+            coalescedReads.incrementAndGet();
+            return (Task<T>) inFlight;
+        }
+        Operation<T> operation = new Operation<>(lane(controller), api, call, readKey);
+        inFlight = inFlightReads.putIfAbsent(readKey, operation.source.getTask());
+        if (inFlight != null) {
+            coalescedReads.incrementAndGet();
+            return (Task<T>) inFlight;
+        }
+        operation.lane.enqueue(operation);
+        return operation.source.getTask();
+    }
+
+    /**
+     * Get the call, retry and coalescing counters, for display.
+     *
+     * @return description of the scheduler state
+     */
+    @Override
+    public String toString() {
+        return "RetryScheduler{calls=" + calls.get() + ", retries=" + retries.get() + ", coalescedReads="
+            + coalescedReads.get() + ", inFlightReads=" + inFlightReads.size() + "}";
+    }
+
+    private Lane lane(String controller) {
+        Lane lane = lanes.get(controller);
+        if (lane == null) {
+            lanes.putIfAbsent(controller, new Lane());
+            lane = lanes.get(controller);
+        }
+        return lane;
+    }
+
+    /**
+     * Full jitter: a random delay up to the exponential backoff of the attempt.
+     */
+    private long backoffMillis(int attempt) {
+        long ceiling = baseDelayMillis << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > maxDelayMillis) {
+            ceiling = maxDelayMillis;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Calls of one controller: at most maxConcurrentCalls run, the others wait in order.
+     */
+    private final class Lane {
+        private final ArrayDeque<Operation<?>> waiting = new ArrayDeque<>();
+
+        private int running;
+
+        private void enqueue(Operation<?> operation) {
+            synchronized (this) {
+                if (running >= maxConcurrentCalls) {
+                    waiting.add(operation);
+                    return;
+                }
+                running++;
+            }
+            operation.attempt();
+        }
+
+        private void release() {
+            Operation<?> next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    running--;
+                    return;
+                }
+            }
+            // The permit passes to the next call.
+            next.attempt();
+        }
+    }
+
+    /**
+     * A call and its attempts
+     */
+    private final class Operation<T> {
+        private final Lane lane;
+
+        private final String api;
+
+        private final Supplier<Task<T>> call;
+
+        // Key in inFlightReads, null for a call that is not coalesced
+        private final String readKey;
+
+        private final TaskCompletionSource<T> source = new TaskCompletionSource<>();
+
+        private int attempts;
+
+        private Operation(Lane lane, String api, Supplier<Task<T>> call, String readKey) {
+            this.lane = lane;
+            this.api = api;
+            this.call = call;
+            this.readKey = readKey;
+        }
+
+        /**
+         * Start an attempt, the caller holds a permit of the lane.
+         */
+        private void attempt() {
+            attempts++;
+            calls.incrementAndGet();
+            Task<T> task;
+            try {
+                task = call.get();
+            } catch (RuntimeException e) {
+                // Complete on the executor, so that a queue of calls failing at once does not recurse.
+                executor.execute(() -> onFailure(e));
+                return;
+            }
+            task.addOnCompleteListener(executor, completed -> {
+                if (completed.isSuccessful()) {
+                    lane.release();
+                    finish(completed.getResult(), null);
+                } else if (completed.isCanceled() || completed.getException() == null) {
+                    onFailure(new CancellationException(api + " canceled"));
+                } else {
+                    onFailure(completed.getException());
+                }
+            });
+        }
+
+        private void onFailure(Exception exception) {
+            lane.release();
+            if (attempts < maxAttempts
+                && FailureClassifier.categorize(exception) == FailureClassifier.Category.RETRYABLE) {
+                retries.incrementAndGet();
+                executor.schedule(() -> lane.enqueue(this), backoffMillis(attempts), TimeUnit.MILLISECONDS);
+                return;
+            }
+            finish(null, exception);
+        }
+
+        private void finish(T result, Exception exception) {
+            // Forget the read first, so that a caller reading again from a listener starts a new call.
+            if (readKey != null) {
+                inFlightReads.remove(readKey, source.getTask());
+            }
+            if (exception == null) {
+                source.setResult(result);
+            } else {
+                source.setException(exception);
+            }
+        }
+    }
+}
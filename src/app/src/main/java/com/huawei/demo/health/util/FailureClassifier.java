@@ -0,0 +1,335 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.util;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.huawei.hms.common.ApiException;
+import com.huawei.hms.hihealth.HiHealthStatusCodes;
+
+/**
+ * Classification of the failures reported by the Health Kit tasks.
+ * The status code is taken from an ApiException or read from a message made only of digits, without a regex.
+ * The message of each status code is looked up once, and every failure is counted per API and category, so that a
+ * burst of identical failures, for example a revoked scope during a bulk import, stays cheap.
+ *
+ * @since 2026-10-18
+ */
+public final class FailureClassifier {
+    /**
+     * Status code of a failure that does not carry one
+     */
+    public static final int NO_STATUS_CODE = -1;
+
+    // "API calling error. Please try again.", see healthkit_auth_fail_error_50011
+    private static final int API_CALLING_ERROR = 50011;
+
+    // Longer digit strings could overflow an int, they are treated as a plain message
+    private static final int MAX_STATUS_CODE_DIGITS = 9;
+
+    private static final FailureClassifier INSTANCE = new FailureClassifier();
+
+    // Status code to message, HiHealthStatusCodes is asked once per code
+    private final ConcurrentHashMap<Integer, String> statusCodeMessages = new ConcurrentHashMap<>();
+
+    // API name to failure counts, indexed by Category ordinal
+    private final ConcurrentHashMap<String, AtomicLongArray> failureCounts = new ConcurrentHashMap<>();
+
+    private FailureClassifier() {
+    }
+
+    /**
+     * Get the classifier shared by the activities and services of the app process.
+     *
+     * @return the classifier
+     */
+    public static FailureClassifier getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * How a failed request should be handled
+     */
+    public enum Category {
+        /**
+         * Temporary condition such as no network or a busy service, the request can be sent again later
+         */
+        RETRYABLE,
+
+        /**
+         * Sign in or authorization problem, the user must act before a new attempt can succeed
+         */
+        AUTH,
+
+        /**
+         * Invalid request, unknown error or interruption, the request must not be sent again
+         */
+        FATAL
+    }
+
+    /**
+     * Classify a failure and count it for its API.
+     *
+     * @param api name of the failed API
+     * @param exception failure reported by the task
+     * @return the classified failure
+     */
+    public Failure classify(String api, Exception exception) {
+        Throwable cause = unwrap(exception);
+        int statusCode = getStatusCode(cause);
+        Category category = statusCode == NO_STATUS_CODE ? categorizeByType(cause) : categorize(statusCode);
+        countFailure(api, category);
+        return new Failure(api, statusCode, cause.getMessage(), category);
+    }
+
+    /**
+     * Get the category of a failure without counting it, for example to decide whether to send a request again.
+     *
+     * @param failure failure reported by a task
+     * @return the category
+     */
+    public static Category categorize(Throwable failure) {
+        Throwable cause = unwrap(failure);
+        int statusCode = getStatusCode(cause);
+        return statusCode == NO_STATUS_CODE ? categorizeByType(cause) : categorize(statusCode);
+    }
+
+    /**
+     * Get the message of a status code, looked up once per code.
+     *
+     * @param statusCode status code of the Health Kit
+     * @return the message of HiHealthStatusCodes
+     */
+    public String getStatusCodeMessage(int statusCode) {
+        String message = statusCodeMessages.get(statusCode);
+        if (message == null) {
+            // ConcurrentHashMap does not hold null, an unknown code is kept as the text "null" that was printed
+            message = String.valueOf(HiHealthStatusCodes.getStatusCodeMessage(statusCode));
+            statusCodeMessages.putIfAbsent(statusCode, message);
+        }
+        return message;
+    }
+
+    /**
+     * Get the number of failures of an API.
+     *
+     * @param api name of the API
+     * @return the failures of all categories
+     */
+    public long getFailureCount(String api) {
+        AtomicLongArray counts = failureCounts.get(api);
+        if (counts == null) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Get the number of failures of an API in a category.
+     *
+     * @param api name of the API
+     * @param category category of the failures
+     * @return the failures of the category
+     */
+    public long getFailureCount(String api, Category category) {
+        AtomicLongArray counts = failureCounts.get(api);
+        return counts == null ? 0 : counts.get(category.ordinal());
+    }
+
+    /**
+     * Forget the failure counts, the message table is kept.
+     */
+    public void resetCounts() {
+        failureCounts.clear();
+    }
+
+    /**
+     * Get the failure counts per API, sorted by API name, for display.
+     *
+     * @return description of the counts
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("FailureClassifier{");
+        String separator = "";
+        for (Map.Entry<String, AtomicLongArray> entry : new TreeMap<>(failureCounts).entrySet()) {
+            builder.append(separator).append(entry.getKey()).append('=');
+            AtomicLongArray counts = entry.getValue();
+            for (Category category : Category.values()) {
+                builder.append(category == Category.RETRYABLE ? "[" : ", ")
+                    .append(category.name().toLowerCase(Locale.ENGLISH))
+                    .append(' ')
+                    .append(counts.get(category.ordinal()));
+            }
+            builder.append(']');
+            separator = ", ";
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Read a status code from a message made only of digits.
+     *
+     * @param message message of an exception, can be null
+     * @return the status code, or NO_STATUS_CODE if the message is not a number
+     */
+    public static int parseStatusCode(String message) {
+        if (message == null || message.isEmpty() || message.length() > MAX_STATUS_CODE_DIGITS) {
+            return NO_STATUS_CODE;
+        }
+        int statusCode = 0;
+        for (int i = 0; i < message.length(); i++) {
+            char digit = message.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return NO_STATUS_CODE;
+            }
+            statusCode = statusCode * 10 + (digit - '0');
+        }
+        return statusCode;
+    }
+
+    /**
+     * Get the category of a status code.
+     *
+     * @param statusCode status code of the Health Kit
+     * @return the category
+     */
+    public static Category categorize(int statusCode) {
+        if (statusCode == API_CALLING_ERROR) {
+            return Category.RETRYABLE;
+        }
+        switch (statusCode) {
+            case HiHealthStatusCodes.HUAWEI_ID_SIGNIN_ERROR:
+            case HiHealthStatusCodes.HEALTH_APP_NOT_AUTHORISED:
+            case HiHealthStatusCodes.UNKNOWN_AUTH_ERROR:
+            case HiHealthStatusCodes.NON_HEALTH_USER:
+            case HiHealthStatusCodes.UNTRUST_COUNTRY_CODE:
+                return Category.AUTH;
+            case HiHealthStatusCodes.NO_NETWORK:
+            case HiHealthStatusCodes.WORK_OUT_TIME_OUT:
+            case HiHealthStatusCodes.WORK_OUT_BE_OCCUPIED:
+                return Category.RETRYABLE;
+            default:
+                return Category.FATAL;
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        if (failure instanceof ExecutionException && failure.getCause() != null) {
+            return failure.getCause();
+        }
+        return failure;
+    }
+
+    private static int getStatusCode(Throwable cause) {
+        if (cause instanceof ApiException) {
+            return ((ApiException) cause).getStatusCode();
+        }
+        return parseStatusCode(cause.getMessage());
+    }
+
+    private static Category categorizeByType(Throwable cause) {
+        // An interrupted request was stopped on purpose, for example by a shutdown, it must not be sent again.
+        if (cause instanceof InterruptedException) {
+            return Category.FATAL;
+        }
+        if (cause instanceof IOException || cause instanceof TimeoutException) {
+            return Category.RETRYABLE;
+        }
+        if (cause instanceof SecurityException) {
+            return Category.AUTH;
+        }
+        return Category.FATAL;
+    }
+
+    private void countFailure(String api, Category category) {
+        AtomicLongArray counts = failureCounts.get(api);
+        if (counts == null) {
+            failureCounts.putIfAbsent(api, new AtomicLongArray(Category.values().length));
+            counts = failureCounts.get(api);
+        }
+        counts.incrementAndGet(category.ordinal());
+    }
+
+    /**
+     * A classified failure
+     */
+    public final class Failure {
+        private final String api;
+
+        private final int statusCode;
+
+        private final String message;
+
+        private final Category category;
+
+        private Failure(String api, int statusCode, String message, Category category) {
+            this.api = api;
+            this.statusCode = statusCode;
+            this.message = message;
+            this.category = category;
+        }
+
+        public String getApi() {
+            return api;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public boolean hasStatusCode() {
+            return statusCode != NO_STATUS_CODE;
+        }
+
+        public Category getCategory() {
+            return category;
+        }
+
+        public boolean isRetryable() {
+            return category == Category.RETRYABLE;
+        }
+
+        /**
+         * Get the log line of the failure: the API, the status code and its message, or the exception message.
+         *
+         * @return description of the failure
+         */
+        public String getDescription() {
+            if (hasStatusCode()) {
+                return api + " failure " + statusCode + ":" + getStatusCodeMessage(statusCode);
+            }
+            return api + " failure " + message;
+        }
+
+        @Override
+        public String toString() {
+            return getDescription() + " (" + category + ")";
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+/**
+ * Text output of SamplePoints shared by the activities. Kept free of Android classes, so that the benchmark module
+ * can measure the formatting loops on the JVM.
+ *
+ * @since 2026-10-18
+ */
+public final class SampleFormatUtil {
+    private SampleFormatUtil() {
+    }
+
+    /**
+     * Print the SamplePoints of a SampleSet, one line per call of the output.
+     *
+     * @param sampleSet sampling dataset
+     * @param output receiver of the lines, for example the logger of an activity
+     */
+    public static void showSampleSet(SampleSet sampleSet, Consumer<String> output) {
+        for (SamplePoint samplePoint : sampleSet.getSamplePoints()) {
+            showSamplePoint(samplePoint, output);
+        }
+    }
+
+    /**
+     * Print the type, the time interval and the field values of a SamplePoint.
+     *
+     * @param samplePoint sampling point
+     * @param output receiver of the lines, for example the logger of an activity
+     */
+    public static void showSamplePoint(SamplePoint samplePoint, Consumer<String> output) {
+        output.accept("Sample point type: " + samplePoint.getDataType().getName());
+        output.accept("Start: " + TimeFormatUtil.format(samplePoint.getStartTime(TimeUnit.MILLISECONDS)));
+        output.accept("End: " + TimeFormatUtil.format(samplePoint.getEndTime(TimeUnit.MILLISECONDS)));
+        for (Field field : samplePoint.getDataType().getFields()) {
+            output.accept("Field: " + field.getName() + " Value: " + samplePoint.getFieldValue(field));
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.util;
+
+import java.text.ParseException;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * Thread-safe formatting and parsing of "yyyy-MM-dd HH:mm:ss" timestamps in the default time zone.
+ * The "yyyy-MM-dd " prefix of the last formatted day is cached together with the start of that day, so formatting
+ * a timestamp of the same day only appends the time of day to the prefix, without Date, Calendar or
+ * SimpleDateFormat objects. Days with a time zone offset change are formatted with a thread-local Calendar.
+ * Call {@link #clearCache()} after the default time zone changes.
+ * The UTC timestamps of imported workout files are parsed by {@link #parseIso8601(String)}.
+ *
+ * @since 2026-10-18
+ */
+public final class TimeFormatUtil {
+    /**
+     * Pattern of the formatted timestamps
+     */
+    public static final String PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+    private static final int FORMATTED_LENGTH = PATTERN.length();
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    // Length of "yyyy-MM-ddTHH:mm:ss"
+    private static final int ISO_SECONDS_LENGTH = 19;
+
+    private static final ThreadLocal<Calendar> CALENDAR = new ThreadLocal<>();
+
+    // Time zone of the cached day and of the thread-local calendars
+    private static volatile TimeZone timeZone = TimeZone.getDefault();
+
+    // Immutable, replaced as a whole when another day is formatted
+    private static volatile DayPrefix cachedDay;
+
+    private TimeFormatUtil() {
+    }
+
+    /**
+     * Format a timestamp.
+     *
+     * @param timeMillis timestamp in milliseconds
+     * @return timestamp in "yyyy-MM-dd HH:mm:ss" format
+     */
+    public static String format(long timeMillis) {
+        return formatTo(timeMillis, new StringBuilder(FORMATTED_LENGTH)).toString();
+    }
+
+    /**
+     * Append a formatted timestamp to a reusable StringBuilder.
+     *
+     * @param timeMillis timestamp in milliseconds
+     * @param builder builder to append to
+     * @return the builder
+     */
+    public static StringBuilder formatTo(long timeMillis, StringBuilder builder) {
+        DayPrefix day = cachedDay;
+        if (day == null || timeMillis < day.start || timeMillis >= day.end || day.zone != timeZone) {
+            day = DayPrefix.of(timeMillis);
+            if (day == null) {
+                return formatWithCalendar(timeMillis, builder);
+            }
+            cachedDay = day;
+        }
+        int secondOfDay = (int) ((timeMillis - day.start) / MILLIS_PER_SECOND);
+        builder.append(day.prefix);
+        appendTwoDigits(builder, secondOfDay / 3600);
+        builder.append(':');
+        appendTwoDigits(builder, secondOfDay / 60 % 60);
+        builder.append(':');
+        appendTwoDigits(builder, secondOfDay % 60);
+        return builder;
+    }
+
+    /**
+     * Parse a timestamp.
+     *
+     * @param text timestamp in "yyyy-MM-dd HH:mm:ss" format
+     * @return timestamp in milliseconds
+     * @throws ParseException if the text does not match the pattern or is not a valid time
+     */
+    public static long parse(String text) throws ParseException {
+        if (text == null || text.length() != FORMATTED_LENGTH || text.charAt(4) != '-' || text.charAt(7) != '-'
+            || text.charAt(10) != ' ' || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            throw new ParseException("Unparseable date: \"" + text + "\"", 0);
+        }
+        Calendar calendar = calendar();
+        calendar.clear();
+        calendar.set(parseDigits(text, 0, 4), parseDigits(text, 5, 2) - 1, parseDigits(text, 8, 2),
+            parseDigits(text, 11, 2), parseDigits(text, 14, 2), parseDigits(text, 17, 2));
+        // Reject out of range fields such as "2020-02-30" instead of rolling them over.
+        calendar.setLenient(false);
+        try {
+            return calendar.getTimeInMillis();
+        } catch (IllegalArgumentException e) {
+            throw new ParseException("Unparseable date: \"" + text + "\"", 0);
+        } finally {
+            calendar.setLenient(true);
+        }
+    }
+
+    /**
+     * Parse an ISO 8601 timestamp as written in GPX and TCX files, such as "2020-08-28T07:30:00Z",
+     * "2020-08-28T07:30:00.250+02:00" or "2020-08-28T07:30:00". A timestamp without offset is read as UTC.
+     * Fractions of a second beyond the millisecond are ignored.
+     *
+     * @param text ISO 8601 timestamp
+     * @return timestamp in milliseconds
+     * @throws ParseException if the text is not an ISO 8601 timestamp or not a valid time
+     */
+    public static long parseIso8601(String text) throws ParseException {
+        String value = text == null ? "" : text.trim();
+        int length = value.length();
+        if (length < ISO_SECONDS_LENGTH || value.charAt(4) != '-' || value.charAt(7) != '-'
+            || (value.charAt(10) != 'T' && value.charAt(10) != ' ') || value.charAt(13) != ':'
+            || value.charAt(16) != ':') {
+            throw new ParseException("Unparseable date: \"" + text + "\"", 0);
+        }
+        int year = parseDigits(value, 0, 4);
+        int month = parseDigits(value, 5, 2);
+        int day = parseDigits(value, 8, 2);
+        int hour = parseDigits(value, 11, 2);
+        int minute = parseDigits(value, 14, 2);
+        int second = parseDigits(value, 17, 2);
+        int index = ISO_SECONDS_LENGTH;
+        long millis = 0;
+        if (index < length && value.charAt(index) == '.') {
+            index++;
+            int digits = 0;
+            while (index < length && value.charAt(index) >= '0' && value.charAt(index) <= '9') {
+                if (digits < 3) {
+                    millis = millis * 10 + (value.charAt(index) - '0');
+                    digits++;
+                }
+                index++;
+            }
+            if (digits == 0) {
+                throw new ParseException("Unparseable date: \"" + text + "\"", index);
+            }
+            for (; digits < 3; digits++) {
+                millis *= 10;
+            }
+        }
+        int offsetMinutes = 0;
+        if (index < length) {
+            char sign = value.charAt(index);
+            if (sign == 'Z' && index + 1 == length) {
+                index++;
+            } else if ((sign == '+' || sign == '-') && (length == index + 6 && value.charAt(index + 3) == ':'
+                || length == index + 5)) {
+                int offsetHours = parseDigits(value, index + 1, 2);
+                offsetMinutes = offsetHours * 60 + parseDigits(value, length - 2, 2);
+                if (sign == '-') {
+                    offsetMinutes = -offsetMinutes;
+                }
+                index = length;
+            } else {
+                throw new ParseException("Unparseable date: \"" + text + "\"", index);
+            }
+        }
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || hour > 23 || minute > 59
+            || second > 59) {
+            throw new ParseException("Unparseable date: \"" + text + "\"", 0);
+        }
+        long days = daysFromCivil(year, month, day);
+        long seconds = ((days * 24 + hour) * 60 + minute) * 60 + second - offsetMinutes * 60L;
+        return seconds * MILLIS_PER_SECOND + millis;
+    }
+
+    /**
+     * Drop the cached day and pick up the current default time zone. Call it after the time zone has changed.
+     */
+    public static void clearCache() {
+        timeZone = TimeZone.getDefault();
+        cachedDay = null;
+    }
+
+    private static Calendar calendar() {
+        TimeZone zone = timeZone;
+        Calendar calendar = CALENDAR.get();
+        // Calendars of this thread created before clearCache() keep the old zone, replace them.
+        if (calendar == null || !zone.equals(calendar.getTimeZone())) {
+            calendar = new GregorianCalendar(zone);
+            CALENDAR.set(calendar);
+        }
+        return calendar;
+    }
+
+    private static StringBuilder formatWithCalendar(long timeMillis, StringBuilder builder) {
+        Calendar calendar = calendar();
+        calendar.setTimeInMillis(timeMillis);
+        appendDate(builder, calendar);
+        appendTwoDigits(builder, calendar.get(Calendar.HOUR_OF_DAY));
+        builder.append(':');
+        appendTwoDigits(builder, calendar.get(Calendar.MINUTE));
+        builder.append(':');
+        appendTwoDigits(builder, calendar.get(Calendar.SECOND));
+        return builder;
+    }
+
+    private static void appendDate(StringBuilder builder, Calendar calendar) {
+        int year = calendar.get(Calendar.YEAR);
+        if (year < 1000) {
+            builder.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        }
+        builder.append(year).append('-');
+        appendTwoDigits(builder, calendar.get(Calendar.MONTH) + 1);
+        builder.append('-');
+        appendTwoDigits(builder, calendar.get(Calendar.DAY_OF_MONTH));
+        builder.append(' ');
+    }
+
+    private static void appendTwoDigits(StringBuilder builder, int value) {
+        builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    // Days from 1970-01-01 to a date of the proleptic Gregorian calendar
+    private static long daysFromCivil(int year, int month, int day) {
+        int shiftedYear = month <= 2 ? year - 1 : year;
+        int era = (shiftedYear >= 0 ? shiftedYear : shiftedYear - 399) / 400;
+        int yearOfEra = shiftedYear - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static int parseDigits(String text, int offset, int length) throws ParseException {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new ParseException("Unparseable date: \"" + text + "\"", i);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static final class DayPrefix {
+        private final TimeZone zone;
+
+        private final long start;
+
+        private final long end;
+
+        private final String prefix;
+
+        private DayPrefix(TimeZone zone, long start, long end, String prefix) {
+            this.zone = zone;
+            this.start = start;
+            this.end = end;
+            this.prefix = prefix;
+        }
+
+        /**
+         * Build the prefix of the day containing the timestamp.
+         *
+         * @param timeMillis timestamp in milliseconds
+         * @return the day prefix, or null if the offset changes during the day
+         */
+        static DayPrefix of(long timeMillis) {
+            TimeZone zone = timeZone;
+            Calendar calendar = calendar();
+            calendar.setTimeInMillis(timeMillis);
+            setMidnight(calendar);
+            long start = calendar.getTimeInMillis();
+            // On some days midnight is skipped by a daylight saving change and the day starts at 01:00.
+            boolean startsAtMidnight = calendar.get(Calendar.HOUR_OF_DAY) == 0;
+            int startOffset = calendar.get(Calendar.ZONE_OFFSET) + calendar.get(Calendar.DST_OFFSET);
+            StringBuilder prefix = new StringBuilder(11);
+            appendDate(prefix, calendar);
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+            setMidnight(calendar);
+            long end = calendar.getTimeInMillis();
+            int endOffset = calendar.get(Calendar.ZONE_OFFSET) + calendar.get(Calendar.DST_OFFSET);
+            // Wall clock time is the offset from the start of the day only if the day is exactly 24 hours long.
+            if (!startsAtMidnight || startOffset != endOffset || end - start != 86400000L) {
+                return null;
+            }
+            return new DayPrefix(zone, start, end, prefix.toString());
+        }
+
+        private static void setMidnight(Calendar calendar) {
+            calendar.set(Calendar.HOUR_OF_DAY, 0);
+            calendar.set(Calendar.MINUTE, 0);
+            calendar.set(Calendar.SECOND, 0);
+            calendar.set(Calendar.MILLISECOND, 0);
+        }
+    }
+}
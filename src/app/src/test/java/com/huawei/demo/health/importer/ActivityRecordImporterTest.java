@@ -0,0 +1,253 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.importer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Runs ActivityRecordImporter against FakeActivityRecordsController: the request limit, the accepted and rejected
+ * files, and the release of the permits when the importer is shut down in the middle of an import.
+ *
+ * @since 2026-10-18
+ */
+public class ActivityRecordImporterTest {
+    private static final long START_TIME = 1598599800000L;
+
+    private static final int MAX_IN_FLIGHT = 2;
+
+    // Seconds between 1970-01-01 and 1989-12-31, the epoch of the FIT timestamps
+    private static final long FIT_EPOCH_OFFSET_SECONDS = 631065600L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeActivityRecordsController controller;
+
+    private ActivityRecordImporter importer;
+
+    @After
+    public void tearDown() {
+        if (importer != null) {
+            importer.shutdown();
+        }
+        if (controller != null) {
+            controller.shutdown();
+        }
+    }
+
+    @Test
+    public void importFilesAcceptsValidFilesAndRejectsMalformedOnes() throws Exception {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            files.add(writeGpx("run" + i + ".gpx", 600, START_TIME + TimeUnit.DAYS.toMillis(i)));
+            files.add(writeTcx("ride" + i + ".tcx", 300, START_TIME + TimeUnit.DAYS.toMillis(i) + 3600000L));
+            files.add(writeFit("swim" + i + ".fit", 200, START_TIME + TimeUnit.DAYS.toMillis(i) + 7200000L, false));
+        }
+        files.add(writeText("broken.gpx", "<gpx><trk><trkseg><trkpt lat=\"1\" lon=\"2\"><time>bad</time></trkpt>"));
+        files.add(writeText("broken.tcx", "<TrainingCenterDatabase><Activities><Activity Sport=\"Running\">"));
+        files.add(writeFit("broken.fit", 200, START_TIME, true));
+        files.add(writeText("notes.txt", "not a workout"));
+
+        controller = new FakeActivityRecordsController(10L);
+        importer = new ActivityRecordImporter(controller, new WorkoutMapper("com.huawei.healthkit.demo"), 2,
+            MAX_IN_FLIGHT);
+        List<String> failed = new ArrayList<>();
+        importer.setListener(new ActivityRecordImporter.Listener() {
+            @Override
+            public void onFileImported(File file, ActivityRecordImporter.Stats stats) {
+            }
+
+            @Override
+            public void onFileFailed(File file, Exception e) {
+                synchronized (failed) {
+                    failed.add(file.getName());
+                }
+            }
+        });
+
+        ActivityRecordImporter.Stats stats = importer.importFiles(files);
+
+        assertEquals(13, stats.getFilesSubmitted());
+        assertEquals(9, stats.getRecordsInserted());
+        assertEquals(4, stats.getFilesRejected());
+        assertEquals(0, stats.getRecordsFailed());
+        assertEquals(9, controller.getAccepted());
+        // Malformed files are rejected by the importer, they never reach the controller.
+        assertEquals(0, controller.getRejected());
+        synchronized (failed) {
+            assertEquals(Arrays.asList("broken.fit", "broken.gpx", "broken.tcx", "notes.txt"), sorted(failed));
+        }
+        assertTrue(controller.getMaxRunning() <= MAX_IN_FLIGHT);
+    }
+
+    @Test
+    public void importFilesKeepsAtMostMaxInFlightRequestsRunning() throws Exception {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            files.add(writeGpx("run" + i + ".gpx", 120, START_TIME + TimeUnit.DAYS.toMillis(i)));
+        }
+        controller = new FakeActivityRecordsController(20L);
+        importer = new ActivityRecordImporter(controller, new WorkoutMapper("com.huawei.healthkit.demo"), 4,
+            MAX_IN_FLIGHT);
+
+        ActivityRecordImporter.Stats stats = importer.importFiles(files);
+
+        assertEquals(20, stats.getRecordsInserted());
+        assertEquals(MAX_IN_FLIGHT, controller.getMaxRunning());
+    }
+
+    @Test
+    public void shutdownDuringImportReleasesThePermits() throws Exception {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            files.add(writeGpx("run" + i + ".gpx", 120, START_TIME + TimeUnit.DAYS.toMillis(i)));
+        }
+        controller = new FakeActivityRecordsController(200L);
+        importer = new ActivityRecordImporter(controller, new WorkoutMapper("com.huawei.healthkit.demo"), 2,
+            MAX_IN_FLIGHT);
+        AtomicReference<ActivityRecordImporter.Stats> result = new AtomicReference<>();
+        Thread importThread = new Thread(() -> {
+            try {
+                result.set(importer.importFiles(files));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        importThread.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (controller.getMaxRunning() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5L);
+        }
+
+        importer.shutdown();
+        importThread.join(TimeUnit.SECONDS.toMillis(5));
+
+        // importFiles only returns once every permit of the pending files is back.
+        assertFalse(importThread.isAlive());
+        ActivityRecordImporter.Stats stats = result.get();
+        assertTrue(stats.getRecordsInserted() + stats.getRecordsFailed() + stats.getFilesRejected() < 40);
+        assertTrue(controller.getMaxRunning() <= MAX_IN_FLIGHT);
+    }
+
+    private static List<String> sorted(List<String> names) {
+        List<String> copy = new ArrayList<>(names);
+        copy.sort(null);
+        return copy;
+    }
+
+    private File writeGpx(String name, int points, long startTime) throws IOException {
+        StringBuilder builder = new StringBuilder("<?xml version=\"1.0\"?>")
+            .append("<gpx version=\"1.1\" xmlns=\"http://www.topografix.com/GPX/1/1\">")
+            .append("<trk><name>Morning Run</name><type>running</type><trkseg>");
+        for (int i = 0; i < points; i++) {
+            builder.append("<trkpt lat=\"").append(52.0 + i * 0.00001).append("\" lon=\"13.0\"><ele>30</ele><time>")
+                .append(iso(startTime + i * 1000L)).append("</time></trkpt>");
+        }
+        builder.append("</trkseg></trk></gpx>");
+        return writeText(name, builder.toString());
+    }
+
+    private File writeTcx(String name, int points, long startTime) throws IOException {
+        StringBuilder builder = new StringBuilder("<?xml version=\"1.0\"?>")
+            .append("<TrainingCenterDatabase xmlns=\"http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v2\">")
+            .append("<Activities><Activity Sport=\"Biking\"><Id>").append(iso(startTime)).append("</Id>")
+            .append("<Lap StartTime=\"").append(iso(startTime)).append("\"><TotalTimeSeconds>").append(points)
+            .append("</TotalTimeSeconds><DistanceMeters>").append(points * 5).append("</DistanceMeters><Track>");
+        for (int i = 0; i < points; i++) {
+            builder.append("<Trackpoint><Time>").append(iso(startTime + i * 1000L)).append("</Time><DistanceMeters>")
+                .append(i * 5.0).append("</DistanceMeters><HeartRateBpm><Value>130</Value></HeartRateBpm>")
+                .append("</Trackpoint>");
+        }
+        builder.append("</Track></Lap></Activity></Activities></TrainingCenterDatabase>");
+        return writeText(name, builder.toString());
+    }
+
+    /**
+     * A FIT file of record messages with a timestamp, position, heart rate and distance. A truncated file misses
+     * the end of its data and its CRC.
+     */
+    private File writeFit(String name, int points, long startTime, boolean truncated) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        // Definition of local message 0: record with timestamp, lat, long, heart_rate, distance
+        data.write(new byte[] {0x40, 0, 0, 20, 0, 5});
+        data.write(new byte[] {(byte) 253, 4, (byte) 0x86, 0, 4, (byte) 0x85, 1, 4, (byte) 0x85, 3, 1, 2, 5, 4,
+            (byte) 0x86});
+        long fitStart = startTime / 1000L - FIT_EPOCH_OFFSET_SECONDS;
+        for (int i = 0; i < points; i++) {
+            ByteBuffer record = ByteBuffer.allocate(18).order(ByteOrder.LITTLE_ENDIAN);
+            record.put((byte) 0).putInt((int) (fitStart + i)).putInt((int) (52.0 / (180d / (1L << 31))))
+                .putInt((int) (13.0 / (180d / (1L << 31)))).put((byte) 140).putInt(i * 300);
+            data.write(record.array());
+        }
+        byte[] body = data.toByteArray();
+        ByteBuffer header = ByteBuffer.allocate(14).order(ByteOrder.LITTLE_ENDIAN);
+        header.put((byte) 14).put((byte) 0x20).putShort((short) 2132).putInt(body.length)
+            .put(".FIT".getBytes(StandardCharsets.US_ASCII)).putShort((short) 0);
+        File file = folder.newFile(name);
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write(header.array());
+            if (truncated) {
+                output.write(body, 0, body.length - 5);
+            } else {
+                output.write(body);
+                output.write(new byte[2]);
+            }
+        }
+        return file;
+    }
+
+    private File writeText(String name, String text) throws IOException {
+        File file = folder.newFile(name);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(text);
+        }
+        return file;
+    }
+
+    private static String iso(long time) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(time));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.importer;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.huawei.hmf.tasks.Task;
+import com.huawei.hmf.tasks.TaskCompletionSource;
+import com.huawei.hms.hihealth.options.ActivityRecordInsertOptions;
+
+/**
+ * JVM test stand-in of ActivityRecordsController.addActivityRecord. A request is checked with WorkoutMapper.check,
+ * and its task completes after a fixed latency on a timer thread, so that the pipelining of the importer is
+ * exercised. Nothing is stored.
+ *
+ * @since 2026-10-18
+ */
+public class FakeActivityRecordsController implements ActivityRecordImporter.Sink {
+    private final long latencyMillis;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "FakeActivityRecordsController");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong accepted = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    /**
+     * Create a fake.
+     *
+     * @param latencyMillis time before a request completes
+     */
+    public FakeActivityRecordsController(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public Task<Void> addActivityRecord(ActivityRecordInsertOptions options) {
+        TaskCompletionSource<Void> source = new TaskCompletionSource<>();
+        String error = WorkoutMapper.check(options);
+        int now = running.incrementAndGet();
+        maxRunning.accumulateAndGet(now, Math::max);
+        timer.schedule(() -> {
+            running.decrementAndGet();
+            if (error == null) {
+                accepted.incrementAndGet();
+                source.setResult(null);
+            } else {
+                rejected.incrementAndGet();
+                source.setException(new IllegalArgumentException(error));
+            }
+        }, latencyMillis, TimeUnit.MILLISECONDS);
+        return source.getTask();
+    }
+
+    /**
+     * Stop the timer thread.
+     */
+    public void shutdown() {
+        timer.shutdown();
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Get the highest number of requests that were running at the same time.
+     *
+     * @return maximum concurrency seen
+     */
+    public int getMaxRunning() {
+        return maxRunning.get();
+    }
+}
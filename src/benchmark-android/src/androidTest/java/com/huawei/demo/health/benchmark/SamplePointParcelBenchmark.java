@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Parcel;
+import android.util.Log;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.huawei.demo.health.data.SampleCodec;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+/**
+ * Measure the Intent parceling of a SamplePoint, as PersistService broadcasted every point reported by the
+ * AutoRecorderController to another process, against the SampleCodec bytes it broadcasts now.
+ *
+ * @since 2026-10-18
+ */
+@RunWith(AndroidJUnit4.class)
+public class SamplePointParcelBenchmark {
+    private static final String TAG = "SamplePointParcelBenchmark";
+
+    private static final String EXTRA_SAMPLE_POINT = "SamplePoint";
+
+    private static final String EXTRA_ENCODED_SAMPLE_POINT = "EncodedSamplePoint";
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private SamplePoint samplePoint;
+
+    private SampleSet sampleSet;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        DataCollector dataCollector = new DataCollector.Builder().setPackageName(context)
+            .setDataType(DataType.DT_CONTINUOUS_STEPS_TOTAL)
+            .setDataGenerateType(DataCollector.DATA_TYPE_RAW)
+            .build();
+        long now = System.currentTimeMillis();
+        samplePoint = new SamplePoint.Builder(dataCollector).build()
+            .setTimeInterval(now - TimeUnit.MINUTES.toMillis(1), now, TimeUnit.MILLISECONDS);
+        samplePoint.getFieldValue(Field.FIELD_STEPS).setIntValue(1024);
+        sampleSet = SampleSet.create(dataCollector);
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeParcelable(samplePoint, 0);
+            Log.i(TAG, "parcel " + parcel.dataSize() + " bytes, codec " + SampleCodec.encode(samplePoint).length
+                + " bytes");
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    /**
+     * Sender and receiver side of a broadcast: the Intent is written to a Parcel, read back and the point unpacked.
+     */
+    @Test
+    public void intentRoundTrip() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            Intent intent = new Intent();
+            intent.putExtra(EXTRA_SAMPLE_POINT, samplePoint);
+            Parcel parcel = Parcel.obtain();
+            try {
+                intent.writeToParcel(parcel, 0);
+                parcel.setDataPosition(0);
+                Intent received = Intent.CREATOR.createFromParcel(parcel);
+                received.setExtrasClassLoader(SamplePoint.class.getClassLoader());
+                if (received.getParcelableExtra(EXTRA_SAMPLE_POINT) == null) {
+                    throw new IllegalStateException("SamplePoint lost in the round trip");
+                }
+            } finally {
+                parcel.recycle();
+            }
+        }
+    }
+
+    /**
+     * The SamplePoint alone, without the Intent and Bundle around it.
+     */
+    @Test
+    public void parcelRoundTrip() {
+        BenchmarkState state = benchmarkRule.getState();
+        ClassLoader classLoader = SamplePoint.class.getClassLoader();
+        while (state.keepRunning()) {
+            Parcel parcel = Parcel.obtain();
+            try {
+                parcel.writeParcelable(samplePoint, 0);
+                parcel.setDataPosition(0);
+                if (parcel.readParcelable(classLoader) == null) {
+                    throw new IllegalStateException("SamplePoint lost in the round trip");
+                }
+            } finally {
+                parcel.recycle();
+            }
+        }
+    }
+
+    /**
+     * Same round trip as intentRoundTrip with the point encoded by the SampleCodec into a byte array extra, and
+     * decoded into a new SamplePoint on the receiver side.
+     */
+    @Test
+    public void intentCodecRoundTrip() {
+        BenchmarkState state = benchmarkRule.getState();
+        SampleCodec.Decoder decoder = new SampleCodec.Decoder();
+        while (state.keepRunning()) {
+            Intent intent = new Intent();
+            intent.putExtra(EXTRA_ENCODED_SAMPLE_POINT, SampleCodec.encode(samplePoint));
+            Parcel parcel = Parcel.obtain();
+            try {
+                intent.writeToParcel(parcel, 0);
+                parcel.setDataPosition(0);
+                Intent received = Intent.CREATOR.createFromParcel(parcel);
+                ByteBuffer buffer = ByteBuffer.wrap(received.getByteArrayExtra(EXTRA_ENCODED_SAMPLE_POINT));
+                if (!SampleCodec.readHeader(buffer) || !decoder.reset().wrap(buffer).next()
+                    || decoder.toSamplePoint(sampleSet) == null) {
+                    throw new IllegalStateException("SamplePoint lost in the round trip");
+                }
+            } finally {
+                parcel.recycle();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.huawei.demo.health.util.SampleFormatUtil;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+/**
+ * Device counterpart of the JVM SampleBuildBenchmark and SampleFormatBenchmark, with the real Health Kit classes.
+ * Nothing is sent to the Health platform.
+ *
+ * @since 2026-10-18
+ */
+@RunWith(AndroidJUnit4.class)
+public class SampleSetBenchmark {
+    // One day of 5-minute points
+    private static final int POINTS = 288;
+
+    private static final long INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Context context;
+
+    private long startTime;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        startTime = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+    }
+
+    /**
+     * Same steps as insertData, for one day of DT_CONTINUOUS_STEPS_DELTA points.
+     */
+    @Test
+    public void buildSampleSet() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            buildStepsSampleSet();
+        }
+    }
+
+    /**
+     * The showSampleSet loop of the activities, without the log console.
+     */
+    @Test
+    public void showSampleSet() {
+        SampleSet sampleSet = buildStepsSampleSet();
+        // Consume the lines so that their construction is not optimized away
+        int[] length = new int[1];
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            SampleFormatUtil.showSampleSet(sampleSet, line -> length[0] += line.length());
+        }
+    }
+
+    private SampleSet buildStepsSampleSet() {
+        DataCollector dataCollector = new DataCollector.Builder().setPackageName(context)
+            .setDataType(DataType.DT_CONTINUOUS_STEPS_DELTA)
+            .setDataStreamName("STEPS_DELTA")
+            .setDataGenerateType(DataCollector.DATA_TYPE_RAW)
+            .build();
+        SampleSet sampleSet = SampleSet.create(dataCollector);
+        for (int i = 0; i < POINTS; i++) {
+            long pointStart = startTime + i * INTERVAL;
+            SamplePoint samplePoint =
+                sampleSet.createSamplePoint().setTimeInterval(pointStart, pointStart + INTERVAL, TimeUnit.MILLISECONDS);
+            samplePoint.getFieldValue(Field.FIELD_STEPS_DELTA).setIntValue(1000);
+            samplePoint.addMetadata("motion_type", "RUN");
+            sampleSet.addSample(samplePoint);
+        }
+        return sampleSet;
+    }
+}
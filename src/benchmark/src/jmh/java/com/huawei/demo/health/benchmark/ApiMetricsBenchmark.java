@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.huawei.demo.health.metrics.ApiMetrics;
+import com.huawei.demo.health.metrics.Histogram;
+
+/**
+ * Measure the cost that the metrics add to the completion of every API call, on one thread and on four threads
+ * recording into the same series, and the cost of a snapshot.
+ * The gc profiler shows that recording does not allocate.
+ *
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+public class ApiMetricsBenchmark {
+    private static final String API = "readTodaySummation";
+
+    private static final String DATA_TYPE = "com.huawei.continuous.steps.delta";
+
+    private final ApiMetrics metrics = new ApiMetrics();
+
+    private final Histogram histogram = new Histogram(600_000_000_000L);
+
+    /**
+     * Record a latency of 1 to 100 ms.
+     */
+    @Benchmark
+    @Threads(1)
+    public void histogramRecord() {
+        histogram.record(ThreadLocalRandom.current().nextLong(1_000_000L, 100_000_000L));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void histogramRecordContended() {
+        histogram.record(ThreadLocalRandom.current().nextLong(1_000_000L, 100_000_000L));
+    }
+
+    /**
+     * Record a successful call: series lookup, counters and both histograms.
+     */
+    @Benchmark
+    @Threads(1)
+    public void recordSuccess() {
+        metrics.recordSuccess(API, DATA_TYPE, ThreadLocalRandom.current().nextLong(1_000_000L, 100_000_000L), 24);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordSuccessContended() {
+        metrics.recordSuccess(API, DATA_TYPE, ThreadLocalRandom.current().nextLong(1_000_000L, 100_000_000L), 24);
+    }
+
+    /**
+     * Copy the histogram and read the percentiles printed by the dump.
+     */
+    @Benchmark
+    @Threads(1)
+    public long snapshotPercentiles() {
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        return snapshot.getValueAtPercentile(50) + snapshot.getValueAtPercentile(90)
+            + snapshot.getValueAtPercentile(99);
+    }
+}
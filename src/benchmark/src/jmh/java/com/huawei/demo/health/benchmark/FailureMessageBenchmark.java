@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.benchmark;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.huawei.demo.health.util.FailureClassifier;
+import com.huawei.hms.common.ApiException;
+import com.huawei.hms.hihealth.HiHealthStatusCodes;
+
+/**
+ * Measure the handling of a failure by CommonUtil.printFailureMessage, without the log output:
+ * the regex and uncached message lookup it used to do, against the FailureClassifier it uses now.
+ *
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+public class FailureMessageBenchmark {
+    private static final String API = "insert";
+
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("[0-9]*");
+
+    // A status code in an ApiException, a status code as the message of a failed task, and a plain error text
+    @Param({"api", "code", "text"})
+    private String failure;
+
+    private Exception exception;
+
+    @Setup
+    public void setUp() {
+        if ("api".equals(failure)) {
+            exception = new ApiException(HiHealthStatusCodes.UNKNOWN_AUTH_ERROR);
+        } else if ("code".equals(failure)) {
+            exception = new Exception(Integer.toString(HiHealthStatusCodes.NO_NETWORK));
+        } else {
+            exception = new Exception("Internal error: the request could not be processed");
+        }
+    }
+
+    /**
+     * Previous approach: the pattern is compiled and the message looked up for every failure.
+     */
+    @Benchmark
+    public String patternPerCall() {
+        String errorCode = exception.getMessage();
+        Pattern pattern = Pattern.compile("[0-9]*");
+        Matcher isNum = pattern.matcher(errorCode);
+        if (exception instanceof ApiException) {
+            int eCode = ((ApiException) exception).getStatusCode();
+            return API + " failure " + eCode + ":" + HiHealthStatusCodes.getStatusCodeMessage(eCode);
+        } else if (isNum.matches()) {
+            String errorMsg = HiHealthStatusCodes.getStatusCodeMessage(Integer.parseInt(errorCode));
+            return API + " failure " + errorCode + ":" + errorMsg;
+        }
+        return API + " failure " + errorCode;
+    }
+
+    /**
+     * Reference: the same steps with the pattern compiled once.
+     */
+    @Benchmark
+    public String precompiledPattern() {
+        String errorCode = exception.getMessage();
+        if (exception instanceof ApiException) {
+            int eCode = ((ApiException) exception).getStatusCode();
+            return API + " failure " + eCode + ":" + HiHealthStatusCodes.getStatusCodeMessage(eCode);
+        } else if (NUMBER_PATTERN.matcher(errorCode).matches()) {
+            String errorMsg = HiHealthStatusCodes.getStatusCodeMessage(Integer.parseInt(errorCode));
+            return API + " failure " + errorCode + ":" + errorMsg;
+        }
+        return API + " failure " + errorCode;
+    }
+
+    /**
+     * Current approach: digit scan, memoized message and per-API counting.
+     */
+    @Benchmark
+    public String failureClassifier() {
+        return FailureClassifier.getInstance().classify(API, exception).getDescription();
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.huawei.demo.health.export.HealthExportReader;
+import com.huawei.demo.health.export.HealthExportRequestBody;
+import com.huawei.demo.health.export.HealthExportWriter;
+import com.huawei.demo.health.export.SamplePointTypeAdapter;
+import com.huawei.demo.health.export.SampleSetTypeAdapter;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Throughput of the streaming export of SampleSets: to a file, back from the file, and uploaded with a
+ * HealthExportRequestBody to a MockWebServer on the loopback interface, so the benchmark runs offline.
+ * Each day of history is a SampleSet of minute heart rates and a SampleSet of minute step deltas. The bytes
+ * counter gives the throughput in bytes per second next to the exports per second.
+ *
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HealthExportBenchmark {
+    private static final int MINUTES_PER_DAY = 1440;
+
+    // Days of history in one export
+    @Param({"1", "30"})
+    private int days;
+
+    private final List<SampleSet> sampleSets = new ArrayList<>();
+
+    private Gson gson;
+
+    private HealthExportWriter.Content content;
+
+    private File file;
+
+    private long exportBytes;
+
+    private MockWebServer server;
+
+    private OkHttpClient client;
+
+    /**
+     * Bytes exported, reported by JMH as a rate
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SamplePointTypeAdapter samplePointAdapter = new SamplePointTypeAdapter(
+            Arrays.asList(DataType.DT_INSTANTANEOUS_HEART_RATE, DataType.DT_CONTINUOUS_STEPS_DELTA));
+        gson = new GsonBuilder().registerTypeAdapter(SampleSet.class, new SampleSetTypeAdapter(samplePointAdapter))
+            .create();
+        long startTime = TimeUnit.DAYS.toMillis(18501);
+        sampleSets.clear();
+        for (int day = 0; day < days; day++) {
+            SampleSet heartRate = SampleSet.create(dataCollector(DataType.DT_INSTANTANEOUS_HEART_RATE));
+            SampleSet steps = SampleSet.create(dataCollector(DataType.DT_CONTINUOUS_STEPS_DELTA));
+            for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+                long time = startTime + TimeUnit.DAYS.toMillis(day) + TimeUnit.MINUTES.toMillis(minute);
+                SamplePoint heartRatePoint = heartRate.createSamplePoint().setSamplingTime(time, TimeUnit.MILLISECONDS);
+                heartRatePoint.getFieldValue(Field.FIELD_BPM).setFloatValue(60 + minute % 70);
+                heartRate.addSample(heartRatePoint);
+                SamplePoint stepsPoint = steps.createSamplePoint()
+                    .setTimeInterval(time, time + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+                stepsPoint.getFieldValue(Field.FIELD_STEPS_DELTA).setIntValue(minute % 120);
+                steps.addSample(stepsPoint);
+            }
+            sampleSets.add(heartRate);
+            sampleSets.add(steps);
+        }
+        content = writer -> {
+            writer.beginSection(HealthExportWriter.SECTION_SAMPLE_SETS);
+            for (SampleSet sampleSet : sampleSets) {
+                writer.write(sampleSet, SampleSet.class);
+            }
+        };
+        file = File.createTempFile("health-export", ".json");
+        HealthExportWriter.writeFile(file, gson, content);
+        exportBytes = file.length();
+        System.out.println(days + " days, " + exportBytes + " bytes");
+
+        server = new MockWebServer();
+        // The server keeps every request it received, without the body the heap stays flat over the iterations
+        // and the gc profiler measures the upload. The body size is still counted in full.
+        server.setBodyLimit(0L);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                // The body was read to the end by the server, only its size is checked.
+                return new MockResponse().setResponseCode(request.getBodySize() == exportBytes ? 200 : 400);
+            }
+        });
+        server.start();
+        client = new OkHttpClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.shutdown();
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public long exportToFile(Bytes bytes) throws IOException {
+        long written = HealthExportWriter.writeFile(file, gson, content);
+        bytes.bytes += exportBytes;
+        return written;
+    }
+
+    @Benchmark
+    public long importFromFile(Bytes bytes) throws IOException {
+        long[] points = new long[1];
+        try (HealthExportReader reader = new HealthExportReader(new BufferedReader(
+            new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)), gson)) {
+            reader.on(HealthExportWriter.SECTION_SAMPLE_SETS, SampleSet.class,
+                sampleSet -> points[0] += sampleSet.getSamplePoints().size());
+            reader.read();
+        }
+        bytes.bytes += exportBytes;
+        return points[0];
+    }
+
+    @Benchmark
+    public int uploadToMockServer(Bytes bytes) throws IOException {
+        Request request = new Request.Builder().url(server.url("/export"))
+            .post(new HealthExportRequestBody(gson, content))
+            .build();
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("upload failed: " + response.code());
+            }
+            bytes.bytes += exportBytes;
+            return response.code();
+        }
+    }
+
+    private static DataCollector dataCollector(DataType dataType) {
+        return new DataCollector.Builder().setPackageName("com.huawei.healthkit.demo")
+            .setDataType(dataType)
+            .setDataStreamName("HISTORY")
+            .setDataGenerateType(DataCollector.DATA_TYPE_RAW)
+            .build();
+    }
+}
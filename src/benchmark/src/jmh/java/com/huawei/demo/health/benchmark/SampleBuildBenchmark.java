@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.huawei.demo.health.benchmark.fake.FakeDataController;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+/**
+ * Build SamplePoints and SampleSets the way insertData and addActivityRecord do, against the JVM fakes of the
+ * Health Kit data classes and a fake DataController.
+ *
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+public class SampleBuildBenchmark {
+    private static final String PACKAGE_NAME = "com.huawei.healthkit.demo";
+
+    private static final long INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
+    // Points per SampleSet: a single point as in insertData, one day of 5-minute points as in insertBulkData
+    @Param({"1", "288"})
+    private int points;
+
+    private long startTime;
+
+    private FakeDataController dataController;
+
+    @Setup
+    public void setUp() {
+        startTime = TimeUnit.DAYS.toMillis(18501);
+        dataController = new FakeDataController();
+    }
+
+    /**
+     * Same steps as insertData: a DataCollector, a SampleSet and DT_CONTINUOUS_STEPS_DELTA points with metadata.
+     */
+    @Benchmark
+    public SampleSet insertData() {
+        DataCollector dataCollector = new DataCollector.Builder().setPackageName(PACKAGE_NAME)
+            .setDataType(DataType.DT_CONTINUOUS_STEPS_DELTA)
+            .setDataStreamName("STEPS_DELTA")
+            .setDataGenerateType(DataCollector.DATA_TYPE_RAW)
+            .build();
+        SampleSet sampleSet = SampleSet.create(dataCollector);
+        for (int i = 0; i < points; i++) {
+            long pointStart = startTime + i * INTERVAL;
+            SamplePoint samplePoint =
+                sampleSet.createSamplePoint().setTimeInterval(pointStart, pointStart + INTERVAL, TimeUnit.MILLISECONDS);
+            samplePoint.getFieldValue(Field.FIELD_STEPS_DELTA).setIntValue(1000);
+            samplePoint.addMetadata("motion_type", "RUN");
+            sampleSet.addSample(samplePoint);
+        }
+        dataController.insert(sampleSet);
+        return sampleSet;
+    }
+
+    /**
+     * Same steps as addActivityRecord: three summary points built outside of a SampleSet and a detail SampleSet.
+     */
+    @Benchmark
+    public void addActivityRecord(Blackhole blackhole) {
+        long endTime = startTime + TimeUnit.HOURS.toMillis(1);
+        SamplePoint distanceTotalSamplePoint = new SamplePoint.Builder(collector(DataType.DT_CONTINUOUS_DISTANCE_TOTAL))
+            .build()
+            .setTimeInterval(startTime + 1L, startTime + 300000L, TimeUnit.MILLISECONDS);
+        distanceTotalSamplePoint.getFieldValue(Field.FIELD_DISTANCE).setFloatValue(400f);
+
+        SamplePoint speedTotalSamplePoint =
+            new SamplePoint.Builder(collector(DataType.POLYMERIZE_CONTINUOUS_SPEED_STATISTICS)).build()
+                .setTimeInterval(startTime + 1L, startTime + 300000L, TimeUnit.MILLISECONDS);
+        speedTotalSamplePoint.getFieldValue(Field.FIELD_AVG).setFloatValue(60.0f);
+        speedTotalSamplePoint.getFieldValue(Field.FIELD_MIN).setFloatValue(40.0f);
+        speedTotalSamplePoint.getFieldValue(Field.FIELD_MAX).setFloatValue(80.0f);
+
+        SamplePoint stepTotalSamplePoint = new SamplePoint.Builder(collector(DataType.DT_CONTINUOUS_STEPS_TOTAL))
+            .build()
+            .setTimeInterval(startTime + 1L, startTime + 300000L, TimeUnit.MILLISECONDS);
+        stepTotalSamplePoint.getFieldValue(Field.FIELD_STEPS).setIntValue(1024);
+        List<SamplePoint> dataSummary =
+            Arrays.asList(distanceTotalSamplePoint, speedTotalSamplePoint, stepTotalSamplePoint);
+
+        // The detail points split the hour of the record.
+        SampleSet sampleSet = SampleSet.create(collector(DataType.DT_INSTANTANEOUS_STEPS_RATE));
+        long detailInterval = (endTime - startTime) / points;
+        for (int i = 0; i < points; i++) {
+            long pointStart = startTime + i * detailInterval;
+            SamplePoint samplePointDetail = sampleSet.createSamplePoint()
+                .setTimeInterval(pointStart, pointStart + detailInterval, TimeUnit.MILLISECONDS);
+            samplePointDetail.getFieldValue(Field.FIELD_STEP_RATE).setFloatValue(10.0f);
+            sampleSet.addSample(samplePointDetail);
+        }
+        blackhole.consume(dataSummary);
+        blackhole.consume(sampleSet);
+    }
+
+    private static DataCollector collector(DataType dataType) {
+        return new DataCollector.Builder().setDataType(dataType)
+            .setDataGenerateType(DataCollector.DATA_TYPE_RAW)
+            .setPackageName(PACKAGE_NAME)
+            .setDataCollectorName("test1")
+            .build();
+    }
+}
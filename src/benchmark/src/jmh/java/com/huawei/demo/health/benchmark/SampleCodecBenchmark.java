@@ -0,0 +1,233 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.huawei.demo.health.data.SampleCodec;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+/**
+ * Encode and decode the real-time points of a recording, steps total and heart rate one second apart, with the
+ * SampleCodec, with Gson and with Java serialization. Gson and Java serialization go through a plain record per
+ * point, as an export would. The encoded sizes are printed once per trial; the Parcel of the Android framework is
+ * measured by SamplePointParcelBenchmark of the benchmark-android module.
+ *
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+public class SampleCodecBenchmark {
+    private static final Gson GSON = new Gson();
+
+    private static final java.lang.reflect.Type RECORD_LIST = new TypeToken<List<SampleRecord>>() { }.getType();
+
+    // Points per message: one broadcast, or five minutes of a recording
+    @Param({"1", "600"})
+    private int points;
+
+    private final List<SamplePoint> samplePoints = new ArrayList<>();
+
+    private final SampleCodec.Encoder encoder = new SampleCodec.Encoder();
+
+    private final SampleCodec.Decoder decoder = new SampleCodec.Decoder();
+
+    // Only used to create the decoded points
+    private SampleSet stepsSet;
+
+    private SampleSet heartRateSet;
+
+    private ByteBuffer encodeBuffer;
+
+    private ByteBuffer encoded;
+
+    private byte[] json;
+
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        DataCollector steps = dataCollector(DataType.DT_CONTINUOUS_STEPS_TOTAL);
+        DataCollector heartRate = dataCollector(DataType.DT_INSTANTANEOUS_HEART_RATE);
+        long startTime = TimeUnit.DAYS.toMillis(18501);
+        stepsSet = SampleSet.create(steps);
+        heartRateSet = SampleSet.create(heartRate);
+        samplePoints.clear();
+        for (int i = 0; i < points; i++) {
+            long time = startTime + (i / 2) * 1000L;
+            SamplePoint samplePoint;
+            if (i % 2 == 0) {
+                samplePoint = SampleSet.create(steps).createSamplePoint()
+                    .setTimeInterval(startTime, time + 1000L, TimeUnit.MILLISECONDS);
+                samplePoint.getFieldValue(Field.FIELD_STEPS).setIntValue(2 * i);
+            } else {
+                samplePoint = SampleSet.create(heartRate).createSamplePoint()
+                    .setSamplingTime(time, TimeUnit.MILLISECONDS);
+                samplePoint.getFieldValue(Field.FIELD_BPM).setFloatValue(120 + i % 40);
+            }
+            samplePoints.add(samplePoint);
+        }
+        encodeBuffer = ByteBuffer.allocate(64 * 1024);
+        ByteBuffer buffer = codecEncode();
+        encoded = ByteBuffer.allocate(buffer.position());
+        buffer.flip();
+        encoded.put(buffer);
+        json = gsonEncode();
+        serialized = javaEncode();
+        System.out.println(points + " points, bytes: codec " + encoded.capacity() + ", gson " + json.length
+            + ", java serialization " + serialized.length);
+    }
+
+    @Benchmark
+    public ByteBuffer codecEncode() {
+        ByteBuffer buffer = encodeBuffer;
+        buffer.clear();
+        encoder.reset();
+        SampleCodec.writeHeader(buffer);
+        for (SamplePoint samplePoint : samplePoints) {
+            encoder.encode(samplePoint, buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Read the values in place with the flyweight decoder, as a consumer that only aggregates does.
+     */
+    @Benchmark
+    public double codecDecode() {
+        ByteBuffer buffer = encoded;
+        buffer.clear();
+        SampleCodec.readHeader(buffer);
+        decoder.reset().wrap(buffer);
+        double sum = 0d;
+        while (decoder.next()) {
+            sum += decoder.getFormat(0) == Field.FORMAT_INT32 ? decoder.getInt(0) : decoder.getFloat(0);
+        }
+        return sum;
+    }
+
+    /**
+     * Decode to new SamplePoints, as the replay of the journal does.
+     */
+    @Benchmark
+    public void codecDecodeToSamplePoints(Blackhole blackhole) {
+        ByteBuffer buffer = encoded;
+        buffer.clear();
+        SampleCodec.readHeader(buffer);
+        decoder.reset().wrap(buffer);
+        while (decoder.next()) {
+            SampleSet sampleSet = decoder.getTypeId() == 0 ? stepsSet : heartRateSet;
+            blackhole.consume(decoder.toSamplePoint(sampleSet));
+        }
+    }
+
+    @Benchmark
+    public byte[] gsonEncode() {
+        return GSON.toJson(toRecords(), RECORD_LIST).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<SampleRecord> gsonDecode() {
+        return GSON.fromJson(new String(json, StandardCharsets.UTF_8), RECORD_LIST);
+    }
+
+    @Benchmark
+    public byte[] javaEncode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(toRecords());
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object javaDecode() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return input.readObject();
+        }
+    }
+
+    private ArrayList<SampleRecord> toRecords() {
+        ArrayList<SampleRecord> records = new ArrayList<>(samplePoints.size());
+        for (SamplePoint samplePoint : samplePoints) {
+            records.add(new SampleRecord(samplePoint));
+        }
+        return records;
+    }
+
+    private static DataCollector dataCollector(DataType dataType) {
+        return new DataCollector.Builder().setPackageName("com.huawei.healthkit.demo")
+            .setDataType(dataType)
+            .setDataStreamName("RECORDING")
+            .setDataGenerateType(DataCollector.DATA_TYPE_RAW)
+            .build();
+    }
+
+    /**
+     * Plain form of a point for the JSON and Java serialization baselines
+     */
+    static final class SampleRecord implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String dataType;
+
+        private long startTime;
+
+        private long endTime;
+
+        // Values by field name
+        private Map<String, Double> values;
+
+        SampleRecord(SamplePoint samplePoint) {
+            dataType = samplePoint.getDataType().getName();
+            startTime = samplePoint.getStartTime(TimeUnit.MILLISECONDS);
+            endTime = samplePoint.getEndTime(TimeUnit.MILLISECONDS);
+            values = new HashMap<>();
+            for (Field field : samplePoint.getDataType().getFields()) {
+                if (field.getFormat() == Field.FORMAT_INT32) {
+                    values.put(field.getName(), (double) samplePoint.getFieldValue(field).asIntValue());
+                } else {
+                    values.put(field.getName(), (double) samplePoint.getFieldValue(field).asFloatValue());
+                }
+            }
+        }
+    }
+}
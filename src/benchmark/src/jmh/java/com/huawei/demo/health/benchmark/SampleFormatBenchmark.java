@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.huawei.demo.health.util.SampleFormatUtil;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.Field;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+/**
+ * Measure the showSampleSet output loop of the activities, which builds the lines of every point of a query result
+ * before they reach the log console.
+ *
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+public class SampleFormatBenchmark {
+    private static final int POINTS = 288;
+
+    @Param({"DT_CONTINUOUS_STEPS_DELTA", "POLYMERIZE_CONTINUOUS_HEART_RATE_STATISTICS"})
+    private String dataType;
+
+    private SampleSet sampleSet;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        DataType type = (DataType) DataType.class.getField(dataType).get(null);
+        DataCollector dataCollector = new DataCollector.Builder().setPackageName("com.huawei.healthkit.demo")
+            .setDataType(type)
+            .setDataGenerateType(DataCollector.DATA_TYPE_RAW)
+            .build();
+        sampleSet = SampleSet.create(dataCollector);
+        long startTime = TimeUnit.DAYS.toMillis(18501);
+        long interval = TimeUnit.MINUTES.toMillis(5);
+        for (int i = 0; i < POINTS; i++) {
+            SamplePoint samplePoint = sampleSet.createSamplePoint()
+                .setTimeInterval(startTime + i * interval, startTime + (i + 1) * interval, TimeUnit.MILLISECONDS);
+            for (Field field : type.getFields()) {
+                if (field.getFormat() == Field.FORMAT_INT32) {
+                    samplePoint.getFieldValue(field).setIntValue(100 + i);
+                } else {
+                    samplePoint.getFieldValue(field).setFloatValue(60.5f + i % 40);
+                }
+            }
+            sampleSet.addSample(samplePoint);
+        }
+    }
+
+    @Benchmark
+    public void showSampleSet(Blackhole blackhole) {
+        Consumer<String> output = blackhole::consume;
+        SampleFormatUtil.showSampleSet(sampleSet, output);
+    }
+}
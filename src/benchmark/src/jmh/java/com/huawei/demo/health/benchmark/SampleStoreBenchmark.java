@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.huawei.demo.health.data.SampleStore;
+import com.huawei.hms.hihealth.data.DataCollector;
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+/**
+ * Compare the sharded SampleStore with a single synchronized map, with 1, 4 and 8 writer threads, and with
+ * three writers next to a reader of the last ten minutes.
+ * Every writer cycles over its own points of three DataTypes, one second apart, so both stores reach a steady
+ * size and a put mostly replaces a point, as a replay of the journal does.
+ *
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+public class SampleStoreBenchmark {
+    private static final DataType[] DATA_TYPES = {
+        DataType.DT_CONTINUOUS_STEPS_TOTAL, DataType.DT_INSTANTANEOUS_HEART_RATE,
+        DataType.DT_CONTINUOUS_DISTANCE_TOTAL
+    };
+
+    // Points per writer, a little more than an hour of each type
+    private static final int POINTS = 3 * 4096;
+
+    private static final long START_TIME = TimeUnit.DAYS.toMillis(18501);
+
+    private static final long READ_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final SampleStore sampleStore = new SampleStore(TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(1));
+
+    private final SynchronizedSampleMap synchronizedMap = new SynchronizedSampleMap();
+
+    private final AtomicInteger writers = new AtomicInteger();
+
+    /**
+     * Points of one writer thread. The start times of a writer are offset by its index, so writers never
+     * replace the points of each other.
+     */
+    @State(Scope.Thread)
+    public static class Writer {
+        private SamplePoint[] samplePoints;
+
+        private int next;
+
+        @Setup
+        public void setUp(SampleStoreBenchmark benchmark) {
+            int index = benchmark.writers.getAndIncrement();
+            samplePoints = new SamplePoint[POINTS];
+            for (int i = 0; i < POINTS; i++) {
+                DataType dataType = DATA_TYPES[i % DATA_TYPES.length];
+                DataCollector dataCollector = new DataCollector.Builder().setPackageName("com.huawei.healthkit.demo")
+                    .setDataType(dataType)
+                    .setDataStreamName("WRITER_" + index)
+                    .setDataGenerateType(DataCollector.DATA_TYPE_RAW)
+                    .build();
+                long time = START_TIME + (i / DATA_TYPES.length) * 1000L + index;
+                // The store does not read the values, the points are left without them.
+                samplePoints[i] = SampleSet.create(dataCollector)
+                    .createSamplePoint()
+                    .setSamplingTime(time, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        SamplePoint next() {
+            SamplePoint samplePoint = samplePoints[next];
+            next = next + 1 == samplePoints.length ? 0 : next + 1;
+            return samplePoint;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean sampleStorePut(Writer writer) {
+        return sampleStore.put(writer.next());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean sampleStorePutFourThreads(Writer writer) {
+        return sampleStore.put(writer.next());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean sampleStorePutEightThreads(Writer writer) {
+        return sampleStore.put(writer.next());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean synchronizedMapPut(Writer writer) {
+        return synchronizedMap.put(writer.next());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean synchronizedMapPutFourThreads(Writer writer) {
+        return synchronizedMap.put(writer.next());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean synchronizedMapPutEightThreads(Writer writer) {
+        return synchronizedMap.put(writer.next());
+    }
+
+    @Benchmark
+    @Group("sampleStoreMixed")
+    @GroupThreads(3)
+    public boolean sampleStoreMixedPut(Writer writer) {
+        return sampleStore.put(writer.next());
+    }
+
+    /**
+     * Read the last ten minutes of heart rate, as a chart refreshed by the UI does.
+     */
+    @Benchmark
+    @Group("sampleStoreMixed")
+    @GroupThreads(1)
+    public List<SamplePoint> sampleStoreMixedRead() {
+        long endTime = START_TIME + POINTS / DATA_TYPES.length * 1000L;
+        return sampleStore.read(DataType.DT_INSTANTANEOUS_HEART_RATE, endTime - READ_MILLIS, endTime);
+    }
+
+    @Benchmark
+    @Group("synchronizedMapMixed")
+    @GroupThreads(3)
+    public boolean synchronizedMapMixedPut(Writer writer) {
+        return synchronizedMap.put(writer.next());
+    }
+
+    @Benchmark
+    @Group("synchronizedMapMixed")
+    @GroupThreads(1)
+    public List<SamplePoint> synchronizedMapMixedRead() {
+        long endTime = START_TIME + POINTS / DATA_TYPES.length * 1000L;
+        return synchronizedMap.read(DataType.DT_INSTANTANEOUS_HEART_RATE, endTime - READ_MILLIS, endTime);
+    }
+
+    /**
+     * Baseline: all types in one map behind one lock, points of a type in a TreeMap keyed by start time.
+     */
+    static final class SynchronizedSampleMap {
+        private final Map<String, TreeMap<Long, SamplePoint>> samplePoints = new HashMap<>();
+
+        synchronized boolean put(SamplePoint samplePoint) {
+            TreeMap<Long, SamplePoint> points = samplePoints.get(samplePoint.getDataType().getName());
+            if (points == null) {
+                points = new TreeMap<>();
+                samplePoints.put(samplePoint.getDataType().getName(), points);
+            }
+            return points.put(samplePoint.getStartTime(TimeUnit.MILLISECONDS), samplePoint) == null;
+        }
+
+        synchronized List<SamplePoint> read(DataType dataType, long startTime, long endTime) {
+            TreeMap<Long, SamplePoint> points = samplePoints.get(dataType.getName());
+            if (points == null) {
+                return new ArrayList<>();
+            }
+            return new ArrayList<>(points.subMap(startTime, true, endTime, false).values());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.benchmark;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.huawei.demo.health.util.TimeFormatUtil;
+
+/**
+ * Compare TimeFormatUtil with the SimpleDateFormat created per call that the activities used to print the start
+ * and end time of every SamplePoint. A SampleSet of POINTS 5-minute points is formatted per operation.
+ *
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+public class TimeFormatBenchmark {
+    private static final int POINTS = 288;
+
+    private static final String TIME_STRING = "2020-08-27 09:05:00";
+
+    private long[] times;
+
+    private StringBuilder builder;
+
+    @Setup
+    public void setUp() throws ParseException {
+        long start = TimeFormatUtil.parse("2020-08-27 00:00:00");
+        times = new long[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            times[i] = start + i * TimeUnit.MINUTES.toMillis(5);
+        }
+        builder = new StringBuilder(64);
+    }
+
+    /**
+     * Previous approach of showSamplePoint: a new SimpleDateFormat and Date for every point.
+     */
+    @Benchmark
+    public void simpleDateFormatPerPoint(Blackhole blackhole) {
+        for (long time : times) {
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+            blackhole.consume(dateFormat.format(new Date(time)));
+        }
+    }
+
+    /**
+     * Previous approach of showSampleSet: one SimpleDateFormat per SampleSet.
+     */
+    @Benchmark
+    public void simpleDateFormatPerSet(Blackhole blackhole) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        for (long time : times) {
+            blackhole.consume(dateFormat.format(new Date(time)));
+        }
+    }
+
+    @Benchmark
+    public void timeFormatUtil(Blackhole blackhole) {
+        for (long time : times) {
+            blackhole.consume(TimeFormatUtil.format(time));
+        }
+    }
+
+    /**
+     * Format into a reused builder, as a log line would be built.
+     */
+    @Benchmark
+    public void timeFormatUtilReusedBuilder(Blackhole blackhole) {
+        for (long time : times) {
+            builder.setLength(0);
+            blackhole.consume(TimeFormatUtil.formatTo(time, builder.append("Start: ")));
+        }
+    }
+
+    /**
+     * Contended case: all threads share the cached day.
+     */
+    @Benchmark
+    @Threads(4)
+    public void timeFormatUtilFourThreads(Blackhole blackhole) {
+        for (long time : times) {
+            blackhole.consume(TimeFormatUtil.format(time));
+        }
+    }
+
+    @Benchmark
+    public Date simpleDateFormatParse() throws ParseException {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse(TIME_STRING);
+    }
+
+    @Benchmark
+    public long timeFormatUtilParse() throws ParseException {
+        return TimeFormatUtil.parse(TIME_STRING);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.benchmark.fake;
+
+import java.util.List;
+
+import com.huawei.hms.hihealth.data.DataType;
+import com.huawei.hms.hihealth.data.SamplePoint;
+import com.huawei.hms.hihealth.data.SampleSet;
+
+/**
+ * Offline stand-in of the DataController for the JVM benchmarks. An insertion checks the SampleSet as the SDK does
+ * before the request is sent, and counts its points instead of sending them to the Health platform.
+ *
+ * @since 2026-10-18
+ */
+public final class FakeDataController {
+    // Same limit as the SDK, checked on the client before the request is sent
+    private static final int MAX_POINTS_PER_INSERT = 1000;
+
+    private long insertedSets;
+
+    private long insertedPoints;
+
+    /**
+     * Insert a SampleSet.
+     *
+     * @param sampleSet sampling dataset to insert
+     * @throws IllegalArgumentException if the SampleSet would be rejected by the SDK
+     */
+    public void insert(SampleSet sampleSet) {
+        List<SamplePoint> samplePoints = sampleSet.getSamplePoints();
+        if (samplePoints.isEmpty() || samplePoints.size() > MAX_POINTS_PER_INSERT) {
+            throw new IllegalArgumentException("Invalid sample point count " + samplePoints.size());
+        }
+        DataType dataType = sampleSet.getDataType();
+        for (SamplePoint samplePoint : samplePoints) {
+            if (samplePoint.getDataType() != dataType) {
+                throw new IllegalArgumentException("Sample point type does not match the sample set");
+            }
+        }
+        insertedSets++;
+        insertedPoints += samplePoints.size();
+    }
+
+    public long getInsertedSets() {
+        return insertedSets;
+    }
+
+    public long getInsertedPoints() {
+        return insertedPoints;
+    }
+}
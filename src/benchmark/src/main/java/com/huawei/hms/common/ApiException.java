@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.hms.common;
+
+/**
+ * JVM fake of the HMS ApiException: a failure with a status code, the message is the code as text.
+ *
+ * @since 2026-10-18
+ */
+public class ApiException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public ApiException(int statusCode) {
+        super(Integer.toString(statusCode));
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
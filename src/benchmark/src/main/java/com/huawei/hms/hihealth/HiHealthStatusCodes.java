@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.hms.hihealth;
+
+import java.util.Locale;
+
+/**
+ * JVM fake of the Health Kit HiHealthStatusCodes, with the codes used by the app.
+ *
+ * @since 2026-10-18
+ */
+public final class HiHealthStatusCodes {
+    public static final int UNKNOWN_AUTH_ERROR = 50005;
+
+    public static final int NO_NETWORK = 50030;
+
+    public static final int NON_HEALTH_USER = 50038;
+
+    public static final int UNTRUST_COUNTRY_CODE = 50040;
+
+    public static final int HEALTH_APP_NOT_AUTHORISED = 50059;
+
+    public static final int HUAWEI_ID_SIGNIN_ERROR = 50063;
+
+    public static final int WORK_OUT_TIME_OUT = 50065;
+
+    public static final int WORK_OUT_BE_OCCUPIED = 50066;
+
+    private static final String MESSAGE_FORMAT = "%s (status code %d)";
+
+    private HiHealthStatusCodes() {
+    }
+
+    /**
+     * Get the message of a status code. The text is built on every call, like an uncached lookup.
+     *
+     * @param statusCode status code
+     * @return message of the code, or null for an unknown code
+     */
+    public static String getStatusCodeMessage(int statusCode) {
+        switch (statusCode) {
+            case UNKNOWN_AUTH_ERROR:
+                return String.format(Locale.ENGLISH, MESSAGE_FORMAT, "Scope permission check failed", statusCode);
+            case NO_NETWORK:
+                return String.format(Locale.ENGLISH, MESSAGE_FORMAT, "No network", statusCode);
+            case NON_HEALTH_USER:
+                return String.format(Locale.ENGLISH, MESSAGE_FORMAT, "Not a Huawei Health user", statusCode);
+            default:
+                return null;
+        }
+    }
+}
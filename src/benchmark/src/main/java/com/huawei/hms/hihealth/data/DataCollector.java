@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.hms.hihealth.data;
+
+/**
+ * JVM fake of the Health Kit DataCollector. The package name is given as a string, there is no Context on the JVM.
+ *
+ * @since 2026-10-18
+ */
+public final class DataCollector {
+    public static final int DATA_TYPE_RAW = 0;
+
+    public static final int DATA_TYPE_DERIVED = 1;
+
+    private final DataType dataType;
+
+    private final String packageName;
+
+    private final String dataStreamName;
+
+    private final String dataCollectorName;
+
+    private final int dataGenerateType;
+
+    private DataCollector(Builder builder) {
+        this.dataType = builder.dataType;
+        this.packageName = builder.packageName;
+        this.dataStreamName = builder.dataStreamName;
+        this.dataCollectorName = builder.dataCollectorName;
+        this.dataGenerateType = builder.dataGenerateType;
+    }
+
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getDataStreamName() {
+        return dataStreamName;
+    }
+
+    public String getDataCollectorName() {
+        return dataCollectorName;
+    }
+
+    public int getDataGenerateType() {
+        return dataGenerateType;
+    }
+
+    public String getDataStreamId() {
+        return dataGenerateType + ":" + dataType.getName() + ":" + packageName + ":" + dataStreamName;
+    }
+
+    /**
+     * Builder of the DataCollector
+     */
+    public static final class Builder {
+        private DataType dataType;
+
+        private String packageName = "";
+
+        private String dataStreamName = "";
+
+        private String dataCollectorName = "";
+
+        private int dataGenerateType = DATA_TYPE_RAW;
+
+        public Builder setDataType(DataType dataType) {
+            this.dataType = dataType;
+            return this;
+        }
+
+        public Builder setPackageName(String packageName) {
+            this.packageName = packageName;
+            return this;
+        }
+
+        public Builder setDataStreamName(String dataStreamName) {
+            this.dataStreamName = dataStreamName;
+            return this;
+        }
+
+        public Builder setDataCollectorName(String dataCollectorName) {
+            this.dataCollectorName = dataCollectorName;
+            return this;
+        }
+
+        public Builder setDataGenerateType(int dataGenerateType) {
+            this.dataGenerateType = dataGenerateType;
+            return this;
+        }
+
+        public DataCollector build() {
+            if (dataType == null) {
+                throw new IllegalStateException("Must set data type");
+            }
+            return new DataCollector(this);
+        }
+    }
+}
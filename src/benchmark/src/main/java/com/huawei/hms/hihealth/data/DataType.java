@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.hms.hihealth.data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JVM fake of the Health Kit DataType, with the types used by the benchmarks.
+ *
+ * @since 2026-10-18
+ */
+public final class DataType {
+    public static final DataType DT_CONTINUOUS_STEPS_DELTA =
+        new DataType("com.huawei.continuous.steps.delta", Field.FIELD_STEPS_DELTA);
+
+    public static final DataType DT_CONTINUOUS_STEPS_TOTAL =
+        new DataType("com.huawei.continuous.steps.total", Field.FIELD_STEPS);
+
+    public static final DataType DT_CONTINUOUS_DISTANCE_TOTAL =
+        new DataType("com.huawei.continuous.distance.total", Field.FIELD_DISTANCE);
+
+    public static final DataType DT_INSTANTANEOUS_STEPS_RATE =
+        new DataType("com.huawei.instantaneous.steps.rate", Field.FIELD_STEP_RATE);
+
+    public static final DataType DT_INSTANTANEOUS_HEART_RATE =
+        new DataType("com.huawei.instantaneous.heart_rate", Field.FIELD_BPM);
+
+    public static final DataType POLYMERIZE_CONTINUOUS_SPEED_STATISTICS = new DataType(
+        "com.huawei.continuous.speed.statistics", Field.FIELD_AVG, Field.FIELD_MAX, Field.FIELD_MIN);
+
+    public static final DataType POLYMERIZE_CONTINUOUS_HEART_RATE_STATISTICS = new DataType(
+        "com.huawei.continuous.heart_rate.statistics", Field.FIELD_AVG, Field.FIELD_MAX, Field.FIELD_MIN);
+
+    private final String name;
+
+    private final List<Field> fields;
+
+    public DataType(String name, Field... fields) {
+        this.name = name;
+        this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    /**
+     * Get the position of a field in the values of a SamplePoint.
+     *
+     * @param field field of this type
+     * @return index of the field
+     * @throws IllegalArgumentException if the field is not a field of this type, as the SDK does
+     */
+    public int indexOf(Field field) {
+        int index = fields.indexOf(field);
+        if (index < 0) {
+            throw new IllegalArgumentException(field + " not a field of " + name);
+        }
+        return index;
+    }
+}
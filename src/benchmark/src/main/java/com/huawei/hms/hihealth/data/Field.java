@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.hms.hihealth.data;
+
+/**
+ * JVM fake of the Health Kit Field, with the fields used by the benchmarks.
+ *
+ * @since 2026-10-18
+ */
+public final class Field {
+    public static final int FORMAT_INT32 = 1;
+
+    public static final int FORMAT_FLOAT = 2;
+
+    public static final int FORMAT_STRING = 3;
+
+    public static final int FORMAT_MAP = 4;
+
+    public static final int FORMAT_LONG = 5;
+
+    public static final int FORMAT_DOUBLE = 6;
+
+    public static final Field FIELD_STEPS_DELTA = new Field("steps_delta", FORMAT_INT32);
+
+    public static final Field FIELD_STEPS = new Field("steps", FORMAT_INT32);
+
+    public static final Field FIELD_BPM = new Field("bpm", FORMAT_FLOAT);
+
+    public static final Field FIELD_DISTANCE = new Field("distance", FORMAT_FLOAT);
+
+    public static final Field FIELD_STEP_RATE = new Field("step_rate", FORMAT_FLOAT);
+
+    public static final Field FIELD_AVG = new Field("avg", FORMAT_FLOAT);
+
+    public static final Field FIELD_MAX = new Field("max", FORMAT_FLOAT);
+
+    public static final Field FIELD_MIN = new Field("min", FORMAT_FLOAT);
+
+    private final String name;
+
+    private final int format;
+
+    public Field(String name, int format) {
+        this.name = name;
+        this.format = format;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getFormat() {
+        return format;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + format + ")";
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.hms.hihealth.data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM fake of the Health Kit SamplePoint. Times are kept in nanoseconds and the values in field order, as the SDK
+ * does, so that the conversions and lookups of the benchmarked code are not optimized away.
+ *
+ * @since 2026-10-18
+ */
+public final class SamplePoint {
+    private final DataCollector dataCollector;
+
+    private final Value[] values;
+
+    private long startTimeNanos;
+
+    private long endTimeNanos;
+
+    private Map<String, String> metadata;
+
+    SamplePoint(DataCollector dataCollector) {
+        this.dataCollector = dataCollector;
+        DataType dataType = dataCollector.getDataType();
+        values = new Value[dataType.getFields().size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new Value(dataType.getFields().get(i).getFormat());
+        }
+    }
+
+    public DataType getDataType() {
+        return dataCollector.getDataType();
+    }
+
+    public DataCollector getDataCollector() {
+        return dataCollector;
+    }
+
+    public SamplePoint setTimeInterval(long startTime, long endTime, TimeUnit timeUnit) {
+        startTimeNanos = timeUnit.toNanos(startTime);
+        endTimeNanos = timeUnit.toNanos(endTime);
+        return this;
+    }
+
+    public SamplePoint setSamplingTime(long time, TimeUnit timeUnit) {
+        return setTimeInterval(time, time, timeUnit);
+    }
+
+    public long getStartTime(TimeUnit timeUnit) {
+        return timeUnit.convert(startTimeNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getEndTime(TimeUnit timeUnit) {
+        return timeUnit.convert(endTimeNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getSamplingTime(TimeUnit timeUnit) {
+        return getStartTime(timeUnit);
+    }
+
+    public Value getFieldValue(Field field) {
+        return values[getDataType().indexOf(field)];
+    }
+
+    public void addMetadata(String key, String value) {
+        if (metadata == null) {
+            metadata = new HashMap<>();
+        }
+        metadata.put(key, value);
+    }
+
+    public Map<String, String> getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Builder of a SamplePoint outside of a SampleSet, as used for the summary of an ActivityRecord
+     */
+    public static final class Builder {
+        private final DataCollector dataCollector;
+
+        public Builder(DataCollector dataCollector) {
+            this.dataCollector = dataCollector;
+        }
+
+        public SamplePoint build() {
+            return new SamplePoint(dataCollector);
+        }
+    }
+}
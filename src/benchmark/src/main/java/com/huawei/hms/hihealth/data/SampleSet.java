@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.hms.hihealth.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM fake of the Health Kit SampleSet. Checks the added points as the SDK does before an insertion.
+ *
+ * @since 2026-10-18
+ */
+public final class SampleSet {
+    private final DataCollector dataCollector;
+
+    private final List<SamplePoint> samplePoints = new ArrayList<>();
+
+    private SampleSet(DataCollector dataCollector) {
+        this.dataCollector = dataCollector;
+    }
+
+    public static SampleSet create(DataCollector dataCollector) {
+        return new SampleSet(dataCollector);
+    }
+
+    public SamplePoint createSamplePoint() {
+        return new SamplePoint(dataCollector);
+    }
+
+    public void addSample(SamplePoint samplePoint) {
+        if (samplePoint.getDataCollector() != dataCollector) {
+            throw new IllegalArgumentException("Sample point data collector does not match the sample set");
+        }
+        if (samplePoint.getStartTime(TimeUnit.NANOSECONDS) > samplePoint.getEndTime(TimeUnit.NANOSECONDS)) {
+            throw new IllegalArgumentException("Sample point start time is after its end time");
+        }
+        samplePoints.add(samplePoint);
+    }
+
+    public void addSamples(List<SamplePoint> points) {
+        for (SamplePoint samplePoint : points) {
+            addSample(samplePoint);
+        }
+    }
+
+    public List<SamplePoint> getSamplePoints() {
+        return Collections.unmodifiableList(samplePoints);
+    }
+
+    public DataCollector getDataCollector() {
+        return dataCollector;
+    }
+
+    public DataType getDataType() {
+        return dataCollector.getDataType();
+    }
+
+    public boolean isEmpty() {
+        return samplePoints.isEmpty();
+    }
+}
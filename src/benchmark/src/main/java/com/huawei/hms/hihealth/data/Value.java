@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.hms.hihealth.data;
+
+/**
+ * JVM fake of the Health Kit Value: a field value of a SamplePoint, unset until one of the setters is called.
+ *
+ * @since 2026-10-18
+ */
+public final class Value {
+    private final int format;
+
+    private boolean isSet;
+
+    private long longValue;
+
+    private double doubleValue;
+
+    private String stringValue;
+
+    public Value(int format) {
+        this.format = format;
+    }
+
+    public int getFormat() {
+        return format;
+    }
+
+    public boolean isSet() {
+        return isSet;
+    }
+
+    public int asIntValue() {
+        return (int) longValue;
+    }
+
+    public long asLongValue() {
+        return longValue;
+    }
+
+    public float asFloatValue() {
+        return (float) doubleValue;
+    }
+
+    public double asDoubleValue() {
+        return doubleValue;
+    }
+
+    public String asStringValue() {
+        return stringValue;
+    }
+
+    public void setIntValue(int value) {
+        longValue = value;
+        isSet = true;
+    }
+
+    public void setLongValue(long value) {
+        longValue = value;
+        isSet = true;
+    }
+
+    public void setFloatValue(float value) {
+        doubleValue = value;
+        isSet = true;
+    }
+
+    public void setDoubleValue(double value) {
+        doubleValue = value;
+        isSet = true;
+    }
+
+    public void setStringValue(String value) {
+        stringValue = value;
+        isSet = true;
+    }
+
+    @Override
+    public String toString() {
+        if (!isSet) {
+            return "unset";
+        }
+        switch (format) {
+            case Field.FORMAT_FLOAT:
+                return Float.toString((float) doubleValue);
+            case Field.FORMAT_DOUBLE:
+                return Double.toString(doubleValue);
+            case Field.FORMAT_STRING:
+                return stringValue;
+            default:
+                return Long.toString(longValue);
+        }
+    }
+}
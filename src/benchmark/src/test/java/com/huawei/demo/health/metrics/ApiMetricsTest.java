@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Series counts and snapshot order of ApiMetrics.
+ *
+ * @since 2026-10-18
+ */
+public class ApiMetricsTest {
+    @Test
+    public void successesAndFailuresAreCountedPerApiAndDataType() {
+        ApiMetrics metrics = new ApiMetrics();
+        metrics.recordSuccess("read", "DT_CONTINUOUS_STEPS_DELTA", TimeUnit.MILLISECONDS.toNanos(20), 100);
+        metrics.recordSuccess("read", "DT_CONTINUOUS_STEPS_DELTA", TimeUnit.MILLISECONDS.toNanos(40), 300);
+        metrics.recordFailure("read", "DT_CONTINUOUS_STEPS_DELTA", TimeUnit.MILLISECONDS.toNanos(500));
+        metrics.recordFailure("insert", null, TimeUnit.MILLISECONDS.toNanos(10));
+
+        List<ApiMetrics.SeriesSnapshot> snapshots = metrics.snapshot();
+
+        assertEquals(2, snapshots.size());
+        ApiMetrics.SeriesSnapshot insert = snapshots.get(0);
+        assertEquals("insert", insert.getApi());
+        assertEquals(ApiMetrics.NO_DATA_TYPE, insert.getDataType());
+        assertEquals(0, insert.getSuccesses());
+        assertEquals(1, insert.getFailures());
+        assertEquals(0, insert.getPayload().getCount());
+        ApiMetrics.SeriesSnapshot read = snapshots.get(1);
+        assertEquals(2, read.getSuccesses());
+        assertEquals(1, read.getFailures());
+        // Failures record their latency, successes their latency and payload.
+        assertEquals(3, read.getLatency().getCount());
+        assertEquals(2, read.getPayload().getCount());
+        assertEquals(400, read.getPayload().getSum());
+    }
+
+    @Test
+    public void snapshotIsSortedByApiThenDataType() {
+        ApiMetrics metrics = new ApiMetrics();
+        metrics.recordSuccess("read", "DT_INSTANTANEOUS_HEART_RATE", 1, 1);
+        metrics.recordSuccess("insert", "DT_CONTINUOUS_STEPS_DELTA", 1, 1);
+        metrics.recordSuccess("read", "DT_CONTINUOUS_STEPS_DELTA", 1, 1);
+        metrics.recordSuccess("delete", null, 1, 1);
+
+        List<ApiMetrics.SeriesSnapshot> snapshots = metrics.snapshot();
+
+        assertEquals(4, snapshots.size());
+        assertEquals("delete/-", key(snapshots.get(0)));
+        assertEquals("insert/DT_CONTINUOUS_STEPS_DELTA", key(snapshots.get(1)));
+        assertEquals("read/DT_CONTINUOUS_STEPS_DELTA", key(snapshots.get(2)));
+        assertEquals("read/DT_INSTANTANEOUS_HEART_RATE", key(snapshots.get(3)));
+    }
+
+    @Test
+    public void resetForgetsEverySeries() {
+        ApiMetrics metrics = new ApiMetrics();
+        metrics.recordSuccess("read", null, 1, 1);
+        metrics.reset();
+
+        assertEquals(0, metrics.snapshot().size());
+    }
+
+    private static String key(ApiMetrics.SeriesSnapshot snapshot) {
+        return snapshot.getApi() + "/" + snapshot.getDataType();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020. Huawei Technologies Co., Ltd. All rights reserved.
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.huawei.demo.health.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Bucket boundaries and percentiles of Histogram.
+ *
+ * @since 2026-10-18
+ */
+public class HistogramTest {
+    @Test
+    public void valuesBelowSubBucketsAreExact() {
+        assertEquals(0, Histogram.indexOf(0));
+        assertEquals(63, Histogram.indexOf(63));
+        assertEquals(63, Histogram.highestValueAt(63));
+    }
+
+    @Test
+    public void bucketsAboveSubBucketsHoldTwoValuesPerBucketInTheFirstPowerOfTwo() {
+        assertEquals(64, Histogram.indexOf(64));
+        assertEquals(64, Histogram.indexOf(65));
+        assertEquals(65, Histogram.highestValueAt(64));
+        assertEquals(65, Histogram.indexOf(66));
+        assertEquals(95, Histogram.indexOf(127));
+        assertEquals(127, Histogram.highestValueAt(95));
+        assertEquals(96, Histogram.indexOf(128));
+        assertEquals(131, Histogram.highestValueAt(96));
+    }
+
+    @Test
+    public void everyValueIsAtMostTheHighestValueOfItsBucket() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = Histogram.indexOf(value);
+            long highest = Histogram.highestValueAt(index);
+            assertTrue(value <= highest);
+            assertTrue(index == 0 || Histogram.highestValueAt(index - 1) < value);
+        }
+    }
+
+    @Test
+    public void emptySnapshotHasNoValues() {
+        Histogram.Snapshot snapshot = new Histogram(1000).snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+        assertEquals(0d, snapshot.getMean(), 0d);
+    }
+
+    @Test
+    public void singleValueIsEveryPercentile() {
+        Histogram histogram = new Histogram(1000);
+        histogram.record(100);
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1, snapshot.getCount());
+        // The bucket of 100 holds 100 to 101, the percentiles are capped by the maximum.
+        assertEquals(100, snapshot.getValueAtPercentile(0));
+        assertEquals(100, snapshot.getValueAtPercentile(50));
+        assertEquals(100, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void percentilesOutsideTheRangeAreClamped() {
+        Histogram histogram = new Histogram(1000);
+        for (long value = 1; value <= 10; value++) {
+            histogram.record(value);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1, snapshot.getValueAtPercentile(-5));
+        assertEquals(5, snapshot.getValueAtPercentile(50));
+        assertEquals(10, snapshot.getValueAtPercentile(100));
+        assertEquals(10, snapshot.getValueAtPercentile(250));
+        assertEquals(5.5d, snapshot.getMean(), 0d);
+    }
+
+    @Test
+    public void negativeAndOverRangeValuesAreClamped() {
+        Histogram histogram = new Histogram(1000);
+        histogram.record(-7);
+        histogram.record(5000);
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(2, snapshot.getCount());
+        assertEquals(1000, snapshot.getSum());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+        assertEquals(1000, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void resetForgetsTheValues() {
+        Histogram histogram = new Histogram(1000);
+        histogram.record(42);
+        histogram.reset();
+
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getMax());
+    }
+}